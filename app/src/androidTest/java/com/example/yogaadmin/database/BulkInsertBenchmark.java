@@ -0,0 +1,88 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.yogaadmin.models.ClassInstance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Throughput (rows/sec) of one insert per call against the batched,
+ * single-transaction insertClassInstances.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BulkInsertBenchmark {
+    private static final String TAG = "BulkInsertBenchmark";
+    private static final String DB_NAME = "benchmark_bulk_insert.db";
+    private static final int CLASSES = 50;
+    private static final int INSTANCES = 5_000;
+
+    private Context context;
+    private DatabaseHelper helper;
+    private long[] yogaClassIds;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME);
+        yogaClassIds = helper.insertYogaClasses(TestData.yogaClasses(CLASSES));
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void batchInsertReturnsIdsInOrder() {
+        assertEquals(CLASSES, yogaClassIds.length);
+        for (int i = 0; i < CLASSES; i++) {
+            assertTrue(yogaClassIds[i] > 0);
+            assertEquals(TestData.yogaClass(i).getDescription(),
+                    helper.getYogaClassById(yogaClassIds[i]).getDescription());
+        }
+    }
+
+    @Test
+    public void batchInsertOutperformsLoopOfInserts() {
+        List<ClassInstance> instances = TestData.classInstances(yogaClassIds, INSTANCES);
+
+        // Before: one implicit transaction (and fsync) per row
+        long start = System.nanoTime();
+        for (ClassInstance instance : instances) {
+            assertTrue(helper.insertClassInstance(instance) > 0);
+        }
+        double loopRowsPerSecond = rowsPerSecond(INSTANCES, System.nanoTime() - start);
+
+        // After: one transaction, one compiled statement
+        start = System.nanoTime();
+        long[] ids = helper.insertClassInstances(instances);
+        double batchRowsPerSecond = rowsPerSecond(INSTANCES, System.nanoTime() - start);
+
+        assertEquals(INSTANCES, ids.length);
+        for (long id : ids) {
+            assertTrue(id > 0);
+        }
+
+        Log.i(TAG, String.format("%d class instances: loop of inserts = %.0f rows/s, batch = %.0f rows/s",
+                INSTANCES, loopRowsPerSecond, batchRowsPerSecond));
+        assertTrue(batchRowsPerSecond > loopRowsPerSecond);
+    }
+
+    private static double rowsPerSecond(int rows, long nanos) {
+        return rows * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.transfer.CatalogExporter;
+import com.example.yogaadmin.transfer.CatalogFormat;
+import com.example.yogaadmin.transfer.CatalogImporter;
+import com.example.yogaadmin.transfer.ImportResult;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Time and peak heap of a streaming gzip backup of 1M class instances, and of
+ * restoring it into an empty database with batched inserts.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CatalogBackupBenchmark {
+    private static final String TAG = "CatalogBackupBenchmark";
+    private static final String DB_NAME = "benchmark_backup.db";
+    private static final String RESTORE_DB_NAME = "benchmark_backup_restore.db";
+    private static final int CLASSES = 1_000;
+    private static final int INSTANCES_PER_CLASS = 1_000;
+    private static final int INSERT_CHUNK = 10_000;
+    // Far below the ~100 MB that 1M instances take as objects, so this fails if rows are accumulated
+    private static final long MAX_HEAP_GROWTH_BYTES = 32L * 1024 * 1024;
+
+    private Context context;
+    private DatabaseHelper helper;
+    private DatabaseHelper restoreHelper;
+    private File backupFile;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        context.deleteDatabase(RESTORE_DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME);
+        restoreHelper = new DatabaseHelper(context, RESTORE_DB_NAME);
+        backupFile = new File(context.getCacheDir(), "benchmark_backup.json.gz");
+
+        long[] yogaClassIds = helper.insertYogaClasses(TestData.yogaClasses(CLASSES));
+        List<ClassInstance> chunk = new ArrayList<>(INSERT_CHUNK);
+        for (long yogaClassId : yogaClassIds) {
+            for (int week = 0; week < INSTANCES_PER_CLASS; week++) {
+                chunk.add(TestData.classInstance(yogaClassId, week));
+                if (chunk.size() == INSERT_CHUNK) {
+                    helper.insertClassInstances(chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        helper.insertClassInstances(chunk);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        restoreHelper.close();
+        context.deleteDatabase(DB_NAME);
+        context.deleteDatabase(RESTORE_DB_NAME);
+        backupFile.delete();
+    }
+
+    @Test
+    public void exportAndRestore_millionInstances() throws Exception {
+        int instances = CLASSES * INSTANCES_PER_CLASS;
+
+        // Export, sampling the heap while it runs
+        HeapSampler sampler = new HeapSampler();
+        CatalogExporter exporter = new CatalogExporter();
+        long start = System.nanoTime();
+        boolean complete = exporter.export(helper.queryYogaClassesWithInstances(),
+                new FileOutputStream(backupFile), null);
+        long exportMillis = (System.nanoTime() - start) / 1_000_000;
+        long exportHeapGrowth = sampler.stop();
+
+        assertTrue(complete);
+        assertEquals(CLASSES, exporter.getClassesExported());
+        assertEquals(instances, exporter.getInstancesExported());
+
+        // Restore into an empty database
+        sampler = new HeapSampler();
+        CatalogImporter importer = new CatalogImporter(restoreHelper::insertYogaClassesWithInstances);
+        start = System.nanoTime();
+        ImportResult result = importer.importFrom(new FileInputStream(backupFile), backupFile.length(),
+                CatalogFormat.Type.JSON, null);
+        long restoreMillis = (System.nanoTime() - start) / 1_000_000;
+        long restoreHeapGrowth = sampler.stop();
+
+        assertTrue(result.isComplete());
+        assertEquals(0, result.getRejectedRows());
+        assertEquals(CLASSES, DatabaseUtils.queryNumEntries(restoreHelper.getReadableDatabase(),
+                DatabaseContract.YogaClassEntry.TABLE_NAME));
+        assertEquals(instances, DatabaseUtils.queryNumEntries(restoreHelper.getReadableDatabase(),
+                DatabaseContract.ClassInstanceEntry.TABLE_NAME));
+
+        Log.i(TAG, String.format("%d classes / %d instances: export %d ms, peak heap +%d KB, file %d KB;"
+                        + " restore %d ms, peak heap +%d KB",
+                CLASSES, instances, exportMillis, exportHeapGrowth / 1024, backupFile.length() / 1024,
+                restoreMillis, restoreHeapGrowth / 1024));
+        assertTrue(exportHeapGrowth < MAX_HEAP_GROWTH_BYTES);
+        assertTrue(restoreHeapGrowth < MAX_HEAP_GROWTH_BYTES);
+    }
+
+    @Test
+    public void restoredRows_matchOriginal() throws Exception {
+        new CatalogExporter().export(helper.queryYogaClassesWithInstances(), new FileOutputStream(backupFile), null);
+        new CatalogImporter(restoreHelper::insertYogaClassesWithInstances).importFrom(
+                new FileInputStream(backupFile), backupFile.length(), CatalogFormat.Type.JSON, null);
+
+        List<ClassInstance> original = helper.getClassInstancesPage(1, Long.MIN_VALUE, 0, 10);
+        List<ClassInstance> restored = restoreHelper.getClassInstancesPage(1, Long.MIN_VALUE, 0, 10);
+        assertEquals(original.size(), restored.size());
+        for (int i = 0; i < original.size(); i++) {
+            assertEquals(original.get(i).getDate(), restored.get(i).getDate());
+            assertEquals(original.get(i).getTeacher(), restored.get(i).getTeacher());
+            assertEquals(original.get(i).getComments(), restored.get(i).getComments());
+        }
+        assertEquals(helper.getYogaClassById(1).getDescription(), restoreHelper.getYogaClassById(1).getDescription());
+    }
+
+    // Highest used-heap reading above the starting point, polled from a background thread
+    private static class HeapSampler {
+        private final Runtime runtime = Runtime.getRuntime();
+        private final long baseline;
+        private volatile boolean running = true;
+        private volatile long peak;
+        private final Thread thread;
+
+        HeapSampler() {
+            runtime.gc();
+            baseline = usedHeap();
+            peak = baseline;
+            thread = new Thread(() -> {
+                while (running) {
+                    peak = Math.max(peak, usedHeap());
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            thread.start();
+        }
+
+        long stop() throws InterruptedException {
+            running = false;
+            thread.join();
+            return Math.max(0, Math.max(peak, usedHeap()) - baseline);
+        }
+
+        private long usedHeap() {
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.ReportRow;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Aggregates, date ranges and write invalidation of ClassReports.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ClassReportsTest {
+    private static final long ALL_FROM = Long.MIN_VALUE;
+    private static final long ALL_TO = Long.MAX_VALUE;
+
+    private DatabaseHelper helper;
+    private ClassReports reports;
+    // TestData classes 0 (Flow, 45 min, 10 x 5), 1 (Aerial, 60 min) and 3 (Flow, 90 min, 13 x 8)
+    private long flowClass;
+    private long aerialClass;
+    private long longFlowClass;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new DatabaseHelper(context, null);
+        reports = new ClassReports(helper);
+        flowClass = helper.insertYogaClass(TestData.yogaClass(0));
+        aerialClass = helper.insertYogaClass(TestData.yogaClass(1));
+        longFlowClass = helper.insertYogaClass(TestData.yogaClass(3));
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+    }
+
+    @Test
+    public void byClassType_sumsInstancesMinutesAndRevenue() {
+        helper.insertClassInstance(instance(flowClass, 0, "Teacher 0"));
+        helper.insertClassInstance(instance(flowClass, 1, "Teacher 0"));
+        helper.insertClassInstance(instance(longFlowClass, 0, "Teacher 3"));
+
+        List<ReportRow> rows = reports.getReport(ClassReports.GroupBy.CLASS_TYPE, ALL_FROM, ALL_TO);
+
+        assertEquals(2, rows.size());
+        assertRow(rows.get(0), "Aerial Yoga", 1, 0, 0, 0);
+        assertRow(rows.get(1), "Flow Yoga", 2, 3, 45 * 2 + 90, 10 * 5 * 2 + 13 * 8);
+    }
+
+    @Test
+    public void byTeacher_creditsSubstituteWithTheInstance() {
+        helper.insertClassInstance(instance(flowClass, 0, "Teacher 0"));
+        helper.insertClassInstance(instance(flowClass, 1, "Cover"));
+
+        List<ReportRow> rows = reports.getReport(ClassReports.GroupBy.TEACHER, ALL_FROM, ALL_TO);
+
+        assertEquals(4, rows.size());
+        assertRow(rows.get(0), "Cover", 0, 1, 45, 50);
+        assertRow(rows.get(1), "Teacher 0", 1, 1, 45, 50);
+        assertEquals(3, ReportRow.total("Total", rows).getClassCount());
+        assertEquals(2, ReportRow.total("Total", rows).getInstanceCount());
+    }
+
+    @Test
+    public void range_countsOnlyInstancesInside() {
+        helper.insertClassInstance(instance(aerialClass, 0, "Teacher 1"));
+        helper.insertClassInstance(instance(aerialClass, 1, "Teacher 1"));
+        helper.insertClassInstance(instance(aerialClass, 2, "Teacher 1"));
+
+        long from = TestData.START_MILLIS + 7 * TestData.DAY_MILLIS;
+        List<ReportRow> rows = reports.getReport(ClassReports.GroupBy.CLASS_TYPE, from, from + 7 * TestData.DAY_MILLIS);
+
+        assertRow(rows.get(0), "Aerial Yoga", 1, 1, 60, 11 * 6);
+    }
+
+    @Test
+    public void cachedUntilEitherTableChanges() {
+        List<ReportRow> first = reports.getReport(ClassReports.GroupBy.CLASS_TYPE, ALL_FROM, ALL_TO);
+        assertSame(first, reports.getReport(ClassReports.GroupBy.CLASS_TYPE, ALL_FROM, ALL_TO));
+
+        helper.insertClassInstance(instance(flowClass, 0, "Teacher 0"));
+        List<ReportRow> afterInstance = reports.getReport(ClassReports.GroupBy.CLASS_TYPE, ALL_FROM, ALL_TO);
+        assertNotSame(first, afterInstance);
+        assertEquals(1, afterInstance.get(1).getInstanceCount());
+
+        helper.deleteYogaClass(aerialClass);
+        List<ReportRow> afterClass = reports.getReport(ClassReports.GroupBy.CLASS_TYPE, ALL_FROM, ALL_TO);
+        assertEquals(1, afterClass.size());
+    }
+
+    private static ClassInstance instance(long yogaClassId, int week, String teacher) {
+        return new ClassInstance(yogaClassId, new Date(TestData.START_MILLIS + week * 7 * TestData.DAY_MILLIS),
+                teacher, null);
+    }
+
+    private static void assertRow(ReportRow row, String group, int classes, int instances, long minutes,
+                                  double revenue) {
+        assertEquals(group, row.getGroup());
+        assertEquals(classes, row.getClassCount());
+        assertEquals(instances, row.getInstanceCount());
+        assertEquals(minutes, row.getScheduledMinutes());
+        assertEquals(revenue, row.getPotentialRevenue(), 0.001);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.YogaClass;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Full-text search correctness and latency with 100k class instances.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ClassSearchBenchmark {
+    private static final String TAG = "ClassSearchBenchmark";
+    private static final String DB_NAME = "benchmark_search.db";
+    private static final int CLASSES = 1_000;
+    private static final int INSTANCES = 100_000;
+    private static final int RUNS = 50;
+
+    private Context context;
+    private DatabaseHelper helper;
+    private ClassSearchIndex searchIndex;
+    private long[] yogaClassIds;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME);
+        searchIndex = new ClassSearchIndex(helper);
+        yogaClassIds = helper.insertYogaClasses(TestData.yogaClasses(CLASSES));
+        helper.insertClassInstances(TestData.classInstances(yogaClassIds, INSTANCES));
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void findsClassesByPrefixAcrossClassAndInstanceText() {
+        YogaClass yogaClass = TestData.yogaClass(0);
+        yogaClass.setTeacher("Annabel Whitfield");
+        yogaClass.setDescription("Gentle morning stretch");
+        long classId = helper.insertYogaClass(yogaClass);
+
+        assertEquals(classId, searchIndex.search("annab", 10).get(0).getId());
+        assertEquals(classId, searchIndex.search("whit morn", 10).get(0).getId());
+
+        // A substitute recorded only on an instance
+        long otherClassId = yogaClassIds[1];
+        helper.insertClassInstance(new ClassInstance(otherClassId, new Date(), "Zebedee Quill", "cover"));
+        assertEquals(otherClassId, searchIndex.search("zebe", 10).get(0).getId());
+
+        // Triggers keep the index in sync on update and delete
+        helper.deleteClassInstancesByYogaClassId(otherClassId);
+        assertTrue(searchIndex.search("zebe", 10).isEmpty());
+        helper.deleteYogaClass(classId);
+        assertTrue(searchIndex.search("annab", 10).isEmpty());
+    }
+
+    @Test
+    public void searchLatencyAt100kInstances() {
+        List<String> queries = Arrays.asList("teacher 4", "flow", "aerial teach", "substitute", "cover 9", "fam");
+        for (String query : queries) {
+            searchIndex.search(query, 100); // warm up
+        }
+
+        long[] nanos = new long[RUNS * queries.size()];
+        int n = 0;
+        for (int run = 0; run < RUNS; run++) {
+            for (String query : queries) {
+                long start = System.nanoTime();
+                List<YogaClass> results = searchIndex.search(query, 100);
+                nanos[n++] = System.nanoTime() - start;
+                assertFalse(query, results.isEmpty());
+            }
+        }
+        Arrays.sort(nanos);
+
+        Log.i(TAG, "Search over " + CLASSES + " classes / " + INSTANCES + " instances: median = "
+                + nanos[nanos.length / 2] / 1000 + " us, p95 = " + nanos[nanos.length * 95 / 100] / 1000 + " us");
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.YogaClass;
+import com.example.yogaadmin.network.OutboxEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * How local writes fill the CloudOutbox table and how acknowledgements drain it.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CloudOutboxTest {
+    private static final int CLASSES = 100;
+
+    private DatabaseHelper helper;
+    private CloudOutbox outbox;
+    private long[] classIds;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new DatabaseHelper(context, null);
+        outbox = new CloudOutbox(helper);
+        classIds = helper.insertYogaClasses(TestData.yogaClasses(CLASSES));
+        helper.insertClassInstances(TestData.classInstances(classIds, CLASSES * 3));
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+    }
+
+    @Test
+    public void writes_enqueueOneEntryPerClass() {
+        assertEquals(CLASSES, outbox.size());
+
+        List<OutboxEntry> entries = outbox.peek(CLASSES);
+        assertEquals(CLASSES, entries.size());
+        assertEquals(3, entries.get(0).getYogaClass().getClassInstances().size());
+
+        outbox.acknowledge(entries);
+        assertEquals(0, outbox.size());
+
+        // A class and one of its instances edited: still a single entry
+        YogaClass edited = helper.getYogaClassById(classIds[7]);
+        edited.setTeacher("Cover");
+        helper.updateYogaClasses(Collections.singletonList(edited));
+        ClassInstance instance = helper.getClassInstancesByYogaClassId(classIds[7]).get(0);
+        instance.setComments("Bring a mat");
+        helper.updateClassInstance(instance);
+
+        entries = outbox.peek(CLASSES);
+        assertEquals(1, entries.size());
+        assertEquals(classIds[7], entries.get(0).getYogaClassId());
+        assertEquals("Cover", entries.get(0).getYogaClass().getTeacher());
+    }
+
+    @Test
+    public void peek_returnsOldestChangesFirst() {
+        outbox.acknowledge(outbox.peek(CLASSES));
+        helper.insertClassInstance(TestData.classInstance(classIds[50], 1));
+        helper.insertClassInstance(TestData.classInstance(classIds[20], 2));
+        helper.insertClassInstance(TestData.classInstance(classIds[80], 3));
+
+        List<OutboxEntry> entries = outbox.peek(2);
+
+        assertEquals(2, entries.size());
+        assertEquals(classIds[50], entries.get(0).getYogaClassId());
+        assertEquals(classIds[20], entries.get(1).getYogaClassId());
+    }
+
+    @Test
+    public void acknowledge_keepsChangesMadeDuringUpload() {
+        List<OutboxEntry> uploading = outbox.peek(CLASSES);
+
+        // Committed while the upload is in flight
+        ClassInstance instance = helper.getClassInstancesByYogaClassId(classIds[3]).get(0);
+        instance.setTeacher("Late change");
+        helper.updateClassInstance(instance);
+        outbox.acknowledge(uploading);
+
+        List<OutboxEntry> entries = outbox.peek(CLASSES);
+        assertEquals(1, entries.size());
+        assertEquals(classIds[3], entries.get(0).getYogaClassId());
+    }
+
+    @Test
+    public void acknowledge_movesTheUploadWatermark() {
+        SyncTracker tracker = new SyncTracker(helper);
+        List<OutboxEntry> entries = outbox.peek(CLASSES);
+
+        // Everything but the most recently changed class goes up
+        outbox.acknowledge(entries.subList(0, CLASSES - 1));
+        List<YogaClass> pending = tracker.getPendingChanges().getYogaClasses();
+        assertEquals(1, pending.size());
+        assertEquals(entries.get(CLASSES - 1).getYogaClassId(), pending.get(0).getId());
+
+        outbox.acknowledge(entries.subList(CLASSES - 1, CLASSES));
+        assertTrue(tracker.getPendingChanges().isEmpty());
+        assertEquals(0, DatabaseUtils.queryNumEntries(helper.getReadableDatabase(),
+                DatabaseContract.SyncChangeEntry.TABLE_NAME));
+    }
+
+    @Test
+    public void deletedClass_isQueuedWithoutAClass() {
+        outbox.acknowledge(outbox.peek(CLASSES));
+
+        helper.deleteYogaClass(classIds[9]);
+
+        List<OutboxEntry> entries = outbox.peek(CLASSES);
+        assertEquals(1, entries.size());
+        assertEquals(classIds[9], entries.get(0).getYogaClassId());
+        assertNull(entries.get(0).getYogaClass());
+    }
+
+    @Test
+    public void reset_queuesNoRemovals() {
+        helper.resetDatabase();
+
+        assertEquals(0, outbox.size());
+        assertTrue(new SyncTracker(helper).getPendingChanges().isEmpty());
+
+        // Classes added after the reset are uploaded as usual
+        long id = helper.insertYogaClass(TestData.yogaClass(0));
+        List<OutboxEntry> entries = outbox.peek(CLASSES);
+        assertEquals(1, entries.size());
+        assertEquals(id, entries.get(0).getYogaClassId());
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.ScheduleConflict;
+import com.example.yogaadmin.models.YogaClass;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Weekly and dated conflict checks of ConflictChecker, and rebuilding its index after writes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ConflictCheckerTest {
+    private DatabaseHelper helper;
+    private ConflictChecker checker;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new DatabaseHelper(context, null);
+        checker = new ConflictChecker(helper);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+    }
+
+    @Test
+    public void newClass_seesClassesAddedAfterTheIndexWasBuilt() {
+        YogaClass candidate = yogaClass("Monday", "10:30", 60, "Ann");
+        assertTrue(checker.findClassConflicts(candidate).isEmpty());
+
+        long id = helper.insertYogaClass(yogaClass("Monday", "10:00", 60, "ann"));
+
+        List<ScheduleConflict> conflicts = checker.findClassConflicts(candidate);
+        assertEquals(1, conflicts.size());
+        assertEquals(id, conflicts.get(0).getSecondClassId());
+        assertTrue(checker.findAllConflicts().isEmpty());
+    }
+
+    @Test
+    public void instance_conflictsWithSameTeachersOverlappingInstanceThatDay() {
+        long morning = helper.insertYogaClass(yogaClass("Monday", "10:00", 60, "Ann"));
+        long overlapping = helper.insertYogaClass(yogaClass("Monday", "10:30", 60, "Bob"));
+        long evening = helper.insertYogaClass(yogaClass("Monday", "18:00", 60, "Bob"));
+        Date monday = monday();
+        helper.insertClassInstance(new ClassInstance(morning, monday, "Ann", null));
+        helper.insertClassInstance(new ClassInstance(evening, monday, "Ann", "Cover"));
+
+        // Ann covering Bob's 10:30 class clashes with her own 10:00 one, not with the evening class
+        List<ScheduleConflict> conflicts = checker.findInstanceConflicts(
+                new ClassInstance(overlapping, monday, "Ann", null));
+
+        assertEquals(1, conflicts.size());
+        assertEquals(morning, conflicts.get(0).getSecondClassId());
+        assertTrue(checker.findInstanceConflicts(new ClassInstance(overlapping, monday, "Bob", null)).isEmpty());
+    }
+
+    @Test
+    public void recurringInstances_reportOnlyTheClashingDates() {
+        long morning = helper.insertYogaClass(yogaClass("Monday", "10:00", 60, "Ann"));
+        long overlapping = helper.insertYogaClass(yogaClass("Monday", "10:30", 60, "Ann"));
+        Date monday = monday();
+        Date nextMonday = new Date(monday.getTime() + 7L * 24 * 60 * 60 * 1000);
+        helper.insertClassInstance(new ClassInstance(morning, nextMonday, "Ann", null));
+
+        ClassInstance first = new ClassInstance(overlapping, monday, "Ann", null);
+        ClassInstance second = new ClassInstance(overlapping, nextMonday, "Ann", null);
+        Map<ClassInstance, List<ScheduleConflict>> conflicts = checker.findInstanceConflicts(
+                Arrays.asList(first, second));
+
+        assertEquals(1, conflicts.size());
+        assertEquals(morning, conflicts.get(second).get(0).getSecondClassId());
+        assertFalse(conflicts.containsKey(first));
+    }
+
+    private static YogaClass yogaClass(String day, String time, int duration, String teacher) {
+        YogaClass yogaClass = TestData.yogaClass(0);
+        yogaClass.setDayOfWeek(day);
+        yogaClass.setCourseTime(time);
+        yogaClass.setDuration(duration);
+        yogaClass.setTeacher(teacher);
+        return yogaClass;
+    }
+
+    private static Date monday() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2024, Calendar.MARCH, 4, 9, 0, 0);
+        return calendar.getTime();
+    }
+}
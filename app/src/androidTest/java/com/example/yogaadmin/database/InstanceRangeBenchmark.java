@@ -0,0 +1,122 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.yogaadmin.models.ClassInstance;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Correctness and latency of date-range instance queries with 500k instances.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InstanceRangeBenchmark {
+    private static final String TAG = "InstanceRangeBenchmark";
+    private static final String DB_NAME = "benchmark_range.db";
+    private static final int CLASSES = 500;
+    private static final int WEEKS = 1_000; // One instance per class per week: 500k rows
+    private static final int INSERT_CHUNK = 10_000;
+    private static final int RUNS = 50;
+    private static final long WEEK_MILLIS = 7 * TestData.DAY_MILLIS;
+    private static final long FRAME_BUDGET_NANOS = 16_000_000;
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME);
+        long[] yogaClassIds = helper.insertYogaClasses(TestData.yogaClasses(CLASSES));
+        List<ClassInstance> chunk = new ArrayList<>(INSERT_CHUNK);
+        for (int week = 0; week < WEEKS; week++) {
+            for (long yogaClassId : yogaClassIds) {
+                chunk.add(TestData.classInstance(yogaClassId, week));
+                if (chunk.size() == INSERT_CHUNK) {
+                    helper.insertClassInstances(chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        helper.insertClassInstances(chunk);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void rangeIsHalfOpenAndOrderedByDate() {
+        long from = TestData.START_MILLIS + 10 * WEEK_MILLIS;
+        List<ClassInstance> instances = helper.getClassInstancesInRange(from, from + 2 * WEEK_MILLIS,
+                null, null, 10_000);
+
+        assertEquals(2 * CLASSES, instances.size());
+        for (int i = 0; i < instances.size(); i++) {
+            long date = instances.get(i).getDate().getTime();
+            assertTrue(date >= from && date < from + 2 * WEEK_MILLIS);
+            if (i > 0) {
+                assertTrue(date >= instances.get(i - 1).getDate().getTime());
+            }
+        }
+    }
+
+    @Test
+    public void filtersByTeacherAndClassType() {
+        long from = TestData.START_MILLIS + 3 * WEEK_MILLIS;
+        long to = from + WEEK_MILLIS;
+
+        // TestData gives week 3 instances "Teacher 3", so all of them match regardless of case
+        assertEquals(CLASSES, helper.getClassInstancesInRange(from, to, "teacher 3", null, 10_000).size());
+        assertTrue(helper.getClassInstancesInRange(from, to, "Teacher 4", null, 10_000).isEmpty());
+
+        List<ClassInstance> aerial = helper.getClassInstancesInRange(from, to, null, "Aerial Yoga", 10_000);
+        int expected = 0;
+        for (int i = 0; i < CLASSES; i++) {
+            if ("Aerial Yoga".equals(TestData.yogaClass(i).getClassType())) {
+                expected++;
+            }
+        }
+        assertEquals(expected, aerial.size());
+        assertEquals(10, helper.getClassInstancesInRange(from, to, null, null, 10).size());
+    }
+
+    @Test
+    public void weekQueryLatencyAt500kInstances() {
+        helper.getClassInstancesInRange(TestData.START_MILLIS, TestData.START_MILLIS + WEEK_MILLIS,
+                null, null, 1000); // warm up
+
+        long[] nanos = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long from = TestData.START_MILLIS + (run * 37 % WEEKS) * WEEK_MILLIS;
+            String classType = run % 2 == 0 ? null : TestData.CLASS_TYPES[run % TestData.CLASS_TYPES.length];
+            long start = System.nanoTime();
+            List<ClassInstance> instances = helper.getClassInstancesInRange(from, from + WEEK_MILLIS,
+                    null, classType, 1000);
+            nanos[run] = System.nanoTime() - start;
+            assertFalse(instances.isEmpty());
+        }
+        Arrays.sort(nanos);
+
+        long median = nanos[RUNS / 2];
+        Log.i(TAG, "Week query over " + CLASSES * WEEKS + " instances: median = " + median / 1000
+                + " us, p95 = " + nanos[RUNS * 95 / 100] / 1000 + " us");
+        assertTrue("Median " + median / 1000 + " us", median < FRAME_BUDGET_NANOS);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.YogaClass;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that every DatabaseHelper write reports exactly the rows it touched.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InvalidationTrackerTest {
+    private static final String CLASSES = DatabaseContract.YogaClassEntry.TABLE_NAME;
+    private static final String INSTANCES = DatabaseContract.ClassInstanceEntry.TABLE_NAME;
+
+    private DatabaseHelper helper;
+    private final List<String> tables = new ArrayList<>();
+    private final List<Set<Long>> rowIds = new ArrayList<>();
+    private final InvalidationTracker.Observer observer = (table, ids) -> {
+        tables.add(table);
+        rowIds.add(ids);
+    };
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new DatabaseHelper(context, null);
+        helper.getInvalidationTracker().addObserver(CLASSES, observer);
+        helper.getInvalidationTracker().addObserver(INSTANCES, observer);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+    }
+
+    @Test
+    public void singleRowWrites_reportTheirRow() {
+        long classId = helper.insertYogaClass(TestData.yogaClass(0));
+        ClassInstance instance = TestData.classInstance(classId, 0);
+        long instanceId = helper.insertClassInstance(instance);
+        instance.setId(instanceId);
+        instance.setTeacher("Cover");
+        helper.updateClassInstance(instance);
+        helper.deleteClassInstance(instanceId);
+        helper.deleteYogaClass(classId);
+
+        drainMainThread();
+        assertEquals(5, tables.size());
+        assertEquals(CLASSES, tables.get(0));
+        assertEquals(Collections.singleton(classId), rowIds.get(0));
+        for (int i = 1; i < 4; i++) {
+            assertEquals(INSTANCES, tables.get(i));
+            assertEquals(Collections.singleton(instanceId), rowIds.get(i));
+        }
+        assertEquals(CLASSES, tables.get(4));
+        assertEquals(Collections.singleton(classId), rowIds.get(4));
+    }
+
+    @Test
+    public void bulkWrites_reportAllRowsOnce() {
+        List<YogaClass> yogaClasses = TestData.yogaClasses(3);
+        long[] classIds = helper.insertYogaClasses(yogaClasses);
+        long[] instanceIds = helper.insertClassInstances(TestData.classInstances(classIds, 9));
+        helper.deleteClassInstancesByYogaClassId(classIds[0]);
+
+        drainMainThread();
+        assertEquals(3, tables.size());
+        assertEquals(toSet(classIds), rowIds.get(0));
+        assertEquals(toSet(instanceIds), rowIds.get(1));
+        // Instances are spread round-robin, so class 0 owns every third one
+        assertEquals(toSet(new long[]{instanceIds[0], instanceIds[3], instanceIds[6]}), rowIds.get(2));
+    }
+
+    @Test
+    public void noOpWrites_reportNothing() {
+        helper.deleteYogaClass(12345);
+        helper.deleteClassInstance(12345);
+        helper.deleteClassInstancesByYogaClassId(12345);
+
+        drainMainThread();
+        assertTrue(tables.isEmpty());
+    }
+
+    @Test
+    public void reset_invalidatesWholeTables() {
+        helper.resetDatabase();
+
+        drainMainThread();
+        assertEquals(2, tables.size());
+        assertTrue(rowIds.get(0).isEmpty());
+        assertTrue(rowIds.get(1).isEmpty());
+    }
+
+    @Test
+    public void removedObserver_isNotCalled() {
+        helper.getInvalidationTracker().removeObserver(CLASSES, observer);
+        helper.insertYogaClass(TestData.yogaClass(0));
+
+        drainMainThread();
+        assertTrue(tables.isEmpty());
+    }
+
+    // Notifications are posted to the main thread; wait until they have all run
+    private static void drainMainThread() {
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+    }
+
+    private static Set<Long> toSet(long[] ids) {
+        Set<Long> set = new HashSet<>();
+        for (long id : ids) {
+            set.add(id);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.YogaClass;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Upgrades a populated version 5 database (the oldest schema migrated in place)
+ * to the current version and checks that every row survives, quickly.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+    private static final String TAG = "MigrationTest";
+    private static final String DB_NAME = "migration_test.db";
+    private static final int CLASSES = 100;
+    private static final int INSTANCES = 100_000;
+    // Generous bound for slow emulators; typical devices finish well under this
+    private static final long MAX_MIGRATION_MILLIS = 20_000;
+
+    // The version 5 schema exactly as it shipped: tables only, no indexes, no search index
+    private static final String V5_YOGA_CLASSES = "CREATE TABLE yoga_classes("
+            + "_id INTEGER PRIMARY KEY AUTOINCREMENT, day_of_week TEXT NOT NULL, course_time TEXT NOT NULL, "
+            + "capacity INTEGER NOT NULL, duration INTEGER NOT NULL, price REAL NOT NULL, class_type TEXT NOT NULL, "
+            + "description TEXT, equipment TEXT, teacher_name TEXT)";
+    private static final String V5_CLASS_INSTANCES = "CREATE TABLE class_instances("
+            + "_id INTEGER PRIMARY KEY AUTOINCREMENT, yoga_class_id INTEGER NOT NULL, date INTEGER NOT NULL, "
+            + "teacher TEXT NOT NULL, comments TEXT, "
+            + "FOREIGN KEY(yoga_class_id) REFERENCES yoga_classes(_id))";
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        createVersion5Database();
+    }
+
+    @After
+    public void tearDown() {
+        if (helper != null) {
+            helper.close();
+        }
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void upgradeFromVersion5_keepsAllDataAndIsFast() {
+        helper = new DatabaseHelper(context, DB_NAME);
+
+        long start = System.nanoTime();
+        SQLiteDatabase db = helper.getWritableDatabase();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        Log.i(TAG, String.format("Migrated %d classes / %d instances from v5 in %d ms", CLASSES, INSTANCES, millis));
+
+        assertEquals(DatabaseHelper.DATABASE_VERSION, db.getVersion());
+        assertEquals(CLASSES, DatabaseUtils.queryNumEntries(db, DatabaseContract.YogaClassEntry.TABLE_NAME));
+        assertEquals(INSTANCES, DatabaseUtils.queryNumEntries(db, DatabaseContract.ClassInstanceEntry.TABLE_NAME));
+        assertTrue("Migration took " + millis + " ms", millis < MAX_MIGRATION_MILLIS);
+
+        // Row contents are untouched
+        for (int i = 0; i < CLASSES; i += 17) {
+            YogaClass expected = TestData.yogaClass(i);
+            YogaClass actual = helper.getYogaClassById(i + 1);
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getTeacher(), actual.getTeacher());
+            assertEquals(expected.getCourseTime(), actual.getCourseTime());
+        }
+        List<ClassInstance> instances = helper.getClassInstancesByYogaClassId(1);
+        assertEquals(INSTANCES / CLASSES, instances.size());
+        assertEquals(TestData.classInstance(1, 0).getDate(), instances.get(0).getDate());
+
+        // Later steps ran: indexes exist and the search index covers the old rows
+        assertTrue(hasIndex(db, DatabaseContract.ClassInstanceEntry.INDEX_YOGA_CLASS_ID_DATE));
+        assertTrue(hasIndex(db, DatabaseContract.YogaClassEntry.INDEX_TEACHER_NAME));
+        assertTrue(hasIndex(db, DatabaseContract.ClassInstanceEntry.INDEX_DATE));
+        assertFalse(new ClassSearchIndex(helper).search("Class 42", 10).isEmpty());
+        // Nothing was ever acknowledged by the cloud, so every old class is pending upload
+        assertEquals(CLASSES, new SyncTracker(helper).getPendingChanges().getYogaClasses().size());
+        assertEquals(CLASSES, new CloudOutbox(helper).size());
+        // Deleting a migrated class leaves a tombstone
+        helper.deleteYogaClass(1);
+        assertEquals(1, new SyncTracker(helper).getPendingChanges().getDeletedClassIds().size());
+    }
+
+    @Test
+    public void failedStep_rollsBackWholeUpgrade() {
+        Migration failing = new Migration(6, 7) {
+            @Override
+            void migrate(SQLiteDatabase db) {
+                db.execSQL("INSERT INTO no_such_table VALUES (1)");
+            }
+        };
+
+        // Same transaction SQLiteOpenHelper wraps around onUpgrade
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath(DB_NAME), null);
+        db.beginTransaction();
+        try {
+            Migrations.migrate(db, new Migration[]{Migrations.MIGRATION_5_6, failing}, 5, 7);
+            db.setVersion(7);
+            db.setTransactionSuccessful();
+            fail("Expected the second step to throw");
+        } catch (SQLiteException expected) {
+            // The first step's index must be rolled back with it
+        } finally {
+            db.endTransaction();
+        }
+
+        assertEquals(5, db.getVersion());
+        assertFalse(hasIndex(db, DatabaseContract.ClassInstanceEntry.INDEX_YOGA_CLASS_ID_DATE));
+        assertEquals(INSTANCES, DatabaseUtils.queryNumEntries(db, DatabaseContract.ClassInstanceEntry.TABLE_NAME));
+        db.close();
+    }
+
+    @Test
+    public void everyVersionSince5_hasAPath() {
+        for (int version = 5; version < DatabaseHelper.DATABASE_VERSION; version++) {
+            List<Migration> path = Migrations.findPath(Migrations.ALL, version, DatabaseHelper.DATABASE_VERSION);
+            assertNotNull("No migration path from version " + version, path);
+            assertEquals(DatabaseHelper.DATABASE_VERSION, path.get(path.size() - 1).endVersion);
+        }
+        assertNull(Migrations.findPath(Migrations.ALL, 4, DatabaseHelper.DATABASE_VERSION));
+    }
+
+    private void createVersion5Database() {
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath(DB_NAME), null);
+        db.beginTransaction();
+        try {
+            db.execSQL(V5_YOGA_CLASSES);
+            db.execSQL(V5_CLASS_INSTANCES);
+
+            SQLiteStatement insertClass = db.compileStatement("INSERT INTO yoga_classes (day_of_week, course_time, "
+                    + "capacity, duration, price, class_type, description, equipment, teacher_name) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+            long[] classIds = new long[CLASSES];
+            for (int i = 0; i < CLASSES; i++) {
+                YogaClass yogaClass = TestData.yogaClass(i);
+                insertClass.bindString(1, yogaClass.getDayOfWeek());
+                insertClass.bindString(2, yogaClass.getCourseTime());
+                insertClass.bindLong(3, yogaClass.getCapacity());
+                insertClass.bindLong(4, yogaClass.getDuration());
+                insertClass.bindDouble(5, yogaClass.getPricePerClass());
+                insertClass.bindString(6, yogaClass.getClassType());
+                insertClass.bindString(7, yogaClass.getDescription());
+                insertClass.bindNull(8);
+                insertClass.bindString(9, yogaClass.getTeacher());
+                classIds[i] = insertClass.executeInsert();
+            }
+            insertClass.close();
+
+            SQLiteStatement insertInstance = db.compileStatement(
+                    "INSERT INTO class_instances (yoga_class_id, date, teacher, comments) VALUES (?, ?, ?, ?)");
+            for (ClassInstance instance : TestData.classInstances(classIds, INSTANCES)) {
+                insertInstance.bindLong(1, instance.getYogaClassId());
+                insertInstance.bindLong(2, instance.getDate().getTime());
+                insertInstance.bindString(3, instance.getTeacher());
+                if (instance.getComments() != null) {
+                    insertInstance.bindString(4, instance.getComments());
+                } else {
+                    insertInstance.bindNull(4);
+                }
+                insertInstance.executeInsert();
+            }
+            insertInstance.close();
+
+            db.setVersion(5);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            db.close();
+        }
+    }
+
+    private static boolean hasIndex(SQLiteDatabase db, String name) {
+        try (Cursor cursor = db.rawQuery("SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = ?",
+                new String[]{name})) {
+            return cursor.moveToFirst();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteQueryBuilder;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs EXPLAIN QUERY PLAN for every statement the database classes issue and fails
+ * if any of them needs a full table scan or a temporary sort it shouldn't.
+ *
+ * Raw SQL comes from the same package-private constants and builders the production
+ * code runs; db.query() calls are rebuilt with SQLiteQueryBuilder, as SQLiteDatabase
+ * does. When adding a query, expose its SQL that way and check its plan here.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QueryPlanTest {
+    private static final String CLASSES = DatabaseContract.YogaClassEntry.TABLE_NAME;
+    private static final String INSTANCES = DatabaseContract.ClassInstanceEntry.TABLE_NAME;
+
+    private DatabaseHelper helper;
+    private SQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new DatabaseHelper(context, null);
+        db = helper.getWritableDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+    }
+
+    @Test
+    public void getYogaClassById_usesPrimaryKey() {
+        assertNoScan(query(CLASSES, YogaClassRowMapper.PROJECTION_ALL,
+                DatabaseContract.YogaClassEntry._ID + " = ?", null, null), "1");
+    }
+
+    @Test
+    public void searchClassesByTeacher_usesTeacherIndex() {
+        String column = DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME + " COLLATE NOCASE";
+        assertNoScan(query(CLASSES, YogaClassRowMapper.PROJECTION_ALL, column + " >= ? AND " + column + " < ?",
+                null, null), "ann", "ann\uffff");
+    }
+
+    @Test
+    public void getClassInstancesByYogaClassId_usesCompositeIndexWithoutSort() {
+        assertNoScan(query(INSTANCES, ClassInstanceRowMapper.PROJECTION_ALL,
+                DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID + " = ?",
+                DatabaseContract.ClassInstanceEntry.COLUMN_DATE + " ASC", null), "1");
+    }
+
+    @Test
+    public void getYogaClassesWithInstances_filtered_usesIndexesWithoutSort() {
+        assertNoScan(DatabaseHelper.classesWithInstancesSql(2), "1", "2");
+    }
+
+    @Test
+    public void getYogaClassesWithInstances_all_onlyScansClasses() {
+        // Every class is read in rowid order; instances must come from the composite index
+        List<String> plan = explain(DatabaseHelper.classesWithInstancesSql(0));
+        boolean instancesSearched = false;
+        for (String step : plan) {
+            assertFalse(plan.toString(), step.startsWith("SCAN") && !refersTo(step, "c"));
+            assertFalse(plan.toString(), step.contains("TEMP B-TREE"));
+            instancesSearched |= step.startsWith("SEARCH") && refersTo(step, "i");
+        }
+        assertTrue(plan.toString(), instancesSearched);
+    }
+
+    @Test
+    public void getScheduleSnapshot_readsClassesOnceWithoutSorting() {
+        // The snapshot holds every class, so one pass over the table is the plan
+        List<String> plan = explain(DatabaseHelper.SCHEDULE_SNAPSHOT_SQL);
+        assertEquals(plan.toString(), 1, plan.size());
+        assertTrue(plan.toString(), plan.get(0).startsWith("SCAN"));
+        assertFalse(plan.toString(), plan.get(0).contains("TEMP B-TREE"));
+    }
+
+    @Test
+    public void classSearch_usesFullTextIndex() {
+        assertNoScan(ClassSearchIndex.CLASS_MATCH_SQL, "ann*");
+    }
+
+    @Test
+    public void instanceSearch_usesFullTextIndexAndPrimaryKey() {
+        // Grouping the matched rows by class needs a small sort, but nothing may scan a table
+        List<String> plan = explain(ClassSearchIndex.INSTANCE_MATCH_SQL, "ann*");
+        assertFalse(plan.isEmpty());
+        for (String step : plan) {
+            assertFalse(plan.toString(), isTableScan(step));
+            assertTrue(plan.toString(), !step.contains("TEMP B-TREE") || step.contains("GROUP BY"));
+        }
+        // Matches drive the join; instances are only looked up by primary key
+        assertTrue(plan.toString(), plan.get(0).contains("VIRTUAL TABLE INDEX"));
+        assertTrue(plan.toString(), refersTo(plan.get(1), "i") && plan.get(1).startsWith("SEARCH"));
+    }
+
+    @Test
+    public void getYogaClassesPage_seeksByPrimaryKey() {
+        assertNoScan(query(CLASSES, YogaClassRowMapper.PROJECTION_ALL, DatabaseContract.YogaClassEntry._ID + " > ?",
+                DatabaseContract.YogaClassEntry._ID + " ASC", "50"), "0");
+    }
+
+    @Test
+    public void getClassInstancesPage_seeksCompositeIndexWithoutSort() {
+        String date = DatabaseContract.ClassInstanceEntry.COLUMN_DATE;
+        String id = DatabaseContract.ClassInstanceEntry._ID;
+        assertNoScan(query(INSTANCES, ClassInstanceRowMapper.PROJECTION_ALL,
+                DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID + " = ?"
+                        + " AND " + date + " >= ? AND (" + date + " > ? OR " + id + " > ?)",
+                date + " ASC, " + id + " ASC", "50"), "1", "0", "0", "0");
+    }
+
+    @Test
+    public void updateClassInstance_usesPrimaryKey() {
+        assertNoScan("UPDATE " + INSTANCES + " SET " + DatabaseContract.ClassInstanceEntry.COLUMN_TEACHER + " = ?"
+                + " WHERE " + DatabaseContract.ClassInstanceEntry._ID + " = ?", "x", "1");
+    }
+
+    @Test
+    public void deleteYogaClass_usesPrimaryKey() {
+        assertNoScan("DELETE FROM " + CLASSES + " WHERE " + DatabaseContract.YogaClassEntry._ID + " = ?", "1");
+    }
+
+    @Test
+    public void deleteClassInstance_usesPrimaryKey() {
+        assertNoScan("DELETE FROM " + INSTANCES + " WHERE " + DatabaseContract.ClassInstanceEntry._ID + " = ?", "1");
+    }
+
+    @Test
+    public void deleteClassInstancesByYogaClassId_usesCompositeIndex() {
+        assertNoScan("DELETE FROM " + INSTANCES
+                + " WHERE " + DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID + " = ?", "1");
+    }
+
+    @Test
+    public void getYogaClassesByIds_usesPrimaryKeyWithoutSort() {
+        assertNoScan(query(CLASSES, YogaClassRowMapper.PROJECTION_ALL,
+                DatabaseContract.YogaClassEntry._ID + " IN (?, ?)", DatabaseContract.YogaClassEntry._ID + " ASC", null),
+                "1", "2");
+    }
+
+    @Test
+    public void getClassInstancesByIds_usesPrimaryKeyWithoutSort() {
+        assertNoScan(query(INSTANCES, ClassInstanceRowMapper.PROJECTION_ALL,
+                DatabaseContract.ClassInstanceEntry._ID + " IN (?, ?)",
+                DatabaseContract.ClassInstanceEntry._ID + " ASC", null), "1", "2");
+    }
+
+    @Test
+    public void classInstanceIdsByYogaClassId_usesCompositeIndex() {
+        assertNoScan(query(INSTANCES, new String[]{DatabaseContract.ClassInstanceEntry._ID},
+                DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID + " = ?", null, null), "1");
+    }
+
+    @Test
+    public void getClassInstancesInRange_usesDateIndexWithoutSort() {
+        assertNoScan(DatabaseHelper.classInstancesInRangeSql(false, false, 1000), "0", "1");
+    }
+
+    @Test
+    public void getClassInstancesInRange_filtered_looksUpClassesByPrimaryKey() {
+        assertNoScan(DatabaseHelper.classInstancesInRangeSql(true, true, 1000), "Flow Yoga", "0", "1", "Ann");
+    }
+
+    @Test
+    public void classReport_inRange_usesDateIndexAndPrimaryKey() {
+        // Grouping by teacher or class type needs a temporary b-tree; reading the rows must not scan
+        for (ClassReports.GroupBy groupBy : ClassReports.GroupBy.values()) {
+            List<String> plan = explain(ClassReports.instanceReportSql(groupBy, true), "0", "1");
+            assertFalse(plan.isEmpty());
+            for (String step : plan) {
+                assertFalse("Full table scan in plan: " + plan, isTableScan(step));
+            }
+        }
+    }
+
+    @Test
+    public void classReport_allDates_readsInstancesOnceAndClassesByPrimaryKey() {
+        // Without a date range every instance counts, so one pass over them is expected, but
+        // it must stay the outer loop with each class found by primary key
+        for (ClassReports.GroupBy groupBy : ClassReports.GroupBy.values()) {
+            List<String> plan = explain(ClassReports.instanceReportSql(groupBy, false));
+            assertTrue(plan.toString(), plan.size() >= 2);
+            assertTrue(plan.toString(), plan.get(0).startsWith("SCAN") && refersTo(plan.get(0), "i"));
+            assertTrue(plan.toString(), plan.get(1).startsWith("SEARCH") && refersTo(plan.get(1), "c"));
+            for (String step : plan.subList(2, plan.size())) {
+                assertTrue(plan.toString(), step.contains("TEMP B-TREE FOR GROUP BY"));
+            }
+        }
+    }
+
+    @Test
+    public void pendingChanges_readOnlyTheChangeSeqIndex() {
+        assertNoScan(SyncTracker.PENDING_CLASS_IDS_SQL, "0", "1");
+    }
+
+    @Test
+    public void compaction_deletesByTheChangeSeqIndex() {
+        assertNoScan("DELETE FROM " + DatabaseContract.SyncChangeEntry.TABLE_NAME
+                + " WHERE " + DatabaseContract.SyncChangeEntry.COLUMN_CHANGE_SEQ + " <= ?", "1");
+    }
+
+    @Test
+    public void outboxWatermark_readsTheIndexEnd() {
+        assertNoScan(CloudOutbox.ACKNOWLEDGED_SQL, DatabaseContract.SyncStateEntry.LAST_CHANGE);
+    }
+
+    @Test
+    public void outboxPeek_walksTheChangeSeqIndexWithoutSorting() {
+        // Reading the queue oldest first walks the index, stopping at the LIMIT
+        List<String> plan = explain(CloudOutbox.PEEK_SQL, "500");
+        for (String step : plan) {
+            assertFalse(plan.toString(), step.contains("TEMP B-TREE"));
+            if (isTableScan(step)) {
+                assertTrue(plan.toString(), step.contains(DatabaseContract.CloudOutboxEntry.INDEX_CHANGE_SEQ));
+            }
+        }
+    }
+
+    @Test
+    public void getAllYogaClasses_isTheOnlyIntendedFullRead() {
+        // Listing every class has to visit every row; make sure it at least doesn't sort
+        List<String> plan = explain(query(CLASSES, YogaClassRowMapper.PROJECTION_ALL, null, null, null));
+        for (String step : plan) {
+            assertFalse(step, step.contains("TEMP B-TREE"));
+        }
+    }
+
+    // The statement SQLiteDatabase.query() compiles for the same arguments
+    private static String query(String table, String[] columns, String where, String orderBy, String limit) {
+        return SQLiteQueryBuilder.buildQueryString(false, table, columns, where, null, null, orderBy, limit);
+    }
+
+    private void assertNoScan(String sql, String... args) {
+        List<String> plan = explain(sql, args);
+        assertFalse("Empty plan for " + sql, plan.isEmpty());
+        for (String step : plan) {
+            assertFalse("Full table scan in plan for " + sql + ": " + plan, isTableScan(step));
+            assertFalse("Temporary sort in plan for " + sql + ": " + plan, step.contains("TEMP B-TREE"));
+        }
+    }
+
+    // FTS lookups are reported as "SCAN <table> VIRTUAL TABLE INDEX n:" but use the full-text index
+    private static boolean isTableScan(String step) {
+        return step.startsWith("SCAN") && !step.contains("VIRTUAL TABLE INDEX");
+    }
+
+    // Whether a plan step reads the table with this alias ("SCAN i ..." or "SCAN TABLE x AS i ...")
+    private static boolean refersTo(String step, String alias) {
+        return Arrays.asList(step.split(" ")).contains(alias);
+    }
+
+    private List<String> explain(String sql, String... args) {
+        List<String> steps = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + sql, args)) {
+            int detailIndex = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                steps.add(cursor.getString(detailIndex));
+            }
+        }
+        return steps;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.os.Build;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * DatabaseHelper.readConsistently keeps one snapshot and, where Android offers a
+ * deferred read transaction, lets writers on other threads commit meanwhile.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReadConsistentlyTest {
+    private static final String DATABASE_NAME = "read_consistently_test.db";
+    private static final int CLASSES = 20;
+
+    private Context context;
+    private DatabaseHelper helper;
+    private ExecutorService writer;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE_NAME);
+        // A file database, so the writer thread gets its own WAL connection
+        helper = new DatabaseHelper(context, DATABASE_NAME);
+        helper.insertYogaClasses(TestData.yogaClasses(CLASSES));
+        writer = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        writer.shutdownNow();
+        helper.close();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void writeDuringRead_commitsWithoutChangingTheSnapshot() throws Exception {
+        assumeTrue(Build.VERSION.SDK_INT >= Build.VERSION_CODES.VANILLA_ICE_CREAM);
+
+        long[] counts = helper.readConsistently(() -> {
+            long before = classCount();
+            Future<Long> insert = writer.submit(() -> helper.insertYogaClass(TestData.yogaClass(0)));
+            // The insert must not wait for this read to finish
+            assertTrue(insert.get(5, TimeUnit.SECONDS) > 0);
+            return new long[]{before, classCount()};
+        });
+
+        assertEquals(CLASSES, counts[0]);
+        assertEquals(CLASSES, counts[1]);
+        assertEquals(CLASSES + 1, classCount());
+    }
+
+    private long classCount() {
+        return DatabaseUtils.queryNumEntries(helper.getReadableDatabase(), DatabaseContract.YogaClassEntry.TABLE_NAME);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.YogaClass;
+import com.example.yogaadmin.utils.RecurrenceGenerator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Generating and inserting a year of weekly instances for 200 classes in one transaction.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RecurringScheduleBenchmark {
+    private static final String TAG = "RecurringScheduleBenchmark";
+    private static final String DB_NAME = "benchmark_recurring.db";
+    private static final int CLASSES = 200;
+    private static final long YEAR_MILLIS = 365 * TestData.DAY_MILLIS;
+    private static final long MAX_MILLIS = 1000;
+
+    private Context context;
+    private DatabaseHelper helper;
+    private List<YogaClass> yogaClasses;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME);
+        yogaClasses = TestData.yogaClasses(CLASSES);
+        long[] ids = helper.insertYogaClasses(yogaClasses);
+        for (int i = 0; i < CLASSES; i++) {
+            yogaClasses.get(i).setId(ids[i]);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void yearFor200Classes_underOneSecond() {
+        long from = TestData.START_MILLIS;
+        RecurrenceGenerator generator = new RecurrenceGenerator().skip(from + 358 * TestData.DAY_MILLIS);
+
+        long start = System.nanoTime();
+        List<ClassInstance> instances = new ArrayList<>();
+        for (YogaClass yogaClass : yogaClasses) {
+            instances.addAll(generator.generateUntil(yogaClass, from, from + YEAR_MILLIS));
+        }
+        long generateMillis = (System.nanoTime() - start) / 1_000_000;
+        long[] ids = helper.insertClassInstances(instances);
+        long totalMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(ids.length > CLASSES * 51);
+        assertTrue(ids[0] > 0);
+        assertEquals(ids.length, DatabaseUtils.queryNumEntries(helper.getReadableDatabase(),
+                DatabaseContract.ClassInstanceEntry.TABLE_NAME));
+
+        Log.i(TAG, String.format("%d instances for %d classes: generate %d ms, generate + insert %d ms",
+                ids.length, CLASSES, generateMillis, totalMillis));
+        assertTrue("Took " + totalMillis + " ms", totalMillis < MAX_MILLIS);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.yogaadmin.network.OutboxEntry;
+import com.example.yogaadmin.transfer.CatalogFormat;
+import com.example.yogaadmin.transfer.CatalogImporter;
+import com.example.yogaadmin.transfer.ImportResult;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Restoring through DatabaseHelper.replaceAll: the database is either fully
+ * replaced or left as it was, and the replaced classes are removed from the cloud.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReplaceAllTest {
+    private static final int CLASSES = 20;
+    private static final String CLASS_JSON = "{\"dayOfWeek\": \"Monday\", \"courseTime\": \"10:00\", \"capacity\": 20,"
+            + " \"duration\": 60, \"pricePerClass\": 12.5, \"classType\": \"Flow Yoga\", \"teacher\": \"Ann\","
+            + " \"classInstances\": [{\"date\": \"2024-01-01\"}]}";
+
+    private DatabaseHelper helper;
+    private long[] classIds;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new DatabaseHelper(context, null);
+        classIds = helper.insertYogaClasses(TestData.yogaClasses(CLASSES));
+        helper.insertClassInstances(TestData.classInstances(classIds, CLASSES * 2));
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+    }
+
+    @Test
+    public void completeImport_replacesEverything() {
+        ImportResult result = restore("[" + CLASS_JSON + ", " + CLASS_JSON + "]", 1);
+
+        assertTrue(result.isComplete());
+        assertEquals(2, classCount());
+        assertEquals(2, instanceCount());
+
+        // Restored classes get new ids, so every replaced class is queued as a deletion
+        List<OutboxEntry> entries = new CloudOutbox(helper).peek(CLASSES * 2);
+        assertEquals(CLASSES + 2, entries.size());
+        Set<Long> deleted = new HashSet<>();
+        for (OutboxEntry entry : entries) {
+            if (entry.getYogaClass() == null) {
+                deleted.add(entry.getYogaClassId());
+            }
+        }
+        assertEquals(CLASSES, deleted.size());
+        for (long id : classIds) {
+            assertTrue(deleted.contains(id));
+        }
+        assertEquals(CLASSES, new SyncTracker(helper).getPendingChanges().getDeletedClassIds().size());
+    }
+
+    @Test
+    public void malformedFile_leavesDatabaseUnchanged() {
+        // The first batch is written before the parser reaches the broken record
+        ImportResult result = restore("[" + CLASS_JSON + ", " + CLASS_JSON + ", {\"dayOfWeek\": ", 1);
+
+        assertFalse(result.isComplete());
+        assertEquals(CLASSES, classCount());
+        assertEquals(CLASSES * 2, instanceCount());
+    }
+
+    @Test
+    public void cancelledImport_leavesDatabaseUnchanged() {
+        CatalogImporter importer = new CatalogImporter(helper::insertYogaClassesWithInstances, 1);
+        byte[] file = ("[" + CLASS_JSON + ", " + CLASS_JSON + "]").getBytes(StandardCharsets.UTF_8);
+
+        ImportResult result = helper.replaceAll(() -> importer.importFrom(new ByteArrayInputStream(file), file.length,
+                CatalogFormat.Type.JSON, (bytesRead, totalBytes, classes, instances, rejected) -> importer.cancel()),
+                ImportResult::isComplete);
+
+        assertTrue(result.isCancelled());
+        assertEquals(CLASSES, classCount());
+        assertEquals(CLASSES * 2, instanceCount());
+    }
+
+    private ImportResult restore(String json, int batchSize) {
+        CatalogImporter importer = new CatalogImporter(helper::insertYogaClassesWithInstances, batchSize);
+        byte[] file = json.getBytes(StandardCharsets.UTF_8);
+        return helper.replaceAll(() -> importer.importFrom(new ByteArrayInputStream(file), file.length,
+                CatalogFormat.Type.JSON, null), ImportResult::isComplete);
+    }
+
+    private long classCount() {
+        return DatabaseUtils.queryNumEntries(helper.getReadableDatabase(), DatabaseContract.YogaClassEntry.TABLE_NAME);
+    }
+
+    private long instanceCount() {
+        return DatabaseUtils.queryNumEntries(helper.getReadableDatabase(),
+                DatabaseContract.ClassInstanceEntry.TABLE_NAME);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.yogaadmin.models.YogaClass;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Per-row mapping cost on a 50k-row scan: column lookups by name on every row
+ * (the old copy-pasted loops) against YogaClassRowMapper, with and without a projection.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RowMapperBenchmark {
+    private static final String TAG = "RowMapperBenchmark";
+    private static final String DB_NAME = "benchmark_row_mapper.db";
+    private static final int ROWS = 50_000;
+    private static final int RUNS = 5;
+
+    private Context context;
+    private DatabaseHelper helper;
+    private SQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME);
+        helper.insertYogaClasses(TestData.yogaClasses(ROWS));
+        db = helper.getReadableDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void mapperLowersPerRowCost() {
+        long lookupPerRow = Long.MAX_VALUE;
+        long mapper = Long.MAX_VALUE;
+        long mapperSummary = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            lookupPerRow = Math.min(lookupPerRow, timePerRow(this::mapWithLookupsPerRow, null));
+            mapper = Math.min(mapper, timePerRow(this::mapWithMapper, YogaClassRowMapper.PROJECTION_ALL));
+            mapperSummary = Math.min(mapperSummary, timePerRow(this::mapWithMapper, YogaClassRowMapper.PROJECTION_SUMMARY));
+        }
+
+        Log.i(TAG, ROWS + "-row scan, ns/row: getColumnIndex per row = " + lookupPerRow
+                + ", row mapper = " + mapper + ", row mapper + summary projection = " + mapperSummary);
+        assertTrue(mapper < lookupPerRow);
+    }
+
+    @Test
+    public void projectionLeavesOtherColumnsUnset() {
+        List<YogaClass> yogaClasses = helper.getAllYogaClasses(YogaClassRowMapper.PROJECTION_SUMMARY);
+        assertEquals(ROWS, yogaClasses.size());
+        assertNull(yogaClasses.get(0).getDescription());
+        assertNotNull(yogaClasses.get(0).getTeacher());
+    }
+
+    private interface ScanMapper {
+        List<YogaClass> map(Cursor cursor);
+    }
+
+    private long timePerRow(ScanMapper scanMapper, String[] projection) {
+        try (Cursor cursor = db.query(DatabaseContract.YogaClassEntry.TABLE_NAME, projection,
+                null, null, null, null, null)) {
+            cursor.getCount(); // Fill the cursor window outside the timed section
+            long start = System.nanoTime();
+            List<YogaClass> rows = scanMapper.map(cursor);
+            long nanos = System.nanoTime() - start;
+            assertEquals(ROWS, rows.size());
+            return nanos / ROWS;
+        }
+    }
+
+    private List<YogaClass> mapWithMapper(Cursor cursor) {
+        return RowMapper.mapAll(cursor, new YogaClassRowMapper(cursor));
+    }
+
+    // The pre-mapper pattern: resolve every column by name on every row
+    private List<YogaClass> mapWithLookupsPerRow(Cursor cursor) {
+        List<YogaClass> yogaClasses = new ArrayList<>();
+        while (cursor.moveToNext()) {
+            YogaClass yogaClass = new YogaClass();
+            int idIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry._ID);
+            int dayIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_DAY_OF_WEEK);
+            int timeIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_COURSE_TIME);
+            int capacityIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_CAPACITY);
+            int durationIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_DURATION);
+            int priceIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_PRICE);
+            int typeIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_CLASS_TYPE);
+            int descIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_DESCRIPTION);
+            int equipmentIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_EQUIPMENT);
+            int teacherIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME);
+            if (idIndex != -1) yogaClass.setId(cursor.getLong(idIndex));
+            if (dayIndex != -1) yogaClass.setDayOfWeek(cursor.getString(dayIndex));
+            if (timeIndex != -1) yogaClass.setCourseTime(cursor.getString(timeIndex));
+            if (capacityIndex != -1) yogaClass.setCapacity(cursor.getInt(capacityIndex));
+            if (durationIndex != -1) yogaClass.setDuration(cursor.getInt(durationIndex));
+            if (priceIndex != -1) yogaClass.setPricePerClass(cursor.getDouble(priceIndex));
+            if (typeIndex != -1) yogaClass.setClassType(cursor.getString(typeIndex));
+            if (descIndex != -1) yogaClass.setDescription(cursor.getString(descIndex));
+            if (equipmentIndex != -1) yogaClass.setEquipmentNeeded(cursor.getString(equipmentIndex));
+            if (teacherIndex != -1) yogaClass.setTeacher(cursor.getString(teacherIndex));
+            yogaClasses.add(yogaClass);
+        }
+        return yogaClasses;
+    }
+}
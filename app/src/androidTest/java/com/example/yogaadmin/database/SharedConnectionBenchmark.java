@@ -0,0 +1,79 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares per-call latency of opening/closing the database on every call
+ * (the old DatabaseHelper behaviour) against one shared connection.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SharedConnectionBenchmark {
+    private static final String TAG = "SharedConnectionBench";
+    private static final String DB_NAME = "benchmark_connection.db";
+    private static final int ROWS = 10_000;
+    private static final int CALLS = 500;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+
+        DatabaseHelper helper = new DatabaseHelper(context, DB_NAME);
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < ROWS; i++) {
+                helper.insertYogaClass(TestData.yogaClass(i));
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        helper.close();
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void sharedConnectionIsFasterThanOpenClosePerCall() {
+        // Before: every call opens the database and closes it again
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            DatabaseHelper helper = new DatabaseHelper(context, DB_NAME);
+            assertNotNull(helper.getYogaClassById(1 + (i * 17) % ROWS));
+            helper.close();
+        }
+        long perCallNanos = (System.nanoTime() - start) / CALLS;
+
+        // After: one long-lived connection
+        DatabaseHelper shared = new DatabaseHelper(context, DB_NAME);
+        shared.getReadableDatabase();
+        start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            assertNotNull(shared.getYogaClassById(1 + (i * 17) % ROWS));
+        }
+        long sharedNanos = (System.nanoTime() - start) / CALLS;
+        shared.close();
+
+        Log.i(TAG, "getYogaClassById over " + ROWS + " rows: open/close per call = "
+                + perCallNanos / 1000 + " us, shared connection = " + sharedNanos / 1000 + " us");
+        assertTrue(sharedNanos < perCallNanos);
+    }
+}
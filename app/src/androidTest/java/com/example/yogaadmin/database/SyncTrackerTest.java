@@ -0,0 +1,178 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.YogaClass;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Change stamps, pending classes and the upload watermark of SyncTracker.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SyncTrackerTest {
+    private static final int CLASSES = 1000;
+
+    private DatabaseHelper helper;
+    private SyncTracker tracker;
+    private long[] classIds;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new DatabaseHelper(context, null);
+        tracker = new SyncTracker(helper);
+        classIds = helper.insertYogaClasses(TestData.yogaClasses(CLASSES));
+        helper.insertClassInstances(TestData.classInstances(classIds, CLASSES * 3));
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+    }
+
+    @Test
+    public void newDatabase_everythingPendingUntilUploaded() {
+        SyncTracker.PendingChanges pending = tracker.getPendingChanges();
+        assertEquals(CLASSES, pending.getYogaClasses().size());
+        assertEquals(3, pending.getYogaClasses().get(0).getClassInstances().size());
+
+        tracker.markUploaded(pending.getChangeSeq());
+
+        assertTrue(tracker.getPendingChanges().isEmpty());
+    }
+
+    @Test
+    public void afterUpload_onlyEditedClassesArePending() {
+        tracker.markUploaded(tracker.getPendingChanges().getChangeSeq());
+
+        YogaClass edited = helper.getYogaClassById(classIds[10]);
+        edited.setTeacher("Cover");
+        List<YogaClass> updates = new ArrayList<>();
+        updates.add(edited);
+        helper.updateYogaClasses(updates);
+        helper.insertYogaClass(TestData.yogaClass(CLASSES));
+
+        List<YogaClass> pending = tracker.getPendingChanges().getYogaClasses();
+        assertEquals(2, pending.size());
+        assertEquals(classIds[10], pending.get(0).getId());
+        assertEquals("Cover", pending.get(0).getTeacher());
+    }
+
+    @Test
+    public void instanceChanges_markTheirClass() {
+        tracker.markUploaded(tracker.getPendingChanges().getChangeSeq());
+        List<ClassInstance> instances = helper.getClassInstancesByYogaClassId(classIds[20]);
+
+        ClassInstance instance = instances.get(0);
+        instance.setComments("Moved to studio 2");
+        helper.updateClassInstance(instance);
+        helper.deleteClassInstance(instances.get(1).getId());
+        helper.insertClassInstance(TestData.classInstance(classIds[30], 99));
+
+        List<YogaClass> pending = tracker.getPendingChanges().getYogaClasses();
+        assertEquals(2, pending.size());
+        // The class goes up whole, without the deleted instance
+        assertEquals(classIds[20], pending.get(0).getId());
+        assertEquals(2, pending.get(0).getClassInstances().size());
+        assertEquals(classIds[30], pending.get(1).getId());
+    }
+
+    @Test
+    public void editDuringUpload_staysPending() {
+        SyncTracker.PendingChanges uploading = tracker.getPendingChanges();
+
+        // Committed while the upload is in flight
+        ClassInstance instance = helper.getClassInstancesByYogaClassId(classIds[5]).get(0);
+        instance.setTeacher("Late change");
+        helper.updateClassInstance(instance);
+        tracker.markUploaded(uploading.getChangeSeq());
+
+        List<YogaClass> pending = tracker.getPendingChanges().getYogaClasses();
+        assertEquals(1, pending.size());
+        assertEquals(classIds[5], pending.get(0).getId());
+    }
+
+    @Test
+    public void watermark_neverMovesBack() {
+        SyncTracker.PendingChanges older = tracker.getPendingChanges();
+        helper.insertYogaClass(TestData.yogaClass(CLASSES));
+        SyncTracker.PendingChanges newer = tracker.getPendingChanges();
+
+        tracker.markUploaded(newer.getChangeSeq());
+        tracker.markUploaded(older.getChangeSeq());
+
+        assertTrue(tracker.getPendingChanges().isEmpty());
+    }
+
+    @Test
+    public void deletedClass_isPendingAsARemovalUntilUploaded() {
+        tracker.markUploaded(tracker.getPendingChanges().getChangeSeq());
+
+        helper.deleteYogaClass(classIds[40]);
+
+        SyncTracker.PendingChanges pending = tracker.getPendingChanges();
+        assertTrue(pending.getYogaClasses().isEmpty());
+        assertEquals(Collections.singletonList(classIds[40]), pending.getDeletedClassIds());
+
+        tracker.markUploaded(pending.getChangeSeq());
+
+        assertTrue(tracker.getPendingChanges().isEmpty());
+    }
+
+    @Test
+    public void markUploaded_purgesAcknowledgedStampsAndTombstones() {
+        helper.deleteYogaClass(classIds[1]);
+        helper.deleteYogaClass(classIds[2]);
+        SyncTracker.PendingChanges pending = tracker.getPendingChanges();
+        assertEquals(2, pending.getDeletedClassIds().size());
+
+        // Committed while the upload is in flight
+        helper.insertYogaClass(TestData.yogaClass(CLASSES));
+        tracker.markUploaded(pending.getChangeSeq());
+
+        // Only the late change is left; its stamp is all the table holds
+        assertEquals(1, changeRows());
+        assertEquals(1, tracker.getPendingChanges().getYogaClasses().size());
+    }
+
+    @Test
+    public void allClasses_acknowledgeEverythingPending() {
+        SyncTracker.PendingChanges all = tracker.getAllClasses();
+        assertEquals(CLASSES, all.getYogaClasses().size());
+
+        tracker.markUploaded(all.getChangeSeq());
+
+        assertTrue(tracker.getPendingChanges().isEmpty());
+    }
+
+    @Test
+    public void allClasses_carryPendingDeletions() {
+        tracker.markUploaded(tracker.getPendingChanges().getChangeSeq());
+        helper.deleteYogaClass(classIds[5]);
+
+        SyncTracker.PendingChanges all = tracker.getAllClasses();
+
+        assertEquals(CLASSES - 1, all.getYogaClasses().size());
+        assertEquals(Collections.singletonList(classIds[5]), all.getDeletedClassIds());
+    }
+
+    private long changeRows() {
+        return DatabaseUtils.queryNumEntries(helper.getReadableDatabase(),
+                DatabaseContract.SyncChangeEntry.TABLE_NAME);
+    }
+}
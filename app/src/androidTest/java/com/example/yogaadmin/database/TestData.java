@@ -0,0 +1,56 @@
+package com.example.yogaadmin.database;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.YogaClass;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Deterministic sample rows shared by the database tests and benchmarks.
+ */
+final class TestData {
+    static final String[] DAYS = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
+    static final String[] CLASS_TYPES = {"Flow Yoga", "Aerial Yoga", "Family Yoga"};
+    static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    static final long START_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+
+    private TestData() {}
+
+    static YogaClass yogaClass(int i) {
+        YogaClass yogaClass = new YogaClass();
+        yogaClass.setDayOfWeek(DAYS[i % DAYS.length]);
+        yogaClass.setCourseTime(String.format(Locale.US, "%02d:%02d", 6 + i % 14, (i % 4) * 15));
+        yogaClass.setCapacity(10 + i % 30);
+        yogaClass.setDuration(45 + (i % 4) * 15);
+        yogaClass.setPricePerClass(5 + i % 20);
+        yogaClass.setClassType(CLASS_TYPES[i % CLASS_TYPES.length]);
+        yogaClass.setDescription("Class " + i);
+        yogaClass.setTeacher("Teacher " + (i % 50));
+        return yogaClass;
+    }
+
+    static List<YogaClass> yogaClasses(int count) {
+        List<YogaClass> yogaClasses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            yogaClasses.add(yogaClass(i));
+        }
+        return yogaClasses;
+    }
+
+    static ClassInstance classInstance(long yogaClassId, int week) {
+        return new ClassInstance(yogaClassId, new Date(START_MILLIS + week * 7 * DAY_MILLIS),
+                "Teacher " + (week % 50), week % 5 == 0 ? "Substitute cover " + week : null);
+    }
+
+    // Spread instanceCount weekly instances round-robin over the given class ids
+    static List<ClassInstance> classInstances(long[] yogaClassIds, int instanceCount) {
+        List<ClassInstance> instances = new ArrayList<>(instanceCount);
+        for (int i = 0; i < instanceCount; i++) {
+            instances.add(classInstance(yogaClassIds[i % yogaClassIds.length], i / yogaClassIds.length));
+        }
+        return instances;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.YogaClass;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Read-through behaviour, write invalidation and counters of YogaClassCache.
+ */
+@RunWith(AndroidJUnit4.class)
+public class YogaClassCacheTest {
+    private DatabaseHelper helper;
+    private YogaClassCache cache;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new DatabaseHelper(context, null);
+        cache = new YogaClassCache(helper);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+    }
+
+    @Test
+    public void repeatedLookup_isServedFromMemory() {
+        long id = helper.insertYogaClass(TestData.yogaClass(1));
+
+        YogaClass first = cache.getYogaClassById(id);
+        YogaClass second = cache.getYogaClassById(id);
+
+        assertSame(first, second);
+        assertEquals(1, cache.getClassStats().misses);
+        assertEquals(1, cache.getClassStats().hits);
+    }
+
+    @Test
+    public void update_invalidatesBeforeWriteReturns() {
+        long id = helper.insertYogaClass(TestData.yogaClass(1));
+        YogaClass cached = cache.getYogaClassById(id);
+
+        YogaClass changed = TestData.yogaClass(1);
+        changed.setId(id);
+        changed.setTeacher("New Teacher");
+        helper.updateYogaClasses(Collections.singletonList(changed));
+
+        assertEquals("New Teacher", cache.getYogaClassById(id).getTeacher());
+        assertNotSame(cached, cache.getYogaClassById(id));
+    }
+
+    @Test
+    public void delete_invalidates() {
+        long id = helper.insertYogaClass(TestData.yogaClass(1));
+        assertNotNull(cache.getYogaClassById(id));
+
+        helper.deleteYogaClass(id);
+
+        assertNull(cache.getYogaClassById(id));
+    }
+
+    @Test
+    public void instanceWrite_invalidatesFirstPage() {
+        long id = helper.insertYogaClass(TestData.yogaClass(1));
+        helper.insertClassInstances(TestData.classInstances(new long[]{id}, 3));
+        assertEquals(3, cache.getFirstClassInstancesPage(id, 50).size());
+        assertEquals(2, cache.getFirstClassInstancesPage(id, 2).size());
+        assertEquals(1, cache.getInstancePageStats().hits);
+
+        helper.insertClassInstance(TestData.classInstance(id, 10));
+
+        List<ClassInstance> page = cache.getFirstClassInstancesPage(id, 50);
+        assertEquals(4, page.size());
+    }
+
+    @Test
+    public void evictions_areCountedButInvalidationsAreNot() {
+        long[] ids = helper.insertYogaClasses(TestData.yogaClasses(300));
+        for (long id : ids) {
+            cache.getYogaClassById(id);
+        }
+        YogaClassCache.Stats stats = cache.getClassStats();
+        assertEquals(ids.length - stats.maxSize, stats.evictions);
+        assertEquals(stats.maxSize, stats.size);
+
+        helper.resetDatabase();
+
+        assertEquals(0, cache.getClassStats().size);
+        assertEquals(stats.evictions, cache.getClassStats().evictions);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.yogaadmin.models;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Lookup time of ConflictIndex over a 10,000-class timetable.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ConflictIndexBenchmark {
+    private static final String TAG = "ConflictIndexBenchmark";
+    private static final int CLASSES = 10_000;
+    private static final int LOOKUPS = 10_000;
+    private static final double MAX_MICROS = 1000;
+
+    @Test
+    public void lookupIn10000Classes_underOneMillisecond() {
+        String[] days = ScheduleSnapshot.DAYS;
+        ScheduleSnapshot.Builder builder = new ScheduleSnapshot.Builder(CLASSES);
+        for (int i = 0; i < CLASSES; i++) {
+            builder.add(i + 1, days[i % 7], String.format(Locale.US, "%02d:%02d", 6 + i % 14, (i % 4) * 15),
+                    10, 45 + (i % 4) * 15, 10.0, "Flow Yoga", "Teacher " + (i % 50));
+        }
+        ConflictIndex index = ConflictIndex.build(builder.build());
+
+        int found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            found += index.conflictsWith(0, "Teacher " + (i % 50), i % 7, 6 * 60 + i % 600, 60).size();
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / LOOKUPS;
+
+        assertTrue(found > 0);
+
+        Log.i(TAG, String.format(Locale.US, "%.1f us per lookup, %d conflicts, %d in full report",
+                micros, found, index.findAll().size()));
+        assertTrue("Took " + micros + " us per lookup", micros < MAX_MICROS);
+    }
+}
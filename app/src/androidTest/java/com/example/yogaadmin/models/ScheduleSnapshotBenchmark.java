@@ -0,0 +1,106 @@
+package com.example.yogaadmin.models;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Filter-and-sort time of ScheduleSnapshot against the equivalent
+ * List&lt;YogaClass&gt; code for a typical timetable query.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ScheduleSnapshotBenchmark {
+    private static final String TAG = "ScheduleSnapshotBenchmark";
+    private static final String[] CLASS_TYPES = {"Flow Yoga", "Aerial Yoga", "Family Yoga"};
+    private static final int CLASSES = 50_000;
+    private static final int ROUNDS = 20;
+
+    @Test
+    public void snapshotAgainstObjectList() {
+        List<YogaClass> catalog = catalog(CLASSES);
+        ScheduleSnapshot.Builder builder = new ScheduleSnapshot.Builder(catalog.size());
+        for (YogaClass yogaClass : catalog) {
+            builder.add(yogaClass);
+        }
+        ScheduleSnapshot snapshot = builder.build();
+
+        // Warm up both paths before timing
+        int checksum = 0;
+        for (int i = 0; i < 3; i++) {
+            checksum += query(catalog).size() + query(snapshot).length;
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            checksum += query(catalog).size();
+        }
+        long listNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            checksum += query(snapshot).length;
+        }
+        long snapshotNanos = System.nanoTime() - start;
+
+        assertEquals(query(catalog).size(), query(snapshot).length);
+
+        Log.i(TAG, String.format(Locale.US,
+                "%d classes, filter+sort: List<YogaClass> = %.2f ms, ScheduleSnapshot = %.2f ms (checksum %d)",
+                CLASSES, listNanos / 1e6 / ROUNDS, snapshotNanos / 1e6 / ROUNDS, checksum));
+    }
+
+    // Weekday mornings before noon up to £15, at least 15 places, in timetable order
+    private static int[] query(ScheduleSnapshot snapshot) {
+        ScheduleSnapshot.Filter filter = new ScheduleSnapshot.Filter()
+                .startingBetween(0, 12 * 60)
+                .maxPriceMinor(1500)
+                .minCapacity(15);
+        for (int day = 0; day < 5; day++) {
+            filter.onDay(day);
+        }
+        return snapshot.sortByDayAndTime(snapshot.filter(snapshot.allRows(), filter));
+    }
+
+    private static List<YogaClass> query(List<YogaClass> classes) {
+        List<YogaClass> matches = new ArrayList<>();
+        for (YogaClass yogaClass : classes) {
+            int day = ScheduleSnapshot.encodeDay(yogaClass.getDayOfWeek());
+            if (day >= 0 && day < 5
+                    && yogaClass.getCourseTime().compareTo("12:00") < 0
+                    && yogaClass.getPricePerClass() <= 15.0
+                    && yogaClass.getCapacity() >= 15) {
+                matches.add(yogaClass);
+            }
+        }
+        matches.sort(Comparator.<YogaClass>comparingInt(c -> ScheduleSnapshot.encodeDay(c.getDayOfWeek()))
+                .thenComparing(YogaClass::getCourseTime));
+        return matches;
+    }
+
+    private static List<YogaClass> catalog(int count) {
+        List<YogaClass> classes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            YogaClass yogaClass = new YogaClass();
+            yogaClass.setId(i + 1);
+            yogaClass.setDayOfWeek(ScheduleSnapshot.DAYS[i % 7]);
+            yogaClass.setCourseTime(String.format(Locale.US, "%02d:%02d", 6 + i % 14, (i % 4) * 15));
+            yogaClass.setCapacity(10 + i % 30);
+            yogaClass.setDuration(45 + (i % 4) * 15);
+            yogaClass.setPricePerClass(5 + (i % 20) + (i % 3) * 0.25);
+            yogaClass.setClassType(CLASS_TYPES[i % CLASS_TYPES.length]);
+            yogaClass.setTeacher("Teacher " + (i % 50));
+            classes.add(yogaClass);
+        }
+        return classes;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.yogaadmin.network;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.yogaadmin.models.YogaClass;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Wall-clock time of batched uploads against one write per class and against
+ * one batch in flight at a time, with the server cost simulated by
+ * SimulatedRemoteStore.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BatchUploadBenchmark {
+    private static final String TAG = "BatchUploadBenchmark";
+    private static final int CLASSES = 5000;
+
+    @Test
+    public void batchedOutperformsPerRecordWrites() throws InterruptedException {
+        // Each request costs a fixed 200us on the server plus 2us per record written
+        List<YogaClass> yogaClasses = yogaClasses(CLASSES);
+
+        SimulatedRemoteStore perRecordStore = new SimulatedRemoteStore(200_000, 2_000);
+        long start = System.nanoTime();
+        CountDownLatch done = new CountDownLatch(CLASSES);
+        for (YogaClass yogaClass : yogaClasses) {
+            perRecordStore.updateChildren(Collections.singletonMap(String.valueOf(yogaClass.getId()), yogaClass),
+                    error -> done.countDown());
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        long perRecordMillis = (System.nanoTime() - start) / 1_000_000;
+        perRecordStore.shutdown();
+
+        SimulatedRemoteStore batchedStore = new SimulatedRemoteStore(200_000, 2_000);
+        start = System.nanoTime();
+        upload(new BatchUploader(batchedStore), yogaClasses);
+        long batchedMillis = (System.nanoTime() - start) / 1_000_000;
+        batchedStore.shutdown();
+
+        assertEquals(CLASSES, perRecordStore.data.size());
+        assertEquals(CLASSES, batchedStore.data.size());
+
+        Log.i(TAG, String.format("%d classes: per record %d requests in %d ms, batched %d requests in %d ms",
+                CLASSES, perRecordStore.requests.get(), perRecordMillis,
+                batchedStore.requests.get(), batchedMillis));
+        assertTrue("Batched took " + batchedMillis + " ms", batchedMillis < perRecordMillis);
+    }
+
+    @Test
+    public void boundedConcurrencyOutperformsOneAtATime() throws InterruptedException {
+        // Latency-bound: each request takes 2 ms whatever its size, and the server handles several at once
+        List<YogaClass> yogaClasses = yogaClasses(CLASSES);
+
+        SimulatedRemoteStore sequentialStore = new SimulatedRemoteStore(2_000_000, 0, 8);
+        long start = System.nanoTime();
+        upload(new BatchUploader(sequentialStore, 100, Integer.MAX_VALUE, 1), yogaClasses);
+        long sequentialMillis = (System.nanoTime() - start) / 1_000_000;
+        sequentialStore.shutdown();
+
+        SimulatedRemoteStore concurrentStore = new SimulatedRemoteStore(2_000_000, 0, 8);
+        start = System.nanoTime();
+        upload(new BatchUploader(concurrentStore, 100, Integer.MAX_VALUE), yogaClasses);
+        long concurrentMillis = (System.nanoTime() - start) / 1_000_000;
+        concurrentStore.shutdown();
+
+        assertEquals(CLASSES, sequentialStore.data.size());
+        assertEquals(CLASSES, concurrentStore.data.size());
+
+        Log.i(TAG, String.format("%d classes in %d batches: one at a time %d ms, %d in flight %d ms",
+                CLASSES, concurrentStore.requests.get(), sequentialMillis,
+                BatchUploader.DEFAULT_MAX_IN_FLIGHT, concurrentMillis));
+        assertTrue("Concurrent took " + concurrentMillis + " ms", concurrentMillis < sequentialMillis);
+    }
+
+    private static void upload(BatchUploader uploader, List<YogaClass> yogaClasses) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        uploader.upload(yogaClasses, Collections.emptyList(), new BatchUploader.Listener() {
+            @Override
+            public void onBatchComplete(BatchUploader.BatchResult result, int batchCount) {
+            }
+
+            @Override
+            public void onComplete(List<BatchUploader.BatchResult> batchResults) {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+    }
+
+    private static List<YogaClass> yogaClasses(int count) {
+        List<YogaClass> yogaClasses = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            YogaClass yogaClass = new YogaClass();
+            yogaClass.setId(i);
+            yogaClass.setDayOfWeek("Monday");
+            yogaClass.setCourseTime("10:00");
+            yogaClass.setTeacher("Teacher " + i);
+            yogaClasses.add(yogaClass);
+        }
+        return yogaClasses;
+    }
+}
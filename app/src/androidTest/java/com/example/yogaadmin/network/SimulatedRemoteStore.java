@@ -0,0 +1,63 @@
+package com.example.yogaadmin.network;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * RemoteStore for the upload benchmarks. A pool of server threads applies
+ * requests, one at a time by default, each after a fixed cost plus a cost per
+ * record written.
+ */
+class SimulatedRemoteStore implements RemoteStore {
+    final Map<String, Object> data = new ConcurrentHashMap<>();
+    final AtomicInteger requests = new AtomicInteger();
+
+    private final ExecutorService server;
+    private final long requestNanos;
+    private final long recordNanos;
+    private final AtomicInteger issuedKeys = new AtomicInteger();
+
+    SimulatedRemoteStore(long requestNanos, long recordNanos) {
+        this(requestNanos, recordNanos, 1);
+    }
+
+    SimulatedRemoteStore(long requestNanos, long recordNanos, int serverThreads) {
+        this.requestNanos = requestNanos;
+        this.recordNanos = recordNanos;
+        this.server = Executors.newFixedThreadPool(serverThreads);
+    }
+
+    @Override
+    public String newKey() {
+        return "key-" + issuedKeys.incrementAndGet();
+    }
+
+    @Override
+    public void updateChildren(Map<String, Object> values, Completion completion) {
+        requests.incrementAndGet();
+        Map<String, Object> copy = new LinkedHashMap<>(values);
+        server.execute(() -> {
+            long end = System.nanoTime() + requestNanos + recordNanos * copy.size();
+            while (System.nanoTime() < end) {
+                LockSupport.parkNanos(50_000);
+            }
+            for (Map.Entry<String, Object> entry : copy.entrySet()) {
+                if (entry.getValue() != null) {
+                    data.put(entry.getKey(), entry.getValue());
+                } else {
+                    data.remove(entry.getKey());
+                }
+            }
+            completion.onComplete(null);
+        });
+    }
+
+    void shutdown() {
+        server.shutdownNow();
+    }
+}
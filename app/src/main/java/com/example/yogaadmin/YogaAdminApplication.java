@@ -0,0 +1,95 @@
+package com.example.yogaadmin;
+
+import android.app.Application;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.util.Log;
+
+import com.example.yogaadmin.database.DatabaseContract;
+import com.example.yogaadmin.database.DatabaseManager;
+import com.example.yogaadmin.database.InvalidationTracker;
+import com.example.yogaadmin.network.FirebaseRemoteStore;
+import com.example.yogaadmin.network.OutboxDispatcher;
+import com.example.yogaadmin.utils.NetworkUtils;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+public class YogaAdminApplication extends Application {
+    private static final String TAG = "YogaAdminApplication";
+
+    private ScheduledExecutorService outboxExecutor;
+    private OutboxDispatcher outboxDispatcher;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // One database connection for the whole process
+        DatabaseManager.getInstance(this).open();
+        startCloudOutbox();
+    }
+
+    // Upload local changes in the background, resuming whatever an earlier run left in the outbox
+    private void startCloudOutbox() {
+        try {
+            FirebaseDatabase firebaseDatabase = FirebaseDatabase.getInstance("https://comp1786-database-default-rtdb.asia-southeast1.firebasedatabase.app/");
+            DatabaseManager databaseManager = DatabaseManager.getInstance(this);
+
+            outboxExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cloud-outbox");
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            });
+            outboxDispatcher = new OutboxDispatcher(databaseManager.getCloudOutbox(),
+                    new FirebaseRemoteStore(firebaseDatabase.getReference("yoga_classes")),
+                    () -> NetworkUtils.isNetworkAvailable(this), outboxExecutor, new OutboxDispatcher.Listener() {
+                        @Override
+                        public void onDelivered(int classes) {
+                            Log.d(TAG, "Outbox delivered " + classes + " classes");
+                        }
+
+                        @Override
+                        public void onRetryScheduled(int failures, long delayMillis, Exception error) {
+                            Log.w(TAG, "Outbox upload failed " + failures + " times, retrying in " + delayMillis
+                                    + " ms" + (error != null ? ": " + error.getMessage() : " (offline)"));
+                        }
+                    });
+
+            // Triggers have already queued the change when these run
+            InvalidationTracker invalidationTracker = databaseManager.getInvalidationTracker();
+            invalidationTracker.addWriterObserver(DatabaseContract.YogaClassEntry.TABLE_NAME,
+                    (table, rowIds) -> outboxDispatcher.requestDrain());
+            invalidationTracker.addWriterObserver(DatabaseContract.ClassInstanceEntry.TABLE_NAME,
+                    (table, rowIds) -> outboxDispatcher.requestDrain());
+
+            // Don't sit out the backoff once the device is back online
+            ConnectivityManager connectivityManager =
+                    (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
+            if (connectivityManager != null) {
+                connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+                    @Override
+                    public void onAvailable(Network network) {
+                        outboxDispatcher.retryNow();
+                    }
+                });
+            }
+
+            outboxDispatcher.start();
+        } catch (Exception e) {
+            Log.e(TAG, "Error starting cloud outbox: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void onTerminate() {
+        // Only called on emulated processes, but keeps the lifecycle explicit
+        if (outboxDispatcher != null) {
+            outboxDispatcher.stop();
+            outboxExecutor.shutdown();
+        }
+        DatabaseManager.shutdown();
+        super.onTerminate();
+    }
+}
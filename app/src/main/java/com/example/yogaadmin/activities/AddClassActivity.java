@@ -12,10 +12,14 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.yogaadmin.R;
-import com.example.yogaadmin.database.DatabaseHelper;
+import com.example.yogaadmin.database.AsyncDatabaseHelper;
+import com.example.yogaadmin.database.DatabaseManager;
+import com.example.yogaadmin.models.ScheduleConflict;
 import com.example.yogaadmin.models.YogaClass;
 import com.example.yogaadmin.utils.InputValidator;
 
+import java.util.List;
+
 public class AddClassActivity extends AppCompatActivity {
     // UI Components
     private Spinner spinnerDayOfWeek;
@@ -28,16 +32,16 @@ public class AddClassActivity extends AppCompatActivity {
     private EditText etTeacherName;
     private Button btnSaveClass;
 
-    // Database Helper
-    private DatabaseHelper databaseHelper;
+    // Asynchronous database access
+    private AsyncDatabaseHelper asyncDatabaseHelper;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_add_class);
 
-        // Initialize Database Helper
-        databaseHelper = new DatabaseHelper(this);
+        // Initialize asynchronous database access
+        asyncDatabaseHelper = DatabaseManager.getInstance(this).getAsyncDatabaseHelper();
 
         // Initialize UI Components
         initializeComponents();
@@ -146,8 +150,52 @@ public class AddClassActivity extends AppCompatActivity {
             yogaClass.setDescription(description);
             yogaClass.setTeacher(teacherName); // Set teacher name
 
-            // Save to database
-            long id = databaseHelper.insertYogaClass(yogaClass);
+            // Warn before double-booking the teacher; the button stays disabled until the save finishes
+            btnSaveClass.setEnabled(false);
+            asyncDatabaseHelper.findClassConflicts(yogaClass, new AsyncDatabaseHelper.Callback<List<ScheduleConflict>>() {
+                @Override
+                public void onResult(List<ScheduleConflict> conflicts) {
+                    if (isDestroyed()) {
+                        return;
+                    }
+                    if (conflicts.isEmpty()) {
+                        insertYogaClass(yogaClass);
+                        return;
+                    }
+                    new AlertDialog.Builder(AddClassActivity.this)
+                            .setTitle("Teacher Conflict")
+                            .setMessage(teacherName + " is already teaching then:\n\n"
+                                    + ScheduleConflict.describeAll(conflicts))
+                            .setPositiveButton("Save Anyway", (dialog, which) -> insertYogaClass(yogaClass))
+                            .setNegativeButton("Cancel", (dialog, which) -> btnSaveClass.setEnabled(true))
+                            .setOnCancelListener(dialog -> btnSaveClass.setEnabled(true))
+                            .show();
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    // The check is advisory; don't lose the class over it
+                    if (!isDestroyed()) {
+                        insertYogaClass(yogaClass);
+                    }
+                }
+            });
+
+        } catch (NumberFormatException e) {
+            showError("Please enter valid numeric values for capacity, duration, and price");
+        }
+    }
+
+    private void insertYogaClass(YogaClass yogaClass) {
+        asyncDatabaseHelper.insertYogaClass(yogaClass, id -> {
+            if (isDestroyed()) {
+                return;
+            }
+            btnSaveClass.setEnabled(true);
+            if (id == -1) {
+                showError("Failed to save yoga class");
+                return;
+            }
 
             // Show confirmation dialog
             new AlertDialog.Builder(this)
@@ -162,10 +210,7 @@ public class AddClassActivity extends AppCompatActivity {
                         finish();
                     })
                     .show();
-
-        } catch (NumberFormatException e) {
-            showError("Please enter valid numeric values for capacity, duration, and price");
-        }
+        });
     }
 
     private void clearForm() {
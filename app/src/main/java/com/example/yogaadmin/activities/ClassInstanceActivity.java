@@ -2,44 +2,95 @@ package com.example.yogaadmin.activities;
 
 import android.app.DatePickerDialog;
 import android.os.Bundle;
+import android.text.TextUtils;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.MenuItem;
 import android.view.View;
-import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.DatePicker;
 import android.widget.EditText;
-import android.widget.ListView;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.Lifecycle;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.yogaadmin.R;
-import com.example.yogaadmin.database.DatabaseHelper;
+import com.example.yogaadmin.adapters.ClassInstanceAdapter;
+import com.example.yogaadmin.database.AsyncDatabaseHelper;
+import com.example.yogaadmin.database.DatabaseContract;
+import com.example.yogaadmin.database.DatabaseManager;
+import com.example.yogaadmin.database.InvalidationTracker;
 import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.ScheduleConflict;
 import com.example.yogaadmin.models.YogaClass;
+import com.example.yogaadmin.utils.InputValidator;
+import com.example.yogaadmin.utils.RecurrenceGenerator;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 public class ClassInstanceActivity extends AppCompatActivity {
 
     private static final String TAG = "ClassInstancesActivity";
     private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("EEE, MMM d, yyyy", Locale.US);
-
-    private DatabaseHelper databaseHelper;
-    private ListView listViewInstances;
+    private static final int PAGE_SIZE = 50;
+    private static final int DEFAULT_RECURRING_COUNT = 12;
+    private static final int MAX_RECURRING_COUNT = 104;
+    // Start fetching the next page when this many rows are left below the screen
+    private static final int PREFETCH_DISTANCE = 15;
+    // List order, matching the (date, id) keyset used for paging
+    private static final Comparator<ClassInstance> DATE_THEN_ID = (a, b) -> {
+        int byDate = a.getDate().compareTo(b.getDate());
+        return byDate != 0 ? byDate : Long.compare(a.getId(), b.getId());
+    };
+
+    private AsyncDatabaseHelper asyncDatabaseHelper;
+    private RecyclerView recyclerViewInstances;
+    private LinearLayoutManager layoutManager;
     private TextView tvNoInstances;
-    private List<ClassInstance> classInstances;
+    // Rows loaded so far; the adapter gets a copy of it after every change
+    private final List<ClassInstance> classInstances = new ArrayList<>();
+    private ClassInstanceAdapter adapter;
     private YogaClass yogaClass;
     private long yogaClassId;
+    // Reused for day-of-week checks on picked dates
+    private final Calendar dayCheckCalendar = Calendar.getInstance();
+
+    // Incremental loading state
+    private int loadGeneration; // Pages from an earlier load are dropped
+    private boolean loadingPage;
+    private boolean lastPageLoaded;
+
+    // Instance changes not yet reflected in the list
+    private InvalidationTracker invalidationTracker;
+    private final Set<Long> dirtyInstanceIds = new HashSet<>();
+    private boolean allInstancesDirty;
+    private final InvalidationTracker.Observer instanceObserver = (table, rowIds) -> {
+        if (rowIds.isEmpty()) {
+            allInstancesDirty = true;
+        } else {
+            dirtyInstanceIds.addAll(rowIds);
+        }
+        if (getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.RESUMED)) {
+            applyPendingChanges();
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -54,16 +105,8 @@ public class ClassInstanceActivity extends AppCompatActivity {
             return;
         }
 
-        // Initialize database helper
-        databaseHelper = new DatabaseHelper(this);
-
-        // Get yoga class
-        yogaClass = databaseHelper.getYogaClassById(yogaClassId);
-        if (yogaClass == null) {
-            Toast.makeText(this, "Error: Class not found in database", Toast.LENGTH_SHORT).show();
-            finish();
-            return;
-        }
+        // Initialize asynchronous database access
+        asyncDatabaseHelper = DatabaseManager.getInstance(this).getAsyncDatabaseHelper();
 
         // Set up action bar
         if (getSupportActionBar() != null) {
@@ -71,11 +114,123 @@ public class ClassInstanceActivity extends AppCompatActivity {
             getSupportActionBar().setDisplayHomeAsUpEnabled(true);
         }
 
+        // Get yoga class, then build the screen around it
+        asyncDatabaseHelper.getYogaClassById(yogaClassId, this::onYogaClassLoaded);
+    }
+
+    private void onYogaClassLoaded(YogaClass loadedClass) {
+        if (isDestroyed()) {
+            return;
+        }
+        if (loadedClass == null) {
+            Toast.makeText(this, "Error: Class not found in database", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+        yogaClass = loadedClass;
+
         // Initialize UI components
         setupUI();
 
-        // Load class instances
+        // Load class instances, then keep them current as instances change
         loadClassInstances();
+        invalidationTracker = DatabaseManager.getInstance(this).getInvalidationTracker();
+        invalidationTracker.addObserver(DatabaseContract.ClassInstanceEntry.TABLE_NAME, instanceObserver);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Apply changes made on other screens while this one was in the background
+        applyPendingChanges();
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (invalidationTracker != null) {
+            invalidationTracker.removeObserver(DatabaseContract.ClassInstanceEntry.TABLE_NAME, instanceObserver);
+        }
+        super.onDestroy();
+    }
+
+    private void applyPendingChanges() {
+        if (adapter == null) {
+            // Still waiting for the yoga class; the first load will see everything
+            return;
+        }
+        if (allInstancesDirty) {
+            loadClassInstances();
+            return;
+        }
+        if (dirtyInstanceIds.isEmpty()) {
+            return;
+        }
+
+        long[] ids = new long[dirtyInstanceIds.size()];
+        int i = 0;
+        for (long id : dirtyInstanceIds) {
+            ids[i++] = id;
+        }
+        dirtyInstanceIds.clear();
+
+        final int generation = loadGeneration;
+        asyncDatabaseHelper.getClassInstancesByIds(ids,
+                preparingRows(fresh -> patchRows(generation, ids, fresh)));
+    }
+
+    // Drop the changed rows, then put back the current version of those that still belong to this class
+    private void patchRows(int generation, long[] changedIds, List<ClassInstance> fresh) {
+        if (generation != loadGeneration || isDestroyed()) {
+            return;
+        }
+
+        Set<Long> changed = new HashSet<>();
+        for (long id : changedIds) {
+            changed.add(id);
+        }
+        ClassInstance lastLoaded = classInstances.isEmpty() ? null : classInstances.get(classInstances.size() - 1);
+        for (int i = classInstances.size() - 1; i >= 0; i--) {
+            if (changed.contains(classInstances.get(i).getId())) {
+                classInstances.remove(i);
+            }
+        }
+
+        for (ClassInstance instance : fresh) {
+            if (instance.getYogaClassId() != yogaClassId) {
+                continue;
+            }
+            // Rows past the loaded range arrive with a later page
+            boolean withinLoaded = lastPageLoaded
+                    || (lastLoaded != null && DATE_THEN_ID.compare(instance, lastLoaded) <= 0);
+            if (withinLoaded) {
+                int position = Collections.binarySearch(classInstances, instance, DATE_THEN_ID);
+                classInstances.add(position < 0 ? -position - 1 : position, instance);
+            }
+        }
+
+        showInstances();
+    }
+
+    // Format the rows' display text on the I/O thread, so binding them is only a lookup
+    private AsyncDatabaseHelper.Callback<List<ClassInstance>> preparingRows(
+            AsyncDatabaseHelper.Callback<List<ClassInstance>> callback) {
+        return new AsyncDatabaseHelper.Callback<List<ClassInstance>>() {
+            @Override
+            public void prepare(List<ClassInstance> rows) {
+                adapter.prepare(rows);
+            }
+
+            @Override
+            public void onResult(List<ClassInstance> rows) {
+                callback.onResult(rows);
+            }
+        };
+    }
+
+    // Hand the adapter a snapshot of the rows; it diffs it off the UI thread and animates what changed
+    private void showInstances() {
+        adapter.submitList(new ArrayList<>(classInstances));
+        updateEmptyState();
     }
 
     private void setupUI() {
@@ -86,37 +241,78 @@ public class ClassInstanceActivity extends AppCompatActivity {
         tvClassTitle.setText(yogaClass.getClassType());
         tvClassSchedule.setText(yogaClass.getDayOfWeek() + " at " + yogaClass.getCourseTime());
 
-        // Set up list view
-        listViewInstances = findViewById(R.id.listViewInstances);
+        // Set up the list; the adapter stays for the activity's lifetime and pages are appended to it
+        recyclerViewInstances = findViewById(R.id.recyclerViewInstances);
         tvNoInstances = findViewById(R.id.tvNoInstances);
+        layoutManager = new LinearLayoutManager(this);
+        recyclerViewInstances.setLayoutManager(layoutManager);
+        recyclerViewInstances.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
+        adapter = new ClassInstanceAdapter(this::showInstanceOptionsDialog);
+        recyclerViewInstances.setAdapter(adapter);
 
         // Set up add button
         Button btnAddInstance = findViewById(R.id.btnAddInstance);
         btnAddInstance.setOnClickListener(v -> showAddInstanceDialog());
 
-        // Set up list item click listeners
-        listViewInstances.setOnItemClickListener((parent, view, position, id) -> {
-            ClassInstance instance = classInstances.get(position);
-            showInstanceOptionsDialog(instance);
+        // Set up recurring schedule button
+        Button btnScheduleRecurring = findViewById(R.id.btnScheduleRecurring);
+        btnScheduleRecurring.setOnClickListener(v -> showScheduleRecurringDialog());
+
+        // Fetch the next page as the user scrolls towards the end of the list
+        recyclerViewInstances.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= layoutManager.getItemCount() - 1 - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
         });
     }
 
     private void loadClassInstances() {
-        // Get instances for this yoga class
-        classInstances = databaseHelper.getClassInstancesByYogaClassId(yogaClassId);
+        // Start again from the first page; a full load covers any pending change
+        allInstancesDirty = false;
+        dirtyInstanceIds.clear();
+        loadGeneration++;
+        loadingPage = false;
+        lastPageLoaded = false;
+        // The old rows stay on screen until the first page replaces them
+        classInstances.clear();
+
+        loadNextPage();
+    }
 
-        if (classInstances.isEmpty()) {
-            tvNoInstances.setVisibility(View.VISIBLE);
-            listViewInstances.setVisibility(View.GONE);
+    // Load the page after the last instance shown, off the UI thread
+    private void loadNextPage() {
+        if (loadingPage || lastPageLoaded) {
             return;
         }
+        loadingPage = true;
+
+        final int generation = loadGeneration;
+        final ClassInstance last = classInstances.isEmpty() ? null : classInstances.get(classInstances.size() - 1);
+        final long afterDate = last != null ? last.getDate().getTime() : Long.MIN_VALUE;
+        final long afterId = last != null ? last.getId() : 0;
+        asyncDatabaseHelper.getClassInstancesPage(yogaClassId, afterDate, afterId, PAGE_SIZE,
+                preparingRows(page -> onPageLoaded(generation, page)));
+    }
 
-        tvNoInstances.setVisibility(View.GONE);
-        listViewInstances.setVisibility(View.VISIBLE);
+    private void onPageLoaded(int generation, List<ClassInstance> page) {
+        if (generation != loadGeneration || isDestroyed()) {
+            return;
+        }
+        loadingPage = false;
+        lastPageLoaded = page.size() < PAGE_SIZE;
+
+        classInstances.addAll(page);
+        showInstances();
+    }
 
-        // Create and set adapter
-        ClassInstanceAdapter adapter = new ClassInstanceAdapter();
-        listViewInstances.setAdapter(adapter);
+    private void updateEmptyState() {
+        boolean empty = classInstances.isEmpty();
+        tvNoInstances.setVisibility(empty ? View.VISIBLE : View.GONE);
+        recyclerViewInstances.setVisibility(empty ? View.GONE : View.VISIBLE);
     }
 
     private void showAddInstanceDialog() {
@@ -204,38 +400,141 @@ public class ClassInstanceActivity extends AppCompatActivity {
     }
 
     private boolean isDayOfWeekMatch(Date date, String requiredDayOfWeek) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
+        dayCheckCalendar.setTime(date);
+        return dayCheckCalendar.get(Calendar.DAY_OF_WEEK) == RecurrenceGenerator.calendarDayOf(requiredDayOfWeek);
+    }
+
+    private void showScheduleRecurringDialog() {
+        // Imported or older rows may hold a day the generator can't place on the calendar
+        if (RecurrenceGenerator.calendarDayOf(yogaClass.getDayOfWeek()) < 0) {
+            Toast.makeText(this, "Can't schedule: \"" + yogaClass.getDayOfWeek()
+                    + "\" is not a day of the week. Edit the class first.", Toast.LENGTH_LONG).show();
+            return;
+        }
+
+        View dialogView = LayoutInflater.from(this).inflate(R.layout.dialog_schedule_recurring, null);
 
-        int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
-        String dayOfWeekString = getDayOfWeekString(dayOfWeek);
+        TextView tvStartDate = dialogView.findViewById(R.id.tvRecurringStartDate);
+        Button btnPickStartDate = dialogView.findViewById(R.id.btnPickRecurringStartDate);
+        EditText etCount = dialogView.findViewById(R.id.etRecurringCount);
+        EditText etTeacher = dialogView.findViewById(R.id.etRecurringTeacher);
+        TextView tvSkippedDates = dialogView.findViewById(R.id.tvRecurringSkippedDates);
+        Button btnAddSkippedDate = dialogView.findViewById(R.id.btnAddSkippedDate);
 
-        return dayOfWeekString.equalsIgnoreCase(requiredDayOfWeek);
+        // Defaults: from today, for the next term, taught by the class teacher
+        final Calendar startDate = Calendar.getInstance();
+        final List<Date> skippedDates = new ArrayList<>();
+        tvStartDate.setText(DATE_FORMAT.format(startDate.getTime()));
+        etCount.setText(String.valueOf(DEFAULT_RECURRING_COUNT));
+        etTeacher.setText(yogaClass.getTeacher());
+
+        btnPickStartDate.setOnClickListener(v -> new DatePickerDialog(this, (view, year, month, dayOfMonth) -> {
+            startDate.set(year, month, dayOfMonth);
+            tvStartDate.setText(DATE_FORMAT.format(startDate.getTime()));
+        }, startDate.get(Calendar.YEAR), startDate.get(Calendar.MONTH), startDate.get(Calendar.DAY_OF_MONTH)).show());
+
+        btnAddSkippedDate.setOnClickListener(v -> {
+            Calendar skipped = (Calendar) startDate.clone();
+            new DatePickerDialog(this, (view, year, month, dayOfMonth) -> {
+                skipped.set(year, month, dayOfMonth);
+                skippedDates.add(skipped.getTime());
+                List<String> labels = new ArrayList<>();
+                for (Date date : skippedDates) {
+                    labels.add(DATE_FORMAT.format(date));
+                }
+                tvSkippedDates.setText(TextUtils.join("\n", labels));
+            }, skipped.get(Calendar.YEAR), skipped.get(Calendar.MONTH), skipped.get(Calendar.DAY_OF_MONTH)).show();
+        });
+
+        new AlertDialog.Builder(this)
+                .setTitle("Schedule Weekly Instances")
+                .setMessage("Every " + yogaClass.getDayOfWeek() + " at " + yogaClass.getCourseTime())
+                .setView(dialogView)
+                .setPositiveButton("Schedule", (dialog, which) -> {
+                    int count;
+                    try {
+                        count = Integer.parseInt(etCount.getText().toString().trim());
+                    } catch (NumberFormatException e) {
+                        count = 0;
+                    }
+                    if (count < 1 || count > MAX_RECURRING_COUNT) {
+                        Toast.makeText(this, "Number of classes must be 1-" + MAX_RECURRING_COUNT,
+                                Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    String teacher = etTeacher.getText().toString().trim();
+                    if (!InputValidator.isValidTeacherName(teacher)) {
+                        Toast.makeText(this, "Teacher name is required", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+
+                    RecurrenceGenerator generator = new RecurrenceGenerator().teacher(teacher);
+                    for (Date date : skippedDates) {
+                        generator.skip(date.getTime());
+                    }
+                    scheduleRecurringInstances(generator, startDate.getTimeInMillis(), count);
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
     }
 
-    private String getDayOfWeekString(int dayOfWeek) {
-        switch (dayOfWeek) {
-            case Calendar.SUNDAY:    return "Sunday";
-            case Calendar.MONDAY:    return "Monday";
-            case Calendar.TUESDAY:   return "Tuesday";
-            case Calendar.WEDNESDAY: return "Wednesday";
-            case Calendar.THURSDAY:  return "Thursday";
-            case Calendar.FRIDAY:    return "Friday";
-            case Calendar.SATURDAY:  return "Saturday";
-            default:                 return "";
-        }
+    private void scheduleRecurringInstances(RecurrenceGenerator generator, long fromMillis, int count) {
+        asyncDatabaseHelper.generateRecurringInstances(generator, yogaClass, fromMillis, count,
+                new AsyncDatabaseHelper.Callback<List<ClassInstance>>() {
+            @Override
+            public void onResult(List<ClassInstance> instances) {
+                if (isDestroyed()) {
+                    return;
+                }
+                if (instances.isEmpty()) {
+                    Toast.makeText(ClassInstanceActivity.this, "No dates to schedule", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                confirmNoTeacherConflicts(instances, () -> insertScheduledInstances(instances));
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Error generating recurring instances", e);
+                if (!isDestroyed()) {
+                    Toast.makeText(ClassInstanceActivity.this, "Failed to schedule class instances: "
+                            + e.getMessage(), Toast.LENGTH_LONG).show();
+                }
+            }
+        });
+    }
+
+    private void insertScheduledInstances(List<ClassInstance> instances) {
+        asyncDatabaseHelper.insertClassInstances(instances, ids -> {
+            if (isDestroyed()) {
+                return;
+            }
+            if (ids[0] > 0) {
+                Toast.makeText(this, ids.length + " class instances scheduled", Toast.LENGTH_SHORT).show();
+                // The invalidation tracker puts the new rows into the list
+            } else {
+                Toast.makeText(this, "Failed to schedule class instances", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private void createClassInstance(Date date, String teacher, String comments) {
         ClassInstance instance = new ClassInstance(yogaClassId, date, teacher, comments);
+        confirmNoTeacherConflicts(Collections.singletonList(instance), () -> insertClassInstance(instance));
+    }
 
-        long id = databaseHelper.insertClassInstance(instance);
-        if (id > 0) {
-            Toast.makeText(this, "Class instance added", Toast.LENGTH_SHORT).show();
-            loadClassInstances();  // Refresh list
-        } else {
-            Toast.makeText(this, "Failed to add class instance", Toast.LENGTH_SHORT).show();
-        }
+    private void insertClassInstance(ClassInstance instance) {
+        asyncDatabaseHelper.insertClassInstance(instance, id -> {
+            if (isDestroyed()) {
+                return;
+            }
+            if (id > 0) {
+                Toast.makeText(this, "Class instance added", Toast.LENGTH_SHORT).show();
+                // The invalidation tracker puts the change into the list
+            } else {
+                Toast.makeText(this, "Failed to add class instance", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private void showInstanceOptionsDialog(ClassInstance instance) {
@@ -331,17 +630,71 @@ public class ClassInstanceActivity extends AppCompatActivity {
     }
 
     private void updateClassInstance(ClassInstance instance, Date date, String teacher, String comments) {
-        instance.setDate(date);
-        instance.setTeacher(teacher);
-        instance.setComments(comments);
-
-        int rowsAffected = databaseHelper.updateClassInstance(instance);
-        if (rowsAffected > 0) {
-            Toast.makeText(this, "Class instance updated", Toast.LENGTH_SHORT).show();
-            loadClassInstances();  // Refresh list
-        } else {
-            Toast.makeText(this, "Failed to update class instance", Toast.LENGTH_SHORT).show();
+        // Write a new object: the listed one may be shared with the instance cache
+        ClassInstance updated = new ClassInstance(instance.getYogaClassId(), date, teacher, comments);
+        updated.setId(instance.getId());
+        confirmNoTeacherConflicts(Collections.singletonList(updated), () -> saveClassInstance(updated));
+    }
+
+    private void saveClassInstance(ClassInstance updated) {
+        asyncDatabaseHelper.updateClassInstance(updated, rowsAffected -> {
+            if (isDestroyed()) {
+                return;
+            }
+            if (rowsAffected > 0) {
+                Toast.makeText(this, "Class instance updated", Toast.LENGTH_SHORT).show();
+                // The invalidation tracker puts the change into the list
+            } else {
+                Toast.makeText(this, "Failed to update class instance", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    // Save straight away unless a teacher has an overlapping class on one of the days; then ask first
+    private void confirmNoTeacherConflicts(List<ClassInstance> instances, Runnable save) {
+        asyncDatabaseHelper.findInstanceConflicts(instances,
+                new AsyncDatabaseHelper.Callback<Map<ClassInstance, List<ScheduleConflict>>>() {
+            @Override
+            public void onResult(Map<ClassInstance, List<ScheduleConflict>> conflicts) {
+                if (isDestroyed()) {
+                    return;
+                }
+                if (conflicts.isEmpty()) {
+                    save.run();
+                    return;
+                }
+                new AlertDialog.Builder(ClassInstanceActivity.this)
+                        .setTitle("Teacher Conflict")
+                        .setMessage(describeConflicts(instances.size(), conflicts))
+                        .setPositiveButton("Save Anyway", (dialog, which) -> save.run())
+                        .setNegativeButton("Cancel", null)
+                        .show();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                // The check is advisory; don't lose the instance over it
+                if (!isDestroyed()) {
+                    save.run();
+                }
+            }
+        });
+    }
+
+    // The clashes of each date, under e.g. "Ann is already teaching on 2 of the 12 dates:"
+    private static String describeConflicts(int dates, Map<ClassInstance, List<ScheduleConflict>> conflicts) {
+        ClassInstance first = conflicts.keySet().iterator().next();
+        StringBuilder message = new StringBuilder(first.getTeacher()).append(" is already teaching on ");
+        if (dates == 1) {
+            return message.append(DATE_FORMAT.format(first.getDate())).append(":\n\n")
+                    .append(ScheduleConflict.describeAll(conflicts.get(first))).toString();
         }
+        message.append(conflicts.size()).append(" of the ").append(dates).append(" dates:");
+        for (Map.Entry<ClassInstance, List<ScheduleConflict>> entry : conflicts.entrySet()) {
+            message.append("\n\n").append(DATE_FORMAT.format(entry.getKey().getDate())).append("\n")
+                    .append(ScheduleConflict.describeAll(entry.getValue()));
+        }
+        return message.toString();
     }
 
     private void showDeleteConfirmationDialog(ClassInstance instance) {
@@ -349,9 +702,12 @@ public class ClassInstanceActivity extends AppCompatActivity {
                 .setTitle("Delete Instance")
                 .setMessage("Are you sure you want to delete this class instance?")
                 .setPositiveButton("Delete", (dialog, which) -> {
-                    databaseHelper.deleteClassInstance(instance.getId());
-                    Toast.makeText(this, "Class instance deleted", Toast.LENGTH_SHORT).show();
-                    loadClassInstances();  // Refresh list
+                    asyncDatabaseHelper.deleteClassInstance(instance.getId(), unused -> {
+                        if (isDestroyed()) {
+                            return;
+                        }
+                        Toast.makeText(this, "Class instance deleted", Toast.LENGTH_SHORT).show();
+                    });
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
@@ -365,40 +721,4 @@ public class ClassInstanceActivity extends AppCompatActivity {
         }
         return super.onOptionsItemSelected(item);
     }
-
-    // Adapter for class instances
-    private class ClassInstanceAdapter extends ArrayAdapter<ClassInstance> {
-        public ClassInstanceAdapter() {
-            super(ClassInstanceActivity.this, R.layout.item_class_instance, classInstances);
-        }
-
-        @NonNull
-        @Override
-        public View getView(int position, View convertView, @NonNull ViewGroup parent) {
-            if (convertView == null) {
-                convertView = LayoutInflater.from(getContext())
-                        .inflate(R.layout.item_class_instance, parent, false);
-            }
-
-            ClassInstance instance = getItem(position);
-
-            TextView tvDate = convertView.findViewById(R.id.tvInstanceDate);
-            TextView tvTeacher = convertView.findViewById(R.id.tvInstanceTeacher);
-            TextView tvComments = convertView.findViewById(R.id.tvInstanceComments);
-
-            if (instance != null) {
-                tvDate.setText(DATE_FORMAT.format(instance.getDate()));
-                tvTeacher.setText("Teacher: " + instance.getTeacher());
-
-                if (instance.getComments() != null && !instance.getComments().isEmpty()) {
-                    tvComments.setText(instance.getComments());
-                    tvComments.setVisibility(View.VISIBLE);
-                } else {
-                    tvComments.setVisibility(View.GONE);
-                }
-            }
-
-            return convertView;
-        }
-    }
-}
\ No newline at end of file
+}
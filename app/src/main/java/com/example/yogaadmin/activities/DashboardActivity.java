@@ -0,0 +1,223 @@
+package com.example.yogaadmin.activities;
+
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.view.Gravity;
+import android.view.MenuItem;
+import android.view.View;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
+import android.widget.Spinner;
+import android.widget.TableLayout;
+import android.widget.TableRow;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.Lifecycle;
+
+import com.example.yogaadmin.R;
+import com.example.yogaadmin.database.AsyncDatabaseHelper;
+import com.example.yogaadmin.database.ClassReports;
+import com.example.yogaadmin.database.DatabaseContract;
+import com.example.yogaadmin.database.DatabaseManager;
+import com.example.yogaadmin.database.InvalidationTracker;
+import com.example.yogaadmin.models.ReportRow;
+import com.example.yogaadmin.models.ScheduleConflict;
+import com.example.yogaadmin.utils.DateRanges;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Per-teacher and per-class-type totals: classes, scheduled instances, hours
+ * and potential revenue, for all time or the current week or month.
+ * The numbers are aggregated in SQLite and cached by ClassReports.
+ * Below them, every teacher double-booking in the weekly timetable.
+ */
+public class DashboardActivity extends AppCompatActivity {
+    private static final SimpleDateFormat DAY_FORMAT = new SimpleDateFormat("EEE, MMM d, yyyy", Locale.US);
+    private static final String[] HEADERS = {"", "Classes", "Sessions", "Hours", "Revenue"};
+
+    private AsyncDatabaseHelper asyncDatabaseHelper;
+    private InvalidationTracker invalidationTracker;
+
+    private int periodPosition; // Index into R.array.report_periods
+    private int loadGeneration; // Results from an earlier load are dropped
+
+    // Reload when the catalog changes while away
+    private boolean dirty = true; // Nothing loaded yet
+    private final InvalidationTracker.Observer observer = (table, rowIds) -> markDirty();
+
+    // UI Elements
+    private TextView tvReportRange;
+    private TableLayout tableTeacherReport;
+    private TableLayout tableClassTypeReport;
+    private TextView tvTeacherConflicts;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_dashboard);
+
+        // Set up action bar
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setTitle("Dashboard");
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        }
+
+        asyncDatabaseHelper = DatabaseManager.getInstance(this).getAsyncDatabaseHelper();
+
+        invalidationTracker = DatabaseManager.getInstance(this).getInvalidationTracker();
+        invalidationTracker.addObserver(DatabaseContract.YogaClassEntry.TABLE_NAME, observer);
+        invalidationTracker.addObserver(DatabaseContract.ClassInstanceEntry.TABLE_NAME, observer);
+
+        initializeViews();
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (dirty) {
+            loadReports();
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        invalidationTracker.removeObserver(DatabaseContract.YogaClassEntry.TABLE_NAME, observer);
+        invalidationTracker.removeObserver(DatabaseContract.ClassInstanceEntry.TABLE_NAME, observer);
+        super.onDestroy();
+    }
+
+    private void initializeViews() {
+        tvReportRange = findViewById(R.id.tvReportRange);
+        tableTeacherReport = findViewById(R.id.tableTeacherReport);
+        tableClassTypeReport = findViewById(R.id.tableClassTypeReport);
+        tvTeacherConflicts = findViewById(R.id.tvTeacherConflicts);
+        Spinner spinnerReportPeriod = findViewById(R.id.spinnerReportPeriod);
+
+        ArrayAdapter<CharSequence> periodAdapter = ArrayAdapter.createFromResource(
+                this, R.array.report_periods, android.R.layout.simple_spinner_item);
+        periodAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        spinnerReportPeriod.setAdapter(periodAdapter);
+        spinnerReportPeriod.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                if (position != periodPosition) {
+                    periodPosition = position;
+                    loadReports();
+                }
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
+    }
+
+    private void markDirty() {
+        dirty = true;
+        if (getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.RESUMED)) {
+            loadReports();
+        }
+    }
+
+    private void loadReports() {
+        dirty = false;
+        long[] range = selectedRange();
+        if (range[0] == Long.MIN_VALUE) {
+            tvReportRange.setText("All scheduled classes");
+        } else {
+            tvReportRange.setText(DAY_FORMAT.format(new Date(range[0])) + " - "
+                    + DAY_FORMAT.format(new Date(range[1] - 1)));
+        }
+
+        final int generation = ++loadGeneration;
+        asyncDatabaseHelper.getReport(ClassReports.GroupBy.TEACHER, range[0], range[1], rows -> {
+            if (generation == loadGeneration && !isDestroyed()) {
+                showReport(tableTeacherReport, "Teacher", rows);
+            }
+        });
+        asyncDatabaseHelper.getReport(ClassReports.GroupBy.CLASS_TYPE, range[0], range[1], rows -> {
+            if (generation == loadGeneration && !isDestroyed()) {
+                showReport(tableClassTypeReport, "Class Type", rows);
+            }
+        });
+        // Double-booked teachers in the weekly timetable, whatever the period
+        asyncDatabaseHelper.findAllConflicts(conflicts -> {
+            if (generation == loadGeneration && !isDestroyed()) {
+                tvTeacherConflicts.setText(conflicts.isEmpty()
+                        ? "No teacher is booked into two classes at once"
+                        : ScheduleConflict.describeAll(conflicts));
+            }
+        });
+    }
+
+    // All time, this week or this month, as [from, to)
+    private long[] selectedRange() {
+        long now = System.currentTimeMillis();
+        switch (periodPosition) {
+            case 1:
+                return DateRanges.containing(DateRanges.Period.WEEK, now, TimeZone.getDefault());
+            case 2:
+                return DateRanges.containing(DateRanges.Period.MONTH, now, TimeZone.getDefault());
+            default:
+                return new long[]{Long.MIN_VALUE, Long.MAX_VALUE};
+        }
+    }
+
+    private void showReport(TableLayout table, String groupHeader, List<ReportRow> rows) {
+        table.removeAllViews();
+        String[] headers = HEADERS.clone();
+        headers[0] = groupHeader;
+        table.addView(tableRow(headers, true));
+
+        if (rows.isEmpty()) {
+            table.addView(tableRow(new String[]{"No classes yet", "", "", "", ""}, false));
+            return;
+        }
+        for (ReportRow row : rows) {
+            table.addView(tableRow(cells(row), false));
+        }
+        table.addView(tableRow(cells(ReportRow.total("Total", rows)), true));
+    }
+
+    private static String[] cells(ReportRow row) {
+        return new String[]{
+                row.getGroup(),
+                String.valueOf(row.getClassCount()),
+                String.valueOf(row.getInstanceCount()),
+                String.format(Locale.US, "%.1f", row.getScheduledHours()),
+                "£" + String.format(Locale.US, "%.2f", row.getPotentialRevenue())
+        };
+    }
+
+    private TableRow tableRow(String[] cells, boolean bold) {
+        TableRow tableRow = new TableRow(this);
+        int padding = Math.round(4 * getResources().getDisplayMetrics().density);
+        for (int i = 0; i < cells.length; i++) {
+            TextView cell = new TextView(this);
+            cell.setText(cells[i]);
+            cell.setPadding(padding, padding, padding, padding);
+            cell.setGravity(i == 0 ? Gravity.START : Gravity.END);
+            if (bold) {
+                cell.setTypeface(null, Typeface.BOLD);
+            }
+            tableRow.addView(cell);
+        }
+        return tableRow;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(@NonNull MenuItem item) {
+        if (item.getItemId() == android.R.id.home) {
+            finish();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+}
@@ -1,36 +1,99 @@
 package com.example.yogaadmin.activities;
 
 import android.content.Intent;
+import android.database.Cursor;
+import android.net.Uri;
 import android.os.Bundle;
+import android.provider.DocumentsContract;
+import android.provider.OpenableColumns;
+import android.text.TextUtils;
 import android.util.Log;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 
 import com.example.yogaadmin.R;
+import com.example.yogaadmin.database.AsyncDatabaseHelper;
 import com.example.yogaadmin.database.DatabaseHelper;
+import com.example.yogaadmin.database.DatabaseManager;
+import com.example.yogaadmin.database.SyncTracker;
+import com.example.yogaadmin.models.YogaClass;
+import com.example.yogaadmin.network.BatchUploader;
 import com.example.yogaadmin.network.CloudUploadService;
+import com.example.yogaadmin.transfer.CatalogExporter;
+import com.example.yogaadmin.transfer.CatalogFormat;
+import com.example.yogaadmin.transfer.CatalogImporter;
+import com.example.yogaadmin.transfer.ImportResult;
 import com.google.firebase.database.FirebaseDatabase;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
 public class MainActivity extends AppCompatActivity {
     private static final String TAG = "MainActivity";
-    private DatabaseHelper databaseHelper;
+    private AsyncDatabaseHelper asyncDatabaseHelper;
     private CloudUploadService cloudUploadService;
+    private static final String[] IMPORT_MIME_TYPES = {
+            "application/json", "text/csv", "text/comma-separated-values", "text/plain",
+            "application/gzip", "application/x-gzip"
+    };
+    private static final String[] BACKUP_MIME_TYPES = {
+            "application/gzip", "application/x-gzip", "application/octet-stream"
+    };
+    // Number of row errors listed in the import summary
+    private static final int IMPORT_ERRORS_SHOWN = 5;
+
+    // Pick a file with the system file picker, then import it
+    private final ActivityResultLauncher<String[]> importFilePicker =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), uri -> {
+                if (uri != null) {
+                    startImport(uri, false);
+                }
+            });
+    // Choose where to save a backup, then write it
+    private final ActivityResultLauncher<String> backupFilePicker =
+            registerForActivityResult(new ActivityResultContracts.CreateDocument("application/gzip"), uri -> {
+                if (uri != null) {
+                    startBackup(uri);
+                }
+            });
+    // Pick a backup, confirm, then replace the database with it
+    private final ActivityResultLauncher<String[]> restoreFilePicker =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), uri -> {
+                if (uri != null) {
+                    showRestoreConfirmationDialog(uri);
+                }
+            });
+    private CatalogImporter importer;
+    private CatalogExporter exporter;
+    // Manual cloud upload in progress; cloudUpload is set once its first batch is about to go out
+    private AlertDialog uploadDialog;
+    private BatchUploader.Upload cloudUpload;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
+        // Initialize asynchronous database access
+        asyncDatabaseHelper = DatabaseManager.getInstance(this).getAsyncDatabaseHelper();
+
         // Initialize Firebase with the specific URL
         try {
             FirebaseDatabase firebaseDatabase = FirebaseDatabase.getInstance("https://comp1786-database-default-rtdb.asia-southeast1.firebasedatabase.app/");
             Log.d(TAG, "Firebase initialized with custom URL");
 
-            // Initialize database and network services
-            databaseHelper = new DatabaseHelper(this);
+            // Initialize network services
             cloudUploadService = new CloudUploadService(this, firebaseDatabase);
         } catch (Exception e) {
             Log.e(TAG, "Error initializing Firebase: " + e.getMessage(), e);
@@ -45,7 +108,12 @@ public class MainActivity extends AppCompatActivity {
         // Find CardViews or Buttons for different actions
         CardView addClassCard = findViewById(R.id.cardAddClass);
         CardView viewClassesCard = findViewById(R.id.cardViewClasses);
+        CardView weekScheduleCard = findViewById(R.id.cardWeekSchedule);
+        CardView dashboardCard = findViewById(R.id.cardDashboard);
         CardView uploadClassesCard = findViewById(R.id.cardUploadClasses);
+        CardView importClassesCard = findViewById(R.id.cardImportClasses);
+        CardView backupDatabaseCard = findViewById(R.id.cardBackupDatabase);
+        CardView restoreBackupCard = findViewById(R.id.cardRestoreBackup);
         CardView resetDatabaseCard = findViewById(R.id.cardResetDatabase);
 
         // Null checks for each CardView
@@ -63,6 +131,20 @@ public class MainActivity extends AppCompatActivity {
             });
         }
 
+        if (weekScheduleCard != null) {
+            weekScheduleCard.setOnClickListener(v -> {
+                Intent intent = new Intent(MainActivity.this, WeekViewActivity.class);
+                startActivity(intent);
+            });
+        }
+
+        if (dashboardCard != null) {
+            dashboardCard.setOnClickListener(v -> {
+                Intent intent = new Intent(MainActivity.this, DashboardActivity.class);
+                startActivity(intent);
+            });
+        }
+
         if (uploadClassesCard != null) {
             uploadClassesCard.setOnClickListener(v -> {
                 // Check if Firebase is initialized
@@ -76,6 +158,19 @@ public class MainActivity extends AppCompatActivity {
             });
         }
 
+        if (importClassesCard != null) {
+            importClassesCard.setOnClickListener(v -> importFilePicker.launch(IMPORT_MIME_TYPES));
+        }
+
+        if (backupDatabaseCard != null) {
+            backupDatabaseCard.setOnClickListener(v -> backupFilePicker.launch("yoga-backup-"
+                    + new SimpleDateFormat("yyyyMMdd-HHmm", Locale.US).format(new Date()) + ".json.gz"));
+        }
+
+        if (restoreBackupCard != null) {
+            restoreBackupCard.setOnClickListener(v -> restoreFilePicker.launch(BACKUP_MIME_TYPES));
+        }
+
         if (resetDatabaseCard != null) {
             resetDatabaseCard.setOnClickListener(v -> {
                 // Show confirmation dialog before resetting
@@ -86,17 +181,21 @@ public class MainActivity extends AppCompatActivity {
 
     private void showUploadOptionsDialog() {
         // Create choices for the dialog
-        final CharSequence[] options = {"Upload (Append to existing data)", "Upload (Clear existing data first)"};
+        final CharSequence[] options = {"Upload changes since last sync", "Upload (Append to existing data)",
+                "Upload (Clear existing data first)"};
 
         new AlertDialog.Builder(this)
                 .setTitle("Upload Options")
                 .setItems(options, (dialog, which) -> {
                     switch (which) {
-                        case 0: // Append data
-                            performUpload(false);
+                        case 0: // Only what changed
+                            performUpload(false, true);
                             break;
-                        case 1: // Clear and upload
-                            performUpload(true);
+                        case 1: // Append data
+                            performUpload(false, false);
+                            break;
+                        case 2: // Clear and upload
+                            performUpload(true, false);
                             break;
                     }
                 })
@@ -104,44 +203,107 @@ public class MainActivity extends AppCompatActivity {
                 .show();
     }
 
-    private void performUpload(boolean clearFirst) {
+    // changesOnly: send just the classes edited since the last acknowledged upload
+    private void performUpload(boolean clearFirst, boolean changesOnly) {
+        if (uploadDialog != null) {
+            Toast.makeText(this, "An upload is already running", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
         // Check network availability
         if (!cloudUploadService.isNetworkAvailable()) {
             Toast.makeText(this, "No network connection available", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        Log.d(TAG, "Starting upload process, clearFirst=" + clearFirst);
+        Log.d(TAG, "Starting upload process, clearFirst=" + clearFirst + ", changesOnly=" + changesOnly);
+
+        // Get classes with their instances from database in a single query
+        AsyncDatabaseHelper.Callback<SyncTracker.PendingChanges> callback = changes -> {
+            if (!isDestroyed()) {
+                startUpload(changes, clearFirst, changesOnly);
+            }
+        };
+        if (changesOnly) {
+            asyncDatabaseHelper.getPendingChanges(callback);
+        } else {
+            asyncDatabaseHelper.getAllClassesForUpload(callback);
+        }
+    }
 
-        // Get classes from database
-        var yogaClasses = databaseHelper.getAllYogaClasses();
-        if (yogaClasses == null || yogaClasses.isEmpty()) {
-            Toast.makeText(this, "No classes to upload", Toast.LENGTH_SHORT).show();
+    private void startUpload(SyncTracker.PendingChanges changes, boolean clearFirst, boolean changesOnly) {
+        List<YogaClass> yogaClasses = changes.getYogaClasses();
+        List<Long> deletedClassIds = changes.getDeletedClassIds();
+        if (changes.isEmpty()) {
+            if (changesOnly) {
+                // Nothing left to send
+                asyncDatabaseHelper.markUploaded(changes.getChangeSeq(), null);
+                Toast.makeText(this, "Cloud is already up to date", Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(this, "No classes to upload", Toast.LENGTH_SHORT).show();
+            }
             return;
         }
 
-        Log.d(TAG, "Found " + yogaClasses.size() + " classes to upload");
+        Log.d(TAG, "Found " + yogaClasses.size() + " classes to upload and " + deletedClassIds.size()
+                + " to remove");
+
+        // Batches already sent still land after a cancel; the rest are not sent
+        uploadDialog = new AlertDialog.Builder(this)
+                .setTitle("Uploading to cloud")
+                .setMessage("Starting...")
+                .setCancelable(false)
+                .setNegativeButton("Cancel", (dialog, which) -> {
+                    if (cloudUpload != null) {
+                        cloudUpload.cancel();
+                    }
+                })
+                .show();
 
         // Create callback for upload
         CloudUploadService.UploadCallback callback = new CloudUploadService.UploadCallback() {
+            @Override
+            public void onUploadStarted(BatchUploader.Upload upload) {
+                runOnUiThread(() -> {
+                    cloudUpload = upload;
+                    // Cancelled while the cloud was still being cleared
+                    if (uploadDialog == null || !uploadDialog.isShowing()) {
+                        upload.cancel();
+                    }
+                });
+            }
+
+            @Override
+            public void onProgress(BatchUploader.Progress progress) {
+                runOnUiThread(() -> {
+                    if (!isDestroyed() && uploadDialog != null) {
+                        uploadDialog.setMessage(formatUploadProgress(progress));
+                    }
+                });
+            }
+
             @Override
             public void onUploadSuccess() {
                 Log.d(TAG, "Upload completed successfully");
-                runOnUiThread(() ->
-                        Toast.makeText(MainActivity.this,
-                                "Classes uploaded successfully",
-                                Toast.LENGTH_SHORT).show()
-                );
+                // The cloud now has every change up to the snapshot; later edits stay pending
+                asyncDatabaseHelper.markUploaded(changes.getChangeSeq(), null);
+                String message = yogaClasses.size() + " classes uploaded successfully"
+                        + (deletedClassIds.isEmpty() ? "" : ", " + deletedClassIds.size() + " removed");
+                runOnUiThread(() -> {
+                    finishUpload();
+                    Toast.makeText(MainActivity.this, message, Toast.LENGTH_SHORT).show();
+                });
             }
 
             @Override
             public void onUploadFailed(String errorMessage) {
                 Log.e(TAG, "Upload failed: " + errorMessage);
-                runOnUiThread(() ->
-                        Toast.makeText(MainActivity.this,
-                                "Upload failed: " + errorMessage,
-                                Toast.LENGTH_LONG).show()
-                );
+                runOnUiThread(() -> {
+                    finishUpload();
+                    Toast.makeText(MainActivity.this,
+                            "Upload failed: " + errorMessage,
+                            Toast.LENGTH_LONG).show();
+                });
             }
         };
 
@@ -149,18 +311,284 @@ public class MainActivity extends AppCompatActivity {
         if (clearFirst) {
             cloudUploadService.clearAndUploadYogaClasses(yogaClasses, callback);
         } else {
-            cloudUploadService.uploadYogaClasses(yogaClasses, callback);
+            // Deleted classes are removed one by one instead of wiping the node
+            cloudUploadService.uploadChanges(yogaClasses, deletedClassIds, callback);
+        }
+    }
+
+    private void finishUpload() {
+        if (uploadDialog != null && !isDestroyed()) {
+            uploadDialog.dismiss();
+        }
+        uploadDialog = null;
+        cloudUpload = null;
+    }
+
+    private static String formatUploadProgress(BatchUploader.Progress progress) {
+        String percent = progress.totalBytes > 0
+                ? String.format(Locale.US, "%d%%\n", progress.completedBytes * 100 / progress.totalBytes) : "";
+        return percent + progress.completedRecords + " of " + progress.totalRecords + " classes written"
+                + String.format(Locale.US, "\n%.1f of %.1f KB", progress.completedBytes / 1024.0,
+                progress.totalBytes / 1024.0)
+                + (progress.failedRecords > 0 ? "\n" + progress.failedRecords + " failed" : "");
+    }
+
+    // replaceExisting: restore a backup, i.e. replace the database with the file's contents
+    private void startImport(Uri uri, boolean replaceExisting) {
+        if (importer != null) {
+            Toast.makeText(this, "An import is already running", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        // File name and size decide the format and drive the progress text
+        String fileName = null;
+        long fileSize = -1;
+        try (Cursor cursor = getContentResolver().query(uri,
+                new String[]{OpenableColumns.DISPLAY_NAME, OpenableColumns.SIZE}, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                fileName = cursor.getString(0);
+                fileSize = cursor.isNull(1) ? -1 : cursor.getLong(1);
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Could not read file details for " + uri, e);
+        }
+        CatalogFormat.Type type = CatalogFormat.Type.fromFileName(fileName);
+        String name = fileName != null ? fileName : "file";
+        final long totalBytes = fileSize;
+
+        DatabaseHelper databaseHelper = DatabaseManager.getInstance(this).getDatabaseHelper();
+        if (!replaceExisting) {
+            CatalogImporter currentImporter = new CatalogImporter(databaseHelper::insertYogaClassesWithInstances);
+            runImport(uri, "Importing " + name, currentImporter,
+                    (in, listener) -> currentImporter.importFrom(in, totalBytes, type, listener),
+                    result -> showImportSummary(result, false));
+            return;
+        }
+
+        // Read and validate the whole backup before touching the database
+        CatalogImporter checker = new CatalogImporter(CatalogImporter.validateOnly());
+        runImport(uri, "Checking " + name, checker,
+                (in, listener) -> checker.importFrom(in, totalBytes, type, listener),
+                checked -> {
+                    if (!checked.isComplete()) {
+                        showImportSummary(checked, true);
+                    } else if (checked.getRejectedRows() > 0) {
+                        showRestoreRejectionsDialog(checked, () -> startRestore(uri, name, totalBytes, type));
+                    } else {
+                        startRestore(uri, name, totalBytes, type);
+                    }
+                });
+    }
+
+    // Second pass of a restore: empty the database and import the file in one transaction
+    private void startRestore(Uri uri, String name, long totalBytes, CatalogFormat.Type type) {
+        DatabaseHelper databaseHelper = DatabaseManager.getInstance(this).getDatabaseHelper();
+        CatalogImporter restorer = new CatalogImporter(databaseHelper::insertYogaClassesWithInstances);
+        runImport(uri, "Restoring " + name, restorer,
+                (in, listener) -> databaseHelper.replaceAll(
+                        () -> restorer.importFrom(in, totalBytes, type, listener), ImportResult::isComplete),
+                result -> showImportSummary(result, true));
+    }
+
+    // One pass of an importer over the file, on the database thread
+    private interface ImportPass {
+        ImportResult run(InputStream in, CatalogImporter.ProgressListener listener);
+    }
+
+    private void runImport(Uri uri, String title, CatalogImporter currentImporter, ImportPass pass,
+                           Consumer<ImportResult> onDone) {
+        importer = currentImporter;
+
+        AlertDialog progressDialog = new AlertDialog.Builder(this)
+                .setTitle(title)
+                .setMessage("Starting...")
+                .setCancelable(false)
+                .setNegativeButton("Cancel", (dialog, which) -> currentImporter.cancel())
+                .show();
+
+        asyncDatabaseHelper.execute(() -> {
+            try (InputStream in = getContentResolver().openInputStream(uri)) {
+                if (in == null) {
+                    throw new IllegalStateException("Could not open " + uri);
+                }
+                return pass.run(in, (bytesRead, total, classes, instances, rejected) -> runOnUiThread(() -> {
+                    if (!isDestroyed()) {
+                        progressDialog.setMessage(formatImportProgress(bytesRead, total, classes,
+                                instances, rejected));
+                    }
+                }));
+            }
+        }, new AsyncDatabaseHelper.Callback<ImportResult>() {
+            @Override
+            public void onResult(ImportResult result) {
+                importer = null;
+                if (!isDestroyed()) {
+                    progressDialog.dismiss();
+                    onDone.accept(result);
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Import failed", e);
+                importer = null;
+                if (!isDestroyed()) {
+                    progressDialog.dismiss();
+                    Toast.makeText(MainActivity.this, "Import failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                }
+            }
+        });
+    }
+
+    private static String formatImportProgress(long bytesRead, long totalBytes, int classes, int instances,
+                                               int rejected) {
+        String percent = totalBytes > 0
+                ? String.format(Locale.US, "%d%%\n", Math.min(100, bytesRead * 100 / totalBytes)) : "";
+        return percent + classes + " classes, " + instances + " instances imported"
+                + (rejected > 0 ? "\n" + rejected + " rows rejected" : "");
+    }
+
+    // restore: the result of a restore pass, which either replaced the whole database or changed nothing
+    private void showImportSummary(ImportResult result, boolean restore) {
+        StringBuilder message = new StringBuilder();
+        if (restore && !result.isComplete()) {
+            message.append(result.isCancelled() ? "Restore cancelled." : "Restore failed.")
+                    .append(" The database was left unchanged.");
+        } else {
+            message.append(result.getClassesImported()).append(" classes and ")
+                    .append(result.getInstancesImported())
+                    .append(restore ? " instances restored." : " instances imported.");
+            if (result.isCancelled()) {
+                message.append("\nImport cancelled; rows imported before that were kept.");
+            }
+        }
+        if (result.getFailure() != null) {
+            message.append("\n").append(result.getFailure());
+        }
+        if (result.getRejectedRows() > 0) {
+            message.append("\n\n").append(formatRejectedRows(result));
+        }
+
+        new AlertDialog.Builder(this)
+                .setTitle((restore ? "Restore " : "Import ") + (result.isComplete() ? "Finished" : "Stopped"))
+                .setMessage(message.toString())
+                .setPositiveButton("OK", null)
+                .show();
+    }
+
+    // The rejected-row count and the first few reasons
+    private static String formatRejectedRows(ImportResult result) {
+        List<String> shown = new ArrayList<>();
+        for (ImportResult.RowError error : result.getErrors()) {
+            if (shown.size() == IMPORT_ERRORS_SHOWN) {
+                break;
+            }
+            shown.add(error.toString());
+        }
+        return result.getRejectedRows() + " rows rejected:\n" + TextUtils.join("\n", shown)
+                + (result.getRejectedRows() > shown.size() ? "\n..." : "");
+    }
+
+    // Nothing has been written yet; restoring leaves the rejected rows out
+    private void showRestoreRejectionsDialog(ImportResult checked, Runnable restore) {
+        new AlertDialog.Builder(this)
+                .setTitle("Restore Backup")
+                .setMessage(formatRejectedRows(checked) + "\n\nRestore the other " + checked.getClassesImported()
+                        + " classes and " + checked.getInstancesImported()
+                        + " instances, replacing everything in the database?")
+                .setPositiveButton("Restore", (dialog, which) -> restore.run())
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void showRestoreConfirmationDialog(Uri uri) {
+        new AlertDialog.Builder(this)
+                .setTitle("Restore Backup")
+                .setMessage("Restoring replaces every class and instance in the database with the ones in the backup. "
+                        + "The next cloud upload replaces them in the cloud too. Continue?")
+                .setPositiveButton("Restore", (dialog, which) -> startImport(uri, true))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void startBackup(Uri uri) {
+        if (exporter != null) {
+            Toast.makeText(this, "A backup is already running", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        DatabaseHelper databaseHelper = DatabaseManager.getInstance(this).getDatabaseHelper();
+        final CatalogExporter currentExporter = new CatalogExporter();
+        exporter = currentExporter;
+
+        AlertDialog progressDialog = new AlertDialog.Builder(this)
+                .setTitle("Backing up database")
+                .setMessage("Starting...")
+                .setCancelable(false)
+                .setNegativeButton("Cancel", (dialog, which) -> currentExporter.cancel())
+                .show();
+
+        asyncDatabaseHelper.execute(() -> {
+            try (OutputStream out = getContentResolver().openOutputStream(uri)) {
+                if (out == null) {
+                    throw new IllegalStateException("Could not open " + uri);
+                }
+                // One snapshot for the whole file, however many times the cursor refills its window
+                return databaseHelper.readConsistently(() -> currentExporter.export(
+                        databaseHelper.queryYogaClassesWithInstances(), out,
+                        (classes, instances) -> runOnUiThread(() -> {
+                            if (!isDestroyed()) {
+                                progressDialog.setMessage(classes + " classes, " + instances + " instances written");
+                            }
+                        })));
+            }
+        }, new AsyncDatabaseHelper.Callback<Boolean>() {
+            @Override
+            public void onResult(Boolean complete) {
+                exporter = null;
+                if (!complete) {
+                    // Don't leave a truncated file that looks like a backup
+                    deleteDocument(uri);
+                }
+                if (!isDestroyed()) {
+                    progressDialog.dismiss();
+                    Toast.makeText(MainActivity.this, complete
+                            ? "Backed up " + currentExporter.getClassesExported() + " classes and "
+                                    + currentExporter.getInstancesExported() + " instances"
+                            : "Backup cancelled", Toast.LENGTH_LONG).show();
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Backup failed", e);
+                exporter = null;
+                deleteDocument(uri);
+                if (!isDestroyed()) {
+                    progressDialog.dismiss();
+                    Toast.makeText(MainActivity.this, "Backup failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                }
+            }
+        });
+    }
+
+    private void deleteDocument(Uri uri) {
+        try {
+            DocumentsContract.deleteDocument(getContentResolver(), uri);
+        } catch (Exception e) {
+            Log.w(TAG, "Could not delete incomplete backup " + uri, e);
         }
     }
 
     private void showConfirmationDialog() {
         new AlertDialog.Builder(this)
                 .setTitle("Reset Database")
-                .setMessage("Are you sure you want to reset the entire database? This cannot be undone.")
+                .setMessage("Are you sure you want to reset the entire database? This cannot be undone.\n\n"
+                        + "Classes already in the cloud stay there; only classes added afterwards are uploaded.")
                 .setPositiveButton("Reset", (dialog, which) -> {
                     // Perform database reset
-                    databaseHelper.resetDatabase();
-                    Toast.makeText(this, "Database has been reset", Toast.LENGTH_SHORT).show();
+                    asyncDatabaseHelper.resetDatabase(unused ->
+                            Toast.makeText(this, "Database has been reset", Toast.LENGTH_SHORT).show());
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
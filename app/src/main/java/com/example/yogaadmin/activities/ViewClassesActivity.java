@@ -2,32 +2,69 @@ package com.example.yogaadmin.activities;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuItem;
-import android.view.View;
-import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.EditText;
-import android.widget.ListView;
-import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.Lifecycle;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.yogaadmin.R;
-import com.example.yogaadmin.database.DatabaseHelper;
+import com.example.yogaadmin.adapters.ClassListAdapter;
+import com.example.yogaadmin.database.AsyncDatabaseHelper;
+import com.example.yogaadmin.database.DatabaseContract;
+import com.example.yogaadmin.database.DatabaseManager;
+import com.example.yogaadmin.database.InvalidationTracker;
+import com.example.yogaadmin.database.YogaClassRowMapper;
 import com.example.yogaadmin.models.YogaClass;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class ViewClassesActivity extends AppCompatActivity {
-    private DatabaseHelper databaseHelper;
-    private ListView listViewClasses;
-    private List<YogaClass> yogaClasses;
+    private static final int SEARCH_RESULT_LIMIT = 100;
+    private static final int PAGE_SIZE = 50;
+    // Start fetching the next page when this many rows are left below the screen
+    private static final int PREFETCH_DISTANCE = 15;
+
+    private AsyncDatabaseHelper asyncDatabaseHelper;
+    private RecyclerView recyclerViewClasses;
+    private LinearLayoutManager layoutManager;
+    // Rows loaded so far; the adapter gets a copy of it after every change
+    private final List<YogaClass> yogaClasses = new ArrayList<>();
+    private ClassListAdapter adapter;
+
+    // Incremental loading state
+    private int loadGeneration; // Results from an earlier load or search are dropped
+    private boolean loadingPage;
+    private boolean lastPageLoaded;
+    private boolean showingSearchResults;
+
+    // Changes made while this screen was in the background (or by itself), applied on resume
+    private InvalidationTracker invalidationTracker;
+    private final Set<Long> dirtyClassIds = new HashSet<>();
+    private boolean allClassesDirty = true; // Nothing loaded yet
+    private final InvalidationTracker.Observer classObserver = (table, rowIds) -> {
+        if (rowIds.isEmpty()) {
+            allClassesDirty = true;
+        } else {
+            dirtyClassIds.addAll(rowIds);
+        }
+        if (getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.RESUMED)) {
+            applyPendingChanges();
+        }
+    };
 
     // Search components
     private EditText etSearchTeacher;
@@ -39,26 +76,133 @@ public class ViewClassesActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_view_classes);
 
-        // Initialize Database Helper
-        databaseHelper = new DatabaseHelper(this);
+        // Initialize asynchronous database access
+        asyncDatabaseHelper = DatabaseManager.getInstance(this).getAsyncDatabaseHelper();
+
+        // Listen for class changes made anywhere in the app
+        invalidationTracker = DatabaseManager.getInstance(this).getInvalidationTracker();
+        invalidationTracker.addObserver(DatabaseContract.YogaClassEntry.TABLE_NAME, classObserver);
 
         // Initialize UI components
         initializeComponents();
-
-        // Load initial classes
-        loadYogaClasses();
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        // Reload classes when coming back to this activity
-        loadYogaClasses();
+        // Load classes on first display; afterwards only refresh what changed while away
+        applyPendingChanges();
+    }
+
+    @Override
+    protected void onDestroy() {
+        invalidationTracker.removeObserver(DatabaseContract.YogaClassEntry.TABLE_NAME, classObserver);
+        super.onDestroy();
+    }
+
+    private void applyPendingChanges() {
+        if (allClassesDirty) {
+            loadYogaClasses();
+            return;
+        }
+        if (dirtyClassIds.isEmpty()) {
+            // Nothing changed, keep the list (and its scroll position) as it is
+            return;
+        }
+
+        long[] ids = new long[dirtyClassIds.size()];
+        int i = 0;
+        for (long id : dirtyClassIds) {
+            ids[i++] = id;
+        }
+        dirtyClassIds.clear();
+
+        final int generation = loadGeneration;
+        asyncDatabaseHelper.getYogaClassesByIds(ids, YogaClassRowMapper.PROJECTION_SUMMARY,
+                preparingRows(fresh -> patchRows(generation, ids, fresh)));
+    }
+
+    // Replace updated rows, drop deleted ones and append new ones past the end of the loaded pages
+    private void patchRows(int generation, long[] changedIds, List<YogaClass> fresh) {
+        if (generation != loadGeneration || isDestroyed()) {
+            return;
+        }
+
+        Map<Long, YogaClass> freshById = new HashMap<>();
+        for (YogaClass yogaClass : fresh) {
+            freshById.put(yogaClass.getId(), yogaClass);
+        }
+        Set<Long> changed = new HashSet<>();
+        for (long id : changedIds) {
+            changed.add(id);
+        }
+
+        long lastShownId = yogaClasses.isEmpty() ? 0 : yogaClasses.get(yogaClasses.size() - 1).getId();
+        for (int i = 0; i < yogaClasses.size(); i++) {
+            long id = yogaClasses.get(i).getId();
+            if (changed.contains(id)) {
+                YogaClass updated = freshById.remove(id);
+                if (updated != null) {
+                    yogaClasses.set(i, updated);
+                } else {
+                    yogaClasses.remove(i--);
+                }
+            }
+        }
+
+        // New rows show up in a page still to come, unless every page is already loaded
+        if (!showingSearchResults && lastPageLoaded) {
+            // fresh is in id order, so appended rows stay sorted
+            for (YogaClass yogaClass : fresh) {
+                if (freshById.containsKey(yogaClass.getId()) && yogaClass.getId() > lastShownId) {
+                    yogaClasses.add(yogaClass);
+                }
+            }
+        }
+
+        showClasses();
+    }
+
+    // Format the rows' display text on the I/O thread, so binding them is only a lookup
+    private AsyncDatabaseHelper.Callback<List<YogaClass>> preparingRows(
+            AsyncDatabaseHelper.Callback<List<YogaClass>> callback) {
+        return new AsyncDatabaseHelper.Callback<List<YogaClass>>() {
+            @Override
+            public void prepare(List<YogaClass> rows) {
+                adapter.prepare(rows);
+            }
+
+            @Override
+            public void onResult(List<YogaClass> rows) {
+                callback.onResult(rows);
+            }
+        };
+    }
+
+    // Hand the adapter a snapshot of the rows; it diffs it off the UI thread and animates what changed
+    private void showClasses() {
+        adapter.submitList(new ArrayList<>(yogaClasses));
     }
 
     private void initializeComponents() {
-        // Find ListView
-        listViewClasses = findViewById(R.id.listViewClasses);
+        // The adapter stays for the activity's lifetime and pages are appended to it
+        recyclerViewClasses = findViewById(R.id.recyclerViewClasses);
+        layoutManager = new LinearLayoutManager(this);
+        recyclerViewClasses.setLayoutManager(layoutManager);
+        recyclerViewClasses.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
+        adapter = new ClassListAdapter(new ClassListAdapter.OnClassClickListener() {
+            @Override
+            public void onClassClick(YogaClass yogaClass) {
+                // View details
+                openClassDetails(yogaClass.getId());
+            }
+
+            @Override
+            public void onClassLongClick(YogaClass yogaClass) {
+                showDeleteConfirmationDialog(yogaClass);
+            }
+        });
+        recyclerViewClasses.setAdapter(adapter);
 
         // Find search components
         etSearchTeacher = findViewById(R.id.etSearchTeacher);
@@ -71,16 +215,15 @@ public class ViewClassesActivity extends AppCompatActivity {
         // Show all button listener
         btnShowAll.setOnClickListener(v -> loadYogaClasses());
 
-        // Set item click listener to view details
-        listViewClasses.setOnItemClickListener((parent, view, position, id) -> {
-            YogaClass selectedClass = yogaClasses.get(position);
-            openClassDetails(selectedClass.getId());
-        });
-
-        // Set item long click listener for delete functionality
-        listViewClasses.setOnItemLongClickListener((parent, view, position, id) -> {
-            showDeleteConfirmationDialog(position);
-            return true;
+        // Fetch the next page as the user scrolls towards the end of the list
+        recyclerViewClasses.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= layoutManager.getItemCount() - 1 - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
         });
     }
 
@@ -88,45 +231,82 @@ public class ViewClassesActivity extends AppCompatActivity {
         // Clear search input
         etSearchTeacher.setText("");
 
-        // Retrieve all yoga classes from database
-        yogaClasses = databaseHelper.getAllYogaClasses();
+        // Start again from the first page; a full load covers any pending change
+        allClassesDirty = false;
+        dirtyClassIds.clear();
+        loadGeneration++;
+        loadingPage = false;
+        lastPageLoaded = false;
+        showingSearchResults = false;
+        // The old rows stay on screen until the first page replaces them
+        yogaClasses.clear();
+
+        loadNextPage();
+    }
+
+    // Load the page after the last row shown, off the UI thread
+    private void loadNextPage() {
+        if (loadingPage || lastPageLoaded || showingSearchResults) {
+            return;
+        }
+        loadingPage = true;
+
+        final int generation = loadGeneration;
+        final long afterId = yogaClasses.isEmpty() ? 0 : yogaClasses.get(yogaClasses.size() - 1).getId();
+        // Retrieve one page of yoga classes (only the columns the list shows)
+        asyncDatabaseHelper.getYogaClassesPage(afterId, PAGE_SIZE, YogaClassRowMapper.PROJECTION_SUMMARY,
+                preparingRows(page -> onPageLoaded(generation, page)));
+    }
+
+    private void onPageLoaded(int generation, List<YogaClass> page) {
+        if (generation != loadGeneration || isDestroyed()) {
+            return;
+        }
+        loadingPage = false;
+        lastPageLoaded = page.size() < PAGE_SIZE;
+
+        yogaClasses.addAll(page);
+        showClasses();
 
         // Check if there are any classes
         if (yogaClasses.isEmpty()) {
             Toast.makeText(this, "No yoga classes found", Toast.LENGTH_SHORT).show();
-            listViewClasses.setAdapter(null);
-            return;
         }
-
-        // Create custom adapter for yoga classes
-        YogaClassAdapter adapter = new YogaClassAdapter(yogaClasses);
-        listViewClasses.setAdapter(adapter);
     }
 
     private void performSearch() {
         // Get search query
-        String teacherName = etSearchTeacher.getText().toString().trim();
+        String query = etSearchTeacher.getText().toString().trim();
 
         // Validate input
-        if (teacherName.isEmpty()) {
-            etSearchTeacher.setError("Please enter a teacher name");
+        if (query.isEmpty()) {
+            etSearchTeacher.setError("Please enter a teacher, class type or keyword");
             etSearchTeacher.requestFocus();
             return;
         }
 
-        // Perform search
-        yogaClasses = databaseHelper.searchClassesByTeacher(teacherName);
+        // Search results replace the paged list until "All" is pressed
+        final int generation = ++loadGeneration;
+        loadingPage = false;
+        showingSearchResults = true;
 
-        // Check search results
-        if (yogaClasses.isEmpty()) {
-            Toast.makeText(this, "No classes found for teacher: " + teacherName, Toast.LENGTH_SHORT).show();
-            listViewClasses.setAdapter(null);
+        // Perform full-text search over classes and their instances
+        asyncDatabaseHelper.searchClasses(query, SEARCH_RESULT_LIMIT,
+                preparingRows(results -> onSearchResults(generation, query, results)));
+    }
+
+    private void onSearchResults(int generation, String query, List<YogaClass> results) {
+        if (generation != loadGeneration || isDestroyed()) {
             return;
         }
+        yogaClasses.clear();
+        yogaClasses.addAll(results);
+        showClasses();
 
-        // Create and set adapter for search results
-        YogaClassAdapter adapter = new YogaClassAdapter(yogaClasses);
-        listViewClasses.setAdapter(adapter);
+        // Check search results
+        if (yogaClasses.isEmpty()) {
+            Toast.makeText(this, "No classes found for: " + query, Toast.LENGTH_SHORT).show();
+        }
     }
 
     // Method to open class details activity
@@ -137,69 +317,26 @@ public class ViewClassesActivity extends AppCompatActivity {
     }
 
 
-    private void showDeleteConfirmationDialog(final int position) {
+    private void showDeleteConfirmationDialog(YogaClass classToDelete) {
         new AlertDialog.Builder(this)
                 .setTitle("Delete Yoga Class")
                 .setMessage("Are you sure you want to delete this yoga class?")
                 .setPositiveButton("Delete", (dialog, which) -> {
-                    // Get the class to be deleted
-                    YogaClass classToDelete = yogaClasses.get(position);
-
                     // Delete from database
-                    databaseHelper.deleteYogaClass(classToDelete.getId());
-
-                    // Reload the entire list to ensure UI consistency
-                    loadYogaClasses();
-
-                    // Show confirmation toast
-                    Toast.makeText(ViewClassesActivity.this,
-                            "Yoga class deleted successfully",
-                            Toast.LENGTH_SHORT).show();
+                    asyncDatabaseHelper.deleteYogaClass(classToDelete.getId(), unused -> {
+                        if (isDestroyed()) {
+                            return;
+                        }
+
+                        // The invalidation tracker removes the row from the list
+
+                        // Show confirmation toast
+                        Toast.makeText(ViewClassesActivity.this,
+                                "Yoga class deleted successfully",
+                                Toast.LENGTH_SHORT).show();
+                    });
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
     }
-
-    // Custom adapter for displaying yoga classes
-    private class YogaClassAdapter extends ArrayAdapter<YogaClass> {
-        public YogaClassAdapter(List<YogaClass> classes) {
-            super(ViewClassesActivity.this, R.layout.item_yoga_class, classes);
-        }
-
-        @NonNull
-        @Override
-        public View getView(int position, View convertView, @NonNull ViewGroup parent) {
-            // Inflate the view if not already inflated
-            if (convertView == null) {
-                convertView = LayoutInflater.from(getContext())
-                        .inflate(R.layout.item_yoga_class, parent, false);
-            }
-
-            // Get the current yoga class
-            YogaClass currentClass = getItem(position);
-
-            // Populate views
-            TextView tvClassDetails = convertView.findViewById(R.id.tvClassDetails);
-
-            if (currentClass != null) {
-                // Format class details
-                String classDetails = String.format(
-                        "Day: %s | Time: %s | Type: %s\n" +
-                                "Capacity: %d | Duration: %d mins | Price: £%.2f\n" +
-                                "Teacher: %s",
-                        currentClass.getDayOfWeek(),
-                        currentClass.getCourseTime(),
-                        currentClass.getClassType(),
-                        currentClass.getCapacity(),
-                        currentClass.getDuration(),
-                        currentClass.getPricePerClass(),
-                        currentClass.getTeacher()
-                );
-
-                tvClassDetails.setText(classDetails);
-            }
-
-            return convertView;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,353 @@
+package com.example.yogaadmin.activities;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.MenuItem;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.inputmethod.EditorInfo;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.ListView;
+import android.widget.Spinner;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.Lifecycle;
+
+import com.example.yogaadmin.R;
+import com.example.yogaadmin.database.AsyncDatabaseHelper;
+import com.example.yogaadmin.database.DatabaseContract;
+import com.example.yogaadmin.database.DatabaseManager;
+import com.example.yogaadmin.database.InvalidationTracker;
+import com.example.yogaadmin.database.YogaClassRowMapper;
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.YogaClass;
+import com.example.yogaadmin.utils.DateRanges;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * Every class instance in a day, week or month across all classes, optionally
+ * filtered by teacher and class type. Backed by the date index on class_instances.
+ */
+public class WeekViewActivity extends AppCompatActivity {
+    // A month of a busy studio fits comfortably; more than this is cut off with a notice
+    private static final int MAX_ROWS = 1000;
+    private static final SimpleDateFormat DAY_FORMAT = new SimpleDateFormat("EEE, MMM d", Locale.US);
+    private static final SimpleDateFormat YEAR_FORMAT = new SimpleDateFormat("yyyy", Locale.US);
+
+    private AsyncDatabaseHelper asyncDatabaseHelper;
+    private InvalidationTracker invalidationTracker;
+
+    // What is shown
+    private DateRanges.Period period = DateRanges.Period.WEEK;
+    private long anchorMillis = System.currentTimeMillis(); // Any moment inside the shown period
+    private String teacherFilter;
+    private String classTypeFilter;
+    private int loadGeneration; // Results from an earlier load are dropped
+
+    private final List<ClassInstance> scheduledInstances = new ArrayList<>();
+    // Time and type of each class shown, kept across loads and patched on class changes
+    private final Map<Long, YogaClass> classesById = new HashMap<>();
+    private ScheduleAdapter adapter;
+
+    // Reload when instances (or the classes they belong to) change while away
+    private boolean dirty = true; // Nothing loaded yet
+    private final InvalidationTracker.Observer instanceObserver = (table, rowIds) -> markDirty();
+    private final InvalidationTracker.Observer classObserver = (table, rowIds) -> {
+        if (rowIds.isEmpty()) {
+            classesById.clear();
+        } else {
+            classesById.keySet().removeAll(rowIds);
+        }
+        markDirty();
+    };
+
+    // UI Elements
+    private TextView tvPeriodRange;
+    private EditText etTeacherFilter;
+    private ListView listViewSchedule;
+    private TextView tvNoScheduledInstances;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_week_view);
+
+        // Set up action bar
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setTitle("Schedule");
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        }
+
+        // Initialize asynchronous database access
+        asyncDatabaseHelper = DatabaseManager.getInstance(this).getAsyncDatabaseHelper();
+
+        // Listen for schedule changes made anywhere in the app
+        invalidationTracker = DatabaseManager.getInstance(this).getInvalidationTracker();
+        invalidationTracker.addObserver(DatabaseContract.ClassInstanceEntry.TABLE_NAME, instanceObserver);
+        invalidationTracker.addObserver(DatabaseContract.YogaClassEntry.TABLE_NAME, classObserver);
+
+        initializeViews();
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (dirty) {
+            loadSchedule();
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        invalidationTracker.removeObserver(DatabaseContract.ClassInstanceEntry.TABLE_NAME, instanceObserver);
+        invalidationTracker.removeObserver(DatabaseContract.YogaClassEntry.TABLE_NAME, classObserver);
+        super.onDestroy();
+    }
+
+    private void initializeViews() {
+        tvPeriodRange = findViewById(R.id.tvPeriodRange);
+        etTeacherFilter = findViewById(R.id.etTeacherFilter);
+        listViewSchedule = findViewById(R.id.listViewSchedule);
+        tvNoScheduledInstances = findViewById(R.id.tvNoScheduledInstances);
+        Button btnPreviousPeriod = findViewById(R.id.btnPreviousPeriod);
+        Button btnNextPeriod = findViewById(R.id.btnNextPeriod);
+        Button btnToday = findViewById(R.id.btnToday);
+        Spinner spinnerPeriod = findViewById(R.id.spinnerPeriod);
+        Spinner spinnerClassTypeFilter = findViewById(R.id.spinnerClassTypeFilter);
+
+        adapter = new ScheduleAdapter();
+        listViewSchedule.setAdapter(adapter);
+        listViewSchedule.setOnItemClickListener((parent, view, position, id) -> {
+            Intent intent = new Intent(this, ClassInstanceActivity.class);
+            intent.putExtra("yoga_class_id", scheduledInstances.get(position).getYogaClassId());
+            startActivity(intent);
+        });
+
+        btnPreviousPeriod.setOnClickListener(v -> moveBy(-1));
+        btnNextPeriod.setOnClickListener(v -> moveBy(1));
+        btnToday.setOnClickListener(v -> {
+            anchorMillis = System.currentTimeMillis();
+            loadSchedule();
+        });
+
+        // Period: Day / Week / Month, in DateRanges.Period order
+        ArrayAdapter<CharSequence> periodAdapter = ArrayAdapter.createFromResource(
+                this, R.array.schedule_periods, android.R.layout.simple_spinner_item);
+        periodAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        spinnerPeriod.setAdapter(periodAdapter);
+        spinnerPeriod.setSelection(period.ordinal());
+        spinnerPeriod.setOnItemSelectedListener(new SimpleItemSelectedListener(position -> {
+            DateRanges.Period selected = DateRanges.Period.values()[position];
+            if (selected != period) {
+                period = selected;
+                loadSchedule();
+            }
+        }));
+
+        // Class type: "All types" followed by the known types
+        List<String> classTypes = new ArrayList<>();
+        classTypes.add("All types");
+        for (CharSequence classType : getResources().getTextArray(R.array.class_types)) {
+            classTypes.add(classType.toString());
+        }
+        ArrayAdapter<String> classTypeAdapter = new ArrayAdapter<>(
+                this, android.R.layout.simple_spinner_item, classTypes);
+        classTypeAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        spinnerClassTypeFilter.setAdapter(classTypeAdapter);
+        spinnerClassTypeFilter.setOnItemSelectedListener(new SimpleItemSelectedListener(position -> {
+            String selected = position == 0 ? null : classTypes.get(position);
+            if (selected == null ? classTypeFilter != null : !selected.equals(classTypeFilter)) {
+                classTypeFilter = selected;
+                loadSchedule();
+            }
+        }));
+
+        // Teacher filter applies on the keyboard's search action
+        etTeacherFilter.setOnEditorActionListener((v, actionId, event) -> {
+            if (actionId == EditorInfo.IME_ACTION_SEARCH) {
+                String teacher = etTeacherFilter.getText().toString().trim();
+                teacherFilter = teacher.isEmpty() ? null : teacher;
+                loadSchedule();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private void moveBy(int periods) {
+        anchorMillis = DateRanges.shift(period, anchorMillis, periods, TimeZone.getDefault())[0];
+        loadSchedule();
+    }
+
+    private void markDirty() {
+        dirty = true;
+        if (getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.RESUMED)) {
+            loadSchedule();
+        }
+    }
+
+    private void loadSchedule() {
+        dirty = false;
+        long[] range = DateRanges.containing(period, anchorMillis, TimeZone.getDefault());
+        tvPeriodRange.setText(formatRange(range));
+
+        final int generation = ++loadGeneration;
+        asyncDatabaseHelper.getClassInstancesInRange(range[0], range[1], teacherFilter, classTypeFilter, MAX_ROWS,
+                instances -> {
+                    if (generation != loadGeneration || isDestroyed()) {
+                        return;
+                    }
+
+                    // Fetch only the classes not already known
+                    Set<Long> missing = new LinkedHashSet<>();
+                    for (ClassInstance instance : instances) {
+                        if (!classesById.containsKey(instance.getYogaClassId())) {
+                            missing.add(instance.getYogaClassId());
+                        }
+                    }
+                    if (missing.isEmpty()) {
+                        showSchedule(instances);
+                        return;
+                    }
+
+                    long[] ids = new long[missing.size()];
+                    int i = 0;
+                    for (long id : missing) {
+                        ids[i++] = id;
+                    }
+                    asyncDatabaseHelper.getYogaClassesByIds(ids, YogaClassRowMapper.PROJECTION_SUMMARY, classes -> {
+                        if (generation != loadGeneration || isDestroyed()) {
+                            return;
+                        }
+                        for (YogaClass yogaClass : classes) {
+                            classesById.put(yogaClass.getId(), yogaClass);
+                        }
+                        showSchedule(instances);
+                    });
+                });
+    }
+
+    private void showSchedule(List<ClassInstance> instances) {
+        // Rows arrive by date; within a day, order by the class start time
+        instances.sort(Comparator.comparing(ClassInstance::getDate)
+                .thenComparing(instance -> courseTimeOf(instance.getYogaClassId())));
+
+        scheduledInstances.clear();
+        scheduledInstances.addAll(instances);
+        adapter.notifyDataSetChanged();
+
+        boolean empty = scheduledInstances.isEmpty();
+        listViewSchedule.setVisibility(empty ? View.GONE : View.VISIBLE);
+        tvNoScheduledInstances.setVisibility(empty ? View.VISIBLE : View.GONE);
+        if (instances.size() == MAX_ROWS) {
+            Toast.makeText(this, "Showing the first " + MAX_ROWS + " classes; narrow the filters to see the rest",
+                    Toast.LENGTH_LONG).show();
+        }
+    }
+
+    private String courseTimeOf(long yogaClassId) {
+        YogaClass yogaClass = classesById.get(yogaClassId);
+        return yogaClass != null && yogaClass.getCourseTime() != null ? yogaClass.getCourseTime() : "";
+    }
+
+    private static String formatRange(long[] range) {
+        Date first = new Date(range[0]);
+        // End is exclusive; the last day shown starts just before it
+        Date last = new Date(range[1] - 1);
+        String year = YEAR_FORMAT.format(last);
+        if (DAY_FORMAT.format(first).equals(DAY_FORMAT.format(last))) {
+            return DAY_FORMAT.format(first) + ", " + year;
+        }
+        return DAY_FORMAT.format(first) + " - " + DAY_FORMAT.format(last) + ", " + year;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(@NonNull MenuItem item) {
+        if (item.getItemId() == android.R.id.home) {
+            finish();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    // Spinner listener that only cares about the selected position
+    private static class SimpleItemSelectedListener implements AdapterView.OnItemSelectedListener {
+        interface OnSelected {
+            void onSelected(int position);
+        }
+
+        private final OnSelected onSelected;
+
+        SimpleItemSelectedListener(OnSelected onSelected) {
+            this.onSelected = onSelected;
+        }
+
+        @Override
+        public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+            onSelected.onSelected(position);
+        }
+
+        @Override
+        public void onNothingSelected(AdapterView<?> parent) {
+        }
+    }
+
+    // Adapter for scheduled instances: date, class time and type, teacher, comments
+    private class ScheduleAdapter extends ArrayAdapter<ClassInstance> {
+        ScheduleAdapter() {
+            super(WeekViewActivity.this, R.layout.item_class_instance, scheduledInstances);
+        }
+
+        @NonNull
+        @Override
+        public View getView(int position, View convertView, @NonNull ViewGroup parent) {
+            if (convertView == null) {
+                convertView = LayoutInflater.from(getContext())
+                        .inflate(R.layout.item_class_instance, parent, false);
+            }
+
+            ClassInstance instance = getItem(position);
+
+            TextView tvDate = convertView.findViewById(R.id.tvInstanceDate);
+            TextView tvTeacher = convertView.findViewById(R.id.tvInstanceTeacher);
+            TextView tvComments = convertView.findViewById(R.id.tvInstanceComments);
+
+            if (instance != null) {
+                YogaClass yogaClass = classesById.get(instance.getYogaClassId());
+                String heading = DAY_FORMAT.format(instance.getDate());
+                if (yogaClass != null) {
+                    heading += " at " + yogaClass.getCourseTime() + " - " + yogaClass.getClassType();
+                }
+                tvDate.setText(heading);
+                tvTeacher.setText("Teacher: " + instance.getTeacher());
+
+                if (instance.getComments() != null && !instance.getComments().isEmpty()) {
+                    tvComments.setText(instance.getComments());
+                    tvComments.setVisibility(View.VISIBLE);
+                } else {
+                    tvComments.setVisibility(View.GONE);
+                }
+            }
+
+            return convertView;
+        }
+    }
+}
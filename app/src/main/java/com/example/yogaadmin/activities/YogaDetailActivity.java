@@ -13,13 +13,14 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.yogaadmin.R;
 import com.example.yogaadmin.activities.ClassInstanceActivity;
-import com.example.yogaadmin.database.DatabaseHelper;
+import com.example.yogaadmin.database.AsyncDatabaseHelper;
+import com.example.yogaadmin.database.DatabaseManager;
 import com.example.yogaadmin.models.YogaClass;
 
 public class YogaDetailActivity extends AppCompatActivity {
 
     private YogaClass yogaClass;
-    private DatabaseHelper databaseHelper;
+    private AsyncDatabaseHelper asyncDatabaseHelper;
     private long classId;
 
     // UI Elements
@@ -40,8 +41,8 @@ public class YogaDetailActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_yoga_detail);
 
-        // Initialize database helper
-        databaseHelper = new DatabaseHelper(this);
+        // Initialize asynchronous database access
+        asyncDatabaseHelper = DatabaseManager.getInstance(this).getAsyncDatabaseHelper();
 
         // Get yoga class ID from intent
         classId = getIntent().getLongExtra("yoga_class_id", -1);
@@ -51,14 +52,6 @@ public class YogaDetailActivity extends AppCompatActivity {
             return;
         }
 
-        // Load yoga class details
-        yogaClass = databaseHelper.getYogaClassById(classId);
-        if (yogaClass == null) {
-            Toast.makeText(this, "Error: Class not found in database", Toast.LENGTH_SHORT).show();
-            finish();
-            return;
-        }
-
         // Set up action bar
         if (getSupportActionBar() != null) {
             getSupportActionBar().setTitle("Yoga Class Details");
@@ -71,8 +64,21 @@ public class YogaDetailActivity extends AppCompatActivity {
         // Setup button click listeners
         setupListeners();
 
-        // Display yoga class details
-        displayYogaClassDetails();
+        // Load yoga class details
+        asyncDatabaseHelper.getYogaClassById(classId, loadedClass -> {
+            if (isDestroyed()) {
+                return;
+            }
+            if (loadedClass == null) {
+                Toast.makeText(this, "Error: Class not found in database", Toast.LENGTH_SHORT).show();
+                finish();
+                return;
+            }
+            yogaClass = loadedClass;
+
+            // Display yoga class details
+            displayYogaClassDetails();
+        });
     }
 
     private void initializeViews() {
@@ -143,8 +149,12 @@ public class YogaDetailActivity extends AppCompatActivity {
 
     private void deleteYogaClass() {
         // Delete the class from database
-        databaseHelper.deleteYogaClass(classId);
-        Toast.makeText(this, "Yoga class deleted", Toast.LENGTH_SHORT).show();
-        finish(); // Close the activity and go back to the list
+        asyncDatabaseHelper.deleteYogaClass(classId, unused -> {
+            if (isDestroyed()) {
+                return;
+            }
+            Toast.makeText(this, "Yoga class deleted", Toast.LENGTH_SHORT).show();
+            finish(); // Close the activity and go back to the list
+        });
     }
 }
\ No newline at end of file
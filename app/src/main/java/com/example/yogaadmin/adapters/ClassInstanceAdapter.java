@@ -1,4 +1,123 @@
 package com.example.yogaadmin.adapters;
 
-public class ClassInstanceAdapter {
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.yogaadmin.R;
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.utils.DateLabels;
+import com.example.yogaadmin.utils.RowTextCache;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.TimeZone;
+
+/**
+ * RecyclerView adapter for the instances of one class, diffed on a background
+ * thread like ClassListAdapter. Row ids are instance ids. Row text is formatted
+ * once per row as in ClassListAdapter, with date labels shared per day.
+ */
+public class ClassInstanceAdapter extends ListAdapter<ClassInstance, ClassInstanceAdapter.ViewHolder> {
+    private static final DateLabels DATE_LABELS = new DateLabels("EEE, MMM d, yyyy", Locale.US, TimeZone.getDefault());
+
+    public interface OnInstanceClickListener {
+        void onInstanceClick(ClassInstance instance);
+    }
+
+    // Same instance by id; unchanged if date, teacher and comments are equal
+    private static final DiffUtil.ItemCallback<ClassInstance> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<ClassInstance>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull ClassInstance oldItem, @NonNull ClassInstance newItem) {
+                    return oldItem.getId() == newItem.getId();
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull ClassInstance oldItem, @NonNull ClassInstance newItem) {
+                    return Objects.equals(oldItem.getDate(), newItem.getDate())
+                            && Objects.equals(oldItem.getTeacher(), newItem.getTeacher())
+                            && Objects.equals(oldItem.getComments(), newItem.getComments());
+                }
+            };
+
+    private final OnInstanceClickListener listener;
+    private final RowTextCache<ClassInstance, RowText> rowText = new RowTextCache<>(RowText::new);
+
+    public ClassInstanceAdapter(OnInstanceClickListener listener) {
+        super(DIFF_CALLBACK);
+        this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    // Format the rows' text ahead of binding; safe to call from any thread
+    public void prepare(List<ClassInstance> rows) {
+        rowText.prepare(rows);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_class_instance, parent, false);
+        return new ViewHolder(view, listener);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        ClassInstance instance = getItem(position);
+        holder.bind(instance, rowText.get(instance));
+    }
+
+    public static class ViewHolder extends RecyclerView.ViewHolder {
+        private final TextView tvDate;
+        private final TextView tvTeacher;
+        private final TextView tvComments;
+        private ClassInstance instance;
+
+        ViewHolder(View itemView, OnInstanceClickListener listener) {
+            super(itemView);
+            tvDate = itemView.findViewById(R.id.tvInstanceDate);
+            tvTeacher = itemView.findViewById(R.id.tvInstanceTeacher);
+            tvComments = itemView.findViewById(R.id.tvInstanceComments);
+            itemView.setOnClickListener(v -> listener.onInstanceClick(instance));
+        }
+
+        void bind(ClassInstance instance, RowText text) {
+            this.instance = instance;
+            tvDate.setText(text.date);
+            tvTeacher.setText(text.teacher);
+
+            if (text.hasComments) {
+                tvComments.setText(instance.getComments());
+                tvComments.setVisibility(View.VISIBLE);
+            } else {
+                tvComments.setVisibility(View.GONE);
+            }
+        }
+    }
+
+    // What a row shows, formatted once
+    private static final class RowText {
+        final String date;
+        final String teacher;
+        final boolean hasComments;
+
+        RowText(ClassInstance instance) {
+            date = DATE_LABELS.format(instance.getDate());
+            teacher = "Teacher: " + instance.getTeacher();
+            hasComments = instance.getComments() != null && !instance.getComments().isEmpty();
+        }
+    }
 }
@@ -1,4 +1,125 @@
 package com.example.yogaadmin.adapters;
 
-public class ClassListAdapter {
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.yogaadmin.R;
+import com.example.yogaadmin.models.YogaClass;
+import com.example.yogaadmin.utils.RowTextCache;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * RecyclerView adapter for the list of yoga classes.
+ *
+ * Each submitted list is diffed against the previous one on a background
+ * thread, so adding, editing or deleting a class animates only that row and
+ * the scroll position survives. Row ids are class ids. Submit a new list
+ * object every time; a list must not be changed after it was submitted.
+ *
+ * Row text is formatted once per loaded row, ideally on the loading thread via
+ * {@link #prepare}, so binding a row during a fling only looks it up.
+ */
+public class ClassListAdapter extends ListAdapter<YogaClass, ClassListAdapter.ViewHolder> {
+
+    // Row taps, with the class shown in that row
+    public interface OnClassClickListener {
+        void onClassClick(YogaClass yogaClass);
+
+        void onClassLongClick(YogaClass yogaClass);
+    }
+
+    // Same class by id; unchanged if every field the row shows is equal
+    private static final DiffUtil.ItemCallback<YogaClass> DIFF_CALLBACK = new DiffUtil.ItemCallback<YogaClass>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull YogaClass oldItem, @NonNull YogaClass newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull YogaClass oldItem, @NonNull YogaClass newItem) {
+            return Objects.equals(oldItem.getDayOfWeek(), newItem.getDayOfWeek())
+                    && Objects.equals(oldItem.getCourseTime(), newItem.getCourseTime())
+                    && Objects.equals(oldItem.getClassType(), newItem.getClassType())
+                    && oldItem.getCapacity() == newItem.getCapacity()
+                    && oldItem.getDuration() == newItem.getDuration()
+                    && oldItem.getPricePerClass() == newItem.getPricePerClass()
+                    && Objects.equals(oldItem.getTeacher(), newItem.getTeacher());
+        }
+    };
+
+    private final OnClassClickListener listener;
+    private final RowTextCache<YogaClass, String> detailsText = new RowTextCache<>(ClassListAdapter::formatDetails);
+
+    public ClassListAdapter(OnClassClickListener listener) {
+        super(DIFF_CALLBACK);
+        this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    // Format the rows' text ahead of binding; safe to call from any thread
+    public void prepare(List<YogaClass> rows) {
+        detailsText.prepare(rows);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getId();
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_yoga_class, parent, false);
+        return new ViewHolder(view, listener);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        YogaClass yogaClass = getItem(position);
+        holder.bind(yogaClass, detailsText.get(yogaClass));
+    }
+
+    public static class ViewHolder extends RecyclerView.ViewHolder {
+        private final TextView tvClassDetails;
+        private YogaClass yogaClass;
+
+        ViewHolder(View itemView, OnClassClickListener listener) {
+            super(itemView);
+            tvClassDetails = itemView.findViewById(R.id.tvClassDetails);
+            itemView.setOnClickListener(v -> listener.onClassClick(yogaClass));
+            itemView.setOnLongClickListener(v -> {
+                listener.onClassLongClick(yogaClass);
+                return true;
+            });
+        }
+
+        void bind(YogaClass yogaClass, String details) {
+            this.yogaClass = yogaClass;
+            tvClassDetails.setText(details);
+        }
+    }
+
+    private static String formatDetails(YogaClass yogaClass) {
+        return String.format(
+                "Day: %s | Time: %s | Type: %s\n" +
+                        "Capacity: %d | Duration: %d mins | Price: £%.2f\n" +
+                        "Teacher: %s",
+                yogaClass.getDayOfWeek(),
+                yogaClass.getCourseTime(),
+                yogaClass.getClassType(),
+                yogaClass.getCapacity(),
+                yogaClass.getDuration(),
+                yogaClass.getPricePerClass(),
+                yogaClass.getTeacher()
+        );
+    }
 }
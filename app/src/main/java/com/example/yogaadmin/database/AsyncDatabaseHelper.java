@@ -0,0 +1,270 @@
+package com.example.yogaadmin.database;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.ReportRow;
+import com.example.yogaadmin.models.ScheduleConflict;
+import com.example.yogaadmin.models.ScheduleSnapshot;
+import com.example.yogaadmin.models.YogaClass;
+import com.example.yogaadmin.utils.RecurrenceGenerator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous front for DatabaseHelper so that no SQLite work runs on the UI thread.
+ *
+ * Every call runs on a small bounded I/O pool and delivers its result (or error)
+ * to a Callback on the main thread. The returned Future can be cancelled, e.g. from
+ * onDestroy, in which case the callback is never invoked.
+ */
+public class AsyncDatabaseHelper {
+    private static final String TAG = "AsyncDatabaseHelper";
+
+    // WAL lets a few readers run alongside the single writer; more threads would only queue in SQLite
+    private static final int IO_THREADS = 3;
+    // Work beyond this backlog is rejected instead of piling up unbounded
+    private static final int MAX_QUEUED_TASKS = 256;
+
+    // Result delivery on the main thread
+    public interface Callback<T> {
+        void onResult(T result);
+
+        // Runs on the I/O thread just before onResult, e.g. to format display text; must not touch views
+        default void prepare(T result) {
+        }
+
+        default void onError(Exception e) {
+            Log.e(TAG, "Database operation failed", e);
+        }
+    }
+
+    private final DatabaseHelper databaseHelper;
+    private final ClassSearchIndex classSearchIndex;
+    private final YogaClassCache yogaClassCache;
+    private final ClassReports classReports;
+    private final ConflictChecker conflictChecker;
+    private final SyncTracker syncTracker;
+    private final ThreadPoolExecutor ioExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public AsyncDatabaseHelper(DatabaseHelper databaseHelper, ClassSearchIndex classSearchIndex,
+                               YogaClassCache yogaClassCache, ClassReports classReports,
+                               ConflictChecker conflictChecker, SyncTracker syncTracker) {
+        this.databaseHelper = databaseHelper;
+        this.classSearchIndex = classSearchIndex;
+        this.yogaClassCache = yogaClassCache;
+        this.classReports = classReports;
+        this.conflictChecker = conflictChecker;
+        this.syncTracker = syncTracker;
+        this.ioExecutor = new ThreadPoolExecutor(IO_THREADS, IO_THREADS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(MAX_QUEUED_TASKS), new IoThreadFactory());
+        this.ioExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Run any database work on the I/O pool.
+     * @param work Work to run off the main thread
+     * @param callback Receives the result on the main thread; may be null
+     * @return Future for the work; cancelling it suppresses the callback
+     */
+    public <T> Future<T> execute(Callable<T> work, Callback<T> callback) {
+        FutureTask<T> task = new FutureTask<T>(work) {
+            @Override
+            protected void done() {
+                if (isCancelled() || callback == null) {
+                    return;
+                }
+                try {
+                    T result = get();
+                    callback.prepare(result);
+                    mainHandler.post(() -> {
+                        if (!isCancelled()) {
+                            callback.onResult(result);
+                        }
+                    });
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    Exception error = cause instanceof Exception ? (Exception) cause : e;
+                    mainHandler.post(() -> callback.onError(error));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    // Thrown by prepare
+                    mainHandler.post(() -> callback.onError(e));
+                }
+            }
+        };
+
+        try {
+            ioExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            Log.e(TAG, "Database work rejected: I/O queue is full or shut down", e);
+            task.cancel(false);
+            if (callback != null) {
+                mainHandler.post(() -> callback.onError(e));
+            }
+        }
+        return task;
+    }
+
+    // Yoga classes
+
+    public Future<Long> insertYogaClass(YogaClass yogaClass, Callback<Long> callback) {
+        return execute(() -> databaseHelper.insertYogaClass(yogaClass), callback);
+    }
+
+    public Future<YogaClass> getYogaClassById(long id, Callback<YogaClass> callback) {
+        return execute(() -> yogaClassCache.getYogaClassById(id), callback);
+    }
+
+    public Future<List<YogaClass>> getYogaClassesPage(long afterId, int pageSize, String[] projection,
+                                                      Callback<List<YogaClass>> callback) {
+        return execute(() -> databaseHelper.getYogaClassesPage(afterId, pageSize, projection), callback);
+    }
+
+    public Future<List<YogaClass>> getYogaClassesByIds(long[] ids, String[] projection,
+                                                       Callback<List<YogaClass>> callback) {
+        return execute(() -> databaseHelper.getYogaClassesByIds(ids, projection), callback);
+    }
+
+    public Future<List<YogaClass>> getYogaClassesWithInstances(long[] yogaClassIds,
+                                                               Callback<List<YogaClass>> callback) {
+        return execute(() -> databaseHelper.getYogaClassesWithInstances(yogaClassIds), callback);
+    }
+
+    public Future<ScheduleSnapshot> getScheduleSnapshot(Callback<ScheduleSnapshot> callback) {
+        return execute(databaseHelper::getScheduleSnapshot, callback);
+    }
+
+    public Future<List<YogaClass>> searchClasses(String query, int limit, Callback<List<YogaClass>> callback) {
+        return execute(() -> classSearchIndex.search(query, limit), callback);
+    }
+
+    public Future<Void> deleteYogaClass(long id, Callback<Void> callback) {
+        return execute(() -> {
+            databaseHelper.deleteYogaClass(id);
+            return null;
+        }, callback);
+    }
+
+    public Future<Void> resetDatabase(Callback<Void> callback) {
+        return execute(() -> {
+            databaseHelper.resetDatabase();
+            return null;
+        }, callback);
+    }
+
+    // Class instances
+
+    public Future<Long> insertClassInstance(ClassInstance instance, Callback<Long> callback) {
+        return execute(() -> databaseHelper.insertClassInstance(instance), callback);
+    }
+
+    public Future<long[]> insertClassInstances(List<ClassInstance> instances, Callback<long[]> callback) {
+        return execute(() -> databaseHelper.insertClassInstances(instances), callback);
+    }
+
+    // Generate count weekly instances of a class and insert them in one transaction, both off the main thread
+    public Future<List<ClassInstance>> generateRecurringInstances(RecurrenceGenerator generator, YogaClass yogaClass,
+                                                                 long fromMillis, int count,
+                                                                 Callback<List<ClassInstance>> callback) {
+        return execute(() -> generator.generateCount(yogaClass, fromMillis, count), callback);
+    }
+
+    public Future<List<ClassInstance>> getClassInstancesPage(long yogaClassId, long afterDate, long afterId,
+                                                             int pageSize, Callback<List<ClassInstance>> callback) {
+        if (afterDate == Long.MIN_VALUE && afterId == 0) {
+            // The first page is what a user sees when drilling into a class again
+            return execute(() -> yogaClassCache.getFirstClassInstancesPage(yogaClassId, pageSize), callback);
+        }
+        return execute(() -> databaseHelper.getClassInstancesPage(yogaClassId, afterDate, afterId, pageSize), callback);
+    }
+
+    public Future<List<ClassInstance>> getClassInstancesInRange(long fromDate, long toDate, String teacher,
+                                                                String classType, int limit,
+                                                                Callback<List<ClassInstance>> callback) {
+        return execute(() -> databaseHelper.getClassInstancesInRange(fromDate, toDate, teacher, classType, limit),
+                callback);
+    }
+
+    public Future<List<ReportRow>> getReport(ClassReports.GroupBy groupBy, long fromDate, long toDate,
+                                             Callback<List<ReportRow>> callback) {
+        return execute(() -> classReports.getReport(groupBy, fromDate, toDate), callback);
+    }
+
+    public Future<List<ScheduleConflict>> findClassConflicts(YogaClass yogaClass,
+                                                             Callback<List<ScheduleConflict>> callback) {
+        return execute(() -> conflictChecker.findClassConflicts(yogaClass), callback);
+    }
+
+    public Future<Map<ClassInstance, List<ScheduleConflict>>> findInstanceConflicts(
+            List<ClassInstance> instances, Callback<Map<ClassInstance, List<ScheduleConflict>>> callback) {
+        return execute(() -> conflictChecker.findInstanceConflicts(instances), callback);
+    }
+
+    public Future<List<ScheduleConflict>> findAllConflicts(Callback<List<ScheduleConflict>> callback) {
+        return execute(conflictChecker::findAllConflicts, callback);
+    }
+
+    public Future<List<ClassInstance>> getClassInstancesByIds(long[] ids, Callback<List<ClassInstance>> callback) {
+        return execute(() -> databaseHelper.getClassInstancesByIds(ids), callback);
+    }
+
+    public Future<Integer> updateClassInstance(ClassInstance instance, Callback<Integer> callback) {
+        return execute(() -> databaseHelper.updateClassInstance(instance), callback);
+    }
+
+    public Future<Void> deleteClassInstance(long instanceId, Callback<Void> callback) {
+        return execute(() -> {
+            databaseHelper.deleteClassInstance(instanceId);
+            return null;
+        }, callback);
+    }
+
+    // Cloud sync
+
+    public Future<SyncTracker.PendingChanges> getPendingChanges(Callback<SyncTracker.PendingChanges> callback) {
+        return execute(syncTracker::getPendingChanges, callback);
+    }
+
+    public Future<SyncTracker.PendingChanges> getAllClassesForUpload(Callback<SyncTracker.PendingChanges> callback) {
+        return execute(syncTracker::getAllClasses, callback);
+    }
+
+    public Future<Void> markUploaded(long changeSeq, Callback<Void> callback) {
+        return execute(() -> {
+            syncTracker.markUploaded(changeSeq);
+            return null;
+        }, callback);
+    }
+
+    // Stop accepting work; queued work still finishes
+    void shutdown() {
+        ioExecutor.shutdown();
+    }
+
+    private static class IoThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "db-io-" + count.incrementAndGet());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.yogaadmin.database;
+
+import android.database.Cursor;
+
+import com.example.yogaadmin.models.ClassInstance;
+
+import java.util.Date;
+
+/**
+ * Maps class_instances rows to ClassInstance. Columns missing from the
+ * projection are left at their defaults.
+ */
+public class ClassInstanceRowMapper implements RowMapper<ClassInstance> {
+    // Every column
+    public static final String[] PROJECTION_ALL = {
+            DatabaseContract.ClassInstanceEntry._ID,
+            DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID,
+            DatabaseContract.ClassInstanceEntry.COLUMN_DATE,
+            DatabaseContract.ClassInstanceEntry.COLUMN_TEACHER,
+            DatabaseContract.ClassInstanceEntry.COLUMN_COMMENTS
+    };
+
+    private final int idIndex;
+    private final int yogaClassIdIndex;
+    private final int dateIndex;
+    private final int teacherIndex;
+    private final int commentsIndex;
+
+    // Resolve column positions for this cursor once
+    public ClassInstanceRowMapper(Cursor cursor) {
+        idIndex = cursor.getColumnIndex(DatabaseContract.ClassInstanceEntry._ID);
+        yogaClassIdIndex = cursor.getColumnIndex(DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID);
+        dateIndex = cursor.getColumnIndex(DatabaseContract.ClassInstanceEntry.COLUMN_DATE);
+        teacherIndex = cursor.getColumnIndex(DatabaseContract.ClassInstanceEntry.COLUMN_TEACHER);
+        commentsIndex = cursor.getColumnIndex(DatabaseContract.ClassInstanceEntry.COLUMN_COMMENTS);
+    }
+
+    @Override
+    public ClassInstance map(Cursor cursor) {
+        ClassInstance instance = new ClassInstance();
+
+        if (idIndex != -1) instance.setId(cursor.getLong(idIndex));
+        if (yogaClassIdIndex != -1) instance.setYogaClassId(cursor.getLong(yogaClassIdIndex));
+        if (dateIndex != -1) instance.setDate(new Date(cursor.getLong(dateIndex)));
+        if (teacherIndex != -1) instance.setTeacher(cursor.getString(teacherIndex));
+        if (commentsIndex != -1) instance.setComments(cursor.getString(commentsIndex));
+
+        return instance;
+    }
+}
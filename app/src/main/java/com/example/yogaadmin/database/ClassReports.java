@@ -0,0 +1,168 @@
+package com.example.yogaadmin.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+import android.util.LruCache;
+
+import com.example.yogaadmin.models.ReportRow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-teacher and per-class-type statistics, aggregated by SQLite with GROUP BY
+ * so no rows are loaded into Java: classes run, instances scheduled, scheduled
+ * minutes (sum of class duration per instance) and potential revenue (sum of
+ * capacity x price per instance).
+ *
+ * Reports are cached until either table changes. Like YogaClassCache, the cache
+ * is cleared on the writing thread as soon as a write commits.
+ */
+public class ClassReports {
+    private static final String TAG = "ClassReports";
+    private static final int MAX_CACHED_REPORTS = 16;
+    private static final String UNKNOWN = "Unknown";
+
+    private static final String CLASSES = DatabaseContract.YogaClassEntry.TABLE_NAME;
+    private static final String INSTANCES = DatabaseContract.ClassInstanceEntry.TABLE_NAME;
+
+    public enum GroupBy {
+        // Classes count for their regular teacher, instances for whoever taught them (e.g. a substitute)
+        TEACHER("c." + DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME,
+                "COALESCE(i." + DatabaseContract.ClassInstanceEntry.COLUMN_TEACHER
+                        + ", c." + DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME + ")"),
+        CLASS_TYPE("c." + DatabaseContract.YogaClassEntry.COLUMN_CLASS_TYPE,
+                "c." + DatabaseContract.YogaClassEntry.COLUMN_CLASS_TYPE);
+
+        final String classGroup;
+        final String instanceGroup;
+
+        GroupBy(String classGroup, String instanceGroup) {
+            this.classGroup = classGroup;
+            this.instanceGroup = instanceGroup;
+        }
+    }
+
+    private final DatabaseHelper databaseHelper;
+    private final LruCache<String, List<ReportRow>> reports = new LruCache<>(MAX_CACHED_REPORTS);
+    // Bumped by every invalidation; a report that raced with a write is not stored
+    private final AtomicLong generation = new AtomicLong();
+    // Makes "check the generation, then store" atomic with "bump the generation, then drop"
+    private final Object storeLock = new Object();
+
+    public ClassReports(DatabaseHelper databaseHelper) {
+        this.databaseHelper = databaseHelper;
+        InvalidationTracker tracker = databaseHelper.getInvalidationTracker();
+        tracker.addWriterObserver(CLASSES, this::onTableChanged);
+        tracker.addWriterObserver(INSTANCES, this::onTableChanged);
+    }
+
+    /**
+     * Aggregate the catalog by teacher or class type.
+     * @param groupBy What each row of the report stands for
+     * @param fromDate Count instances dated from here (inclusive); Long.MIN_VALUE for no lower bound
+     * @param toDate Count instances dated before here; Long.MAX_VALUE for no upper bound
+     * @return One row per group, ordered by name; shared, so treat as read-only
+     */
+    public List<ReportRow> getReport(GroupBy groupBy, long fromDate, long toDate) {
+        String key = groupBy + ":" + fromDate + ":" + toDate;
+        List<ReportRow> cached = reports.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadedAt = generation.get();
+        List<ReportRow> report = loadReport(groupBy, fromDate, toDate);
+        if (report != null) {
+            synchronized (storeLock) {
+                if (generation.get() == loadedAt) {
+                    reports.put(key, report);
+                }
+            }
+        }
+        return report != null ? report : Collections.emptyList();
+    }
+
+    private List<ReportRow> loadReport(GroupBy groupBy, long fromDate, long toDate) {
+        // Group name -> {classes, instances, minutes}, revenue kept separately as it isn't integral
+        Map<String, long[]> counts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Map<String, Double> revenue = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        SQLiteDatabase db = databaseHelper.getReadableDatabase();
+        Cursor cursor = null;
+
+        try {
+            cursor = db.rawQuery(classCountSql(groupBy), null);
+            while (cursor.moveToNext()) {
+                groupCounts(counts, cursor.getString(0))[0] += cursor.getLong(1);
+            }
+            cursor.close();
+
+            boolean dateBounded = fromDate != Long.MIN_VALUE || toDate != Long.MAX_VALUE;
+            cursor = db.rawQuery(instanceReportSql(groupBy, dateBounded), dateBounded
+                    ? new String[]{String.valueOf(fromDate), String.valueOf(toDate)} : null);
+            while (cursor.moveToNext()) {
+                String group = cursor.getString(0);
+                long[] groupCounts = groupCounts(counts, group);
+                groupCounts[1] += cursor.getLong(1);
+                groupCounts[2] += cursor.getLong(2);
+                revenue.merge(group != null ? group : UNKNOWN, cursor.getDouble(3), Double::sum);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error building " + groupBy + " report", e);
+            return null;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+
+        List<ReportRow> rows = new ArrayList<>(counts.size());
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            long[] groupCounts = entry.getValue();
+            Double groupRevenue = revenue.get(entry.getKey());
+            rows.add(new ReportRow(entry.getKey(), (int) groupCounts[0], (int) groupCounts[1], groupCounts[2],
+                    groupRevenue != null ? groupRevenue : 0));
+        }
+        return Collections.unmodifiableList(rows);
+    }
+
+    // Classes per group
+    static String classCountSql(GroupBy groupBy) {
+        return "SELECT " + groupBy.classGroup + ", COUNT(*) FROM " + CLASSES + " c GROUP BY " + groupBy.classGroup;
+    }
+
+    // Instances, minutes and revenue per group; dateBounded takes the from and to dates as arguments
+    static String instanceReportSql(GroupBy groupBy, boolean dateBounded) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(groupBy.instanceGroup)
+                .append(", COUNT(*), SUM(c.").append(DatabaseContract.YogaClassEntry.COLUMN_DURATION)
+                .append("), SUM(c.").append(DatabaseContract.YogaClassEntry.COLUMN_CAPACITY)
+                .append(" * c.").append(DatabaseContract.YogaClassEntry.COLUMN_PRICE).append(")")
+                .append(" FROM ").append(INSTANCES).append(" i CROSS JOIN ").append(CLASSES).append(" c")
+                .append(" ON c.").append(DatabaseContract.YogaClassEntry._ID)
+                .append(" = i.").append(DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID);
+        // Only bound the date when asked to: an unbounded "range" over the whole index is slower than a scan
+        if (dateBounded) {
+            sql.append(" WHERE i.").append(DatabaseContract.ClassInstanceEntry.COLUMN_DATE).append(" >= ?")
+                    .append(" AND i.").append(DatabaseContract.ClassInstanceEntry.COLUMN_DATE).append(" < ?");
+        }
+        return sql.append(" GROUP BY ").append(groupBy.instanceGroup).toString();
+    }
+
+    // Missing teachers are reported together; names differing only in case are merged
+    private static long[] groupCounts(Map<String, long[]> counts, String group) {
+        return counts.computeIfAbsent(group != null ? group : UNKNOWN, key -> new long[3]);
+    }
+
+    private void onTableChanged(String table, Set<Long> rowIds) {
+        synchronized (storeLock) {
+            generation.incrementAndGet();
+            reports.evictAll();
+        }
+    }
+}
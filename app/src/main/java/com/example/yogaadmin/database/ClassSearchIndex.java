@@ -0,0 +1,240 @@
+package com.example.yogaadmin.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.example.yogaadmin.models.YogaClass;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full-text search over yoga classes (teacher, class type, description) and
+ * class instances (substitute teacher, comments).
+ *
+ * Both FTS4 tables use external content, so the text is stored only once in the
+ * regular tables and triggers keep the index in sync with every insert, update
+ * and delete, whichever code path performs it.
+ */
+public class ClassSearchIndex {
+    private static final String TAG = "ClassSearchIndex";
+
+    private static final String CLASSES = DatabaseContract.YogaClassEntry.TABLE_NAME;
+    private static final String INSTANCES = DatabaseContract.ClassInstanceEntry.TABLE_NAME;
+    private static final String CLASSES_FTS = DatabaseContract.YogaClassSearchEntry.TABLE_NAME;
+    private static final String INSTANCES_FTS = DatabaseContract.ClassInstanceSearchEntry.TABLE_NAME;
+
+    // Relative weight of a hit in each yoga_classes_fts column, in column order
+    private static final double[] CLASS_COLUMN_WEIGHTS = {3.0, 2.0, 1.0};
+    // Upper bound of the score contributed by matching instances of a class
+    private static final double INSTANCE_MATCH_WEIGHT = 1.0;
+
+    // Class text hits: docid (the class id) and matchinfo for scoring
+    static final String CLASS_MATCH_SQL = "SELECT docid, matchinfo(" + CLASSES_FTS + ", 'pcx') FROM " + CLASSES_FTS
+            + " WHERE " + CLASSES_FTS + " MATCH ?";
+    // Instance text hits, counted per class
+    static final String INSTANCE_MATCH_SQL = "SELECT i." + DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID
+            + ", COUNT(*) FROM " + INSTANCES_FTS + " JOIN " + INSTANCES + " i"
+            + " ON i." + DatabaseContract.ClassInstanceEntry._ID + " = " + INSTANCES_FTS + ".docid"
+            + " WHERE " + INSTANCES_FTS + " MATCH ?"
+            + " GROUP BY i." + DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID;
+
+    private final DatabaseHelper databaseHelper;
+
+    public ClassSearchIndex(DatabaseHelper databaseHelper) {
+        this.databaseHelper = databaseHelper;
+    }
+
+    // Create the FTS tables and sync triggers, then index any rows that already exist
+    static void create(SQLiteDatabase db) {
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + CLASSES_FTS + " USING fts4(content=\"" + CLASSES + "\", "
+                + DatabaseContract.YogaClassSearchEntry.COLUMN_TEACHER_NAME + ", "
+                + DatabaseContract.YogaClassSearchEntry.COLUMN_CLASS_TYPE + ", "
+                + DatabaseContract.YogaClassSearchEntry.COLUMN_DESCRIPTION + ")");
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + INSTANCES_FTS + " USING fts4(content=\"" + INSTANCES + "\", "
+                + DatabaseContract.ClassInstanceSearchEntry.COLUMN_TEACHER + ", "
+                + DatabaseContract.ClassInstanceSearchEntry.COLUMN_COMMENTS + ")");
+
+        createSyncTriggers(db, CLASSES, CLASSES_FTS, DatabaseContract.YogaClassEntry._ID,
+                DatabaseContract.YogaClassSearchEntry.COLUMN_TEACHER_NAME,
+                DatabaseContract.YogaClassSearchEntry.COLUMN_CLASS_TYPE,
+                DatabaseContract.YogaClassSearchEntry.COLUMN_DESCRIPTION);
+        createSyncTriggers(db, INSTANCES, INSTANCES_FTS, DatabaseContract.ClassInstanceEntry._ID,
+                DatabaseContract.ClassInstanceSearchEntry.COLUMN_TEACHER,
+                DatabaseContract.ClassInstanceSearchEntry.COLUMN_COMMENTS);
+
+        db.execSQL("INSERT INTO " + CLASSES_FTS + "(" + CLASSES_FTS + ") VALUES('rebuild')");
+        db.execSQL("INSERT INTO " + INSTANCES_FTS + "(" + INSTANCES_FTS + ") VALUES('rebuild')");
+    }
+
+    // External-content FTS4 needs the old text removed before a row changes and the new text added after
+    private static void createSyncTriggers(SQLiteDatabase db, String table, String ftsTable, String idColumn,
+                                           String... columns) {
+        String columnList = TextUtils.join(", ", columns);
+        StringBuilder newValues = new StringBuilder("new." + idColumn);
+        for (String column : columns) {
+            newValues.append(", new.").append(column);
+        }
+        String deleteOld = "DELETE FROM " + ftsTable + " WHERE docid = old." + idColumn + ";";
+        String insertNew = "INSERT INTO " + ftsTable + "(docid, " + columnList + ") VALUES(" + newValues + ");";
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + ftsTable + "_bu BEFORE UPDATE ON " + table
+                + " BEGIN " + deleteOld + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + ftsTable + "_bd BEFORE DELETE ON " + table
+                + " BEGIN " + deleteOld + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + ftsTable + "_au AFTER UPDATE ON " + table
+                + " BEGIN " + insertNew + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + ftsTable + "_ai AFTER INSERT ON " + table
+                + " BEGIN " + insertNew + " END");
+    }
+
+    /**
+     * Search classes by any word prefix of their teacher, class type or description,
+     * or of the teacher/comments of any of their instances. Every word typed must
+     * match within the same class or instance.
+     * @param text Free text typed by the user
+     * @param limit Maximum number of classes returned
+     * @return Matching classes, best match first
+     */
+    public List<YogaClass> search(String text, int limit) {
+        String matchQuery = toMatchQuery(text);
+        if (matchQuery == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        SQLiteDatabase db = databaseHelper.getReadableDatabase();
+        Map<Long, Double> scores = new HashMap<>();
+        Cursor cursor = null;
+
+        try {
+            // Direct hits on the class text, weighted per column
+            cursor = db.rawQuery(CLASS_MATCH_SQL, new String[]{matchQuery});
+            while (cursor.moveToNext()) {
+                scores.put(cursor.getLong(0), scoreMatchInfo(cursor.getBlob(1), CLASS_COLUMN_WEIGHTS));
+            }
+            cursor.close();
+
+            // Hits on instances count towards their class, saturating with the number of matches
+            cursor = db.rawQuery(INSTANCE_MATCH_SQL, new String[]{matchQuery});
+            while (cursor.moveToNext()) {
+                long count = cursor.getLong(1);
+                scores.merge(cursor.getLong(0), INSTANCE_MATCH_WEIGHT * count / (count + 1.0), Double::sum);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error searching for: " + text, e);
+            return new ArrayList<>();
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+        Collections.sort(ranked, (a, b) -> {
+            int byScore = Double.compare(b.getValue(), a.getValue());
+            return byScore != 0 ? byScore : Long.compare(a.getKey(), b.getKey());
+        });
+        if (ranked.size() > limit) {
+            ranked = ranked.subList(0, limit);
+        }
+
+        return loadRanked(db, ranked);
+    }
+
+    // Load the ranked classes and return them in rank order
+    private List<YogaClass> loadRanked(SQLiteDatabase db, List<Map.Entry<Long, Double>> ranked) {
+        List<YogaClass> results = new ArrayList<>(ranked.size());
+        if (ranked.isEmpty()) {
+            return results;
+        }
+
+        Map<Long, Integer> rankById = new HashMap<>();
+        StringBuilder placeholders = new StringBuilder();
+        String[] args = new String[ranked.size()];
+        for (int i = 0; i < ranked.size(); i++) {
+            long id = ranked.get(i).getKey();
+            rankById.put(id, i);
+            placeholders.append(i == 0 ? "?" : ", ?");
+            args[i] = String.valueOf(id);
+        }
+
+        YogaClass[] ordered = new YogaClass[ranked.size()];
+        Cursor cursor = null;
+        try {
+            cursor = db.query(CLASSES, YogaClassRowMapper.PROJECTION_ALL,
+                    DatabaseContract.YogaClassEntry._ID + " IN (" + placeholders + ")", args, null, null, null);
+            YogaClassRowMapper mapper = new YogaClassRowMapper(cursor);
+            while (cursor.moveToNext()) {
+                YogaClass yogaClass = mapper.map(cursor);
+                ordered[rankById.get(yogaClass.getId())] = yogaClass;
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error loading search results", e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+
+        // Instances whose class was deleted leave gaps; skip them
+        for (YogaClass yogaClass : ordered) {
+            if (yogaClass != null) {
+                results.add(yogaClass);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Turn free text into an FTS4 query where every word is a prefix term,
+     * e.g. "ann  fl" becomes "ann* fl*". Operators and quotes are dropped.
+     * @return The MATCH expression, or null if the text has no searchable words
+     */
+    static String toMatchQuery(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                if (query.length() > 0) {
+                    query.append(' ');
+                }
+                query.append(word).append('*');
+            }
+        }
+        return query.length() > 0 ? query.toString() : null;
+    }
+
+    /**
+     * Score one row from matchinfo(..., 'pcx'): for every phrase and column, the
+     * hits in this row divided by the hits across all rows, times the column weight.
+     * Rare words and hits in heavier columns therefore rank higher.
+     */
+    static double scoreMatchInfo(byte[] matchInfo, double[] columnWeights) {
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phraseCount = buffer.getInt(0);
+        int columnCount = buffer.getInt(4);
+
+        double score = 0;
+        for (int phrase = 0; phrase < phraseCount; phrase++) {
+            for (int column = 0; column < columnCount; column++) {
+                int offset = 8 + 12 * (phrase * columnCount + column);
+                int hitsThisRow = buffer.getInt(offset);
+                int hitsAllRows = buffer.getInt(offset + 4);
+                if (hitsThisRow > 0) {
+                    double weight = column < columnWeights.length ? columnWeights[column] : 1.0;
+                    score += weight * hitsThisRow / hitsAllRows;
+                }
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.yogaadmin.database;
+
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import com.example.yogaadmin.models.YogaClass;
+import com.example.yogaadmin.network.Outbox;
+import com.example.yogaadmin.network.OutboxEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The cloud outbox as a table, one row per class waiting for upload.
+ *
+ * A trigger on sync_changes enqueues the class of every change SyncTracker
+ * records, so every local write path fills the outbox, inside the write's own
+ * transaction. Repeated edits of a class collapse into one entry carrying the
+ * latest change; acknowledging an entry removes it only if no newer change
+ * has replaced it in the meantime. An entry whose class is gone is a
+ * tombstone and uploads as a removal.
+ *
+ * Every change below the oldest queued one has reached the cloud, so
+ * acknowledging also moves SyncTracker's upload watermark there, which
+ * purges the acknowledged stamps and tombstones.
+ */
+public class CloudOutbox implements Outbox {
+    private static final String OUTBOX = DatabaseContract.CloudOutboxEntry.TABLE_NAME;
+    private static final String CLASSES = DatabaseContract.YogaClassEntry.TABLE_NAME;
+
+    // Oldest entries first; whether the class still exists comes from the same read as the queue itself
+    static final String PEEK_SQL = "SELECT o." + DatabaseContract.CloudOutboxEntry.COLUMN_YOGA_CLASS_ID
+            + ", o." + DatabaseContract.CloudOutboxEntry.COLUMN_CHANGE_SEQ
+            + ", c." + DatabaseContract.YogaClassEntry._ID + " IS NOT NULL"
+            + " FROM " + OUTBOX + " o"
+            + " LEFT JOIN " + CLASSES + " c ON c." + DatabaseContract.YogaClassEntry._ID
+            + " = o." + DatabaseContract.CloudOutboxEntry.COLUMN_YOGA_CLASS_ID
+            + " ORDER BY o." + DatabaseContract.CloudOutboxEntry.COLUMN_CHANGE_SEQ + " LIMIT ?";
+    // Everything before the oldest queued change is in the cloud
+    static final String ACKNOWLEDGED_SQL = "SELECT COALESCE(MIN("
+            + DatabaseContract.CloudOutboxEntry.COLUMN_CHANGE_SEQ + ") - 1, (SELECT "
+            + DatabaseContract.SyncStateEntry.COLUMN_VALUE + " FROM " + DatabaseContract.SyncStateEntry.TABLE_NAME
+            + " WHERE " + DatabaseContract.SyncStateEntry.COLUMN_NAME + " = ?)) FROM " + OUTBOX;
+
+    private final DatabaseHelper databaseHelper;
+
+    public CloudOutbox(DatabaseHelper databaseHelper) {
+        this.databaseHelper = databaseHelper;
+    }
+
+    // Create the outbox and its trigger, queueing every class not yet acknowledged by an upload
+    static void create(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + OUTBOX + "("
+                + DatabaseContract.CloudOutboxEntry.COLUMN_YOGA_CLASS_ID + " INTEGER PRIMARY KEY, "
+                + DatabaseContract.CloudOutboxEntry.COLUMN_CHANGE_SEQ + " INTEGER NOT NULL)");
+        // Oldest change first
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + DatabaseContract.CloudOutboxEntry.INDEX_CHANGE_SEQ
+                + " ON " + OUTBOX + "(" + DatabaseContract.CloudOutboxEntry.COLUMN_CHANGE_SEQ + ")");
+
+        db.execSQL("INSERT OR REPLACE INTO " + OUTBOX
+                + " SELECT " + DatabaseContract.SyncChangeEntry.COLUMN_YOGA_CLASS_ID
+                + ", MAX(" + DatabaseContract.SyncChangeEntry.COLUMN_CHANGE_SEQ + ")"
+                + " FROM " + DatabaseContract.SyncChangeEntry.TABLE_NAME
+                + " WHERE " + DatabaseContract.SyncChangeEntry.COLUMN_CHANGE_SEQ + " > (SELECT "
+                + DatabaseContract.SyncStateEntry.COLUMN_VALUE + " FROM " + DatabaseContract.SyncStateEntry.TABLE_NAME
+                + " WHERE " + DatabaseContract.SyncStateEntry.COLUMN_NAME + " = '"
+                + DatabaseContract.SyncStateEntry.UPLOADED_CHANGE + "')"
+                + " GROUP BY " + DatabaseContract.SyncChangeEntry.COLUMN_YOGA_CLASS_ID);
+
+        // INSERT OR REPLACE into sync_changes fires this for every stamped change
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS cloud_outbox_enqueue AFTER INSERT ON "
+                + DatabaseContract.SyncChangeEntry.TABLE_NAME + " BEGIN "
+                + "INSERT OR REPLACE INTO " + OUTBOX + " VALUES(new."
+                + DatabaseContract.SyncChangeEntry.COLUMN_YOGA_CLASS_ID + ", new."
+                + DatabaseContract.SyncChangeEntry.COLUMN_CHANGE_SEQ + "); END");
+    }
+
+    // Drop every queued entry without uploading it; run inside a transaction
+    static void clear(SQLiteDatabase db) {
+        db.delete(OUTBOX, null, null);
+    }
+
+    @Override
+    public List<OutboxEntry> peek(int limit) {
+        SQLiteDatabase db = databaseHelper.getReadableDatabase();
+        List<long[]> queued = new ArrayList<>();
+        List<Long> existingIds = new ArrayList<>();
+
+        try (Cursor cursor = db.rawQuery(PEEK_SQL, new String[]{String.valueOf(limit)})) {
+            while (cursor.moveToNext()) {
+                queued.add(new long[]{cursor.getLong(0), cursor.getLong(1)});
+                if (cursor.getInt(2) != 0) {
+                    existingIds.add(cursor.getLong(0));
+                }
+            }
+        }
+
+        long[] ids = new long[existingIds.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = existingIds.get(i);
+        }
+        Arrays.sort(ids);
+        Map<Long, YogaClass> classesById = new HashMap<>();
+        if (ids.length > 0) {
+            for (YogaClass yogaClass : databaseHelper.getYogaClassesWithInstances(ids)) {
+                classesById.put(yogaClass.getId(), yogaClass);
+            }
+        }
+        // getYogaClassesWithInstances logs and returns what it has on errors; a missing
+        // class must not be mistaken for a deleted one
+        if (classesById.size() < ids.length) {
+            throw new IllegalStateException("Could only load " + classesById.size() + " of " + ids.length
+                    + " queued classes");
+        }
+
+        List<OutboxEntry> entries = new ArrayList<>(queued.size());
+        for (long[] entry : queued) {
+            entries.add(new OutboxEntry(entry[0], entry[1], classesById.get(entry[0])));
+        }
+        return entries;
+    }
+
+    @Override
+    public void acknowledge(List<OutboxEntry> entries) {
+        SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        db.beginTransaction();
+        try (SQLiteStatement delete = db.compileStatement("DELETE FROM " + OUTBOX
+                + " WHERE " + DatabaseContract.CloudOutboxEntry.COLUMN_YOGA_CLASS_ID + " = ?"
+                + " AND " + DatabaseContract.CloudOutboxEntry.COLUMN_CHANGE_SEQ + " = ?")) {
+            for (OutboxEntry entry : entries) {
+                delete.bindLong(1, entry.getYogaClassId());
+                delete.bindLong(2, entry.getChangeSeq());
+                delete.executeUpdateDelete();
+            }
+            // Empty outbox: everything up to the last change is in the cloud
+            long acknowledged = DatabaseUtils.longForQuery(db, ACKNOWLEDGED_SQL,
+                    new String[]{DatabaseContract.SyncStateEntry.LAST_CHANGE});
+            SyncTracker.advanceWatermark(db, acknowledged);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // Classes waiting for upload
+    public long size() {
+        return DatabaseUtils.queryNumEntries(databaseHelper.getReadableDatabase(), OUTBOX);
+    }
+}
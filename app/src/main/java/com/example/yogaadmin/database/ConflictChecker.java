@@ -0,0 +1,135 @@
+package com.example.yogaadmin.database;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.ConflictIndex;
+import com.example.yogaadmin.models.ScheduleConflict;
+import com.example.yogaadmin.models.ScheduleSnapshot;
+import com.example.yogaadmin.models.YogaClass;
+import com.example.yogaadmin.utils.DateRanges;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds teachers booked into two classes at once, both in the weekly
+ * timetable and on the dates of class instances.
+ *
+ * Weekly checks go through a ConflictIndex of the catalog. It is rebuilt from
+ * one schedule snapshot query the first time it is needed after the classes
+ * table changes; until then every check is an in-memory lookup.
+ */
+public class ConflictChecker {
+    // A teacher can't take more classes than this in a day
+    private static final int MAX_INSTANCES_PER_DAY = 100;
+
+    private final DatabaseHelper databaseHelper;
+    // Bumped by every class write; an index built before the latest bump is stale
+    private final AtomicLong generation = new AtomicLong();
+    private volatile BuiltIndex builtIndex;
+
+    private static final class BuiltIndex {
+        final long generation;
+        final ConflictIndex index;
+
+        BuiltIndex(long generation, ConflictIndex index) {
+            this.generation = generation;
+            this.index = index;
+        }
+    }
+
+    public ConflictChecker(DatabaseHelper databaseHelper) {
+        this.databaseHelper = databaseHelper;
+        databaseHelper.getInvalidationTracker().addWriterObserver(DatabaseContract.YogaClassEntry.TABLE_NAME,
+                this::onClassesChanged);
+    }
+
+    /**
+     * Weekly classes of the same teacher that overlap a class being saved
+     * @param yogaClass Class as it would be saved; id 0 for a new class
+     */
+    public List<ScheduleConflict> findClassConflicts(YogaClass yogaClass) {
+        return getIndex().conflictsWith(yogaClass.getId(), yogaClass.getTeacher(),
+                ScheduleSnapshot.encodeDay(yogaClass.getDayOfWeek()),
+                ScheduleSnapshot.encodeTime(yogaClass.getCourseTime()), yogaClass.getDuration());
+    }
+
+    /**
+     * Instances on the same day, taught by the same teacher, whose classes overlap
+     * in time with the given instance's class
+     * @param instance Instance as it would be saved; id 0 for a new instance
+     */
+    public List<ScheduleConflict> findInstanceConflicts(ClassInstance instance) {
+        ConflictIndex index = getIndex();
+        ScheduleSnapshot snapshot = index.getSnapshot();
+        int row = index.rowOf(instance.getYogaClassId());
+        if (row < 0 || snapshot.startMinutes(row) < 0 || instance.getDate() == null
+                || instance.getTeacher() == null) {
+            return Collections.emptyList();
+        }
+        int start = snapshot.startMinutes(row);
+        int end = start + snapshot.duration(row);
+
+        // The teacher's other instances that day, straight from the date index
+        long[] day = DateRanges.containing(DateRanges.Period.DAY, instance.getDate().getTime(),
+                TimeZone.getDefault());
+        List<ClassInstance> sameDay = databaseHelper.getClassInstancesInRange(day[0], day[1],
+                instance.getTeacher(), null, MAX_INSTANCES_PER_DAY);
+
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        for (ClassInstance other : sameDay) {
+            int otherRow = index.rowOf(other.getYogaClassId());
+            if (other.getId() == instance.getId() || otherRow < 0) {
+                continue;
+            }
+            int otherStart = snapshot.startMinutes(otherRow);
+            if (otherStart >= 0 && otherStart < end && start < otherStart + snapshot.duration(otherRow)) {
+                conflicts.add(new ScheduleConflict(instance.getTeacher(), snapshot.day(row),
+                        instance.getYogaClassId(), start, snapshot.duration(row),
+                        other.getYogaClassId(), otherStart, snapshot.duration(otherRow)));
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * findInstanceConflicts for each of several instances, e.g. a recurring schedule
+     * @return The conflicts of every instance that has any, in list order
+     */
+    public Map<ClassInstance, List<ScheduleConflict>> findInstanceConflicts(List<ClassInstance> instances) {
+        Map<ClassInstance, List<ScheduleConflict>> conflicts = new LinkedHashMap<>();
+        for (ClassInstance instance : instances) {
+            List<ScheduleConflict> found = findInstanceConflicts(instance);
+            if (!found.isEmpty()) {
+                conflicts.put(instance, found);
+            }
+        }
+        return conflicts;
+    }
+
+    // Every overlapping pair in the weekly timetable, by teacher
+    public List<ScheduleConflict> findAllConflicts() {
+        return getIndex().findAll();
+    }
+
+    private ConflictIndex getIndex() {
+        long current = generation.get();
+        BuiltIndex built = builtIndex;
+        if (built != null && built.generation == current) {
+            return built.index;
+        }
+        // A write during the build bumps the generation, so the next call rebuilds again
+        ConflictIndex index = ConflictIndex.build(databaseHelper.getScheduleSnapshot());
+        builtIndex = new BuiltIndex(current, index);
+        return index;
+    }
+
+    private void onClassesChanged(String table, Set<Long> rowIds) {
+        generation.incrementAndGet();
+    }
+}
@@ -22,6 +22,9 @@ public final class DatabaseContract {
         public static final String COLUMN_DESCRIPTION = "description";
         public static final String COLUMN_EQUIPMENT = "equipment";
         public static final String COLUMN_TEACHER_NAME = "teacher_name";
+
+        // Indexes
+        public static final String INDEX_TEACHER_NAME = "idx_yoga_classes_teacher_name";
     }
     // ClassInstance table contents
     public static class ClassInstanceEntry implements BaseColumns {
@@ -30,5 +33,63 @@ public final class DatabaseContract {
         public static final String COLUMN_DATE = "date";
         public static final String COLUMN_TEACHER = "teacher";
         public static final String COLUMN_COMMENTS = "comments";
+
+        // Indexes
+        public static final String INDEX_YOGA_CLASS_ID_DATE = "idx_class_instances_yoga_class_id_date";
+        public static final String INDEX_DATE = "idx_class_instances_date";
+    }
+
+    // Full-text index over yoga class text columns (FTS4, external content = yoga_classes)
+    public static class YogaClassSearchEntry {
+        public static final String TABLE_NAME = "yoga_classes_fts";
+        // Column names must match the content table
+        public static final String COLUMN_TEACHER_NAME = YogaClassEntry.COLUMN_TEACHER_NAME;
+        public static final String COLUMN_CLASS_TYPE = YogaClassEntry.COLUMN_CLASS_TYPE;
+        public static final String COLUMN_DESCRIPTION = YogaClassEntry.COLUMN_DESCRIPTION;
+    }
+
+    // Full-text index over class instance text columns (FTS4, external content = class_instances)
+    public static class ClassInstanceSearchEntry {
+        public static final String TABLE_NAME = "class_instances_fts";
+        public static final String COLUMN_TEACHER = ClassInstanceEntry.COLUMN_TEACHER;
+        public static final String COLUMN_COMMENTS = ClassInstanceEntry.COLUMN_COMMENTS;
+    }
+
+    // Per-row change versions for upload to the cloud, written by triggers (see SyncTracker)
+    public static class SyncChangeEntry {
+        public static final String TABLE_NAME = "sync_changes";
+        // Table and _id of the changed row
+        public static final String COLUMN_TABLE_NAME = "table_name";
+        public static final String COLUMN_ROW_ID = "row_id";
+        // Class whose cloud record must be rewritten: the row itself or the instance's class
+        public static final String COLUMN_YOGA_CLASS_ID = "yoga_class_id";
+        // Value of the change counter after the row's last change
+        public static final String COLUMN_CHANGE_SEQ = "change_seq";
+
+        // Indexes
+        public static final String INDEX_CHANGE_SEQ = "idx_sync_changes_change_seq";
+    }
+
+    // Named counters for cloud sync: the change counter and the upload watermark
+    public static class SyncStateEntry {
+        public static final String TABLE_NAME = "sync_state";
+        public static final String COLUMN_NAME = "name";
+        public static final String COLUMN_VALUE = "value";
+
+        // Highest change_seq handed out so far
+        public static final String LAST_CHANGE = "last_change";
+        // Highest change_seq the cloud has acknowledged
+        public static final String UPLOADED_CHANGE = "uploaded_change";
+    }
+
+    // Classes waiting for upload to the cloud, filled by a trigger on sync_changes (see CloudOutbox)
+    public static class CloudOutboxEntry {
+        public static final String TABLE_NAME = "cloud_outbox";
+        public static final String COLUMN_YOGA_CLASS_ID = "yoga_class_id";
+        // Latest change of the class when it was queued
+        public static final String COLUMN_CHANGE_SEQ = "change_seq";
+
+        // Indexes
+        public static final String INDEX_CHANGE_SEQ = "idx_cloud_outbox_change_seq";
     }
-}
\ No newline at end of file
+}
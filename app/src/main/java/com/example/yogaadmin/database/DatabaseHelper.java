@@ -5,23 +5,50 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Build;
 import android.util.Log;
 
 import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.ScheduleSnapshot;
 import com.example.yogaadmin.models.YogaClass;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String TAG = "DatabaseHelper";
     private static final String DATABASE_NAME = "UniversalYoga.db";
-    private static final int DATABASE_VERSION = 5; // Increased version number for schema change
+    // Version 11 adds tombstones for deleted classes; see Migrations for every upgrade step
+    static final int DATABASE_VERSION = 11;
+    private static final int MAX_BOUND_PARAMETERS = 999; // SQLITE_MAX_VARIABLE_NUMBER on older devices
+
+    // Told about every committed write so screens can refresh only what changed
+    private final InvalidationTracker invalidationTracker = new InvalidationTracker();
 
     // Constructor
+    // Prefer DatabaseManager.getInstance(context).getDatabaseHelper() so the whole
+    // process shares one open connection instead of reopening it per screen
     public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this(context, DATABASE_NAME);
+    }
+
+    // Constructor for a named database file (null creates an in-memory database)
+    DatabaseHelper(Context context, String databaseName) {
+        super(context, databaseName, null, DATABASE_VERSION);
+        // Write-ahead logging lets readers run while a write is in progress
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    // Observe which rows each write touches
+    public InvalidationTracker getInvalidationTracker() {
+        return invalidationTracker;
     }
 
     @Override
@@ -51,11 +78,40 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
         db.execSQL(CREATE_YOGA_CLASS_TABLE);
         db.execSQL(CREATE_CLASS_INSTANCE_TABLE);
+        createIndexes(db);
+        ClassSearchIndex.create(db);
+        SyncTracker.create(db);
+        CloudOutbox.create(db);
+    }
+
+    // Secondary indexes used by the instance listing and teacher search queries
+    private static void createIndexes(SQLiteDatabase db) {
+        // Serves "WHERE yoga_class_id = ? ORDER BY date" without a sort step
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + DatabaseContract.ClassInstanceEntry.INDEX_YOGA_CLASS_ID_DATE
+                + " ON " + DatabaseContract.ClassInstanceEntry.TABLE_NAME + "("
+                + DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID + ", "
+                + DatabaseContract.ClassInstanceEntry.COLUMN_DATE + ")");
+
+        // Serves date-range queries across every class ("what is on this week")
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + DatabaseContract.ClassInstanceEntry.INDEX_DATE
+                + " ON " + DatabaseContract.ClassInstanceEntry.TABLE_NAME + "("
+                + DatabaseContract.ClassInstanceEntry.COLUMN_DATE + ")");
+
+        // Case-insensitive so teacher prefix searches can range-scan it
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + DatabaseContract.YogaClassEntry.INDEX_TEACHER_NAME
+                + " ON " + DatabaseContract.YogaClassEntry.TABLE_NAME + "("
+                + DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME + " COLLATE NOCASE)");
     }
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // Drop old tables if exists
+        // Upgrade in place one version at a time, keeping all local data
+        if (Migrations.migrate(db, oldVersion, newVersion)) {
+            return;
+        }
+
+        // Schemas before version 5 are not migrated: drop old tables if exists
+        Log.w(TAG, "No migration path from version " + oldVersion + " to " + newVersion + ", recreating tables");
         db.execSQL("DROP TABLE IF EXISTS " + DatabaseContract.ClassInstanceEntry.TABLE_NAME);
         db.execSQL("DROP TABLE IF EXISTS " + DatabaseContract.YogaClassEntry.TABLE_NAME);
 
@@ -85,54 +141,140 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME, teacherName);
 
         long id = db.insert(DatabaseContract.YogaClassEntry.TABLE_NAME, null, values);
-        db.close();
+        invalidationTracker.notifyRowsChanged(DatabaseContract.YogaClassEntry.TABLE_NAME, id);
         return id;
     }
 
+    // Insert many Yoga Classes in one transaction with a single compiled statement.
+    // Returns the new row ids in list order, or all -1 if the batch was rolled back.
+    public long[] insertYogaClasses(List<YogaClass> yogaClasses) {
+        long[] ids = new long[yogaClasses.size()];
+        if (ids.length == 0) {
+            return ids;
+        }
+
+        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteStatement statement = compileYogaClassInsert(db);
+
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                bindYogaClass(statement, yogaClasses.get(i));
+                ids[i] = statement.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error bulk inserting yoga classes", e);
+            Arrays.fill(ids, -1);
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+
+        invalidationTracker.notifyRowsChanged(DatabaseContract.YogaClassEntry.TABLE_NAME, ids);
+        return ids;
+    }
+
+    // Update many Yoga Classes in one transaction; returns the number of rows updated
+    public int updateYogaClasses(List<YogaClass> yogaClasses) {
+        if (yogaClasses.isEmpty()) {
+            return 0;
+        }
+
+        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteStatement statement = db.compileStatement("UPDATE " + DatabaseContract.YogaClassEntry.TABLE_NAME + " SET "
+                + DatabaseContract.YogaClassEntry.COLUMN_DAY_OF_WEEK + " = ?, "
+                + DatabaseContract.YogaClassEntry.COLUMN_COURSE_TIME + " = ?, "
+                + DatabaseContract.YogaClassEntry.COLUMN_CAPACITY + " = ?, "
+                + DatabaseContract.YogaClassEntry.COLUMN_DURATION + " = ?, "
+                + DatabaseContract.YogaClassEntry.COLUMN_PRICE + " = ?, "
+                + DatabaseContract.YogaClassEntry.COLUMN_CLASS_TYPE + " = ?, "
+                + DatabaseContract.YogaClassEntry.COLUMN_DESCRIPTION + " = ?, "
+                + DatabaseContract.YogaClassEntry.COLUMN_EQUIPMENT + " = ?, "
+                + DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME + " = ?"
+                + " WHERE " + DatabaseContract.YogaClassEntry._ID + " = ?");
+
+        int rowsAffected = 0;
+        db.beginTransaction();
+        try {
+            for (YogaClass yogaClass : yogaClasses) {
+                bindYogaClass(statement, yogaClass);
+                statement.bindLong(10, yogaClass.getId());
+                rowsAffected += statement.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error bulk updating yoga classes", e);
+            rowsAffected = 0;
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+
+        if (rowsAffected > 0) {
+            long[] ids = new long[yogaClasses.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = yogaClasses.get(i).getId();
+            }
+            invalidationTracker.notifyRowsChanged(DatabaseContract.YogaClassEntry.TABLE_NAME, ids);
+        }
+        return rowsAffected;
+    }
+
+    // INSERT of the nine data columns of a Yoga Class, bound by bindYogaClass
+    private static SQLiteStatement compileYogaClassInsert(SQLiteDatabase db) {
+        return db.compileStatement("INSERT INTO " + DatabaseContract.YogaClassEntry.TABLE_NAME + " ("
+                + DatabaseContract.YogaClassEntry.COLUMN_DAY_OF_WEEK + ", "
+                + DatabaseContract.YogaClassEntry.COLUMN_COURSE_TIME + ", "
+                + DatabaseContract.YogaClassEntry.COLUMN_CAPACITY + ", "
+                + DatabaseContract.YogaClassEntry.COLUMN_DURATION + ", "
+                + DatabaseContract.YogaClassEntry.COLUMN_PRICE + ", "
+                + DatabaseContract.YogaClassEntry.COLUMN_CLASS_TYPE + ", "
+                + DatabaseContract.YogaClassEntry.COLUMN_DESCRIPTION + ", "
+                + DatabaseContract.YogaClassEntry.COLUMN_EQUIPMENT + ", "
+                + DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME
+                + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+    }
+
+    // Bind the nine data columns of a Yoga Class, in table order
+    private static void bindYogaClass(SQLiteStatement statement, YogaClass yogaClass) {
+        statement.clearBindings();
+        bindStringOrNull(statement, 1, yogaClass.getDayOfWeek());
+        bindStringOrNull(statement, 2, yogaClass.getCourseTime());
+        statement.bindLong(3, yogaClass.getCapacity());
+        statement.bindLong(4, yogaClass.getDuration());
+        statement.bindDouble(5, yogaClass.getPricePerClass());
+        bindStringOrNull(statement, 6, yogaClass.getClassType());
+        bindStringOrNull(statement, 7, yogaClass.getDescription());
+        bindStringOrNull(statement, 8, yogaClass.getEquipmentNeeded());
+        String teacherName = yogaClass.getTeacher();
+        statement.bindString(9, teacherName != null ? teacherName : "Unknown");
+    }
+
+    // SQLiteStatement.bindString rejects null, so bind SQL NULL instead
+    private static void bindStringOrNull(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+
     // Get All Yoga Classes
     public List<YogaClass> getAllYogaClasses() {
+        return getAllYogaClasses(YogaClassRowMapper.PROJECTION_ALL);
+    }
+
+    // Get All Yoga Classes, reading only the given columns
+    public List<YogaClass> getAllYogaClasses(String[] projection) {
         List<YogaClass> yogaClasses = new ArrayList<>();
         SQLiteDatabase db = this.getReadableDatabase();
         Cursor cursor = null;
 
         try {
             cursor = db.query(DatabaseContract.YogaClassEntry.TABLE_NAME,
-                    null, null, null, null, null, null);
-
-            if (cursor != null && cursor.moveToFirst()) {
-                do {
-                    YogaClass yogaClass = new YogaClass();
-
-                    // Safely retrieve values with index checks
-                    int idIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry._ID);
-                    int dayIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_DAY_OF_WEEK);
-                    int timeIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_COURSE_TIME);
-                    int capacityIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_CAPACITY);
-                    int durationIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_DURATION);
-                    int priceIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_PRICE);
-                    int typeIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_CLASS_TYPE);
-                    int descIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_DESCRIPTION);
-                    int equipmentIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_EQUIPMENT);
-                    int teacherIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME);
-
-                    // Set values only if index is valid
-                    if (idIndex != -1) yogaClass.setId(cursor.getLong(idIndex));
-                    if (dayIndex != -1) yogaClass.setDayOfWeek(cursor.getString(dayIndex));
-                    if (timeIndex != -1) yogaClass.setCourseTime(cursor.getString(timeIndex));
-                    if (capacityIndex != -1) yogaClass.setCapacity(cursor.getInt(capacityIndex));
-                    if (durationIndex != -1) yogaClass.setDuration(cursor.getInt(durationIndex));
-                    if (priceIndex != -1) yogaClass.setPricePerClass(cursor.getDouble(priceIndex));
-                    if (typeIndex != -1) yogaClass.setClassType(cursor.getString(typeIndex));
-                    if (descIndex != -1) yogaClass.setDescription(cursor.getString(descIndex));
-                    if (equipmentIndex != -1) yogaClass.setEquipmentNeeded(cursor.getString(equipmentIndex));
-                    if (teacherIndex != -1) {
-                        String teacher = cursor.getString(teacherIndex);
-                        yogaClass.setTeacher(teacher != null ? teacher : "Unknown");
-                    }
-
-                    yogaClasses.add(yogaClass);
-                } while (cursor.moveToNext());
-            }
+                    projection, null, null, null, null, null);
+            yogaClasses = RowMapper.mapAll(cursor, new YogaClassRowMapper(cursor));
         } catch (Exception e) {
             Log.e(TAG, "Error retrieving yoga classes", e);
         } finally {
@@ -140,64 +282,242 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             if (cursor != null) {
                 cursor.close();
             }
-            db.close();
         }
 
         return yogaClasses;
     }
 
-    // Search Classes by Teacher Name
+    // Get one page of Yoga Classes ordered by id, starting after afterId (0 for the first page).
+    // Keyset pagination seeks straight to the page via the primary key instead of skipping OFFSET rows.
+    public List<YogaClass> getYogaClassesPage(long afterId, int pageSize, String[] projection) {
+        List<YogaClass> yogaClasses = new ArrayList<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = null;
+
+        try {
+            cursor = db.query(
+                    DatabaseContract.YogaClassEntry.TABLE_NAME,
+                    projection,
+                    DatabaseContract.YogaClassEntry._ID + " > ?",
+                    new String[]{String.valueOf(afterId)},
+                    null,
+                    null,
+                    DatabaseContract.YogaClassEntry._ID + " ASC",
+                    String.valueOf(pageSize)
+            );
+            yogaClasses = RowMapper.mapAll(cursor, new YogaClassRowMapper(cursor));
+        } catch (Exception e) {
+            Log.e(TAG, "Error retrieving yoga classes page after ID: " + afterId, e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+
+        return yogaClasses;
+    }
+
+    // Positional columns: 0 id, 1 day, 2 time, 3 capacity, 4 duration, 5 price, 6 type, 7 teacher
+    static final String SCHEDULE_SNAPSHOT_SQL = "SELECT " + DatabaseContract.YogaClassEntry._ID
+            + ", " + DatabaseContract.YogaClassEntry.COLUMN_DAY_OF_WEEK
+            + ", " + DatabaseContract.YogaClassEntry.COLUMN_COURSE_TIME
+            + ", " + DatabaseContract.YogaClassEntry.COLUMN_CAPACITY
+            + ", " + DatabaseContract.YogaClassEntry.COLUMN_DURATION
+            + ", " + DatabaseContract.YogaClassEntry.COLUMN_PRICE
+            + ", " + DatabaseContract.YogaClassEntry.COLUMN_CLASS_TYPE
+            + ", " + DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME
+            + " FROM " + DatabaseContract.YogaClassEntry.TABLE_NAME;
+
+    // Build a columnar snapshot of the whole catalog in one pass over the classes table
+    public ScheduleSnapshot getScheduleSnapshot() {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = null;
+
+        try {
+            cursor = db.rawQuery(SCHEDULE_SNAPSHOT_SQL, null);
+
+            ScheduleSnapshot.Builder builder = new ScheduleSnapshot.Builder(cursor.getCount());
+            while (cursor.moveToNext()) {
+                builder.add(cursor.getLong(0), cursor.getString(1), cursor.getString(2), cursor.getInt(3),
+                        cursor.getInt(4), cursor.getDouble(5), cursor.getString(6),
+                        cursor.isNull(7) ? "Unknown" : cursor.getString(7));
+            }
+            return builder.build();
+        } catch (Exception e) {
+            Log.e(TAG, "Error building schedule snapshot", e);
+            return new ScheduleSnapshot.Builder(0).build();
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    // Get Yoga Classes together with their Class Instances using one ordered LEFT JOIN.
+    // Pass null to load every class, or the ids of the classes wanted.
+    public List<YogaClass> getYogaClassesWithInstances(long[] yogaClassIds) {
+        List<YogaClass> yogaClasses = new ArrayList<>();
+        if (yogaClassIds == null) {
+            loadYogaClassesWithInstances(null, yogaClasses);
+            return yogaClasses;
+        }
+
+        // Stay under SQLite's bound-parameter limit for large id filters
+        for (int start = 0; start < yogaClassIds.length; start += MAX_BOUND_PARAMETERS) {
+            int end = Math.min(yogaClassIds.length, start + MAX_BOUND_PARAMETERS);
+            loadYogaClassesWithInstances(Arrays.copyOfRange(yogaClassIds, start, end), yogaClasses);
+        }
+        return yogaClasses;
+    }
+
+    // Every class LEFT JOINed with its instances. Positional columns: 0-9 are the class
+    // (_id, day, time, capacity, duration, price, type, description, equipment, teacher),
+    // 10-13 the instance (_id, date, teacher, comments) and NULL for a class without instances.
+    private static final String CLASSES_WITH_INSTANCES_SELECT = "SELECT c." + DatabaseContract.YogaClassEntry._ID
+            + ", c." + DatabaseContract.YogaClassEntry.COLUMN_DAY_OF_WEEK
+            + ", c." + DatabaseContract.YogaClassEntry.COLUMN_COURSE_TIME
+            + ", c." + DatabaseContract.YogaClassEntry.COLUMN_CAPACITY
+            + ", c." + DatabaseContract.YogaClassEntry.COLUMN_DURATION
+            + ", c." + DatabaseContract.YogaClassEntry.COLUMN_PRICE
+            + ", c." + DatabaseContract.YogaClassEntry.COLUMN_CLASS_TYPE
+            + ", c." + DatabaseContract.YogaClassEntry.COLUMN_DESCRIPTION
+            + ", c." + DatabaseContract.YogaClassEntry.COLUMN_EQUIPMENT
+            + ", c." + DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME
+            + ", i." + DatabaseContract.ClassInstanceEntry._ID
+            + ", i." + DatabaseContract.ClassInstanceEntry.COLUMN_DATE
+            + ", i." + DatabaseContract.ClassInstanceEntry.COLUMN_TEACHER
+            + ", i." + DatabaseContract.ClassInstanceEntry.COLUMN_COMMENTS
+            + " FROM " + DatabaseContract.YogaClassEntry.TABLE_NAME + " c"
+            + " LEFT JOIN " + DatabaseContract.ClassInstanceEntry.TABLE_NAME + " i"
+            + " ON i." + DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID
+            + " = c." + DatabaseContract.YogaClassEntry._ID;
+    // Rows arrive grouped by class, instances in date order within each class
+    private static final String CLASSES_WITH_INSTANCES_ORDER = " ORDER BY c." + DatabaseContract.YogaClassEntry._ID
+            + ", i." + DatabaseContract.ClassInstanceEntry.COLUMN_DATE;
+
+    /**
+     * Open a cursor over every class joined with its instances, for streaming
+     * consumers (e.g. export) that must not hold the whole catalog in memory.
+     * Columns are as described for CLASSES_WITH_INSTANCES_SELECT; the caller closes it.
+     * A cursor refills its window with a new query as it moves, so read it inside
+     * readConsistently() to see one state of the database throughout.
+     */
+    public Cursor queryYogaClassesWithInstances() {
+        return this.getReadableDatabase().rawQuery(classesWithInstancesSql(0), null);
+    }
+
+    // The classes-with-instances query, for idCount classes by id or every class when idCount is 0
+    static String classesWithInstancesSql(int idCount) {
+        StringBuilder sql = new StringBuilder(CLASSES_WITH_INSTANCES_SELECT);
+        if (idCount > 0) {
+            sql.append(" WHERE c.").append(DatabaseContract.YogaClassEntry._ID).append(" IN (");
+            for (int i = 0; i < idCount; i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(")");
+        }
+        return sql.append(CLASSES_WITH_INSTANCES_ORDER).toString();
+    }
+
+    /**
+     * Run work inside one read transaction, so every read it makes sees the same
+     * committed data. work must only read.
+     * @return The result of work
+     */
+    public <T> T readConsistently(Callable<T> work) throws Exception {
+        SQLiteDatabase db = this.getWritableDatabase();
+
+        // A deferred read under WAL holds a snapshot without the write lock, so writers carry on.
+        // Older releases only offer BEGIN IMMEDIATE, which makes writers wait until work returns.
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.VANILLA_ICE_CREAM) {
+            db.beginTransactionReadOnly();
+        } else {
+            db.beginTransactionNonExclusive();
+        }
+        try {
+            T result = work.call();
+            db.setTransactionSuccessful();
+            return result;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private void loadYogaClassesWithInstances(long[] yogaClassIds, List<YogaClass> out) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = null;
+
+        String[] args = null;
+        if (yogaClassIds != null) {
+            args = new String[yogaClassIds.length];
+            for (int i = 0; i < yogaClassIds.length; i++) {
+                args[i] = String.valueOf(yogaClassIds[i]);
+            }
+        }
+
+        try {
+            cursor = db.rawQuery(classesWithInstancesSql(args != null ? args.length : 0), args);
+
+            YogaClass current = null;
+            while (cursor.moveToNext()) {
+                long classId = cursor.getLong(0);
+                if (current == null || current.getId() != classId) {
+                    current = new YogaClass();
+                    current.setId(classId);
+                    current.setDayOfWeek(cursor.getString(1));
+                    current.setCourseTime(cursor.getString(2));
+                    current.setCapacity(cursor.getInt(3));
+                    current.setDuration(cursor.getInt(4));
+                    current.setPricePerClass(cursor.getDouble(5));
+                    current.setClassType(cursor.getString(6));
+                    current.setDescription(cursor.getString(7));
+                    current.setEquipmentNeeded(cursor.getString(8));
+                    String teacher = cursor.getString(9);
+                    current.setTeacher(teacher != null ? teacher : "Unknown");
+                    out.add(current);
+                }
+
+                // A class without instances still produces one row with NULL instance columns
+                if (!cursor.isNull(10)) {
+                    ClassInstance instance = new ClassInstance();
+                    instance.setId(cursor.getLong(10));
+                    instance.setYogaClassId(classId);
+                    instance.setDate(new Date(cursor.getLong(11)));
+                    instance.setTeacher(cursor.getString(12));
+                    instance.setComments(cursor.getString(13));
+                    current.addClassInstance(instance);
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error retrieving yoga classes with instances", e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    // Search Classes by Teacher Name (case-insensitive prefix match)
     public List<YogaClass> searchClassesByTeacher(String teacherName) {
         List<YogaClass> matchingClasses = new ArrayList<>();
         SQLiteDatabase db = this.getReadableDatabase();
         Cursor cursor = null;
 
         try {
-            // Search for classes with matching teacher name
+            // Range over the NOCASE teacher index: name >= prefix AND name < prefix + U+FFFF.
+            // A leading-wildcard LIKE can't use any index and always scans the table.
+            String column = DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME + " COLLATE NOCASE";
             cursor = db.query(
                     DatabaseContract.YogaClassEntry.TABLE_NAME,
-                    null,
-                    DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME + " LIKE ?",
-                    new String[]{"%" + teacherName + "%"},
+                    YogaClassRowMapper.PROJECTION_ALL,
+                    column + " >= ? AND " + column + " < ?",
+                    new String[]{teacherName, teacherName + "\uffff"},
                     null,
                     null,
                     null
             );
 
-            if (cursor != null && cursor.moveToFirst()) {
-                do {
-                    YogaClass yogaClass = new YogaClass();
-
-                    // Safely retrieve values with index checks
-                    int idIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry._ID);
-                    int dayIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_DAY_OF_WEEK);
-                    int timeIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_COURSE_TIME);
-                    int capacityIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_CAPACITY);
-                    int durationIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_DURATION);
-                    int priceIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_PRICE);
-                    int typeIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_CLASS_TYPE);
-                    int descIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_DESCRIPTION);
-                    int equipmentIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_EQUIPMENT);
-                    int teacherIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME);
-
-                    // Set values only if index is valid
-                    if (idIndex != -1) yogaClass.setId(cursor.getLong(idIndex));
-                    if (dayIndex != -1) yogaClass.setDayOfWeek(cursor.getString(dayIndex));
-                    if (timeIndex != -1) yogaClass.setCourseTime(cursor.getString(timeIndex));
-                    if (capacityIndex != -1) yogaClass.setCapacity(cursor.getInt(capacityIndex));
-                    if (durationIndex != -1) yogaClass.setDuration(cursor.getInt(durationIndex));
-                    if (priceIndex != -1) yogaClass.setPricePerClass(cursor.getDouble(priceIndex));
-                    if (typeIndex != -1) yogaClass.setClassType(cursor.getString(typeIndex));
-                    if (descIndex != -1) yogaClass.setDescription(cursor.getString(descIndex));
-                    if (equipmentIndex != -1) yogaClass.setEquipmentNeeded(cursor.getString(equipmentIndex));
-                    if (teacherIndex != -1) {
-                        String teacher = cursor.getString(teacherIndex);
-                        yogaClass.setTeacher(teacher != null ? teacher : "Unknown");
-                    }
-
-                    matchingClasses.add(yogaClass);
-                } while (cursor.moveToNext());
-            }
+            matchingClasses = RowMapper.mapAll(cursor, new YogaClassRowMapper(cursor));
         } catch (Exception e) {
             Log.e(TAG, "Error searching classes by teacher", e);
         } finally {
@@ -205,7 +525,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             if (cursor != null) {
                 cursor.close();
             }
-            db.close();
         }
 
         return matchingClasses;
@@ -219,7 +538,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         try {
             cursor = db.query(
                     DatabaseContract.YogaClassEntry.TABLE_NAME,
-                    null,
+                    YogaClassRowMapper.PROJECTION_ALL,
                     DatabaseContract.YogaClassEntry._ID + " = ?",
                     new String[]{String.valueOf(id)},
                     null,
@@ -227,35 +546,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     null
             );
 
-            if (cursor != null && cursor.moveToFirst()) {
-                yogaClass = new YogaClass();
-
-                // Safely retrieve values with index checks
-                int idIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry._ID);
-                int dayIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_DAY_OF_WEEK);
-                int timeIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_COURSE_TIME);
-                int capacityIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_CAPACITY);
-                int durationIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_DURATION);
-                int priceIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_PRICE);
-                int typeIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_CLASS_TYPE);
-                int descIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_DESCRIPTION);
-                int equipmentIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_EQUIPMENT);
-                int teacherIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME);
-
-                // Set values only if index is valid
-                if (idIndex != -1) yogaClass.setId(cursor.getLong(idIndex));
-                if (dayIndex != -1) yogaClass.setDayOfWeek(cursor.getString(dayIndex));
-                if (timeIndex != -1) yogaClass.setCourseTime(cursor.getString(timeIndex));
-                if (capacityIndex != -1) yogaClass.setCapacity(cursor.getInt(capacityIndex));
-                if (durationIndex != -1) yogaClass.setDuration(cursor.getInt(durationIndex));
-                if (priceIndex != -1) yogaClass.setPricePerClass(cursor.getDouble(priceIndex));
-                if (typeIndex != -1) yogaClass.setClassType(cursor.getString(typeIndex));
-                if (descIndex != -1 && !cursor.isNull(descIndex)) yogaClass.setDescription(cursor.getString(descIndex));
-                if (equipmentIndex != -1 && !cursor.isNull(equipmentIndex)) yogaClass.setEquipmentNeeded(cursor.getString(equipmentIndex));
-                if (teacherIndex != -1) {
-                    String teacher = cursor.getString(teacherIndex);
-                    yogaClass.setTeacher(teacher != null ? teacher : "Unknown");
-                }
+            if (cursor.moveToFirst()) {
+                yogaClass = new YogaClassRowMapper(cursor).map(cursor);
             }
         } catch (Exception e) {
             Log.e(TAG, "Error retrieving yoga class by ID: " + id, e);
@@ -264,20 +556,28 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             if (cursor != null) {
                 cursor.close();
             }
-            db.close();
         }
 
         return yogaClass;
     }
 
+    // Get the Yoga Classes with the given ids, in id order; ids that no longer exist are skipped
+    public List<YogaClass> getYogaClassesByIds(long[] ids, String[] projection) {
+        return queryByIds(DatabaseContract.YogaClassEntry.TABLE_NAME, DatabaseContract.YogaClassEntry._ID,
+                projection, ids, YogaClassRowMapper::new);
+    }
+
     // Delete a Specific Yoga Class
     // Delete a Specific Yoga Class
     public void deleteYogaClass(long id) {
         try {
             SQLiteDatabase db = this.getWritableDatabase();
-            db.delete(DatabaseContract.YogaClassEntry.TABLE_NAME,
+            int rowsDeleted = db.delete(DatabaseContract.YogaClassEntry.TABLE_NAME,
                     DatabaseContract.YogaClassEntry._ID + " = ?",
                     new String[]{String.valueOf(id)});
+            if (rowsDeleted > 0) {
+                invalidationTracker.notifyRowsChanged(DatabaseContract.YogaClassEntry.TABLE_NAME, id);
+            }
             // Don't close the database here - let the system manage it
         } catch (Exception e) {
             Log.e(TAG, "Error deleting yoga class: " + e.getMessage(), e);
@@ -288,16 +588,56 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public void resetDatabase() {
         SQLiteDatabase db = this.getWritableDatabase();
 
+        db.beginTransaction();
         try {
-            // Delete class instances first due to foreign key constraints
-            db.delete(DatabaseContract.ClassInstanceEntry.TABLE_NAME, null, null);
-            // Then delete yoga classes
-            db.delete(DatabaseContract.YogaClassEntry.TABLE_NAME, null, null);
+            deleteAllRows(db);
+            // Resetting this device leaves the cloud copy alone: the tombstones just stamped are never sent
+            SyncTracker.discardPending(db);
+            CloudOutbox.clear(db);
+            db.setTransactionSuccessful();
         } catch (Exception e) {
             Log.e(TAG, "Error resetting database", e);
         } finally {
-            db.close();
+            db.endTransaction();
         }
+
+        // Notify either way; a rolled-back reset only costs a reload
+        invalidationTracker.notifyTableChanged(DatabaseContract.ClassInstanceEntry.TABLE_NAME);
+        invalidationTracker.notifyTableChanged(DatabaseContract.YogaClassEntry.TABLE_NAME);
+    }
+
+    /**
+     * Empty the database and refill it, all in one transaction (used by restore).
+     * refill runs on this thread and may use any insert method here; the new rows are
+     * kept only if keep accepts its result, and an exception rolls everything back too.
+     * Unlike a reset, the replaced classes are queued for removal from the cloud, as
+     * the refilled ones get new ids and would otherwise sit next to them.
+     * @return The result of refill
+     */
+    public <T> T replaceAll(Supplier<T> refill, Predicate<T> keep) {
+        SQLiteDatabase db = this.getWritableDatabase();
+
+        db.beginTransaction();
+        try {
+            deleteAllRows(db);
+            T result = refill.get();
+            if (keep.test(result)) {
+                db.setTransactionSuccessful();
+            }
+            return result;
+        } finally {
+            db.endTransaction();
+            invalidationTracker.notifyTableChanged(DatabaseContract.ClassInstanceEntry.TABLE_NAME);
+            invalidationTracker.notifyTableChanged(DatabaseContract.YogaClassEntry.TABLE_NAME);
+        }
+    }
+
+    // Delete every class and instance, stamping a tombstone for each class; run inside a transaction
+    private static void deleteAllRows(SQLiteDatabase db) {
+        // Delete class instances first due to foreign key constraints
+        db.delete(DatabaseContract.ClassInstanceEntry.TABLE_NAME, null, null);
+        // Then delete yoga classes
+        db.delete(DatabaseContract.YogaClassEntry.TABLE_NAME, null, null);
     }
 
     // Insert a new Class Instance
@@ -311,12 +651,105 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(DatabaseContract.ClassInstanceEntry.COLUMN_COMMENTS, instance.getComments());
 
         long id = db.insert(DatabaseContract.ClassInstanceEntry.TABLE_NAME, null, values);
-        db.close();
+        invalidationTracker.notifyRowsChanged(DatabaseContract.ClassInstanceEntry.TABLE_NAME, id);
         return id;
     }
 
+    // Insert many Class Instances in one transaction with a single compiled statement.
+    // Returns the new row ids in list order, or all -1 if the batch was rolled back.
+    public long[] insertClassInstances(List<ClassInstance> instances) {
+        long[] ids = new long[instances.size()];
+        if (ids.length == 0) {
+            return ids;
+        }
+
+        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteStatement statement = compileClassInstanceInsert(db);
+
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                bindClassInstance(statement, instances.get(i));
+                ids[i] = statement.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error bulk inserting class instances", e);
+            Arrays.fill(ids, -1);
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+
+        invalidationTracker.notifyRowsChanged(DatabaseContract.ClassInstanceEntry.TABLE_NAME, ids);
+        return ids;
+    }
+
+    /**
+     * Insert new Yoga Classes together with their Class Instances, plus instances of
+     * classes inserted earlier, all in one transaction (used by bulk import).
+     * The new classes get their ids set; their instances are linked to them.
+     * @return true if everything was written, false if the whole batch was rolled back
+     */
+    public boolean insertYogaClassesWithInstances(List<YogaClass> yogaClasses, List<ClassInstance> moreInstances) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteStatement classStatement = compileYogaClassInsert(db);
+        SQLiteStatement instanceStatement = compileClassInstanceInsert(db);
+
+        long[] classIds = new long[yogaClasses.size()];
+        List<Long> instanceIds = new ArrayList<>();
+        boolean success = false;
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < classIds.length; i++) {
+                YogaClass yogaClass = yogaClasses.get(i);
+                bindYogaClass(classStatement, yogaClass);
+                classIds[i] = classStatement.executeInsert();
+                yogaClass.setId(classIds[i]);
+                for (ClassInstance instance : yogaClass.getClassInstances()) {
+                    instance.setYogaClassId(classIds[i]);
+                    bindClassInstance(instanceStatement, instance);
+                    instanceIds.add(instanceStatement.executeInsert());
+                }
+            }
+            for (ClassInstance instance : moreInstances) {
+                bindClassInstance(instanceStatement, instance);
+                instanceIds.add(instanceStatement.executeInsert());
+            }
+            db.setTransactionSuccessful();
+            success = true;
+        } catch (Exception e) {
+            Log.e(TAG, "Error inserting yoga classes with instances", e);
+        } finally {
+            db.endTransaction();
+            classStatement.close();
+            instanceStatement.close();
+        }
+
+        if (!success) {
+            // Nothing was kept, so the ids handed out above don't exist
+            for (YogaClass yogaClass : yogaClasses) {
+                yogaClass.setId(0);
+            }
+            return false;
+        }
+
+        long[] ids = new long[instanceIds.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = instanceIds.get(i);
+        }
+        invalidationTracker.notifyRowsChanged(DatabaseContract.YogaClassEntry.TABLE_NAME, classIds);
+        invalidationTracker.notifyRowsChanged(DatabaseContract.ClassInstanceEntry.TABLE_NAME, ids);
+        return true;
+    }
+
     // Get all instances for a specific yoga class
     public List<ClassInstance> getClassInstancesByYogaClassId(long yogaClassId) {
+        return getClassInstancesByYogaClassId(yogaClassId, ClassInstanceRowMapper.PROJECTION_ALL);
+    }
+
+    // Get instances for a specific yoga class, reading only the given columns
+    public List<ClassInstance> getClassInstancesByYogaClassId(long yogaClassId, String[] projection) {
         List<ClassInstance> instances = new ArrayList<>();
         SQLiteDatabase db = this.getReadableDatabase();
         Cursor cursor = null;
@@ -324,7 +757,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         try {
             cursor = db.query(
                     DatabaseContract.ClassInstanceEntry.TABLE_NAME,
-                    null,
+                    projection,
                     DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID + " = ?",
                     new String[]{String.valueOf(yogaClassId)},
                     null,
@@ -332,40 +765,159 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     DatabaseContract.ClassInstanceEntry.COLUMN_DATE + " ASC"
             );
 
-            if (cursor != null && cursor.moveToFirst()) {
-                do {
-                    ClassInstance instance = new ClassInstance();
+            instances = RowMapper.mapAll(cursor, new ClassInstanceRowMapper(cursor));
+        } catch (Exception e) {
+            Log.e(TAG, "Error retrieving class instances", e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+
+        return instances;
+    }
+
+    // Get one page of instances for a yoga class ordered by (date, id), starting after the
+    // given key. Pass Long.MIN_VALUE and 0 for the first page, then the last row's date and id.
+    public List<ClassInstance> getClassInstancesPage(long yogaClassId, long afterDate, long afterId, int pageSize) {
+        List<ClassInstance> instances = new ArrayList<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = null;
 
-                    int idIndex = cursor.getColumnIndex(DatabaseContract.ClassInstanceEntry._ID);
-                    int yogaClassIdIndex = cursor.getColumnIndex(DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID);
-                    int dateIndex = cursor.getColumnIndex(DatabaseContract.ClassInstanceEntry.COLUMN_DATE);
-                    int teacherIndex = cursor.getColumnIndex(DatabaseContract.ClassInstanceEntry.COLUMN_TEACHER);
-                    int commentsIndex = cursor.getColumnIndex(DatabaseContract.ClassInstanceEntry.COLUMN_COMMENTS);
-
-                    if (idIndex != -1) instance.setId(cursor.getLong(idIndex));
-                    if (yogaClassIdIndex != -1) instance.setYogaClassId(cursor.getLong(yogaClassIdIndex));
-                    if (dateIndex != -1) {
-                        long dateMillis = cursor.getLong(dateIndex);
-                        instance.setDate(new Date(dateMillis));
-                    }
-                    if (teacherIndex != -1) instance.setTeacher(cursor.getString(teacherIndex));
-                    if (commentsIndex != -1) instance.setComments(cursor.getString(commentsIndex));
-
-                    instances.add(instance);
-                } while (cursor.moveToNext());
+        try {
+            // "date >= ?" bounds the range scan on (yoga_class_id, date); the OR breaks date ties by id
+            cursor = db.query(
+                    DatabaseContract.ClassInstanceEntry.TABLE_NAME,
+                    ClassInstanceRowMapper.PROJECTION_ALL,
+                    DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID + " = ? AND "
+                            + DatabaseContract.ClassInstanceEntry.COLUMN_DATE + " >= ? AND ("
+                            + DatabaseContract.ClassInstanceEntry.COLUMN_DATE + " > ? OR "
+                            + DatabaseContract.ClassInstanceEntry._ID + " > ?)",
+                    new String[]{String.valueOf(yogaClassId), String.valueOf(afterDate),
+                            String.valueOf(afterDate), String.valueOf(afterId)},
+                    null,
+                    null,
+                    DatabaseContract.ClassInstanceEntry.COLUMN_DATE + " ASC, "
+                            + DatabaseContract.ClassInstanceEntry._ID + " ASC",
+                    String.valueOf(pageSize)
+            );
+            instances = RowMapper.mapAll(cursor, new ClassInstanceRowMapper(cursor));
+        } catch (Exception e) {
+            Log.e(TAG, "Error retrieving class instances page", e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
             }
+        }
+
+        return instances;
+    }
+
+    /**
+     * Get the instances of every class dated in [fromDate, toDate), ordered by (date, id).
+     * @param fromDate Inclusive start, epoch millis
+     * @param toDate Exclusive end, epoch millis
+     * @param teacher Only instances taught by this teacher (case-insensitive); null for any
+     * @param classType Only instances of classes of this type; null for any
+     * @param limit Maximum number of rows
+     */
+    public List<ClassInstance> getClassInstancesInRange(long fromDate, long toDate, String teacher, String classType,
+                                                        int limit) {
+        List<ClassInstance> instances = new ArrayList<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = null;
+
+        List<String> args = new ArrayList<>();
+        if (classType != null) {
+            args.add(classType);
+        }
+        args.add(String.valueOf(fromDate));
+        args.add(String.valueOf(toDate));
+        if (teacher != null) {
+            args.add(teacher);
+        }
+
+        try {
+            cursor = db.rawQuery(classInstancesInRangeSql(classType != null, teacher != null, limit),
+                    args.toArray(new String[0]));
+            instances = RowMapper.mapAll(cursor, new ClassInstanceRowMapper(cursor));
         } catch (Exception e) {
-            Log.e(TAG, "Error retrieving class instances", e);
+            Log.e(TAG, "Error retrieving class instances in range", e);
         } finally {
             if (cursor != null) {
                 cursor.close();
             }
-            db.close();
         }
 
         return instances;
     }
 
+    // Arguments in order: the class type if byClassType, from date, to date, the teacher if byTeacher
+    static String classInstancesInRangeSql(boolean byClassType, boolean byTeacher, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < ClassInstanceRowMapper.PROJECTION_ALL.length; i++) {
+            sql.append(i == 0 ? "i." : ", i.").append(ClassInstanceRowMapper.PROJECTION_ALL[i]);
+        }
+        sql.append(" FROM ").append(DatabaseContract.ClassInstanceEntry.TABLE_NAME).append(" i");
+        if (byClassType) {
+            // CROSS JOIN keeps the date index as the outer loop, so classes are only looked up by primary key
+            sql.append(" CROSS JOIN ").append(DatabaseContract.YogaClassEntry.TABLE_NAME).append(" c")
+                    .append(" ON c.").append(DatabaseContract.YogaClassEntry._ID)
+                    .append(" = i.").append(DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID)
+                    .append(" AND c.").append(DatabaseContract.YogaClassEntry.COLUMN_CLASS_TYPE).append(" = ?");
+        }
+        sql.append(" WHERE i.").append(DatabaseContract.ClassInstanceEntry.COLUMN_DATE).append(" >= ?")
+                .append(" AND i.").append(DatabaseContract.ClassInstanceEntry.COLUMN_DATE).append(" < ?");
+        if (byTeacher) {
+            sql.append(" AND i.").append(DatabaseContract.ClassInstanceEntry.COLUMN_TEACHER).append(" = ? COLLATE NOCASE");
+        }
+        // The date index holds rowids in order within each date, so this needs no sort
+        return sql.append(" ORDER BY i.").append(DatabaseContract.ClassInstanceEntry.COLUMN_DATE)
+                .append(", i.").append(DatabaseContract.ClassInstanceEntry._ID)
+                .append(" LIMIT ").append(limit).toString();
+    }
+
+    // Get the Class Instances with the given ids, in id order; ids that no longer exist are skipped
+    public List<ClassInstance> getClassInstancesByIds(long[] ids) {
+        return queryByIds(DatabaseContract.ClassInstanceEntry.TABLE_NAME, DatabaseContract.ClassInstanceEntry._ID,
+                ClassInstanceRowMapper.PROJECTION_ALL, ids, ClassInstanceRowMapper::new);
+    }
+
+    // Primary-key IN lookup, chunked to stay under SQLite's bound-parameter limit
+    private <T> List<T> queryByIds(String table, String idColumn, String[] projection, long[] ids,
+                                   Function<Cursor, RowMapper<T>> mapperFactory) {
+        List<T> rows = new ArrayList<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+        // Sorted ids keep the chunks, and therefore the result, in id order
+        ids = ids.clone();
+        Arrays.sort(ids);
+
+        for (int start = 0; start < ids.length; start += MAX_BOUND_PARAMETERS) {
+            int end = Math.min(ids.length, start + MAX_BOUND_PARAMETERS);
+            StringBuilder placeholders = new StringBuilder();
+            String[] args = new String[end - start];
+            for (int i = start; i < end; i++) {
+                placeholders.append(i == start ? "?" : ", ?");
+                args[i - start] = String.valueOf(ids[i]);
+            }
+
+            Cursor cursor = null;
+            try {
+                cursor = db.query(table, projection, idColumn + " IN (" + placeholders + ")", args,
+                        null, null, idColumn + " ASC");
+                rows.addAll(RowMapper.mapAll(cursor, mapperFactory.apply(cursor)));
+            } catch (Exception e) {
+                Log.e(TAG, "Error retrieving rows by id from " + table, e);
+            } finally {
+                if (cursor != null) {
+                    cursor.close();
+                }
+            }
+        }
+
+        return rows;
+    }
+
     // Update a class instance
     public int updateClassInstance(ClassInstance instance) {
         SQLiteDatabase db = this.getWritableDatabase();
@@ -383,41 +935,127 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 new String[]{String.valueOf(instance.getId())}
         );
 
-        db.close();
+        if (rowsAffected > 0) {
+            invalidationTracker.notifyRowsChanged(DatabaseContract.ClassInstanceEntry.TABLE_NAME, instance.getId());
+        }
+        return rowsAffected;
+    }
+
+    // Update many Class Instances in one transaction; returns the number of rows updated
+    public int updateClassInstances(List<ClassInstance> instances) {
+        if (instances.isEmpty()) {
+            return 0;
+        }
+
+        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteStatement statement = db.compileStatement("UPDATE " + DatabaseContract.ClassInstanceEntry.TABLE_NAME + " SET "
+                + DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID + " = ?, "
+                + DatabaseContract.ClassInstanceEntry.COLUMN_DATE + " = ?, "
+                + DatabaseContract.ClassInstanceEntry.COLUMN_TEACHER + " = ?, "
+                + DatabaseContract.ClassInstanceEntry.COLUMN_COMMENTS + " = ?"
+                + " WHERE " + DatabaseContract.ClassInstanceEntry._ID + " = ?");
+
+        int rowsAffected = 0;
+        db.beginTransaction();
+        try {
+            for (ClassInstance instance : instances) {
+                bindClassInstance(statement, instance);
+                statement.bindLong(5, instance.getId());
+                rowsAffected += statement.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error bulk updating class instances", e);
+            rowsAffected = 0;
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+
+        if (rowsAffected > 0) {
+            long[] ids = new long[instances.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = instances.get(i).getId();
+            }
+            invalidationTracker.notifyRowsChanged(DatabaseContract.ClassInstanceEntry.TABLE_NAME, ids);
+        }
         return rowsAffected;
     }
 
+    // INSERT of the four data columns of a Class Instance, bound by bindClassInstance
+    private static SQLiteStatement compileClassInstanceInsert(SQLiteDatabase db) {
+        return db.compileStatement("INSERT INTO " + DatabaseContract.ClassInstanceEntry.TABLE_NAME + " ("
+                + DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID + ", "
+                + DatabaseContract.ClassInstanceEntry.COLUMN_DATE + ", "
+                + DatabaseContract.ClassInstanceEntry.COLUMN_TEACHER + ", "
+                + DatabaseContract.ClassInstanceEntry.COLUMN_COMMENTS
+                + ") VALUES (?, ?, ?, ?)");
+    }
+
+    // Bind the four data columns of a Class Instance, in table order
+    private static void bindClassInstance(SQLiteStatement statement, ClassInstance instance) {
+        statement.clearBindings();
+        statement.bindLong(1, instance.getYogaClassId());
+        statement.bindLong(2, instance.getDate().getTime()); // Store as milliseconds
+        bindStringOrNull(statement, 3, instance.getTeacher());
+        bindStringOrNull(statement, 4, instance.getComments());
+    }
+
     // Delete a class instance
     public void deleteClassInstance(long instanceId) {
         SQLiteDatabase db = this.getWritableDatabase();
 
         try {
-            db.delete(
+            int rowsDeleted = db.delete(
                     DatabaseContract.ClassInstanceEntry.TABLE_NAME,
                     DatabaseContract.ClassInstanceEntry._ID + " = ?",
                     new String[]{String.valueOf(instanceId)}
             );
+            if (rowsDeleted > 0) {
+                invalidationTracker.notifyRowsChanged(DatabaseContract.ClassInstanceEntry.TABLE_NAME, instanceId);
+            }
         } catch (Exception e) {
             Log.e(TAG, "Error deleting class instance", e);
-        } finally {
-            db.close();
         }
     }
 
     // Delete all class instances for a yoga class
     public void deleteClassInstancesByYogaClassId(long yogaClassId) {
         SQLiteDatabase db = this.getWritableDatabase();
+        String[] args = new String[]{String.valueOf(yogaClassId)};
+        List<Long> deletedIds = new ArrayList<>();
+        Cursor cursor = null;
 
+        // Collect the ids first so observers learn exactly which rows went away
+        db.beginTransaction();
         try {
+            cursor = db.query(DatabaseContract.ClassInstanceEntry.TABLE_NAME,
+                    new String[]{DatabaseContract.ClassInstanceEntry._ID},
+                    DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID + " = ?",
+                    args, null, null, null);
+            while (cursor.moveToNext()) {
+                deletedIds.add(cursor.getLong(0));
+            }
             db.delete(
                     DatabaseContract.ClassInstanceEntry.TABLE_NAME,
                     DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID + " = ?",
-                    new String[]{String.valueOf(yogaClassId)}
+                    args
             );
+            db.setTransactionSuccessful();
         } catch (Exception e) {
             Log.e(TAG, "Error deleting class instances for yoga class", e);
+            deletedIds.clear();
         } finally {
-            db.close();
+            if (cursor != null) {
+                cursor.close();
+            }
+            db.endTransaction();
+        }
+
+        long[] ids = new long[deletedIds.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = deletedIds.get(i);
         }
+        invalidationTracker.notifyRowsChanged(DatabaseContract.ClassInstanceEntry.TABLE_NAME, ids);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,127 @@
+package com.example.yogaadmin.database;
+
+import android.content.Context;
+import android.util.Log;
+
+/**
+ * App-scoped owner of the single DatabaseHelper (and therefore the single
+ * SQLite connection pool) used by every screen.
+ *
+ * Lifecycle: {@link #getInstance(Context)} creates the manager on first use,
+ * {@link #open()} eagerly opens the connection, and {@link #shutdown()} closes it
+ * and drops the instance so that a later getInstance() starts fresh.
+ */
+public final class DatabaseManager {
+    private static final String TAG = "DatabaseManager";
+
+    private static volatile DatabaseManager instance;
+
+    private final DatabaseHelper databaseHelper;
+    private final ClassSearchIndex classSearchIndex;
+    private final YogaClassCache yogaClassCache;
+    private final ClassReports classReports;
+    private final ConflictChecker conflictChecker;
+    private final SyncTracker syncTracker;
+    private final CloudOutbox cloudOutbox;
+    private final AsyncDatabaseHelper asyncDatabaseHelper;
+
+    private DatabaseManager(Context context) {
+        // Always hold the application context so no activity is leaked
+        databaseHelper = new DatabaseHelper(context.getApplicationContext());
+        classSearchIndex = new ClassSearchIndex(databaseHelper);
+        yogaClassCache = new YogaClassCache(databaseHelper);
+        classReports = new ClassReports(databaseHelper);
+        conflictChecker = new ConflictChecker(databaseHelper);
+        syncTracker = new SyncTracker(databaseHelper);
+        cloudOutbox = new CloudOutbox(databaseHelper);
+        asyncDatabaseHelper = new AsyncDatabaseHelper(databaseHelper, classSearchIndex, yogaClassCache, classReports,
+                conflictChecker, syncTracker);
+    }
+
+    // Get (or lazily create) the process-wide manager
+    public static DatabaseManager getInstance(Context context) {
+        DatabaseManager result = instance;
+        if (result == null) {
+            synchronized (DatabaseManager.class) {
+                result = instance;
+                if (result == null) {
+                    result = new DatabaseManager(context);
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Shared helper; callers must not close it
+    public DatabaseHelper getDatabaseHelper() {
+        return databaseHelper;
+    }
+
+    // Row-level change notifications for every write through the shared helper
+    public InvalidationTracker getInvalidationTracker() {
+        return databaseHelper.getInvalidationTracker();
+    }
+
+    // Full-text search over the shared connection
+    public ClassSearchIndex getClassSearchIndex() {
+        return classSearchIndex;
+    }
+
+    // Read-through cache of classes by id; its counters help size it
+    public YogaClassCache getYogaClassCache() {
+        return yogaClassCache;
+    }
+
+    // Cached teacher and class type reports
+    public ClassReports getClassReports() {
+        return classReports;
+    }
+
+    // Teacher double-booking checks
+    public ConflictChecker getConflictChecker() {
+        return conflictChecker;
+    }
+
+    // Classes changed since the last cloud upload
+    public SyncTracker getSyncTracker() {
+        return syncTracker;
+    }
+
+    // Classes waiting for background upload
+    public CloudOutbox getCloudOutbox() {
+        return cloudOutbox;
+    }
+
+    // Asynchronous access for UI code: runs on the I/O pool, answers on the main thread
+    public AsyncDatabaseHelper getAsyncDatabaseHelper() {
+        return asyncDatabaseHelper;
+    }
+
+    // Open the connection up front, off the main thread, so the first query doesn't pay for it
+    public void open() {
+        asyncDatabaseHelper.execute(() -> {
+            try {
+                databaseHelper.getWritableDatabase();
+                Log.d(TAG, "Database opened");
+            } catch (Exception e) {
+                Log.e(TAG, "Error opening database", e);
+            }
+            return null;
+        }, null);
+    }
+
+    // Close the shared connection and forget the instance
+    public static void shutdown() {
+        synchronized (DatabaseManager.class) {
+            if (instance != null) {
+                Log.d(TAG, "Class cache: " + instance.yogaClassCache.getClassStats()
+                        + ", instance page cache: " + instance.yogaClassCache.getInstancePageStats());
+                instance.asyncDatabaseHelper.shutdown();
+                instance.databaseHelper.close();
+                instance = null;
+                Log.d(TAG, "Database closed");
+            }
+        }
+    }
+}
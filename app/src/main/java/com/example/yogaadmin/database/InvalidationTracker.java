@@ -0,0 +1,101 @@
+package com.example.yogaadmin.database;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records which rows of yoga_classes / class_instances each committed write
+ * touched and tells registered observers, on the main thread, so screens can
+ * skip reloads when nothing changed and patch just the affected rows when
+ * something did.
+ *
+ * DatabaseHelper reports every write after it commits. An empty id set means
+ * "the whole table may have changed" (e.g. a database reset).
+ *
+ * Caches that must never serve a row older than the last write register with
+ * {@link #addWriterObserver}; they are called synchronously on the writing
+ * thread before the write method returns.
+ */
+public class InvalidationTracker {
+
+    public interface Observer {
+        /**
+         * @param table Table that changed
+         * @param rowIds Ids of inserted, updated or deleted rows; empty if every row may have changed
+         */
+        void onInvalidated(String table, Set<Long> rowIds);
+    }
+
+    private final Map<String, List<Observer>> observers = new ConcurrentHashMap<>();
+    private final Map<String, List<Observer>> writerObservers = new ConcurrentHashMap<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Register an observer for one table; call removeObserver when the screen goes away
+    public void addObserver(String table, Observer observer) {
+        observers.computeIfAbsent(table, key -> new CopyOnWriteArrayList<>()).add(observer);
+    }
+
+    public void removeObserver(String table, Observer observer) {
+        List<Observer> tableObservers = observers.get(table);
+        if (tableObservers != null) {
+            tableObservers.remove(observer);
+        }
+    }
+
+    // Register an observer called on the writing thread itself; it must be fast and thread-safe
+    public void addWriterObserver(String table, Observer observer) {
+        writerObservers.computeIfAbsent(table, key -> new CopyOnWriteArrayList<>()).add(observer);
+    }
+
+    public void removeWriterObserver(String table, Observer observer) {
+        List<Observer> tableObservers = writerObservers.get(table);
+        if (tableObservers != null) {
+            tableObservers.remove(observer);
+        }
+    }
+
+    // Rows with these ids were written
+    void notifyRowsChanged(String table, long... rowIds) {
+        Set<Long> ids = new HashSet<>();
+        for (long id : rowIds) {
+            if (id > 0) {
+                ids.add(id);
+            }
+        }
+        if (!ids.isEmpty()) {
+            dispatch(table, Collections.unmodifiableSet(ids));
+        }
+    }
+
+    // Any row of the table may have changed
+    void notifyTableChanged(String table) {
+        dispatch(table, Collections.emptySet());
+    }
+
+    private void dispatch(String table, Set<Long> rowIds) {
+        List<Observer> writerTableObservers = writerObservers.get(table);
+        if (writerTableObservers != null) {
+            for (Observer observer : writerTableObservers) {
+                observer.onInvalidated(table, rowIds);
+            }
+        }
+
+        List<Observer> tableObservers = observers.get(table);
+        if (tableObservers == null || tableObservers.isEmpty()) {
+            return;
+        }
+        mainHandler.post(() -> {
+            for (Observer observer : tableObservers) {
+                observer.onInvalidated(table, rowIds);
+            }
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.yogaadmin.database;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * One in-place schema upgrade step, from {@link #startVersion} to {@link #endVersion}.
+ *
+ * Steps must keep existing rows and must not depend on the current onCreate()
+ * schema: once released, a step's SQL is frozen.
+ */
+abstract class Migration {
+    final int startVersion;
+    final int endVersion;
+
+    Migration(int startVersion, int endVersion) {
+        this.startVersion = startVersion;
+        this.endVersion = endVersion;
+    }
+
+    // Runs inside the upgrade transaction; throwing rolls back the whole upgrade
+    abstract void migrate(SQLiteDatabase db);
+}
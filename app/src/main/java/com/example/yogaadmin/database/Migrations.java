@@ -0,0 +1,200 @@
+package com.example.yogaadmin.database;
+
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Every schema upgrade step since version 5, the oldest schema that is migrated
+ * in place. {@link #migrate} chains them one version at a time.
+ *
+ * To change the schema: bump DatabaseHelper.DATABASE_VERSION, update onCreate(),
+ * and add a Migration from the previous version to {@link #ALL}. Steps spell out
+ * their SQL rather than calling the create() methods onCreate() uses, which
+ * follow the current schema.
+ */
+final class Migrations {
+    private static final String TAG = "Migrations";
+
+    // Version 6: secondary indexes for instance listing and teacher search
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS idx_class_instances_yoga_class_id_date"
+                    + " ON class_instances(yoga_class_id, date)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS idx_yoga_classes_teacher_name"
+                    + " ON yoga_classes(teacher_name COLLATE NOCASE)");
+        }
+    };
+
+    // Version 7: full-text search tables and their sync triggers, filled from existing rows
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS yoga_classes_fts USING fts4(content=\"yoga_classes\","
+                    + " teacher_name, class_type, description)");
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS class_instances_fts USING fts4(content=\"class_instances\","
+                    + " teacher, comments)");
+
+            String deleteOldClass = "DELETE FROM yoga_classes_fts WHERE docid = old._id;";
+            String insertNewClass = "INSERT INTO yoga_classes_fts(docid, teacher_name, class_type, description)"
+                    + " VALUES(new._id, new.teacher_name, new.class_type, new.description);";
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS yoga_classes_fts_bu BEFORE UPDATE ON yoga_classes"
+                    + " BEGIN " + deleteOldClass + " END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS yoga_classes_fts_bd BEFORE DELETE ON yoga_classes"
+                    + " BEGIN " + deleteOldClass + " END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS yoga_classes_fts_au AFTER UPDATE ON yoga_classes"
+                    + " BEGIN " + insertNewClass + " END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS yoga_classes_fts_ai AFTER INSERT ON yoga_classes"
+                    + " BEGIN " + insertNewClass + " END");
+
+            String deleteOldInstance = "DELETE FROM class_instances_fts WHERE docid = old._id;";
+            String insertNewInstance = "INSERT INTO class_instances_fts(docid, teacher, comments)"
+                    + " VALUES(new._id, new.teacher, new.comments);";
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS class_instances_fts_bu BEFORE UPDATE ON class_instances"
+                    + " BEGIN " + deleteOldInstance + " END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS class_instances_fts_bd BEFORE DELETE ON class_instances"
+                    + " BEGIN " + deleteOldInstance + " END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS class_instances_fts_au AFTER UPDATE ON class_instances"
+                    + " BEGIN " + insertNewInstance + " END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS class_instances_fts_ai AFTER INSERT ON class_instances"
+                    + " BEGIN " + insertNewInstance + " END");
+
+            db.execSQL("INSERT INTO yoga_classes_fts(yoga_classes_fts) VALUES('rebuild')");
+            db.execSQL("INSERT INTO class_instances_fts(class_instances_fts) VALUES('rebuild')");
+        }
+    };
+
+    // Version 8: date index for range queries across all classes
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS idx_class_instances_date ON class_instances(date)");
+        }
+    };
+
+    // Version 9: change stamps and upload watermark for cloud sync; every existing class starts pending
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS sync_changes(table_name TEXT NOT NULL, row_id INTEGER NOT NULL,"
+                    + " yoga_class_id INTEGER NOT NULL, change_seq INTEGER NOT NULL,"
+                    + " PRIMARY KEY(table_name, row_id)) WITHOUT ROWID");
+            db.execSQL("CREATE INDEX IF NOT EXISTS idx_sync_changes_change_seq"
+                    + " ON sync_changes(change_seq, yoga_class_id)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS sync_state(name TEXT PRIMARY KEY, value INTEGER NOT NULL)");
+
+            long firstChange = DatabaseUtils.queryNumEntries(db, "yoga_classes") > 0 ? 1 : 0;
+            db.execSQL("INSERT OR IGNORE INTO sync_state VALUES('last_change', ?)", new Object[]{firstChange});
+            db.execSQL("INSERT OR IGNORE INTO sync_state VALUES('uploaded_change', 0)");
+            db.execSQL("INSERT OR IGNORE INTO sync_changes SELECT 'yoga_classes', _id, _id, " + firstChange
+                    + " FROM yoga_classes");
+
+            createChangeTrigger(db, "sync_changes_classes_ai", "AFTER INSERT", "yoga_classes", "new._id", "new._id");
+            createChangeTrigger(db, "sync_changes_classes_au", "AFTER UPDATE", "yoga_classes", "new._id", "new._id");
+            createChangeTrigger(db, "sync_changes_instances_ai", "AFTER INSERT", "class_instances", "new._id",
+                    "new.yoga_class_id");
+            createChangeTrigger(db, "sync_changes_instances_au", "AFTER UPDATE", "class_instances", "new._id",
+                    "new.yoga_class_id");
+            createChangeTrigger(db, "sync_changes_instances_ad", "AFTER DELETE", "class_instances", "old._id",
+                    "old.yoga_class_id");
+        }
+    };
+
+    // Version 10: outbox for background cloud upload, filled with every class not yet uploaded
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS cloud_outbox(yoga_class_id INTEGER PRIMARY KEY,"
+                    + " change_seq INTEGER NOT NULL)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS idx_cloud_outbox_change_seq ON cloud_outbox(change_seq)");
+            db.execSQL("INSERT OR REPLACE INTO cloud_outbox SELECT yoga_class_id, MAX(change_seq) FROM sync_changes"
+                    + " WHERE change_seq > (SELECT value FROM sync_state WHERE name = 'uploaded_change')"
+                    + " GROUP BY yoga_class_id");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS cloud_outbox_enqueue AFTER INSERT ON sync_changes BEGIN"
+                    + " INSERT OR REPLACE INTO cloud_outbox VALUES(new.yoga_class_id, new.change_seq); END");
+        }
+    };
+
+    // Version 11: tombstones for deleted classes, and purge the stamps already acknowledged
+    static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        void migrate(SQLiteDatabase db) {
+            createChangeTrigger(db, "sync_changes_classes_ad", "AFTER DELETE", "yoga_classes", "old._id", "old._id");
+            db.execSQL("DELETE FROM sync_changes"
+                    + " WHERE change_seq <= (SELECT value FROM sync_state WHERE name = 'uploaded_change')");
+        }
+    };
+
+    static final Migration[] ALL = {
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10,
+            MIGRATION_10_11,
+    };
+
+    private Migrations() {}
+
+    // Change-stamping trigger as of version 9: bump the counter and stamp the row with it
+    private static void createChangeTrigger(SQLiteDatabase db, String name, String event, String table,
+                                            String rowId, String yogaClassId) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + name + " " + event + " ON " + table + " BEGIN"
+                + " UPDATE sync_state SET value = value + 1 WHERE name = 'last_change';"
+                + " INSERT OR REPLACE INTO sync_changes VALUES('" + table + "', " + rowId + ", " + yogaClassId
+                + ", (SELECT value FROM sync_state WHERE name = 'last_change')); END");
+    }
+
+    /**
+     * Find the chain of steps from one version to another.
+     * @return The steps in order, or null if some version in between has no step
+     */
+    static List<Migration> findPath(Migration[] migrations, int fromVersion, int toVersion) {
+        List<Migration> path = new ArrayList<>();
+        int version = fromVersion;
+        while (version < toVersion) {
+            Migration next = null;
+            for (Migration migration : migrations) {
+                if (migration.startVersion == version && migration.endVersion <= toVersion
+                        && (next == null || migration.endVersion > next.endVersion)) {
+                    next = migration; // Prefer the longest jump, like a squashed step
+                }
+            }
+            if (next == null) {
+                return null;
+            }
+            path.add(next);
+            version = next.endVersion;
+        }
+        return path;
+    }
+
+    /**
+     * Upgrade db in place. SQLiteOpenHelper already wraps onUpgrade (and the
+     * version bump) in one transaction, so a failing step leaves the database
+     * exactly at fromVersion.
+     * @return false if there is no path, in which case nothing was changed
+     */
+    static boolean migrate(SQLiteDatabase db, int fromVersion, int toVersion) {
+        return migrate(db, ALL, fromVersion, toVersion);
+    }
+
+    // Same, over an explicit set of steps
+    static boolean migrate(SQLiteDatabase db, Migration[] migrations, int fromVersion, int toVersion) {
+        List<Migration> path = findPath(migrations, fromVersion, toVersion);
+        if (path == null) {
+            return false;
+        }
+        for (Migration migration : path) {
+            long start = System.nanoTime();
+            migration.migrate(db);
+            Log.i(TAG, "Migrated " + migration.startVersion + " -> " + migration.endVersion
+                    + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.yogaadmin.database;
+
+import android.database.Cursor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps the current row of a cursor to a model object. Implementations resolve
+ * column positions once when they are created for a cursor, so mapping a row
+ * never looks a column up by name.
+ */
+public interface RowMapper<T> {
+    T map(Cursor cursor);
+
+    // Map every remaining row of the cursor
+    static <T> List<T> mapAll(Cursor cursor, RowMapper<T> mapper) {
+        List<T> rows = new ArrayList<>(Math.max(cursor.getCount(), 0));
+        while (cursor.moveToNext()) {
+            rows.add(mapper.map(cursor));
+        }
+        return rows;
+    }
+}
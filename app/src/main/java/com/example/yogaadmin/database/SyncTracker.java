@@ -0,0 +1,272 @@
+package com.example.yogaadmin.database;
+
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.example.yogaadmin.models.YogaClass;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Tracks which classes changed since the last successful cloud upload.
+ *
+ * Triggers stamp every inserted, updated or deleted class and instance with
+ * the next value of a change counter in sync_changes, whichever code path
+ * performs the write. The cloud stores each class together with its
+ * instances, so an instance change marks its class. A deleted class leaves a
+ * tombstone: its stamp stays behind after the row is gone, and uploads as a
+ * removal of that one class.
+ *
+ * The upload watermark is the counter value the cloud last acknowledged;
+ * classes stamped above it are pending, and finding them is an index range
+ * read whose cost depends on the number of edits, not the catalog size.
+ * Stamps at or below the watermark, tombstones included, are never read
+ * again and are purged whenever the watermark moves.
+ */
+public class SyncTracker {
+    private static final String TAG = "SyncTracker";
+
+    private static final String CLASSES = DatabaseContract.YogaClassEntry.TABLE_NAME;
+    private static final String INSTANCES = DatabaseContract.ClassInstanceEntry.TABLE_NAME;
+    private static final String CHANGES = DatabaseContract.SyncChangeEntry.TABLE_NAME;
+    private static final String STATE = DatabaseContract.SyncStateEntry.TABLE_NAME;
+
+    /**
+     * Classes to upload and classes to remove, read with the change counter at the
+     * time. Once the cloud has them, pass getChangeSeq() to markUploaded(); later
+     * edits stay pending.
+     */
+    public static class PendingChanges {
+        private final long changeSeq;
+        private final List<YogaClass> yogaClasses;
+        private final List<Long> deletedClassIds;
+
+        PendingChanges(long changeSeq, List<YogaClass> yogaClasses, List<Long> deletedClassIds) {
+            this.changeSeq = changeSeq;
+            this.yogaClasses = Collections.unmodifiableList(yogaClasses);
+            this.deletedClassIds = Collections.unmodifiableList(deletedClassIds);
+        }
+
+        public long getChangeSeq() {
+            return changeSeq;
+        }
+
+        // Changed classes with all their instances
+        public List<YogaClass> getYogaClasses() {
+            return yogaClasses;
+        }
+
+        // Ids of deleted classes whose cloud records must be removed
+        public List<Long> getDeletedClassIds() {
+            return deletedClassIds;
+        }
+
+        public boolean isEmpty() {
+            return yogaClasses.isEmpty() && deletedClassIds.isEmpty();
+        }
+    }
+
+    private final DatabaseHelper databaseHelper;
+
+    public SyncTracker(DatabaseHelper databaseHelper) {
+        this.databaseHelper = databaseHelper;
+    }
+
+    // Create the change table, counters and triggers; rows that already exist count as changed
+    static void create(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + CHANGES + "("
+                + DatabaseContract.SyncChangeEntry.COLUMN_TABLE_NAME + " TEXT NOT NULL, "
+                + DatabaseContract.SyncChangeEntry.COLUMN_ROW_ID + " INTEGER NOT NULL, "
+                + DatabaseContract.SyncChangeEntry.COLUMN_YOGA_CLASS_ID + " INTEGER NOT NULL, "
+                + DatabaseContract.SyncChangeEntry.COLUMN_CHANGE_SEQ + " INTEGER NOT NULL, "
+                + "PRIMARY KEY(" + DatabaseContract.SyncChangeEntry.COLUMN_TABLE_NAME + ", "
+                + DatabaseContract.SyncChangeEntry.COLUMN_ROW_ID + ")) WITHOUT ROWID");
+        // Covers the pending-classes query, so it never touches the table itself
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + DatabaseContract.SyncChangeEntry.INDEX_CHANGE_SEQ
+                + " ON " + CHANGES + "(" + DatabaseContract.SyncChangeEntry.COLUMN_CHANGE_SEQ + ", "
+                + DatabaseContract.SyncChangeEntry.COLUMN_YOGA_CLASS_ID + ")");
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + STATE + "("
+                + DatabaseContract.SyncStateEntry.COLUMN_NAME + " TEXT PRIMARY KEY, "
+                + DatabaseContract.SyncStateEntry.COLUMN_VALUE + " INTEGER NOT NULL)");
+
+        // Classes already in the database were never acknowledged by the cloud
+        long existing = DatabaseUtils.queryNumEntries(db, CLASSES);
+        long firstChange = existing > 0 ? 1 : 0;
+        db.execSQL("INSERT OR IGNORE INTO " + STATE + " VALUES(?, ?)",
+                new Object[]{DatabaseContract.SyncStateEntry.LAST_CHANGE, firstChange});
+        db.execSQL("INSERT OR IGNORE INTO " + STATE + " VALUES(?, 0)",
+                new Object[]{DatabaseContract.SyncStateEntry.UPLOADED_CHANGE});
+        // Their instances go up with them, so marking the classes is enough
+        db.execSQL("INSERT OR IGNORE INTO " + CHANGES + " SELECT '" + CLASSES + "', "
+                + DatabaseContract.YogaClassEntry._ID + ", " + DatabaseContract.YogaClassEntry._ID + ", "
+                + firstChange + " FROM " + CLASSES);
+
+        String classId = DatabaseContract.YogaClassEntry._ID;
+        createChangeTrigger(db, "sync_changes_classes_ai", "AFTER INSERT", CLASSES, "new._id", "new." + classId);
+        createChangeTrigger(db, "sync_changes_classes_au", "AFTER UPDATE", CLASSES, "new._id", "new." + classId);
+        createTombstoneTrigger(db);
+        String instanceClassId = DatabaseContract.ClassInstanceEntry.COLUMN_YOGA_CLASS_ID;
+        createChangeTrigger(db, "sync_changes_instances_ai", "AFTER INSERT", INSTANCES, "new._id",
+                "new." + instanceClassId);
+        createChangeTrigger(db, "sync_changes_instances_au", "AFTER UPDATE", INSTANCES, "new._id",
+                "new." + instanceClassId);
+        // A deleted instance must disappear from its class in the cloud too
+        createChangeTrigger(db, "sync_changes_instances_ad", "AFTER DELETE", INSTANCES, "old._id",
+                "old." + instanceClassId);
+    }
+
+    // Stamp deleted classes so the deletion reaches the cloud; ids are never reused (AUTOINCREMENT)
+    private static void createTombstoneTrigger(SQLiteDatabase db) {
+        createChangeTrigger(db, "sync_changes_classes_ad", "AFTER DELETE", CLASSES, "old._id",
+                "old." + DatabaseContract.YogaClassEntry._ID);
+    }
+
+    // Bump the change counter and stamp the row with it
+    private static void createChangeTrigger(SQLiteDatabase db, String name, String event, String table,
+                                            String rowId, String yogaClassId) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS " + name + " " + event + " ON " + table + " BEGIN "
+                + "UPDATE " + STATE + " SET " + DatabaseContract.SyncStateEntry.COLUMN_VALUE + " = "
+                + DatabaseContract.SyncStateEntry.COLUMN_VALUE + " + 1 WHERE "
+                + DatabaseContract.SyncStateEntry.COLUMN_NAME + " = '" + DatabaseContract.SyncStateEntry.LAST_CHANGE
+                + "'; "
+                + "INSERT OR REPLACE INTO " + CHANGES + " VALUES('" + table + "', " + rowId + ", " + yogaClassId
+                + ", (SELECT " + DatabaseContract.SyncStateEntry.COLUMN_VALUE + " FROM " + STATE + " WHERE "
+                + DatabaseContract.SyncStateEntry.COLUMN_NAME + " = '" + DatabaseContract.SyncStateEntry.LAST_CHANGE
+                + "')); END");
+    }
+
+    /**
+     * Classes changed or deleted since the last acknowledged upload.
+     * Throws on database errors so a failed read is never mistaken for "nothing changed".
+     */
+    public PendingChanges getPendingChanges() {
+        SQLiteDatabase db = databaseHelper.getReadableDatabase();
+        // One transaction holds off writers, so a class can't be deleted between reading its stamp and its row
+        db.beginTransactionNonExclusive();
+        try {
+            // Read the counter first: a write committed after this point is stamped higher and stays pending
+            long lastChange = readCounter(db, DatabaseContract.SyncStateEntry.LAST_CHANGE);
+            long uploaded = readCounter(db, DatabaseContract.SyncStateEntry.UPLOADED_CHANGE);
+            TreeSet<Long> classIds = new TreeSet<>();
+            TreeSet<Long> deletedIds = new TreeSet<>();
+            readPendingClassIds(db, uploaded, lastChange, classIds, deletedIds);
+
+            long[] ids = new long[classIds.size()];
+            int i = 0;
+            for (long id : classIds) {
+                ids[i++] = id;
+            }
+            List<YogaClass> yogaClasses = ids.length > 0
+                    ? databaseHelper.getYogaClassesWithInstances(ids)
+                    : new ArrayList<>();
+            // getYogaClassesWithInstances logs and returns what it has on errors; a class that
+            // failed to load must not go unsent
+            if (yogaClasses.size() < ids.length) {
+                throw new IllegalStateException("Could only load " + yogaClasses.size() + " of " + ids.length
+                        + " changed classes");
+            }
+            db.setTransactionSuccessful();
+            return new PendingChanges(lastChange, yogaClasses, new ArrayList<>(deletedIds));
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Every class, for a full upload, plus the deletions not yet acknowledged;
+     * acknowledging it clears everything pending up to now.
+     */
+    public PendingChanges getAllClasses() {
+        SQLiteDatabase db = databaseHelper.getReadableDatabase();
+        db.beginTransactionNonExclusive();
+        try {
+            long lastChange = readCounter(db, DatabaseContract.SyncStateEntry.LAST_CHANGE);
+            long uploaded = readCounter(db, DatabaseContract.SyncStateEntry.UPLOADED_CHANGE);
+            // Tombstones would be purged by the acknowledgement, so they go up with the classes
+            TreeSet<Long> deletedIds = new TreeSet<>();
+            readPendingClassIds(db, uploaded, lastChange, new TreeSet<>(), deletedIds);
+            List<YogaClass> yogaClasses = databaseHelper.getYogaClassesWithInstances(null);
+            db.setTransactionSuccessful();
+            return new PendingChanges(lastChange, yogaClasses, new ArrayList<>(deletedIds));
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // Whether each class still exists comes from the same read as its stamps
+    static final String PENDING_CLASS_IDS_SQL = "SELECT s." + DatabaseContract.SyncChangeEntry.COLUMN_YOGA_CLASS_ID
+            + ", c." + DatabaseContract.YogaClassEntry._ID + " IS NOT NULL"
+            + " FROM " + CHANGES + " s"
+            + " LEFT JOIN " + CLASSES + " c ON c." + DatabaseContract.YogaClassEntry._ID
+            + " = s." + DatabaseContract.SyncChangeEntry.COLUMN_YOGA_CLASS_ID
+            + " WHERE s." + DatabaseContract.SyncChangeEntry.COLUMN_CHANGE_SEQ + " > ?"
+            + " AND s." + DatabaseContract.SyncChangeEntry.COLUMN_CHANGE_SEQ + " <= ?";
+
+    // Split classes stamped in (uploaded, lastChange] into those that still exist and tombstones
+    private static void readPendingClassIds(SQLiteDatabase db, long uploaded, long lastChange,
+                                            TreeSet<Long> classIds, TreeSet<Long> deletedIds) {
+        if (lastChange <= uploaded) {
+            return;
+        }
+        try (Cursor cursor = db.rawQuery(PENDING_CLASS_IDS_SQL,
+                new String[]{String.valueOf(uploaded), String.valueOf(lastChange)})) {
+            while (cursor.moveToNext()) {
+                (cursor.getInt(1) != 0 ? classIds : deletedIds).add(cursor.getLong(0));
+            }
+        }
+    }
+
+    /**
+     * Record that the cloud holds every change up to changeSeq. The watermark only
+     * moves forward, so an older upload finishing late can't reopen newer ones.
+     */
+    public void markUploaded(long changeSeq) {
+        try {
+            SQLiteDatabase db = databaseHelper.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                advanceWatermark(db, changeSeq);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (Exception e) {
+            // The same classes are uploaded again next time, which is harmless
+            Log.e(TAG, "Error saving upload watermark", e);
+        }
+    }
+
+    // Move the watermark up to changeSeq and purge the stamps it now covers; run inside a transaction
+    static void advanceWatermark(SQLiteDatabase db, long changeSeq) {
+        db.execSQL("UPDATE " + STATE
+                + " SET " + DatabaseContract.SyncStateEntry.COLUMN_VALUE + " = MAX("
+                + DatabaseContract.SyncStateEntry.COLUMN_VALUE + ", ?)"
+                + " WHERE " + DatabaseContract.SyncStateEntry.COLUMN_NAME + " = ?",
+                new Object[]{changeSeq, DatabaseContract.SyncStateEntry.UPLOADED_CHANGE});
+        compact(db);
+    }
+
+    // Count every change so far as uploaded without sending it, e.g. the tombstones of a local reset;
+    // run inside a transaction
+    static void discardPending(SQLiteDatabase db) {
+        advanceWatermark(db, readCounter(db, DatabaseContract.SyncStateEntry.LAST_CHANGE));
+    }
+
+    // Delete acknowledged stamps and tombstones; pending reads only look above the watermark
+    private static void compact(SQLiteDatabase db) {
+        long uploaded = readCounter(db, DatabaseContract.SyncStateEntry.UPLOADED_CHANGE);
+        db.delete(CHANGES, DatabaseContract.SyncChangeEntry.COLUMN_CHANGE_SEQ + " <= ?",
+                new String[]{String.valueOf(uploaded)});
+    }
+
+    private static long readCounter(SQLiteDatabase db, String name) {
+        return DatabaseUtils.longForQuery(db, "SELECT " + DatabaseContract.SyncStateEntry.COLUMN_VALUE
+                + " FROM " + STATE + " WHERE " + DatabaseContract.SyncStateEntry.COLUMN_NAME + " = ?",
+                new String[]{name});
+    }
+}
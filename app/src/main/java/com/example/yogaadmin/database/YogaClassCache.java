@@ -0,0 +1,158 @@
+package com.example.yogaadmin.database;
+
+import android.util.LruCache;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.YogaClass;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, thread-safe read-through cache in front of DatabaseHelper for
+ * whole Yoga Classes by id and for the first page of instances of recently
+ * viewed classes.
+ *
+ * Entries are dropped on the writing thread as soon as a write commits (see
+ * InvalidationTracker#addWriterObserver), so a cached row is never older than
+ * the last write. Cached objects are shared: callers must treat them as read-only.
+ */
+public class YogaClassCache {
+    private static final int MAX_CLASSES = 256;
+    private static final int MAX_INSTANCE_PAGES = 16;
+
+    private final DatabaseHelper databaseHelper;
+    private final LruCache<Long, YogaClass> classes = new LruCache<>(MAX_CLASSES);
+    private final LruCache<Long, InstancePage> instancePages = new LruCache<>(MAX_INSTANCE_PAGES);
+    // Bumped by every invalidation; a load that raced with a write is not stored
+    private final AtomicLong generation = new AtomicLong();
+    // Makes "check the generation, then store" atomic with "bump the generation, then drop"
+    private final Object storeLock = new Object();
+
+    // First page of a class's instances, as loaded with a given page size
+    private static final class InstancePage {
+        final int pageSize;
+        final List<ClassInstance> rows;
+
+        InstancePage(int pageSize, List<ClassInstance> rows) {
+            this.pageSize = pageSize;
+            this.rows = rows;
+        }
+    }
+
+    public YogaClassCache(DatabaseHelper databaseHelper) {
+        this.databaseHelper = databaseHelper;
+        InvalidationTracker tracker = databaseHelper.getInvalidationTracker();
+        tracker.addWriterObserver(DatabaseContract.YogaClassEntry.TABLE_NAME, this::onClassesChanged);
+        tracker.addWriterObserver(DatabaseContract.ClassInstanceEntry.TABLE_NAME, this::onInstancesChanged);
+    }
+
+    // Same as DatabaseHelper.getYogaClassById, served from memory when possible
+    public YogaClass getYogaClassById(long id) {
+        YogaClass cached = classes.get(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadedAt = generation.get();
+        YogaClass yogaClass = databaseHelper.getYogaClassById(id);
+        if (yogaClass != null) {
+            synchronized (storeLock) {
+                if (generation.get() == loadedAt) {
+                    classes.put(id, yogaClass);
+                }
+            }
+        }
+        return yogaClass;
+    }
+
+    // Same as the first DatabaseHelper.getClassInstancesPage call for a class, served from memory when possible
+    public List<ClassInstance> getFirstClassInstancesPage(long yogaClassId, int pageSize) {
+        InstancePage cached = instancePages.get(yogaClassId);
+        // A page loaded with a larger size (or holding every instance) also answers smaller requests
+        if (cached != null && (cached.pageSize >= pageSize || cached.rows.size() < cached.pageSize)) {
+            return new ArrayList<>(cached.rows.subList(0, Math.min(pageSize, cached.rows.size())));
+        }
+
+        long loadedAt = generation.get();
+        List<ClassInstance> rows = databaseHelper.getClassInstancesPage(yogaClassId, Long.MIN_VALUE, 0, pageSize);
+        synchronized (storeLock) {
+            if (generation.get() == loadedAt) {
+                instancePages.put(yogaClassId, new InstancePage(pageSize, rows));
+            }
+        }
+        return new ArrayList<>(rows);
+    }
+
+    public Stats getClassStats() {
+        return new Stats(classes);
+    }
+
+    public Stats getInstancePageStats() {
+        return new Stats(instancePages);
+    }
+
+    private void onClassesChanged(String table, Set<Long> rowIds) {
+        synchronized (storeLock) {
+            generation.incrementAndGet();
+            if (rowIds.isEmpty()) {
+                removeAll(classes);
+                return;
+            }
+            for (long id : rowIds) {
+                classes.remove(id);
+            }
+        }
+    }
+
+    // Instance ids don't say which class they belonged to before the write, so drop every cached page
+    private void onInstancesChanged(String table, Set<Long> rowIds) {
+        synchronized (storeLock) {
+            generation.incrementAndGet();
+            removeAll(instancePages);
+        }
+    }
+
+    // Unlike evictAll(), remove() keeps invalidations out of the eviction counter
+    private static <V> void removeAll(LruCache<Long, V> cache) {
+        for (Long key : cache.snapshot().keySet()) {
+            cache.remove(key);
+        }
+    }
+
+    /**
+     * Counters for sizing the cache: a high eviction count with a low hit rate
+     * means the cache is too small for the working set.
+     */
+    public static final class Stats {
+        public final int hits;
+        public final int misses;
+        public final int evictions;
+        public final int size;
+        public final int maxSize;
+
+        Stats(LruCache<?, ?> cache) {
+            synchronized (cache) {
+                hits = cache.hitCount();
+                misses = cache.missCount();
+                evictions = cache.evictionCount();
+                size = cache.size();
+                maxSize = cache.maxSize();
+            }
+        }
+
+        public double hitRate() {
+            int lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "hits=%d misses=%d evictions=%d size=%d/%d hitRate=%.2f",
+                    hits, misses, evictions, size, maxSize, hitRate());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.yogaadmin.database;
+
+import android.database.Cursor;
+
+import com.example.yogaadmin.models.YogaClass;
+
+/**
+ * Maps yoga_classes rows to YogaClass. Columns missing from the projection
+ * are left at their defaults.
+ */
+public class YogaClassRowMapper implements RowMapper<YogaClass> {
+    // Every column
+    public static final String[] PROJECTION_ALL = {
+            DatabaseContract.YogaClassEntry._ID,
+            DatabaseContract.YogaClassEntry.COLUMN_DAY_OF_WEEK,
+            DatabaseContract.YogaClassEntry.COLUMN_COURSE_TIME,
+            DatabaseContract.YogaClassEntry.COLUMN_CAPACITY,
+            DatabaseContract.YogaClassEntry.COLUMN_DURATION,
+            DatabaseContract.YogaClassEntry.COLUMN_PRICE,
+            DatabaseContract.YogaClassEntry.COLUMN_CLASS_TYPE,
+            DatabaseContract.YogaClassEntry.COLUMN_DESCRIPTION,
+            DatabaseContract.YogaClassEntry.COLUMN_EQUIPMENT,
+            DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME
+    };
+
+    // What list rows display: skips the free-text description and equipment
+    public static final String[] PROJECTION_SUMMARY = {
+            DatabaseContract.YogaClassEntry._ID,
+            DatabaseContract.YogaClassEntry.COLUMN_DAY_OF_WEEK,
+            DatabaseContract.YogaClassEntry.COLUMN_COURSE_TIME,
+            DatabaseContract.YogaClassEntry.COLUMN_CAPACITY,
+            DatabaseContract.YogaClassEntry.COLUMN_DURATION,
+            DatabaseContract.YogaClassEntry.COLUMN_PRICE,
+            DatabaseContract.YogaClassEntry.COLUMN_CLASS_TYPE,
+            DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME
+    };
+
+    private final int idIndex;
+    private final int dayIndex;
+    private final int timeIndex;
+    private final int capacityIndex;
+    private final int durationIndex;
+    private final int priceIndex;
+    private final int typeIndex;
+    private final int descIndex;
+    private final int equipmentIndex;
+    private final int teacherIndex;
+
+    // Resolve column positions for this cursor once
+    public YogaClassRowMapper(Cursor cursor) {
+        idIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry._ID);
+        dayIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_DAY_OF_WEEK);
+        timeIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_COURSE_TIME);
+        capacityIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_CAPACITY);
+        durationIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_DURATION);
+        priceIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_PRICE);
+        typeIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_CLASS_TYPE);
+        descIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_DESCRIPTION);
+        equipmentIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_EQUIPMENT);
+        teacherIndex = cursor.getColumnIndex(DatabaseContract.YogaClassEntry.COLUMN_TEACHER_NAME);
+    }
+
+    @Override
+    public YogaClass map(Cursor cursor) {
+        YogaClass yogaClass = new YogaClass();
+
+        // Set values only if the column is in the projection
+        if (idIndex != -1) yogaClass.setId(cursor.getLong(idIndex));
+        if (dayIndex != -1) yogaClass.setDayOfWeek(cursor.getString(dayIndex));
+        if (timeIndex != -1) yogaClass.setCourseTime(cursor.getString(timeIndex));
+        if (capacityIndex != -1) yogaClass.setCapacity(cursor.getInt(capacityIndex));
+        if (durationIndex != -1) yogaClass.setDuration(cursor.getInt(durationIndex));
+        if (priceIndex != -1) yogaClass.setPricePerClass(cursor.getDouble(priceIndex));
+        if (typeIndex != -1) yogaClass.setClassType(cursor.getString(typeIndex));
+        if (descIndex != -1) yogaClass.setDescription(cursor.getString(descIndex));
+        if (equipmentIndex != -1) yogaClass.setEquipmentNeeded(cursor.getString(equipmentIndex));
+        if (teacherIndex != -1) {
+            String teacher = cursor.getString(teacherIndex);
+            yogaClass.setTeacher(teacher != null ? teacher : "Unknown");
+        }
+
+        return yogaClass;
+    }
+}
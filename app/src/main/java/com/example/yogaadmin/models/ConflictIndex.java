@@ -0,0 +1,215 @@
+package com.example.yogaadmin.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Interval index of the weekly timetable, for finding classes that double-book
+ * a teacher without comparing every pair of classes.
+ *
+ * Each teacher's classes are laid out on one week-long line (minutes since
+ * Monday 00:00, so a class running past midnight still meets the next day's
+ * early class) and sorted by start time. A lookup binary-searches the end of
+ * the candidate and walks back only as far as the teacher's longest class
+ * could reach: O(log n + k). The full report is a single sweep per teacher.
+ *
+ * Immutable; rebuild it from a fresh ScheduleSnapshot when the catalog changes.
+ * Teachers are matched case-insensitively. Classes without a recognised day,
+ * time or a positive duration are left out.
+ */
+public final class ConflictIndex {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    private final ScheduleSnapshot snapshot;
+    // Lower-cased teacher -> that teacher's week, in teacher order
+    private final Map<String, TeacherWeek> weeks;
+    private final Map<Long, Integer> rowsById;
+
+    // One teacher's classes as parallel arrays sorted by start
+    private static final class TeacherWeek {
+        final int[] starts; // Minutes since Monday 00:00
+        final int[] ends;   // Exclusive; may pass the end of the week
+        final int[] rows;   // Snapshot rows
+        int maxDuration;
+        int maxEnd;
+
+        TeacherWeek(int size) {
+            starts = new int[size];
+            ends = new int[size];
+            rows = new int[size];
+        }
+    }
+
+    private ConflictIndex(ScheduleSnapshot snapshot, Map<String, TeacherWeek> weeks, Map<Long, Integer> rowsById) {
+        this.snapshot = snapshot;
+        this.weeks = weeks;
+        this.rowsById = rowsById;
+    }
+
+    public static ConflictIndex build(ScheduleSnapshot snapshot) {
+        // Keys hold the week start in the high 32 bits and the row in the low 32 bits, as in ScheduleSnapshot
+        Map<String, long[]> keysByTeacher = new TreeMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        Map<Long, Integer> rowsById = new HashMap<>(snapshot.size() * 2);
+        for (int row = 0; row < snapshot.size(); row++) {
+            rowsById.put(snapshot.id(row), row);
+            String teacher = teacherKey(snapshot.teacher(row));
+            if (teacher == null || snapshot.day(row) < 0 || snapshot.startMinutes(row) < 0
+                    || snapshot.duration(row) <= 0) {
+                continue;
+            }
+            int count = counts.getOrDefault(teacher, 0);
+            long[] keys = keysByTeacher.get(teacher);
+            if (keys == null || keys.length == count) {
+                keys = keys == null ? new long[4] : Arrays.copyOf(keys, count * 2);
+                keysByTeacher.put(teacher, keys);
+            }
+            keys[count] = ((long) weekStart(snapshot.day(row), snapshot.startMinutes(row)) << 32) | row;
+            counts.put(teacher, count + 1);
+        }
+
+        Map<String, TeacherWeek> weeks = new TreeMap<>();
+        for (Map.Entry<String, long[]> entry : keysByTeacher.entrySet()) {
+            int count = counts.get(entry.getKey());
+            long[] keys = entry.getValue();
+            Arrays.sort(keys, 0, count);
+            TeacherWeek week = new TeacherWeek(count);
+            for (int i = 0; i < count; i++) {
+                int row = (int) keys[i];
+                int duration = snapshot.duration(row);
+                week.rows[i] = row;
+                week.starts[i] = (int) (keys[i] >>> 32);
+                week.ends[i] = week.starts[i] + duration;
+                week.maxDuration = Math.max(week.maxDuration, duration);
+                week.maxEnd = Math.max(week.maxEnd, week.ends[i]);
+            }
+            weeks.put(entry.getKey(), week);
+        }
+        return new ConflictIndex(snapshot, weeks, rowsById);
+    }
+
+    public ScheduleSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // Snapshot row of a class, or -1 if it isn't in the index
+    public int rowOf(long classId) {
+        Integer row = rowsById.get(classId);
+        return row != null ? row : -1;
+    }
+
+    /**
+     * Classes of the same teacher that would overlap a class at the given time
+     * @param classId The class being checked, so it doesn't conflict with itself; 0 for a new class
+     * @param teacher Teacher of the class
+     * @param day 0 = Monday ... 6 = Sunday
+     * @param startMinutes Minutes since midnight
+     * @param duration Length in minutes
+     * @return Conflicts with the checked class first, ordered by the other class's start
+     */
+    public List<ScheduleConflict> conflictsWith(long classId, String teacher, int day, int startMinutes,
+                                                int duration) {
+        String key = teacherKey(teacher);
+        TeacherWeek week = key != null ? weeks.get(key) : null;
+        if (week == null || day < 0 || startMinutes < 0 || duration <= 0) {
+            return Collections.emptyList();
+        }
+
+        int start = weekStart(day, startMinutes);
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        // Classes running past the end of the week meet the start of the next one
+        if (week.maxEnd > MINUTES_PER_WEEK) {
+            collect(week, classId, teacher, start, duration, MINUTES_PER_WEEK, conflicts);
+        }
+        collect(week, classId, teacher, start, duration, 0, conflicts);
+        if (start + duration > MINUTES_PER_WEEK) {
+            collect(week, classId, teacher, start, duration, -MINUTES_PER_WEEK, conflicts);
+        }
+        return conflicts;
+    }
+
+    // Conflicts with [start, start + duration) moved by shift along the line of the teacher's classes
+    private void collect(TeacherWeek week, long classId, String teacher, int start, int duration, int shift,
+                         List<ScheduleConflict> conflicts) {
+        int from = start + shift;
+        int to = from + duration;
+        int first = conflicts.size();
+        // Walk back from the last class starting before the end, while a class could still reach the start
+        for (int i = lowerBound(week.starts, to) - 1; i >= 0 && week.starts[i] > from - week.maxDuration; i--) {
+            int row = week.rows[i];
+            if (week.ends[i] > from && snapshot.id(row) != classId) {
+                conflicts.add(first, new ScheduleConflict(teacher, (start / MINUTES_PER_DAY) % 7, classId,
+                        start % MINUTES_PER_DAY, duration, snapshot.id(row),
+                        week.starts[i] - shift - start + start % MINUTES_PER_DAY, snapshot.duration(row)));
+            }
+        }
+    }
+
+    /**
+     * Every pair of overlapping classes in the catalog
+     * @return Conflicts by teacher, then by the start of the earlier class
+     */
+    public List<ScheduleConflict> findAll() {
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        for (TeacherWeek week : weeks.values()) {
+            int size = week.starts.length;
+            for (int i = 0; i < size; i++) {
+                // Later classes that start before this one ends
+                for (int j = i + 1; j < size && week.starts[j] < week.ends[i]; j++) {
+                    conflicts.add(conflict(week, i, j, week.starts[j]));
+                }
+                // Early next-week classes this one runs into
+                for (int j = 0; j < i && week.starts[j] < week.ends[i] - MINUTES_PER_WEEK; j++) {
+                    conflicts.add(conflict(week, i, j, week.starts[j] + MINUTES_PER_WEEK));
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    public int teacherCount() {
+        return weeks.size();
+    }
+
+    private ScheduleConflict conflict(TeacherWeek week, int first, int second, int secondStart) {
+        int firstRow = week.rows[first];
+        int secondRow = week.rows[second];
+        int dayStart = week.starts[first] - week.starts[first] % MINUTES_PER_DAY;
+        return new ScheduleConflict(snapshot.teacher(firstRow), week.starts[first] / MINUTES_PER_DAY,
+                snapshot.id(firstRow), week.starts[first] - dayStart, snapshot.duration(firstRow),
+                snapshot.id(secondRow), secondStart - dayStart, snapshot.duration(secondRow));
+    }
+
+    // First index whose start is >= value
+    private static int lowerBound(int[] starts, int value) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int weekStart(int day, int startMinutes) {
+        return day * MINUTES_PER_DAY + startMinutes;
+    }
+
+    private static String teacherKey(String teacher) {
+        if (teacher == null || teacher.trim().isEmpty()) {
+            return null;
+        }
+        return teacher.trim().toLowerCase(Locale.ROOT);
+    }
+}
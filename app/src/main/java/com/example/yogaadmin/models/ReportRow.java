@@ -0,0 +1,62 @@
+package com.example.yogaadmin.models;
+
+/**
+ * One group of a catalog report (a teacher, a class type, or the total):
+ * how many classes it runs, and how many instances are scheduled with their
+ * combined minutes and potential revenue (capacity x price per instance).
+ */
+public final class ReportRow {
+    private final String group;
+    private final int classCount;
+    private final int instanceCount;
+    private final long scheduledMinutes;
+    private final double potentialRevenue;
+
+    public ReportRow(String group, int classCount, int instanceCount, long scheduledMinutes, double potentialRevenue) {
+        this.group = group;
+        this.classCount = classCount;
+        this.instanceCount = instanceCount;
+        this.scheduledMinutes = scheduledMinutes;
+        this.potentialRevenue = potentialRevenue;
+    }
+
+    // Sum of several rows, e.g. the total line under a report
+    public static ReportRow total(String group, Iterable<ReportRow> rows) {
+        int classCount = 0;
+        int instanceCount = 0;
+        long scheduledMinutes = 0;
+        double potentialRevenue = 0;
+        for (ReportRow row : rows) {
+            classCount += row.classCount;
+            instanceCount += row.instanceCount;
+            scheduledMinutes += row.scheduledMinutes;
+            potentialRevenue += row.potentialRevenue;
+        }
+        return new ReportRow(group, classCount, instanceCount, scheduledMinutes, potentialRevenue);
+    }
+
+    // Teacher name or class type
+    public String getGroup() {
+        return group;
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    public int getInstanceCount() {
+        return instanceCount;
+    }
+
+    public long getScheduledMinutes() {
+        return scheduledMinutes;
+    }
+
+    public double getScheduledHours() {
+        return scheduledMinutes / 60.0;
+    }
+
+    public double getPotentialRevenue() {
+        return potentialRevenue;
+    }
+}
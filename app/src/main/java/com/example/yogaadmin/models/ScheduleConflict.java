@@ -0,0 +1,91 @@
+package com.example.yogaadmin.models;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Two classes that put the same teacher in two places at once. The first is
+ * the class being checked, or the earlier one in a full report. Times are
+ * minutes since midnight on the first class's day, so the second class's
+ * start is negative late the day before and 1440 or more early the day after.
+ */
+public final class ScheduleConflict {
+    private final String teacher;
+    private final int day;
+    private final long firstClassId;
+    private final int firstStartMinutes;
+    private final int firstDuration;
+    private final long secondClassId;
+    private final int secondStartMinutes;
+    private final int secondDuration;
+
+    public ScheduleConflict(String teacher, int day, long firstClassId, int firstStartMinutes, int firstDuration,
+                            long secondClassId, int secondStartMinutes, int secondDuration) {
+        this.teacher = teacher;
+        this.day = day;
+        this.firstClassId = firstClassId;
+        this.firstStartMinutes = firstStartMinutes;
+        this.firstDuration = firstDuration;
+        this.secondClassId = secondClassId;
+        this.secondStartMinutes = secondStartMinutes;
+        this.secondDuration = secondDuration;
+    }
+
+    public String getTeacher() {
+        return teacher;
+    }
+
+    // 0 = Monday ... 6 = Sunday
+    public int getDay() {
+        return day;
+    }
+
+    public long getFirstClassId() {
+        return firstClassId;
+    }
+
+    public int getFirstStartMinutes() {
+        return firstStartMinutes;
+    }
+
+    public int getFirstDuration() {
+        return firstDuration;
+    }
+
+    public long getSecondClassId() {
+        return secondClassId;
+    }
+
+    public int getSecondStartMinutes() {
+        return secondStartMinutes;
+    }
+
+    public int getSecondDuration() {
+        return secondDuration;
+    }
+
+    // How long the two classes run at the same time
+    public int getOverlapMinutes() {
+        return Math.min(firstStartMinutes + firstDuration, secondStartMinutes + secondDuration)
+                - Math.max(firstStartMinutes, secondStartMinutes);
+    }
+
+    // e.g. "Ann, Monday: 10:00 (60 min) overlaps 10:30 (45 min)"
+    public String describe() {
+        return String.format(Locale.US, "%s, %s: %s (%d min) overlaps %s (%d min)", teacher,
+                ScheduleSnapshot.DAYS[day], ScheduleSnapshot.formatTime(firstStartMinutes), firstDuration,
+                ScheduleSnapshot.formatTime(Math.floorMod(secondStartMinutes, 24 * 60)), secondDuration);
+    }
+
+    // One conflict per line, for dialogs
+    public static String describeAll(List<ScheduleConflict> conflicts) {
+        StringBuilder text = new StringBuilder();
+        for (ScheduleConflict conflict : conflicts) {
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+            text.append(conflict.describe());
+        }
+        return text.toString();
+    }
+}
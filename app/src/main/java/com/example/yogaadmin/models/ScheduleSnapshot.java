@@ -0,0 +1,386 @@
+package com.example.yogaadmin.models;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Read-only, column-oriented copy of the class catalog for filtering, sorting
+ * and aggregating the timetable in memory without allocating per class.
+ *
+ * Row r of the snapshot is spread over parallel primitive arrays: day of week
+ * as a byte (0 = Monday), start time as minutes since midnight, price in minor
+ * units (pence), duration and capacity as ints. Class type and teacher are
+ * dictionary-encoded: each row stores an index into a small String table.
+ *
+ * Queries take and return "row sets": int arrays of row numbers, so chained
+ * filter/sort/aggregate steps only ever allocate one int[] or long[] each.
+ */
+public final class ScheduleSnapshot {
+    public static final String[] DAYS = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final int size;
+    private final long[] ids;
+    private final byte[] days;
+    private final short[] startMinutes;
+    private final int[] pricesMinor;
+    private final int[] durations;
+    private final int[] capacities;
+    private final int[] classTypeCodes;
+    private final int[] teacherCodes;
+    private final String[] classTypes;
+    private final String[] teachers;
+
+    private ScheduleSnapshot(Builder builder) {
+        size = builder.size;
+        ids = Arrays.copyOf(builder.ids, size);
+        days = Arrays.copyOf(builder.days, size);
+        startMinutes = Arrays.copyOf(builder.startMinutes, size);
+        pricesMinor = Arrays.copyOf(builder.pricesMinor, size);
+        durations = Arrays.copyOf(builder.durations, size);
+        capacities = Arrays.copyOf(builder.capacities, size);
+        classTypeCodes = Arrays.copyOf(builder.classTypeCodes, size);
+        teacherCodes = Arrays.copyOf(builder.teacherCodes, size);
+        classTypes = builder.classTypes.toArray();
+        teachers = builder.teachers.toArray();
+    }
+
+    // Row accessors
+
+    public int size() {
+        return size;
+    }
+
+    public long id(int row) {
+        return ids[row];
+    }
+
+    // 0 = Monday ... 6 = Sunday, or -1 if the stored day was not recognised
+    public int day(int row) {
+        return days[row];
+    }
+
+    // Minutes since midnight, or -1 if the stored time was not HH:MM
+    public int startMinutes(int row) {
+        return startMinutes[row];
+    }
+
+    public int priceMinor(int row) {
+        return pricesMinor[row];
+    }
+
+    public int duration(int row) {
+        return durations[row];
+    }
+
+    public int capacity(int row) {
+        return capacities[row];
+    }
+
+    public String classType(int row) {
+        return classTypes[classTypeCodes[row]];
+    }
+
+    public String teacher(int row) {
+        return teachers[teacherCodes[row]];
+    }
+
+    // Dictionary lookups, for building filters; -1 if no class uses the value
+
+    public int classTypeCode(String classType) {
+        return indexOf(classTypes, classType);
+    }
+
+    public int teacherCode(String teacher) {
+        return indexOf(teachers, teacher);
+    }
+
+    // Queries
+
+    // Every row, in catalog order
+    public int[] allRows() {
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+        return rows;
+    }
+
+    // Rows of the given set that match the filter, keeping their order
+    public int[] filter(int[] rows, Filter filter) {
+        int[] matches = new int[rows.length];
+        int count = 0;
+        for (int row : rows) {
+            if ((filter.dayMask & (1 << (days[row] + 1))) != 0
+                    && startMinutes[row] >= filter.startFrom && startMinutes[row] < filter.startBefore
+                    && pricesMinor[row] <= filter.maxPriceMinor
+                    && capacities[row] >= filter.minCapacity
+                    && (filter.classTypeCode < 0 || classTypeCodes[row] == filter.classTypeCode)
+                    && (filter.teacherCode < 0 || teacherCodes[row] == filter.teacherCode)) {
+                matches[count++] = row;
+            }
+        }
+        return count == matches.length ? matches : Arrays.copyOf(matches, count);
+    }
+
+    // Timetable order: day, then start time, then catalog order
+    public int[] sortByDayAndTime(int[] rows) {
+        long[] keys = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            // Unknown days/times (-1) sort first; +1 keeps the key non-negative
+            long slot = (days[row] + 1L) * (MINUTES_PER_DAY + 1) + startMinutes[row] + 1;
+            keys[i] = slot << 32 | row;
+        }
+        return sortedRows(keys);
+    }
+
+    // Cheapest first, ties in catalog order
+    public int[] sortByPrice(int[] rows) {
+        long[] keys = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            keys[i] = (long) pricesMinor[row] << 32 | row;
+        }
+        return sortedRows(keys);
+    }
+
+    // Number of rows on each day, indexed 0 = Monday ... 6 = Sunday
+    public int[] countByDay(int[] rows) {
+        int[] counts = new int[DAYS.length];
+        for (int row : rows) {
+            if (days[row] >= 0) {
+                counts[days[row]]++;
+            }
+        }
+        return counts;
+    }
+
+    public long totalCapacity(int[] rows) {
+        long total = 0;
+        for (int row : rows) {
+            total += capacities[row];
+        }
+        return total;
+    }
+
+    // Mean price in minor units, rounded; 0 for an empty set
+    public long averagePriceMinor(int[] rows) {
+        if (rows.length == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int row : rows) {
+            total += pricesMinor[row];
+        }
+        return Math.round((double) total / rows.length);
+    }
+
+    // Keys hold a non-negative sort value in the high 32 bits and the row in the low 32 bits
+    private static int[] sortedRows(long[] keys) {
+        Arrays.sort(keys);
+        int[] sorted = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = (int) keys[i];
+        }
+        return sorted;
+    }
+
+    private static int indexOf(String[] dictionary, String value) {
+        for (int i = 0; i < dictionary.length; i++) {
+            if (dictionary[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Encoding helpers
+
+    // "Monday" -> 0 ... "Sunday" -> 6 (case-insensitive), anything else -> -1
+    public static byte encodeDay(String dayOfWeek) {
+        if (dayOfWeek != null) {
+            for (int i = 0; i < DAYS.length; i++) {
+                if (DAYS[i].equalsIgnoreCase(dayOfWeek)) {
+                    return (byte) i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // "HH:MM" (24-hour) -> minutes since midnight, anything else -> -1
+    public static short encodeTime(String courseTime) {
+        if (courseTime == null || courseTime.length() != 5 || courseTime.charAt(2) != ':') {
+            return -1;
+        }
+        int hours = twoDigits(courseTime, 0);
+        int minutes = twoDigits(courseTime, 3);
+        if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+            return -1;
+        }
+        return (short) (hours * 60 + minutes);
+    }
+
+    // Price in pounds -> pence, rounded to the nearest penny
+    public static int encodePrice(double price) {
+        return (int) Math.round(price * 100);
+    }
+
+    public static String formatTime(int startMinutes) {
+        return startMinutes < 0 ? "" : String.format(Locale.US, "%02d:%02d", startMinutes / 60, startMinutes % 60);
+    }
+
+    private static int twoDigits(String text, int start) {
+        char tens = text.charAt(start);
+        char ones = text.charAt(start + 1);
+        if (tens < '0' || tens > '9' || ones < '0' || ones > '9') {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+
+    /**
+     * Conditions for {@link #filter}. Every condition defaults to "match all",
+     * so set only the ones needed, e.g. new Filter().onDay(0).maxPriceMinor(1000).
+     */
+    public static final class Filter {
+        private int dayMask = -1; // Bit (day + 1) set for each allowed day; bit 0 is "unknown day"
+        private int startFrom = Integer.MIN_VALUE;
+        private int startBefore = Integer.MAX_VALUE;
+        private int maxPriceMinor = Integer.MAX_VALUE;
+        private int minCapacity = Integer.MIN_VALUE;
+        private int classTypeCode = -1;
+        private int teacherCode = -1;
+
+        // Only these days (0 = Monday); may be called repeatedly to allow several days
+        public Filter onDay(int day) {
+            int bit = 1 << (day + 1);
+            dayMask = dayMask == -1 ? bit : dayMask | bit;
+            return this;
+        }
+
+        // Start time in [fromMinutes, beforeMinutes)
+        public Filter startingBetween(int fromMinutes, int beforeMinutes) {
+            startFrom = fromMinutes;
+            startBefore = beforeMinutes;
+            return this;
+        }
+
+        public Filter maxPriceMinor(int price) {
+            maxPriceMinor = price;
+            return this;
+        }
+
+        public Filter minCapacity(int capacity) {
+            minCapacity = capacity;
+            return this;
+        }
+
+        // Code from classTypeCode(); a value no class has (-1) matches nothing
+        public Filter classType(int code) {
+            classTypeCode = code < 0 ? Integer.MAX_VALUE : code;
+            return this;
+        }
+
+        // Code from teacherCode(); a value no class has (-1) matches nothing
+        public Filter teacher(int code) {
+            teacherCode = code < 0 ? Integer.MAX_VALUE : code;
+            return this;
+        }
+    }
+
+    /**
+     * Fills the columns one class at a time, e.g. straight from a cursor.
+     */
+    public static final class Builder {
+        private int size;
+        private long[] ids;
+        private byte[] days;
+        private short[] startMinutes;
+        private int[] pricesMinor;
+        private int[] durations;
+        private int[] capacities;
+        private int[] classTypeCodes;
+        private int[] teacherCodes;
+        private final Dictionary classTypes = new Dictionary();
+        private final Dictionary teachers = new Dictionary();
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            ids = new long[capacity];
+            days = new byte[capacity];
+            startMinutes = new short[capacity];
+            pricesMinor = new int[capacity];
+            durations = new int[capacity];
+            capacities = new int[capacity];
+            classTypeCodes = new int[capacity];
+            teacherCodes = new int[capacity];
+        }
+
+        public Builder add(long id, String dayOfWeek, String courseTime, int capacity, int duration,
+                           double price, String classType, String teacher) {
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = id;
+            days[size] = encodeDay(dayOfWeek);
+            startMinutes[size] = encodeTime(courseTime);
+            pricesMinor[size] = encodePrice(price);
+            durations[size] = duration;
+            capacities[size] = capacity;
+            classTypeCodes[size] = classTypes.encode(classType);
+            teacherCodes[size] = teachers.encode(teacher);
+            size++;
+            return this;
+        }
+
+        public Builder add(YogaClass yogaClass) {
+            return add(yogaClass.getId(), yogaClass.getDayOfWeek(), yogaClass.getCourseTime(),
+                    yogaClass.getCapacity(), yogaClass.getDuration(), yogaClass.getPricePerClass(),
+                    yogaClass.getClassType(), yogaClass.getTeacher());
+        }
+
+        public ScheduleSnapshot build() {
+            return new ScheduleSnapshot(this);
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            days = Arrays.copyOf(days, capacity);
+            startMinutes = Arrays.copyOf(startMinutes, capacity);
+            pricesMinor = Arrays.copyOf(pricesMinor, capacity);
+            durations = Arrays.copyOf(durations, capacity);
+            capacities = Arrays.copyOf(capacities, capacity);
+            classTypeCodes = Arrays.copyOf(classTypeCodes, capacity);
+            teacherCodes = Arrays.copyOf(teacherCodes, capacity);
+        }
+    }
+
+    // Assigns each distinct string a small code, in order of first appearance
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private String[] values = new String[8];
+
+        int encode(String value) {
+            String key = value != null ? value : "";
+            Integer code = codes.get(key);
+            if (code == null) {
+                code = codes.size();
+                if (code == values.length) {
+                    values = Arrays.copyOf(values, code * 2);
+                }
+                values[code] = key;
+                codes.put(key, code);
+            }
+            return code;
+        }
+
+        String[] toArray() {
+            return Arrays.copyOf(values, codes.size());
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.yogaadmin.network;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.YogaClass;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Uploads yoga classes as multi-path writes instead of one write per class.
+ *
+ * Classes are grouped into batches of at most maxRecords classes and roughly
+ * maxBytes of serialized data, and each batch is sent as one updateChildren
+ * call, so it commits atomically. At most maxInFlight batches are in flight at
+ * once: the next batch goes out only when a completion frees a slot, so a slow
+ * server slows the upload down instead of piling up requests. A failed batch
+ * leaves none of its classes written and does not stop the others.
+ * Each class is written under its database id, or under a new key if it has
+ * none, replacing whatever was stored there. A deleted class is removed by
+ * writing null under its id, in the same batches as the other writes.
+ */
+public class BatchUploader {
+    public static final int DEFAULT_MAX_RECORDS = 500;
+    // Well below the server's limit for a single write
+    public static final int DEFAULT_MAX_BYTES = 1024 * 1024;
+    // Enough to hide the round trip without queueing megabytes in the client
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    // Rough serialized size of a class and of one instance, without their strings
+    private static final int CLASS_OVERHEAD_BYTES = 200;
+    private static final int INSTANCE_OVERHEAD_BYTES = 80;
+    // A key and a null
+    private static final int REMOVAL_BYTES = 40;
+
+    // Outcome of one batch: the keys it wrote, or the error that rejected all of them
+    public static class BatchResult {
+        public final int index;
+        public final List<String> keys;
+        public final Exception error;
+
+        BatchResult(int index, List<String> keys, Exception error) {
+            this.index = index;
+            this.keys = Collections.unmodifiableList(keys);
+            this.error = error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        // Never sent because the upload was cancelled first
+        public boolean isCancelled() {
+            return error instanceof CancellationException;
+        }
+    }
+
+    // Totals after a batch completes; bytes are serialized-size estimates
+    public static class Progress {
+        public final int completedRecords;
+        public final int failedRecords;
+        public final int totalRecords;
+        public final long completedBytes;
+        public final long totalBytes;
+
+        Progress(int completedRecords, int failedRecords, int totalRecords, long completedBytes, long totalBytes) {
+            this.completedRecords = completedRecords;
+            this.failedRecords = failedRecords;
+            this.totalRecords = totalRecords;
+            this.completedBytes = completedBytes;
+            this.totalBytes = totalBytes;
+        }
+    }
+
+    /**
+     * Called from whichever thread completed the batch, but never concurrently:
+     * the upload holds its lock while reporting.
+     */
+    public interface Listener {
+        // Before the first batch is sent; keep the upload to cancel it
+        default void onStart(Upload upload) {
+        }
+
+        // After each batch that was sent, in completion order
+        void onBatchComplete(BatchResult result, int batchCount);
+
+        // After each onBatchComplete
+        default void onProgress(Progress progress) {
+        }
+
+        // Once, after the last batch or after a cancel; every batch in order, unsent ones cancelled
+        void onComplete(List<BatchResult> results);
+    }
+
+    private final RemoteStore store;
+    private final int maxRecords;
+    private final int maxBytes;
+    private final int maxInFlight;
+
+    public BatchUploader(RemoteStore store) {
+        this(store, DEFAULT_MAX_RECORDS, DEFAULT_MAX_BYTES);
+    }
+
+    public BatchUploader(RemoteStore store, int maxRecords, int maxBytes) {
+        this(store, maxRecords, maxBytes, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public BatchUploader(RemoteStore store, int maxRecords, int maxBytes, int maxInFlight) {
+        if (maxRecords < 1 || maxBytes < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("Batch limits must be positive");
+        }
+        this.store = store;
+        this.maxRecords = maxRecords;
+        this.maxBytes = maxBytes;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public Upload upload(List<YogaClass> yogaClasses, Listener listener) {
+        return upload(yogaClasses, Collections.emptyList(), listener);
+    }
+
+    // Write the classes and remove the deleted ones
+    public Upload upload(List<YogaClass> yogaClasses, List<Long> deletedClassIds, Listener listener) {
+        List<Map<String, Object>> batches;
+        try {
+            batches = split(yogaClasses, deletedClassIds);
+        } catch (RuntimeException e) {
+            Upload upload = new Upload(store, new ArrayList<>(), maxInFlight, listener);
+            List<BatchResult> results = new ArrayList<>();
+            results.add(new BatchResult(0, new ArrayList<>(), e));
+            listener.onComplete(results);
+            return upload;
+        }
+        Upload upload = new Upload(store, batches, maxInFlight, listener);
+        listener.onStart(upload);
+        upload.pump();
+        return upload;
+    }
+
+    List<Map<String, Object>> split(List<YogaClass> yogaClasses) {
+        return split(yogaClasses, Collections.emptyList());
+    }
+
+    // Group classes and removals into batches, keyed by the child each one writes to
+    List<Map<String, Object>> split(List<YogaClass> yogaClasses, List<Long> deletedClassIds) {
+        Map<String, YogaClass> writes = new LinkedHashMap<>();
+        for (YogaClass yogaClass : yogaClasses) {
+            String key = yogaClass.getId() > 0 ? String.valueOf(yogaClass.getId()) : store.newKey();
+            if (key == null) {
+                throw new IllegalStateException("Failed to generate key for a class");
+            }
+            writes.put(key, yogaClass);
+        }
+        for (long id : deletedClassIds) {
+            writes.put(String.valueOf(id), null);
+        }
+
+        List<Map<String, Object>> batches = new ArrayList<>();
+        Map<String, Object> batch = new LinkedHashMap<>();
+        int batchBytes = 0;
+        for (Map.Entry<String, YogaClass> write : writes.entrySet()) {
+            // A class bigger than maxBytes still goes out, in a batch of its own
+            int bytes = estimateWriteBytes(write.getValue());
+            if (!batch.isEmpty() && (batch.size() == maxRecords || batchBytes + bytes > maxBytes)) {
+                batches.add(batch);
+                batch = new LinkedHashMap<>();
+                batchBytes = 0;
+            }
+            batch.put(write.getKey(), write.getValue());
+            batchBytes += bytes;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    /**
+     * One running upload. Batches go out in order; each completion records its
+     * result and sends the next batch if one is waiting, so there are never
+     * more than maxInFlight requests outstanding. All bookkeeping happens under
+     * the upload's lock, since completions may arrive on several threads.
+     */
+    public static final class Upload {
+        private final RemoteStore store;
+        private final List<Map<String, Object>> batches;
+        private final long[] batchBytes;
+        private final int maxInFlight;
+        private final Listener listener;
+        private final int totalRecords;
+        private final long totalBytes;
+
+        // Guarded by this
+        private final BatchResult[] results;
+        private int nextBatch;
+        private int inFlight;
+        private int completedRecords;
+        private int failedRecords;
+        private long completedBytes;
+        private boolean cancelled;
+        private boolean finished;
+
+        Upload(RemoteStore store, List<Map<String, Object>> batches, int maxInFlight, Listener listener) {
+            this.store = store;
+            this.batches = batches;
+            this.maxInFlight = maxInFlight;
+            this.listener = listener;
+            this.results = new BatchResult[batches.size()];
+            this.batchBytes = new long[batches.size()];
+            int records = 0;
+            long bytes = 0;
+            for (int i = 0; i < batches.size(); i++) {
+                for (Object value : batches.get(i).values()) {
+                    batchBytes[i] += estimateWriteBytes(value);
+                }
+                records += batches.get(i).size();
+                bytes += batchBytes[i];
+            }
+            this.totalRecords = records;
+            this.totalBytes = bytes;
+        }
+
+        /**
+         * Send no more batches; may be called from any thread. Batches already in
+         * flight still complete and are reported, then onComplete follows.
+         */
+        public synchronized void cancel() {
+            // Every completion and the first pump end in finishIfDone, so the flag is enough
+            cancelled = true;
+        }
+
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        // Fill the free slots; the network call itself happens outside the lock
+        void pump() {
+            while (true) {
+                int index;
+                synchronized (this) {
+                    if (cancelled || nextBatch == batches.size() || inFlight == maxInFlight) {
+                        break;
+                    }
+                    index = nextBatch++;
+                    inFlight++;
+                }
+                send(index);
+            }
+            finishIfDone();
+        }
+
+        private void send(int index) {
+            RemoteStore.Completion completion = error -> complete(index, error);
+            try {
+                store.updateChildren(batches.get(index), completion);
+            } catch (RuntimeException e) {
+                // The client rejected the batch before sending it, e.g. a value it can't serialize
+                completion.onComplete(e);
+            }
+        }
+
+        private void complete(int index, Exception error) {
+            synchronized (this) {
+                inFlight--;
+                BatchResult result = new BatchResult(index, new ArrayList<>(batches.get(index).keySet()), error);
+                results[index] = result;
+                if (result.isSuccess()) {
+                    completedRecords += result.keys.size();
+                    completedBytes += batchBytes[index];
+                } else {
+                    failedRecords += result.keys.size();
+                }
+                listener.onBatchComplete(result, batches.size());
+                listener.onProgress(new Progress(completedRecords, failedRecords, totalRecords, completedBytes,
+                        totalBytes));
+            }
+            // The freed slot is the backpressure signal
+            pump();
+        }
+
+        private void finishIfDone() {
+            synchronized (this) {
+                if (finished || inFlight > 0 || (!cancelled && nextBatch < batches.size())) {
+                    return;
+                }
+                finished = true;
+                for (int i = 0; i < results.length; i++) {
+                    if (results[i] == null) {
+                        results[i] = new BatchResult(i, new ArrayList<>(batches.get(i).keySet()),
+                                new CancellationException("Upload cancelled"));
+                    }
+                }
+                listener.onComplete(new ArrayList<>(Arrays.asList(results)));
+            }
+        }
+    }
+
+    private static int estimateWriteBytes(Object value) {
+        return value != null ? estimateBytes((YogaClass) value) : REMOVAL_BYTES;
+    }
+
+    // Serialized size estimate, counting two bytes per character to stay on the safe side
+    static int estimateBytes(YogaClass yogaClass) {
+        int chars = length(yogaClass.getDayOfWeek()) + length(yogaClass.getCourseTime())
+                + length(yogaClass.getClassType()) + length(yogaClass.getTeacher())
+                + length(yogaClass.getDescription()) + length(yogaClass.getEquipmentNeeded())
+                + length(yogaClass.getDifficultyLevel());
+        int bytes = CLASS_OVERHEAD_BYTES;
+        if (yogaClass.getClassInstances() != null) {
+            for (ClassInstance instance : yogaClass.getClassInstances()) {
+                bytes += INSTANCE_OVERHEAD_BYTES;
+                chars += length(instance.getTeacher()) + length(instance.getComments());
+            }
+        }
+        return bytes + 2 * chars;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
@@ -17,12 +17,12 @@ import com.google.firebase.database.FirebaseDatabase;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
 public class CloudUploadService {
     private static final String TAG = "CloudUploadService";
     private Context context;
     private DatabaseReference databaseReference;
+    private RemoteStore remoteStore;
 
     // Constructor with FirebaseDatabase parameter
     public CloudUploadService(Context context, FirebaseDatabase database) {
@@ -30,6 +30,7 @@ public class CloudUploadService {
         try {
             // Use the provided Firebase database instance
             databaseReference = database.getReference("yoga_classes");
+            remoteStore = new FirebaseRemoteStore(databaseReference);
             Log.d(TAG, "Firebase initialized successfully with custom URL");
         } catch (Exception e) {
             Log.e(TAG, "Error initializing Firebase: " + e.getMessage(), e);
@@ -43,6 +44,7 @@ public class CloudUploadService {
             // Initialize Firebase Realtime Database with specific URL
             FirebaseDatabase database = FirebaseDatabase.getInstance("https://comp1786-database-default-rtdb.asia-southeast1.firebasedatabase.app/");
             databaseReference = database.getReference("yoga_classes");
+            remoteStore = new FirebaseRemoteStore(databaseReference);
             Log.d(TAG, "Firebase initialized successfully with hardcoded URL");
         } catch (Exception e) {
             Log.e(TAG, "Error initializing Firebase: " + e.getMessage(), e);
@@ -125,7 +127,13 @@ public class CloudUploadService {
 
     // Upload yoga classes to cloud service
     public void uploadYogaClasses(List<YogaClass> yogaClasses, UploadCallback callback) {
-        Log.d(TAG, "uploadYogaClasses called with " + (yogaClasses != null ? yogaClasses.size() : "null") + " classes");
+        uploadChanges(yogaClasses, new ArrayList<>(), callback);
+    }
+
+    // Upload changed classes and remove deleted ones, touching only those records
+    public void uploadChanges(List<YogaClass> yogaClasses, List<Long> deletedClassIds, UploadCallback callback) {
+        Log.d(TAG, "uploadChanges called with " + (yogaClasses != null ? yogaClasses.size() : "null")
+                + " classes and " + deletedClassIds.size() + " deletions");
 
         // Check if Firebase was properly initialized
         if (databaseReference == null) {
@@ -145,8 +153,8 @@ public class CloudUploadService {
             return;
         }
 
-        // Check if classes list is empty
-        if (yogaClasses == null || yogaClasses.isEmpty()) {
+        // Check if there is anything to send
+        if (yogaClasses == null || (yogaClasses.isEmpty() && deletedClassIds.isEmpty())) {
             Log.e(TAG, "No classes to upload");
             if (callback != null) {
                 callback.onUploadFailed("No classes to upload");
@@ -154,78 +162,82 @@ public class CloudUploadService {
             return;
         }
 
-        // Track upload status
-        final AtomicInteger successCount = new AtomicInteger(0);
-        final AtomicInteger failCount = new AtomicInteger(0);
-        final StringBuilder errorMessages = new StringBuilder();
-        final int totalClasses = yogaClasses.size();
-
-        // Log all classes for debugging
-        Log.d(TAG, "Classes to upload:");
-        for (int i = 0; i < yogaClasses.size(); i++) {
-            YogaClass cls = yogaClasses.get(i);
-            Log.d(TAG, "Class " + i + ": " + cls.toString());
+        // Handle classInstances to prevent serialization issues
+        for (YogaClass yogaClass : yogaClasses) {
+            if (yogaClass.getClassInstances() != null) {
+                // Make a copy to avoid serialization problems
+                yogaClass.setClassInstances(new ArrayList<>(yogaClass.getClassInstances()));
+            }
         }
 
-        for (YogaClass yogaClass : yogaClasses) {
-            try {
-                // Handle classInstances to prevent serialization issues
-                if (yogaClass.getClassInstances() != null) {
-                    // Make a copy to avoid serialization problems
-                    yogaClass.setClassInstances(new ArrayList<>(yogaClass.getClassInstances()));
+        // One atomic multi-path write per batch, a few batches in flight at a time
+        new BatchUploader(remoteStore).upload(yogaClasses, deletedClassIds, new BatchUploader.Listener() {
+            @Override
+            public void onStart(BatchUploader.Upload upload) {
+                if (callback != null) {
+                    callback.onUploadStarted(upload);
                 }
+            }
 
-                // Use the unique ID as the key or generate a new push key
-                String key = yogaClass.getId() > 0 ?
-                        String.valueOf(yogaClass.getId()) :
-                        databaseReference.push().getKey();
-
-                if (key == null) {
-                    Log.e(TAG, "Failed to generate Firebase key");
-                    failCount.incrementAndGet();
-                    errorMessages.append("Failed to generate key for a class. ");
-                    checkCompletion(totalClasses, successCount.get(), failCount.get(), errorMessages.toString(), callback);
-                    continue;
+            @Override
+            public void onBatchComplete(BatchUploader.BatchResult result, int batchCount) {
+                if (result.isSuccess()) {
+                    Log.d(TAG, "Batch " + (result.index + 1) + "/" + batchCount + " uploaded: "
+                            + result.keys.size() + " classes and deletions");
+                } else {
+                    Log.e(TAG, "Batch " + (result.index + 1) + "/" + batchCount + " failed: "
+                            + result.error.getMessage(), result.error);
+                }
+                if (callback != null) {
+                    callback.onBatchComplete(result, batchCount);
                 }
+            }
 
-                Log.d(TAG, "Uploading class with key: " + key);
-
-                databaseReference.child(key).setValue(yogaClass)
-                        .addOnSuccessListener(unused -> {
-                            Log.d(TAG, "Yoga class uploaded successfully: " + key);
-                            successCount.incrementAndGet();
-                            checkCompletion(totalClasses, successCount.get(), failCount.get(), errorMessages.toString(), callback);
-                        })
-                        .addOnFailureListener(e -> {
-                            Log.e(TAG, "Failed to upload yoga class: " + e.getMessage(), e);
-                            failCount.incrementAndGet();
-                            errorMessages.append(e.getMessage()).append("; ");
-                            checkCompletion(totalClasses, successCount.get(), failCount.get(), errorMessages.toString(), callback);
-                        });
-            } catch (Exception e) {
-                Log.e(TAG, "Exception during upload process: " + e.getMessage(), e);
-                failCount.incrementAndGet();
-                errorMessages.append("Exception: ").append(e.getMessage()).append("; ");
-                checkCompletion(totalClasses, successCount.get(), failCount.get(), errorMessages.toString(), callback);
+            @Override
+            public void onProgress(BatchUploader.Progress progress) {
+                if (callback != null) {
+                    callback.onProgress(progress);
+                }
             }
-        }
+
+            @Override
+            public void onComplete(List<BatchUploader.BatchResult> results) {
+                reportCompletion(yogaClasses.size() + deletedClassIds.size(), results, callback);
+            }
+        });
     }
 
-    // Helper method to check if all uploads are complete and trigger the callback
-    private void checkCompletion(int total, int success, int fail, String errors, UploadCallback callback) {
-        Log.d(TAG, "Checking completion: " + success + " successful, " + fail + " failed out of " + total);
-        if (success + fail == total) {
-            if (callback != null) {
-                if (fail == 0) {
-                    Log.d(TAG, "All uploads successful");
-                    callback.onUploadSuccess();
-                } else if (success == 0) {
-                    Log.e(TAG, "All uploads failed: " + errors);
-                    callback.onUploadFailed("All uploads failed. Errors: " + errors);
-                } else {
-                    Log.e(TAG, "Some uploads failed: " + fail + "/" + total + ". Errors: " + errors);
-                    callback.onUploadFailed("Some uploads failed (" + fail + "/" + total + "). Errors: " + errors);
-                }
+    // Summarize the batch results for the callback; runs once, after every batch has reported
+    private void reportCompletion(int total, List<BatchUploader.BatchResult> results, UploadCallback callback) {
+        int fail = 0;
+        int cancelled = 0;
+        StringBuilder errorMessages = new StringBuilder();
+        for (BatchUploader.BatchResult result : results) {
+            if (result.isCancelled()) {
+                cancelled += result.keys.size();
+            } else if (!result.isSuccess()) {
+                // A failed batch wrote none of its classes
+                fail += Math.max(result.keys.size(), 1);
+                errorMessages.append(result.error.getMessage()).append("; ");
+            }
+        }
+        fail = Math.min(fail, total - cancelled);
+        String errors = errorMessages.toString();
+
+        if (callback != null) {
+            if (cancelled > 0) {
+                Log.d(TAG, "Upload cancelled with " + cancelled + "/" + total + " not sent");
+                callback.onUploadFailed("Upload cancelled; " + (total - cancelled - fail) + " of " + total
+                        + " written" + (fail > 0 ? ", " + fail + " failed. Errors: " + errors : ""));
+            } else if (fail == 0) {
+                Log.d(TAG, "All uploads successful");
+                callback.onUploadSuccess();
+            } else if (fail == total) {
+                Log.e(TAG, "All uploads failed: " + errors);
+                callback.onUploadFailed("All uploads failed. Errors: " + errors);
+            } else {
+                Log.e(TAG, "Some uploads failed: " + fail + "/" + total + ". Errors: " + errors);
+                callback.onUploadFailed("Some uploads failed (" + fail + "/" + total + "). Errors: " + errors);
             }
         }
     }
@@ -234,5 +246,17 @@ public class CloudUploadService {
     public interface UploadCallback {
         void onUploadSuccess();
         void onUploadFailed(String errorMessage);
+
+        // Before the first batch is sent; the upload can be cancelled from any thread
+        default void onUploadStarted(BatchUploader.Upload upload) {
+        }
+
+        // After each batch of classes is written or rejected
+        default void onBatchComplete(BatchUploader.BatchResult result, int batchCount) {
+        }
+
+        // Classes and estimated bytes written so far, after each batch
+        default void onProgress(BatchUploader.Progress progress) {
+        }
     }
 }
\ No newline at end of file
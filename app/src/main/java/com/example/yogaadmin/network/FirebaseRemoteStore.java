@@ -0,0 +1,29 @@
+package com.example.yogaadmin.network;
+
+import com.google.firebase.database.DatabaseReference;
+
+import java.util.Map;
+
+/**
+ * RemoteStore backed by a Firebase Realtime Database reference. A multi-path
+ * updateChildren is applied by the server as a single atomic write.
+ */
+public class FirebaseRemoteStore implements RemoteStore {
+    private final DatabaseReference reference;
+
+    public FirebaseRemoteStore(DatabaseReference reference) {
+        this.reference = reference;
+    }
+
+    @Override
+    public String newKey() {
+        return reference.push().getKey();
+    }
+
+    @Override
+    public void updateChildren(Map<String, Object> values, Completion completion) {
+        reference.updateChildren(values)
+                .addOnSuccessListener(unused -> completion.onComplete(null))
+                .addOnFailureListener(completion::onComplete);
+    }
+}
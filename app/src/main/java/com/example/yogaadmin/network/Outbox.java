@@ -0,0 +1,18 @@
+package com.example.yogaadmin.network;
+
+import java.util.List;
+
+/**
+ * Durable queue of classes whose cloud copy is out of date. Local writes
+ * enqueue into it; OutboxDispatcher drains it. An entry stays until the cloud
+ * has acknowledged the class as it was at or after the entry's change, so
+ * nothing is lost if the process dies mid-upload.
+ */
+public interface Outbox {
+
+    // Up to limit entries, oldest change first. Throws if the classes can't be read.
+    List<OutboxEntry> peek(int limit);
+
+    // Remove the entries, except those whose class changed again after they were peeked
+    void acknowledge(List<OutboxEntry> entries);
+}
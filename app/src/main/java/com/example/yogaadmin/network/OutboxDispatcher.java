@@ -0,0 +1,238 @@
+package com.example.yogaadmin.network;
+
+import com.example.yogaadmin.models.YogaClass;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Background worker that drains an Outbox into the cloud.
+ *
+ * Each round peeks the oldest entries and uploads their classes through
+ * BatchUploader, so every batch is one atomic multi-path write; a batch's
+ * entries are acknowledged as soon as it commits. Entries of deleted classes
+ * remove just that class from the cloud. Writes are keyed by class
+ * id and carry the class as it is now, so sending an entry twice (after a
+ * crash between the write and the acknowledgement, or after an edit during
+ * the upload) rewrites the same record instead of adding one: delivery is
+ * at least once, the effect exactly once.
+ *
+ * When offline or after a failed batch, the next round waits according to
+ * RetryBackoff. New writes start a round after a short debounce so bursts of
+ * edits go up together. All state lives on the executor, which must be single
+ * threaded.
+ */
+public class OutboxDispatcher {
+    public static final int MAX_ENTRIES_PER_ROUND = BatchUploader.DEFAULT_MAX_RECORDS;
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 2000;
+
+    // Progress reports, called on the executor
+    public interface Listener {
+        default void onDelivered(int classes) {
+        }
+
+        // error is null when the network was unavailable
+        default void onRetryScheduled(int failures, long delayMillis, Exception error) {
+        }
+    }
+
+    private final Outbox outbox;
+    private final BatchUploader uploader;
+    private final BooleanSupplier networkAvailable;
+    private final ScheduledExecutorService executor;
+    private final RetryBackoff backoff;
+    private final Random random;
+    private final long debounceMillis;
+    private final Listener listener;
+
+    // Executor-confined state
+    private boolean uploading;
+    private BatchUploader.Upload upload;
+    private ScheduledFuture<?> nextRound;
+    private int failures;
+    private boolean stopped;
+    // Set when acknowledging a delivered batch failed during the current round
+    private Exception acknowledgeError;
+
+    public OutboxDispatcher(Outbox outbox, RemoteStore store, BooleanSupplier networkAvailable,
+                            ScheduledExecutorService executor, Listener listener) {
+        this(outbox, store, networkAvailable, executor, new RetryBackoff(), new Random(), DEFAULT_DEBOUNCE_MILLIS,
+                listener);
+    }
+
+    public OutboxDispatcher(Outbox outbox, RemoteStore store, BooleanSupplier networkAvailable,
+                            ScheduledExecutorService executor, RetryBackoff backoff, Random random,
+                            long debounceMillis, Listener listener) {
+        this.outbox = outbox;
+        this.uploader = new BatchUploader(store);
+        this.networkAvailable = networkAvailable;
+        this.executor = executor;
+        this.backoff = backoff;
+        this.random = random;
+        this.debounceMillis = debounceMillis;
+        this.listener = listener != null ? listener : new Listener() {
+        };
+    }
+
+    // Send whatever was left from an earlier run
+    public void start() {
+        executor.execute(this::round);
+    }
+
+    // Something was enqueued; a pending round or retry will pick it up
+    public void requestDrain() {
+        executor.execute(() -> {
+            if (!stopped && !uploading && nextRound == null) {
+                nextRound = executor.schedule(this::round, debounceMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    // Skip the remaining backoff, e.g. when the network comes back
+    public void retryNow() {
+        executor.execute(() -> {
+            if (nextRound != null) {
+                nextRound.cancel(false);
+                nextRound = null;
+            }
+            round();
+        });
+    }
+
+    // Stop scheduling rounds; batches in flight complete, the rest of the upload is not sent
+    public void stop() {
+        executor.execute(() -> {
+            stopped = true;
+            if (upload != null) {
+                upload.cancel();
+            }
+            if (nextRound != null) {
+                nextRound.cancel(false);
+                nextRound = null;
+            }
+        });
+    }
+
+    private void round() {
+        nextRound = null;
+        if (stopped || uploading) {
+            return;
+        }
+        if (!networkAvailable.getAsBoolean()) {
+            retryLater(null);
+            return;
+        }
+
+        List<OutboxEntry> entries;
+        try {
+            entries = outbox.peek(MAX_ENTRIES_PER_ROUND);
+        } catch (RuntimeException e) {
+            retryLater(e);
+            return;
+        }
+        if (entries.isEmpty()) {
+            failures = 0;
+            return;
+        }
+
+        List<YogaClass> yogaClasses = new ArrayList<>();
+        List<Long> deletedClassIds = new ArrayList<>();
+        Map<String, OutboxEntry> entriesByKey = new HashMap<>();
+        for (OutboxEntry entry : entries) {
+            if (entry.getYogaClass() != null) {
+                yogaClasses.add(entry.getYogaClass());
+            } else {
+                deletedClassIds.add(entry.getYogaClassId());
+            }
+            entriesByKey.put(String.valueOf(entry.getYogaClassId()), entry);
+        }
+
+        uploading = true;
+        upload = uploader.upload(yogaClasses, deletedClassIds, new BatchUploader.Listener() {
+            @Override
+            public void onBatchComplete(BatchUploader.BatchResult result, int batchCount) {
+                if (result.isSuccess()) {
+                    List<OutboxEntry> delivered = new ArrayList<>();
+                    for (String key : result.keys) {
+                        delivered.add(entriesByKey.get(key));
+                    }
+                    post(() -> {
+                        if (acknowledge(delivered)) {
+                            listener.onDelivered(delivered.size());
+                        }
+                    });
+                }
+            }
+
+            @Override
+            public void onComplete(List<BatchUploader.BatchResult> results) {
+                Exception error = null;
+                for (BatchUploader.BatchResult result : results) {
+                    if (!result.isSuccess() && error == null) {
+                        error = result.error;
+                    }
+                }
+                Exception firstError = error;
+                post(() -> roundComplete(firstError));
+            }
+        });
+    }
+
+    private void roundComplete(Exception error) {
+        uploading = false;
+        upload = null;
+        if (error == null) {
+            // Unacknowledged entries would be re-sent at once, and again, without a pause
+            error = acknowledgeError;
+        }
+        acknowledgeError = null;
+        if (stopped) {
+            return;
+        }
+        if (error != null) {
+            retryLater(error);
+            return;
+        }
+        failures = 0;
+        // Keep going until the outbox is empty
+        round();
+    }
+
+    // False if the entries couldn't be removed; they are sent again later, which is harmless
+    private boolean acknowledge(List<OutboxEntry> entries) {
+        try {
+            outbox.acknowledge(entries);
+            return true;
+        } catch (RuntimeException e) {
+            acknowledgeError = e;
+            return false;
+        }
+    }
+
+    // Back onto the executor from an upload completion
+    private void post(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shut down; unacknowledged entries stay queued for the next run
+        }
+    }
+
+    private void retryLater(Exception error) {
+        if (stopped) {
+            return;
+        }
+        failures++;
+        long delay = backoff.delayMillis(failures, random);
+        nextRound = executor.schedule(this::round, delay, TimeUnit.MILLISECONDS);
+        listener.onRetryScheduled(failures, delay, error);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.yogaadmin.network;
+
+import com.example.yogaadmin.models.YogaClass;
+
+/**
+ * One class waiting in the outbox, with its state as of the peek.
+ */
+public class OutboxEntry {
+    private final long yogaClassId;
+    private final long changeSeq;
+    private final YogaClass yogaClass;
+
+    public OutboxEntry(long yogaClassId, long changeSeq, YogaClass yogaClass) {
+        this.yogaClassId = yogaClassId;
+        this.changeSeq = changeSeq;
+        this.yogaClass = yogaClass;
+    }
+
+    public long getYogaClassId() {
+        return yogaClassId;
+    }
+
+    // Change the entry was queued for; a later change of the class replaces the entry
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    // The class with all its instances, or null if it has been deleted
+    public YogaClass getYogaClass() {
+        return yogaClass;
+    }
+}
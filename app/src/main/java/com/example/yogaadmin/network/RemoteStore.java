@@ -0,0 +1,24 @@
+package com.example.yogaadmin.network;
+
+import java.util.Map;
+
+/**
+ * The remote node that yoga classes are uploaded under, reduced to the writes
+ * the upload code needs. FirebaseRemoteStore is the real implementation; tests
+ * use an in-memory stand-in.
+ *
+ * Completions may run on any thread.
+ */
+public interface RemoteStore {
+
+    // Called once per write; error is null on success
+    interface Completion {
+        void onComplete(Exception error);
+    }
+
+    // A new unique child key
+    String newKey();
+
+    // Replace several children in one atomic write: either all of them change or none
+    void updateChildren(Map<String, Object> values, Completion completion);
+}
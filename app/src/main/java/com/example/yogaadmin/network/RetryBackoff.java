@@ -0,0 +1,42 @@
+package com.example.yogaadmin.network;
+
+import java.util.Random;
+
+/**
+ * Exponential backoff with jitter for retrying cloud writes.
+ *
+ * The n-th consecutive failure waits a random time between half and all of
+ * min(max, base * 2^(n-1)), so clients that failed together spread out instead
+ * of retrying in lockstep, while never retrying sooner than half the step.
+ */
+public class RetryBackoff {
+    public static final long DEFAULT_BASE_MILLIS = 1000;
+    public static final long DEFAULT_MAX_MILLIS = 5 * 60 * 1000;
+
+    private final long baseMillis;
+    private final long maxMillis;
+
+    public RetryBackoff() {
+        this(DEFAULT_BASE_MILLIS, DEFAULT_MAX_MILLIS);
+    }
+
+    public RetryBackoff(long baseMillis, long maxMillis) {
+        if (baseMillis < 1 || maxMillis < baseMillis) {
+            throw new IllegalArgumentException("Need 0 < base <= max");
+        }
+        this.baseMillis = baseMillis;
+        this.maxMillis = maxMillis;
+    }
+
+    /**
+     * @param failures Consecutive failures so far, at least 1
+     * @return Delay before the next attempt
+     */
+    public long delayMillis(int failures, Random random) {
+        // Shifting by more than this could overflow before the cap applies
+        int shift = Math.min(Math.max(failures - 1, 0), 30);
+        long ceiling = Math.min(maxMillis, baseMillis << shift);
+        long floor = ceiling / 2;
+        return floor + (long) (random.nextDouble() * (ceiling - floor + 1));
+    }
+}
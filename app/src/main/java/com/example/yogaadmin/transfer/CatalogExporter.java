@@ -0,0 +1,142 @@
+package com.example.yogaadmin.transfer;
+
+import android.database.Cursor;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the whole catalog as gzip-compressed JSON (the wrapped form described
+ * in CatalogFormat) straight from a database cursor.
+ *
+ * Each row is written as soon as it is read, so memory use is one cursor window
+ * plus the writer buffers, however large the database is. The file can be read
+ * back with CatalogImporter, which recognises the gzip header on its own.
+ */
+public class CatalogExporter {
+    // Rows between progress callbacks / cancel checks
+    private static final int PROGRESS_INTERVAL = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Called on the exporting thread every PROGRESS_INTERVAL rows and when done
+    public interface ProgressListener {
+        void onProgress(int classesExported, int instancesExported);
+    }
+
+    private volatile boolean cancelled;
+    private int classesExported;
+    private int instancesExported;
+
+    // Stop at the next progress check; may be called from any thread
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public int getClassesExported() {
+        return classesExported;
+    }
+
+    public int getInstancesExported() {
+        return instancesExported;
+    }
+
+    /**
+     * Export every row of the cursor.
+     * @param cursor DatabaseHelper.queryYogaClassesWithInstances(); closed when done
+     * @param out Destination; closed when done
+     * @param listener Progress callback; may be null
+     * @return true if everything was written, false if cancelled (the output is then incomplete)
+     */
+    public boolean export(Cursor cursor, OutputStream out, ProgressListener listener) throws IOException {
+        classesExported = 0;
+        instancesExported = 0;
+
+        try (Cursor rows = cursor;
+             Writer writer = new BufferedWriter(new OutputStreamWriter(
+                     new GZIPOutputStream(out, BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            // Not closed itself: JsonWriter.close() rejects the unfinished document left by a cancel
+            JsonWriter json = new JsonWriter(writer);
+            json.beginObject();
+            json.name(CatalogFormat.VERSION).value(CatalogFormat.BACKUP_VERSION);
+            json.name(CatalogFormat.EXPORTED_AT).value(System.currentTimeMillis());
+            json.name(CatalogFormat.YOGA_CLASSES).beginArray();
+
+            long currentClassId = -1;
+            int rowCount = 0;
+            while (rows.moveToNext()) {
+                if (++rowCount % PROGRESS_INTERVAL == 0) {
+                    if (cancelled) {
+                        return false;
+                    }
+                    reportProgress(listener);
+                }
+
+                // Rows arrive grouped by class; a new id closes the previous class object
+                long classId = rows.getLong(0);
+                if (classId != currentClassId) {
+                    if (currentClassId != -1) {
+                        json.endArray().endObject();
+                    }
+                    currentClassId = classId;
+                    writeClassFields(json, rows);
+                    json.name(CatalogFormat.CLASS_INSTANCES).beginArray();
+                    classesExported++;
+                }
+
+                // A class without instances still produces one row with NULL instance columns
+                if (!rows.isNull(10)) {
+                    json.beginObject();
+                    // Epoch milliseconds, so the restored date is exactly the stored one
+                    json.name(CatalogFormat.DATE).value(rows.getLong(11));
+                    writeString(json, CatalogFormat.TEACHER, rows, 12);
+                    writeString(json, CatalogFormat.COMMENTS, rows, 13);
+                    json.endObject();
+                    instancesExported++;
+                }
+            }
+            if (currentClassId != -1) {
+                json.endArray().endObject();
+            }
+
+            json.endArray();
+            json.endObject();
+        }
+
+        reportProgress(listener);
+        return true;
+    }
+
+    private static void writeClassFields(JsonWriter json, Cursor rows) throws IOException {
+        json.beginObject();
+        writeString(json, CatalogFormat.DAY_OF_WEEK, rows, 1);
+        writeString(json, CatalogFormat.COURSE_TIME, rows, 2);
+        json.name(CatalogFormat.CAPACITY).value(rows.getInt(3));
+        json.name(CatalogFormat.DURATION).value(rows.getInt(4));
+        json.name(CatalogFormat.PRICE).value(rows.getDouble(5));
+        writeString(json, CatalogFormat.CLASS_TYPE, rows, 6);
+        writeString(json, CatalogFormat.DESCRIPTION, rows, 7);
+        writeString(json, CatalogFormat.EQUIPMENT, rows, 8);
+        // Same fallback as the app's own reads, so rows without a teacher survive a restore
+        json.name(CatalogFormat.TEACHER).value(rows.isNull(9) ? "Unknown" : rows.getString(9));
+    }
+
+    // Null columns are left out rather than written as null, to keep the file small
+    private static void writeString(JsonWriter json, String name, Cursor rows, int column) throws IOException {
+        if (!rows.isNull(column)) {
+            json.name(name).value(rows.getString(column));
+        }
+    }
+
+    private void reportProgress(ProgressListener listener) {
+        if (listener != null) {
+            listener.onProgress(classesExported, instancesExported);
+        }
+    }
+}
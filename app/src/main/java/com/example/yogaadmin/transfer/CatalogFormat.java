@@ -0,0 +1,82 @@
+package com.example.yogaadmin.transfer;
+
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+
+/**
+ * Field names and value formats shared by catalog import and export.
+ *
+ * JSON: an array of class objects (or an object whose "yogaClasses" member is
+ * that array). Each class object lists its scalar fields first, then its
+ * "classInstances" array:
+ *
+ *   [{"dayOfWeek": "Monday", "courseTime": "10:00", "capacity": 20, "duration": 60,
+ *     "pricePerClass": 12.5, "classType": "Flow Yoga", "teacher": "Ann",
+ *     "description": "...", "equipmentNeeded": "...",
+ *     "classInstances": [{"date": "2024-01-01", "teacher": "Ann", "comments": "..."}]}]
+ *
+ * Dates may also be epoch milliseconds, as in backups written by CatalogExporter:
+ * {"version": 1, "exportedAt": ..., "yogaClasses": [...]} with "date": 1704067200000.
+ * Either format may be gzip-compressed.
+ *
+ * CSV: a header row naming the columns (any order, same names as JSON) plus
+ * an optional "record" column. Rows whose record is "instance" belong to the
+ * closest "class" row above them; without a record column every row is a class.
+ */
+public final class CatalogFormat {
+    public static final String YOGA_CLASSES = "yogaClasses";
+    public static final String CLASS_INSTANCES = "classInstances";
+    public static final String VERSION = "version";
+    public static final String EXPORTED_AT = "exportedAt";
+    public static final String RECORD = "record";
+    public static final String RECORD_CLASS = "class";
+    public static final String RECORD_INSTANCE = "instance";
+
+    // Class fields
+    public static final String DAY_OF_WEEK = "dayOfWeek";
+    public static final String COURSE_TIME = "courseTime";
+    public static final String CAPACITY = "capacity";
+    public static final String DURATION = "duration";
+    public static final String PRICE = "pricePerClass";
+    public static final String CLASS_TYPE = "classType";
+    public static final String TEACHER = "teacher";
+    public static final String DESCRIPTION = "description";
+    public static final String EQUIPMENT = "equipmentNeeded";
+
+    // Instance fields (plus TEACHER)
+    public static final String DATE = "date";
+    public static final String COMMENTS = "comments";
+
+    // Written to "version" by CatalogExporter
+    public static final int BACKUP_VERSION = 1;
+
+    // Every column a CSV import recognizes, in the usual header order.
+    // The importer matches headers by name, so columns may come in any order.
+    public static final String[] CSV_COLUMNS = {RECORD, DAY_OF_WEEK, COURSE_TIME, CAPACITY, DURATION, PRICE,
+            CLASS_TYPE, TEACHER, DESCRIPTION, EQUIPMENT, DATE, COMMENTS};
+
+    private CatalogFormat() {}
+
+    // Instance dates are calendar days in the device time zone; SimpleDateFormat isn't thread-safe, so one per use
+    public static SimpleDateFormat newDateFormat() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        format.setLenient(false);
+        return format;
+    }
+
+    public enum Type {
+        JSON, CSV;
+
+        // Guess the format from a file name, ignoring a ".gz" suffix and defaulting to JSON
+        public static Type fromFileName(String fileName) {
+            if (fileName == null) {
+                return JSON;
+            }
+            String name = fileName.toLowerCase(Locale.US);
+            if (name.endsWith(".gz")) {
+                name = name.substring(0, name.length() - 3);
+            }
+            return name.endsWith(".csv") ? CSV : JSON;
+        }
+    }
+}
@@ -0,0 +1,531 @@
+package com.example.yogaadmin.transfer;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.YogaClass;
+import com.example.yogaadmin.utils.InputValidator;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams yoga classes and their instances from a JSON or CSV file (see
+ * CatalogFormat) into the database.
+ *
+ * The file is read one record at a time; valid rows are collected into batches
+ * of at most batchSize rows and handed to a Sink, which writes each batch in one
+ * transaction. Memory use therefore depends on the batch size, not the file size.
+ * Invalid rows are skipped and reported in the ImportResult; an instance whose
+ * class was rejected is rejected with it. To replace the database atomically,
+ * check the file with validateOnly() first, then import it inside
+ * DatabaseHelper.replaceAll().
+ */
+public class CatalogImporter {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Writes one batch atomically. New classes carry their instances in
+     * getClassInstances(); the sink must set their ids. moreInstances belong to
+     * classes written by earlier batches and already have their yogaClassId set.
+     */
+    public interface Sink {
+        boolean write(List<YogaClass> newClasses, List<ClassInstance> moreInstances);
+    }
+
+    /**
+     * A Sink that writes nothing, for checking a whole file before any of it
+     * reaches the database. Counts and rejected rows come out as for a real import.
+     */
+    public static Sink validateOnly() {
+        return new Sink() {
+            private long nextId;
+
+            @Override
+            public boolean write(List<YogaClass> newClasses, List<ClassInstance> moreInstances) {
+                // Ids only link instances in later batches to their class, as a real write would
+                for (YogaClass yogaClass : newClasses) {
+                    yogaClass.setId(++nextId);
+                }
+                return true;
+            }
+        };
+    }
+
+    // Called on the importing thread after every batch
+    public interface ProgressListener {
+        void onProgress(long bytesRead, long totalBytes, int classesImported, int instancesImported, int rejectedRows);
+    }
+
+    private final Sink sink;
+    private final int batchSize;
+    private volatile boolean cancelled;
+
+    // Current batch
+    private final List<YogaClass> pendingClasses = new ArrayList<>();
+    private final List<ClassInstance> pendingInstances = new ArrayList<>();
+    private int pendingRows;
+    // Class that following instances belong to; null after a rejected class
+    private YogaClass currentClass;
+
+    private ImportResult result;
+    private CountingInputStream counter;
+    private long totalBytes;
+    private ProgressListener listener;
+    private SimpleDateFormat dateFormat;
+
+    public CatalogImporter(Sink sink) {
+        this(sink, DEFAULT_BATCH_SIZE);
+    }
+
+    public CatalogImporter(Sink sink, int batchSize) {
+        this.sink = sink;
+        this.batchSize = batchSize;
+    }
+
+    // Stop after the current batch; may be called from any thread
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Import a whole file. Batches written before a failure or cancel stay in the database.
+     * @param in File contents (UTF-8); closed when done
+     * @param totalBytes File size for progress, or -1 if unknown
+     * @param type File format
+     * @param listener Progress callback; may be null
+     */
+    public ImportResult importFrom(InputStream in, long totalBytes, CatalogFormat.Type type,
+                                   ProgressListener listener) {
+        this.result = new ImportResult();
+        this.counter = new CountingInputStream(in);
+        this.totalBytes = totalBytes;
+        this.listener = listener;
+        this.dateFormat = CatalogFormat.newDateFormat();
+        this.currentClass = null;
+        pendingClasses.clear();
+        pendingInstances.clear();
+        pendingRows = 0;
+
+        try (Reader reader = new InputStreamReader(decompressIfGzip(counter), StandardCharsets.UTF_8)) {
+            if (type == CatalogFormat.Type.CSV) {
+                readCsv(reader);
+            } else {
+                readJson(reader);
+            }
+            flush();
+        } catch (CancelledException e) {
+            result.setCancelled();
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            // Unreadable or malformed file: keep every valid row read before the problem
+            result.setFailure("Could not read file: " + e.getMessage());
+            try {
+                flush();
+            } catch (CancelledException | BatchFailedException ignored) {
+                // The read failure is the one worth reporting
+            }
+        } catch (BatchFailedException e) {
+            result.setFailure(e.getMessage());
+        }
+
+        reportProgress();
+        return result;
+    }
+
+    // Backups are gzip-compressed; recognise them by their header rather than the file name
+    private static InputStream decompressIfGzip(InputStream in) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(in, 2);
+        byte[] header = new byte[2];
+        int n = 0;
+        while (n < header.length) {
+            int read = pushback.read(header, n, header.length - n);
+            if (read < 0) {
+                break;
+            }
+            n += read;
+        }
+        if (n > 0) {
+            pushback.unread(header, 0, n);
+        }
+        if (n == 2 && (header[0] & 0xff) == 0x1f && (header[1] & 0xff) == 0x8b) {
+            return new GZIPInputStream(pushback, GZIP_BUFFER_SIZE);
+        }
+        return pushback;
+    }
+
+    // JSON
+
+    private void readJson(Reader in) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+            // Wrapped form: {"version": ..., "yogaClasses": [...]}
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (CatalogFormat.YOGA_CLASSES.equals(reader.nextName())) {
+                    readJsonClasses(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } else {
+            readJsonClasses(reader);
+        }
+    }
+
+    private void readJsonClasses(JsonReader reader) throws IOException {
+        long recordNumber = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            checkCancelled();
+            recordNumber++;
+            readJsonClass(reader, recordNumber);
+        }
+        reader.endArray();
+    }
+
+    private void readJsonClass(JsonReader reader, long recordNumber) throws IOException {
+        Map<String, String> fields = new HashMap<>();
+        boolean classAdded = false;
+        // Instances seen before the class fields were complete; only unusual files need this
+        List<Map<String, String>> earlyInstances = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!CatalogFormat.CLASS_INSTANCES.equals(name)) {
+                fields.put(name, readJsonScalar(reader));
+                continue;
+            }
+
+            if (!classAdded && hasAllClassFields(fields)) {
+                addClass(fields, recordNumber);
+                classAdded = true;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                Map<String, String> instanceFields = readJsonFields(reader);
+                if (classAdded) {
+                    addInstance(instanceFields, recordNumber);
+                } else {
+                    if (earlyInstances == null) {
+                        earlyInstances = new ArrayList<>();
+                    }
+                    earlyInstances.add(instanceFields);
+                }
+            }
+            reader.endArray();
+        }
+        reader.endObject();
+
+        if (!classAdded) {
+            addClass(fields, recordNumber);
+            if (earlyInstances != null) {
+                for (Map<String, String> instanceFields : earlyInstances) {
+                    addInstance(instanceFields, recordNumber);
+                }
+            }
+        }
+    }
+
+    private Map<String, String> readJsonFields(JsonReader reader) throws IOException {
+        Map<String, String> fields = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            fields.put(reader.nextName(), readJsonScalar(reader));
+        }
+        reader.endObject();
+        return fields;
+    }
+
+    // Numbers and strings as their text, null for null; nested values are skipped
+    private static String readJsonScalar(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return reader.nextString();
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return String.valueOf(reader.nextBoolean());
+        }
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    // CSV
+
+    private void readCsv(Reader in) throws IOException {
+        CsvReader reader = new CsvReader(in);
+        List<String> header = reader.readRecord();
+        if (header == null) {
+            return;
+        }
+        String[] columns = new String[header.size()];
+        int recordColumn = -1;
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = canonicalColumn(header.get(i).trim());
+            if (CatalogFormat.RECORD.equals(columns[i])) {
+                recordColumn = i;
+            }
+        }
+
+        List<String> row;
+        while ((row = reader.readRecord()) != null) {
+            checkCancelled();
+            long recordNumber = reader.getRecordLineNumber();
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < columns.length && i < row.size(); i++) {
+                String value = row.get(i);
+                fields.put(columns[i], value.isEmpty() ? null : value);
+            }
+
+            String record = recordColumn >= 0 && recordColumn < row.size()
+                    ? row.get(recordColumn).trim().toLowerCase(Locale.US) : CatalogFormat.RECORD_CLASS;
+            if (CatalogFormat.RECORD_CLASS.equals(record)) {
+                addClass(fields, recordNumber);
+            } else if (CatalogFormat.RECORD_INSTANCE.equals(record)) {
+                addInstance(fields, recordNumber);
+            } else {
+                result.addError(recordNumber, "Unknown record type \"" + record + "\"");
+            }
+        }
+    }
+
+    // Header names are matched case-insensitively against the known columns
+    private static String canonicalColumn(String name) {
+        for (String column : CatalogFormat.CSV_COLUMNS) {
+            if (column.equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        return name;
+    }
+
+    // Validation and batching
+
+    private static boolean hasAllClassFields(Map<String, String> fields) {
+        return fields.containsKey(CatalogFormat.DAY_OF_WEEK) && fields.containsKey(CatalogFormat.COURSE_TIME)
+                && fields.containsKey(CatalogFormat.CAPACITY) && fields.containsKey(CatalogFormat.DURATION)
+                && fields.containsKey(CatalogFormat.PRICE) && fields.containsKey(CatalogFormat.CLASS_TYPE)
+                && fields.containsKey(CatalogFormat.TEACHER);
+    }
+
+    private void addClass(Map<String, String> fields, long recordNumber) {
+        YogaClass yogaClass = new YogaClass();
+        String error = fillYogaClass(yogaClass, fields);
+        if (error != null) {
+            currentClass = null;
+            result.addError(recordNumber, error);
+            return;
+        }
+        currentClass = yogaClass;
+        pendingClasses.add(yogaClass);
+        rowAdded();
+    }
+
+    // Same rules as AddClassActivity; returns an error message, or null if the class is valid
+    private static String fillYogaClass(YogaClass yogaClass, Map<String, String> fields) {
+        String dayOfWeek = trimmed(fields.get(CatalogFormat.DAY_OF_WEEK));
+        if (!InputValidator.isValidDayOfWeek(dayOfWeek)) {
+            return "Invalid day of week: " + dayOfWeek;
+        }
+        String courseTime = trimmed(fields.get(CatalogFormat.COURSE_TIME));
+        if (!InputValidator.isValidTimeFormat(courseTime)) {
+            return "Invalid time format (HH:MM): " + courseTime;
+        }
+        String teacher = trimmed(fields.get(CatalogFormat.TEACHER));
+        if (!InputValidator.isValidTeacherName(teacher)) {
+            return "Teacher name is required";
+        }
+        String classType = trimmed(fields.get(CatalogFormat.CLASS_TYPE));
+        if (!InputValidator.isValidClassType(classType)) {
+            return "Invalid class type: " + classType;
+        }
+        try {
+            int capacity = Integer.parseInt(trimmed(fields.get(CatalogFormat.CAPACITY)));
+            if (!InputValidator.isValidCapacity(capacity)) {
+                return "Invalid capacity (1-50): " + capacity;
+            }
+            int duration = Integer.parseInt(trimmed(fields.get(CatalogFormat.DURATION)));
+            if (!InputValidator.isValidDuration(duration)) {
+                return "Invalid duration (1-180 minutes): " + duration;
+            }
+            double price = Double.parseDouble(trimmed(fields.get(CatalogFormat.PRICE)));
+            if (!InputValidator.isValidPrice(price)) {
+                return "Invalid price (0-100): " + price;
+            }
+            yogaClass.setCapacity(capacity);
+            yogaClass.setDuration(duration);
+            yogaClass.setPricePerClass(price);
+        } catch (NumberFormatException | NullPointerException e) {
+            return "Capacity, duration and price must be numbers";
+        }
+
+        yogaClass.setDayOfWeek(dayOfWeek);
+        yogaClass.setCourseTime(courseTime);
+        yogaClass.setTeacher(teacher);
+        yogaClass.setClassType(classType);
+        yogaClass.setDescription(trimmed(fields.get(CatalogFormat.DESCRIPTION)));
+        yogaClass.setEquipmentNeeded(trimmed(fields.get(CatalogFormat.EQUIPMENT)));
+        return null;
+    }
+
+    private void addInstance(Map<String, String> fields, long recordNumber) {
+        if (currentClass == null) {
+            result.addError(recordNumber, "Instance skipped: its class is missing or invalid");
+            return;
+        }
+
+        Date date = parseDate(trimmed(fields.get(CatalogFormat.DATE)));
+        if (date == null) {
+            result.addError(recordNumber, "Invalid date (yyyy-MM-dd): " + fields.get(CatalogFormat.DATE));
+            return;
+        }
+        // Like the add-instance dialog, the class teacher is the default
+        String teacher = trimmed(fields.get(CatalogFormat.TEACHER));
+        if (!InputValidator.isValidTeacherName(teacher)) {
+            teacher = currentClass.getTeacher();
+        }
+
+        ClassInstance instance = new ClassInstance(currentClass.getId(), date, teacher,
+                trimmed(fields.get(CatalogFormat.COMMENTS)));
+        if (currentClass.getId() > 0) {
+            // The class went out with an earlier batch
+            pendingInstances.add(instance);
+        } else {
+            currentClass.getClassInstances().add(instance);
+        }
+        rowAdded();
+    }
+
+    // "yyyy-MM-dd", or epoch milliseconds
+    private Date parseDate(String text) {
+        if (text == null) {
+            return null;
+        }
+        try {
+            if (text.matches("\\d{9,}")) {
+                return new Date(Long.parseLong(text));
+            }
+            return dateFormat.parse(text);
+        } catch (ParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void rowAdded() {
+        pendingRows++;
+        if (pendingRows >= batchSize) {
+            flush();
+        }
+    }
+
+    private void checkCancelled() {
+        if (cancelled) {
+            throw new CancelledException();
+        }
+    }
+
+    private void flush() {
+        checkCancelled();
+        if (pendingRows == 0) {
+            return;
+        }
+
+        int instances = pendingInstances.size();
+        for (YogaClass yogaClass : pendingClasses) {
+            instances += yogaClass.getClassInstances().size();
+        }
+        if (!sink.write(pendingClasses, pendingInstances)) {
+            throw new BatchFailedException("Database write failed; " + result.getClassesImported()
+                    + " classes and " + result.getInstancesImported() + " instances were imported before it");
+        }
+        result.addImported(pendingClasses.size(), instances);
+
+        // Written instances are no longer needed; the current class keeps its new id for what follows
+        for (YogaClass yogaClass : pendingClasses) {
+            yogaClass.getClassInstances().clear();
+        }
+        pendingClasses.clear();
+        pendingInstances.clear();
+        pendingRows = 0;
+        reportProgress();
+    }
+
+    private void reportProgress() {
+        if (listener != null) {
+            listener.onProgress(counter.count, totalBytes, result.getClassesImported(),
+                    result.getInstancesImported(), result.getRejectedRows());
+        }
+    }
+
+    private static String trimmed(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static class CancelledException extends RuntimeException {
+    }
+
+    private static class BatchFailedException extends RuntimeException {
+        BatchFailedException(String message) {
+            super(message);
+        }
+    }
+
+    // Bytes consumed so far, for progress
+    private static class CountingInputStream extends FilterInputStream {
+        volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.yogaadmin.transfer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a CatalogImporter run. Only the first MAX_REPORTED_ERRORS row
+ * errors are kept so a badly broken file can't exhaust memory; rejectedRows
+ * counts all of them.
+ */
+public class ImportResult {
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    // One rejected row: where it was and why
+    public static class RowError {
+        public final long recordNumber;
+        public final String message;
+
+        RowError(long recordNumber, String message) {
+            this.recordNumber = recordNumber;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return "Record " + recordNumber + ": " + message;
+        }
+    }
+
+    private final List<RowError> errors = new ArrayList<>();
+    private int classesImported;
+    private int instancesImported;
+    private int rejectedRows;
+    private boolean cancelled;
+    private String failure;
+
+    void addError(long recordNumber, String message) {
+        rejectedRows++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(recordNumber, message));
+        }
+    }
+
+    void addImported(int classes, int instances) {
+        classesImported += classes;
+        instancesImported += instances;
+    }
+
+    void setCancelled() {
+        cancelled = true;
+    }
+
+    void setFailure(String failure) {
+        this.failure = failure;
+    }
+
+    public int getClassesImported() {
+        return classesImported;
+    }
+
+    public int getInstancesImported() {
+        return instancesImported;
+    }
+
+    public int getRejectedRows() {
+        return rejectedRows;
+    }
+
+    // The first rejected rows, in file order
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Why the import stopped early (unreadable file, database error), or null if it ran to the end
+    public String getFailure() {
+        return failure;
+    }
+
+    public boolean isComplete() {
+        return failure == null && !cancelled;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.yogaadmin.utils;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Formats dates as day labels (e.g. "Mon, Mar 4, 2024"), caching one label per
+ * calendar day so a list of thousands of instances formats each day only once.
+ * Safe to use from several threads.
+ */
+public final class DateLabels {
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private final SimpleDateFormat format;
+    private final TimeZone timeZone;
+    // Local epoch day -> label
+    private final ConcurrentHashMap<Long, String> labels = new ConcurrentHashMap<>();
+
+    public DateLabels(String pattern, Locale locale, TimeZone timeZone) {
+        this.format = new SimpleDateFormat(pattern, locale);
+        this.format.setTimeZone(timeZone);
+        this.timeZone = timeZone;
+    }
+
+    public String format(Date date) {
+        long millis = date.getTime();
+        long epochDay = Math.floorDiv(millis + timeZone.getOffset(millis), DAY_MILLIS);
+        String label = labels.get(epochDay);
+        if (label == null) {
+            synchronized (format) {
+                label = format.format(date);
+            }
+            labels.put(epochDay, label);
+        }
+        return label;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.yogaadmin.utils;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Calendar periods as half-open [start, end) epoch-millisecond ranges, the form
+ * DatabaseHelper.getClassInstancesInRange takes. Weeks start on Monday, like the
+ * class timetable.
+ */
+public final class DateRanges {
+    public enum Period {
+        DAY, WEEK, MONTH
+    }
+
+    private DateRanges() {}
+
+    /**
+     * Get the period containing a moment
+     * @param period Day, week or month
+     * @param millis Any moment inside the period
+     * @param timeZone Zone whose midnights bound the period
+     * @return {start, end}
+     */
+    public static long[] containing(Period period, long millis, TimeZone timeZone) {
+        Calendar calendar = startOfDay(millis, timeZone);
+        if (period == Period.WEEK) {
+            // Calendar.MONDAY is 2; step back 0-6 days to the Monday on or before
+            int daysSinceMonday = (calendar.get(Calendar.DAY_OF_WEEK) + 5) % 7;
+            calendar.add(Calendar.DAY_OF_MONTH, -daysSinceMonday);
+        } else if (period == Period.MONTH) {
+            calendar.set(Calendar.DAY_OF_MONTH, 1);
+        }
+        long start = calendar.getTimeInMillis();
+        calendar.add(field(period), 1);
+        return new long[]{start, calendar.getTimeInMillis()};
+    }
+
+    /**
+     * Get the period a number of periods before or after the one containing a moment
+     * @param steps Periods to move; negative for earlier
+     * @return {start, end}
+     */
+    public static long[] shift(Period period, long millis, int steps, TimeZone timeZone) {
+        Calendar calendar = startOfDay(containing(period, millis, timeZone)[0], timeZone);
+        calendar.add(field(period), steps);
+        return containing(period, calendar.getTimeInMillis(), timeZone);
+    }
+
+    private static Calendar startOfDay(long millis, TimeZone timeZone) {
+        Calendar calendar = Calendar.getInstance(timeZone);
+        calendar.setTimeInMillis(millis);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar;
+    }
+
+    private static int field(Period period) {
+        switch (period) {
+            case WEEK:
+                return Calendar.WEEK_OF_YEAR;
+            case MONTH:
+                return Calendar.MONTH;
+            default:
+                return Calendar.DAY_OF_MONTH;
+        }
+    }
+}
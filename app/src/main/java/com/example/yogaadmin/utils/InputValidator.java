@@ -38,6 +38,15 @@ public class InputValidator {
         return Pattern.matches("^([01]\\d|2[0-3]):([0-5]\\d)$", time);
     }
 
+    /**
+     * Validate teacher name
+     * @param teacher Teacher name
+     * @return true if valid, false otherwise
+     */
+    public static boolean isValidTeacherName(String teacher) {
+        return teacher != null && !teacher.trim().isEmpty();
+    }
+
     /**
      * Validate class capacity
      * @param capacity Number of participants
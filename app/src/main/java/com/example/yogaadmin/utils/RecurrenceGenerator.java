@@ -0,0 +1,120 @@
+package com.example.yogaadmin.utils;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.ScheduleSnapshot;
+import com.example.yogaadmin.models.YogaClass;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * Generates the weekly instances of a yoga class: one on each of its
+ * dayOfWeek, at its courseTime, from a start date for a number of weeks or
+ * up to an end date, leaving out skipped dates (e.g. holidays).
+ *
+ * A single Calendar walks forward a week at a time, so a year of a class costs
+ * about 52 Calendar steps. Not thread-safe; use one generator per thread.
+ */
+public class RecurrenceGenerator {
+    private final TimeZone timeZone;
+    private final Calendar calendar;
+    // Skipped days as yyyymmdd, compared without allocating
+    private final Set<Integer> skippedDays = new HashSet<>();
+    private String teacher;
+    private String comments;
+
+    public RecurrenceGenerator() {
+        this(TimeZone.getDefault());
+    }
+
+    public RecurrenceGenerator(TimeZone timeZone) {
+        this.timeZone = timeZone;
+        this.calendar = Calendar.getInstance(timeZone);
+    }
+
+    // Don't generate an instance on the calendar day containing this moment
+    public RecurrenceGenerator skip(long dayMillis) {
+        calendar.setTimeInMillis(dayMillis);
+        skippedDays.add(dayKey(calendar));
+        return this;
+    }
+
+    // Teacher for every generated instance; defaults to the class teacher
+    public RecurrenceGenerator teacher(String teacher) {
+        this.teacher = teacher;
+        return this;
+    }
+
+    public RecurrenceGenerator comments(String comments) {
+        this.comments = comments;
+        return this;
+    }
+
+    public TimeZone getTimeZone() {
+        return timeZone;
+    }
+
+    /**
+     * Generate a number of consecutive weekly instances
+     * @param yogaClass Class with an id, dayOfWeek and courseTime
+     * @param fromMillis First day that may have an instance (its time of day is ignored)
+     * @param count Number of instances; skipped dates don't count towards it
+     */
+    public List<ClassInstance> generateCount(YogaClass yogaClass, long fromMillis, int count) {
+        return generate(yogaClass, fromMillis, Long.MAX_VALUE, count);
+    }
+
+    /**
+     * Generate every weekly instance in a date range
+     * @param yogaClass Class with an id, dayOfWeek and courseTime
+     * @param fromMillis First day that may have an instance (its time of day is ignored)
+     * @param untilMillis Exclusive end; instances start before it
+     */
+    public List<ClassInstance> generateUntil(YogaClass yogaClass, long fromMillis, long untilMillis) {
+        return generate(yogaClass, fromMillis, untilMillis, Integer.MAX_VALUE);
+    }
+
+    private List<ClassInstance> generate(YogaClass yogaClass, long fromMillis, long untilMillis, int maxCount) {
+        int calendarDay = calendarDayOf(yogaClass.getDayOfWeek());
+        if (calendarDay < 0) {
+            throw new IllegalArgumentException("Unknown day of week: " + yogaClass.getDayOfWeek());
+        }
+        int startMinutes = Math.max(ScheduleSnapshot.encodeTime(yogaClass.getCourseTime()), 0);
+        String instanceTeacher = teacher != null ? teacher : yogaClass.getTeacher();
+
+        // First class day on or after the start day, at the class time
+        calendar.setTimeInMillis(fromMillis);
+        calendar.add(Calendar.DAY_OF_MONTH, (calendarDay - calendar.get(Calendar.DAY_OF_WEEK) + 7) % 7);
+        calendar.set(Calendar.HOUR_OF_DAY, startMinutes / 60);
+        calendar.set(Calendar.MINUTE, startMinutes % 60);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+
+        List<ClassInstance> instances = new ArrayList<>(maxCount < 64 ? maxCount : 64);
+        long time;
+        while (instances.size() < maxCount && (time = calendar.getTimeInMillis()) < untilMillis) {
+            if (!skippedDays.contains(dayKey(calendar))) {
+                instances.add(new ClassInstance(yogaClass.getId(), new Date(time), instanceTeacher, comments));
+            }
+            // Calendar arithmetic keeps the wall-clock time across daylight-saving changes
+            calendar.add(Calendar.DAY_OF_MONTH, 7);
+        }
+        return instances;
+    }
+
+    private static int dayKey(Calendar calendar) {
+        return calendar.get(Calendar.YEAR) * 10000 + calendar.get(Calendar.MONTH) * 100
+                + calendar.get(Calendar.DAY_OF_MONTH);
+    }
+
+    // "Monday" -> Calendar.MONDAY etc. (case-insensitive), anything else -> -1
+    public static int calendarDayOf(String dayOfWeek) {
+        int day = ScheduleSnapshot.encodeDay(dayOfWeek); // 0 = Monday ... 6 = Sunday
+        return day < 0 ? -1 : (day + 1) % 7 + 1;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.yogaadmin.utils;
+
+import java.util.List;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+/**
+ * Display text for list rows, computed once per row and then only looked up.
+ *
+ * Rows are keyed by the row object itself. Loaded rows are never modified:
+ * an edit arrives as a new object from the database, so the object doubles as
+ * the row's id and version, and its stale text is dropped together with it
+ * when the list no longer holds it. Row classes must therefore keep Object's
+ * identity equals and hashCode.
+ *
+ * Call {@link #prepare} on the thread that loaded the rows; {@link #get} on the
+ * main thread is then a lookup that allocates nothing.
+ */
+public final class RowTextCache<T, V> {
+    private final Function<T, V> formatter;
+    private final WeakHashMap<T, V> texts = new WeakHashMap<>();
+
+    public RowTextCache(Function<T, V> formatter) {
+        this.formatter = formatter;
+    }
+
+    // Format every row that has no text yet
+    public void prepare(List<T> rows) {
+        for (T row : rows) {
+            synchronized (this) {
+                if (texts.containsKey(row)) {
+                    continue;
+                }
+            }
+            V text = formatter.apply(row);
+            synchronized (this) {
+                texts.put(row, text);
+            }
+        }
+    }
+
+    // Text for a row; formats it on the spot if it wasn't prepared
+    public V get(T row) {
+        V text;
+        synchronized (this) {
+            text = texts.get(row);
+        }
+        if (text == null) {
+            text = formatter.apply(row);
+            synchronized (this) {
+                texts.put(row, text);
+            }
+        }
+        return text;
+    }
+
+    public synchronized int size() {
+        return texts.size();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.yogaadmin.models;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Overlap lookups, week wrap-around and the full report of ConflictIndex.
+ */
+public class ConflictIndexTest {
+
+    @Test
+    public void conflictsWith_findsOverlapsOfSameTeacherOnly() {
+        ConflictIndex index = ConflictIndex.build(new ScheduleSnapshot.Builder(4)
+                .add(1, "Monday", "09:00", 10, 60, 10.0, "Flow Yoga", "Ann")
+                .add(2, "Monday", "10:30", 10, 60, 10.0, "Flow Yoga", "Ann")
+                .add(3, "Monday", "09:30", 10, 60, 10.0, "Flow Yoga", "Bob")
+                .add(4, "Tuesday", "09:30", 10, 60, 10.0, "Flow Yoga", "Ann")
+                .build());
+
+        List<ScheduleConflict> conflicts = index.conflictsWith(0, "ann", 0, 9 * 60 + 45, 60);
+
+        assertEquals(2, conflicts.size());
+        assertEquals(1, conflicts.get(0).getSecondClassId());
+        assertEquals(15, conflicts.get(0).getOverlapMinutes());
+        assertEquals(2, conflicts.get(1).getSecondClassId());
+        assertEquals(15, conflicts.get(1).getOverlapMinutes());
+    }
+
+    @Test
+    public void backToBackClasses_dontConflict() {
+        ConflictIndex index = ConflictIndex.build(new ScheduleSnapshot.Builder(1)
+                .add(1, "Monday", "09:00", 10, 60, 10.0, "Flow Yoga", "Ann")
+                .build());
+
+        assertTrue(index.conflictsWith(0, "Ann", 0, 10 * 60, 60).isEmpty());
+        assertTrue(index.conflictsWith(0, "Ann", 0, 8 * 60, 60).isEmpty());
+    }
+
+    @Test
+    public void savedClass_doesntConflictWithItself() {
+        ConflictIndex index = ConflictIndex.build(new ScheduleSnapshot.Builder(1)
+                .add(1, "Monday", "09:00", 10, 60, 10.0, "Flow Yoga", "Ann")
+                .build());
+
+        assertTrue(index.conflictsWith(1, "Ann", 0, 9 * 60 + 30, 60).isEmpty());
+        assertEquals(1, index.conflictsWith(0, "Ann", 0, 9 * 60 + 30, 60).size());
+    }
+
+    @Test
+    public void lateSundayClass_runsIntoMonday() {
+        ConflictIndex index = ConflictIndex.build(new ScheduleSnapshot.Builder(2)
+                .add(1, "Sunday", "23:30", 10, 60, 10.0, "Flow Yoga", "Ann")
+                .add(2, "Monday", "00:00", 10, 45, 10.0, "Flow Yoga", "Ann")
+                .build());
+
+        List<ScheduleConflict> fromMonday = index.conflictsWith(0, "Ann", 0, 0, 30);
+        assertEquals(2, fromMonday.size());
+        assertEquals(1, fromMonday.get(0).getSecondClassId());
+        assertEquals(-30, fromMonday.get(0).getSecondStartMinutes());
+        assertEquals(2, fromMonday.get(1).getSecondClassId());
+
+        List<ScheduleConflict> fromSunday = index.conflictsWith(0, "Ann", 6, 23 * 60 + 45, 30);
+        assertEquals(2, fromSunday.size());
+
+        List<ScheduleConflict> all = index.findAll();
+        assertEquals(1, all.size());
+        assertEquals(1, all.get(0).getFirstClassId());
+        assertEquals(2, all.get(0).getSecondClassId());
+        assertEquals(30, all.get(0).getOverlapMinutes());
+    }
+
+    @Test
+    public void findAll_reportsEachOverlappingPairOnce() {
+        ConflictIndex index = ConflictIndex.build(new ScheduleSnapshot.Builder(4)
+                .add(1, "Wednesday", "18:00", 10, 90, 10.0, "Flow Yoga", "Ann")
+                .add(2, "Wednesday", "18:30", 10, 45, 10.0, "Flow Yoga", "ANN")
+                .add(3, "Wednesday", "19:00", 10, 60, 10.0, "Flow Yoga", "Ann")
+                .add(4, "Wednesday", "18:00", 10, 60, 10.0, "Flow Yoga", "Bob")
+                .build());
+
+        List<ScheduleConflict> all = index.findAll();
+
+        assertEquals(3, all.size());
+        assertEquals("Ann, Wednesday: 18:00 (90 min) overlaps 18:30 (45 min)", all.get(0).describe());
+        assertEquals(1, all.get(1).getFirstClassId());
+        assertEquals(3, all.get(1).getSecondClassId());
+        assertEquals(2, all.get(2).getFirstClassId());
+        assertEquals(3, all.get(2).getSecondClassId());
+    }
+
+    @Test
+    public void unknownDayOrTime_isLeftOut() {
+        ConflictIndex index = ConflictIndex.build(new ScheduleSnapshot.Builder(2)
+                .add(1, "Someday", "09:00", 10, 60, 10.0, "Flow Yoga", "Ann")
+                .add(2, "Monday", "9am", 10, 60, 10.0, "Flow Yoga", "Ann")
+                .build());
+
+        assertTrue(index.findAll().isEmpty());
+        assertEquals(1, index.rowOf(2));
+        assertEquals(-1, index.rowOf(3));
+    }
+
+    @Test
+    public void lookupIn10000Classes_matchesPairwiseCheck() {
+        String[] days = ScheduleSnapshot.DAYS;
+        int count = 10_000;
+        ScheduleSnapshot.Builder builder = new ScheduleSnapshot.Builder(count);
+        for (int i = 0; i < count; i++) {
+            builder.add(i + 1, days[i % 7], String.format(Locale.US, "%02d:%02d", 6 + i % 14, (i % 4) * 15),
+                    10, 45 + (i % 4) * 15, 10.0, "Flow Yoga", "Teacher " + (i % 50));
+        }
+        ConflictIndex index = ConflictIndex.build(builder.build());
+
+        for (int lookup = 0; lookup < 500; lookup++) {
+            int teacher = lookup % 50;
+            int day = lookup % 7;
+            int start = 6 * 60 + lookup % 600;
+            int expected = 0;
+            for (int i = teacher; i < count; i += 50) {
+                int classStart = (6 + i % 14) * 60 + (i % 4) * 15;
+                if (i % 7 == day && classStart < start + 60 && start < classStart + 45 + (i % 4) * 15) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, index.conflictsWith(0, "Teacher " + teacher, day, start, 60).size());
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.yogaadmin.models;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Correctness of ScheduleSnapshot against the equivalent List&lt;YogaClass&gt;
+ * code. ScheduleSnapshotBenchmark times the two.
+ */
+public class ScheduleSnapshotTest {
+    private static final String[] CLASS_TYPES = {"Flow Yoga", "Aerial Yoga", "Family Yoga"};
+
+    private List<YogaClass> classes;
+    private ScheduleSnapshot snapshot;
+
+    @Before
+    public void setUp() {
+        classes = catalog(1_000);
+        snapshot = snapshotOf(classes);
+    }
+
+    @Test
+    public void encoding_roundTrips() {
+        assertEquals(0, ScheduleSnapshot.encodeDay("Monday"));
+        assertEquals(6, ScheduleSnapshot.encodeDay("sunday"));
+        assertEquals(-1, ScheduleSnapshot.encodeDay("Someday"));
+        assertEquals(10 * 60 + 30, ScheduleSnapshot.encodeTime("10:30"));
+        assertEquals(-1, ScheduleSnapshot.encodeTime("24:00"));
+        assertEquals(-1, ScheduleSnapshot.encodeTime("9:30"));
+        assertEquals(1299, ScheduleSnapshot.encodePrice(12.99));
+        assertEquals("07:05", ScheduleSnapshot.formatTime(7 * 60 + 5));
+
+        for (int row = 0; row < snapshot.size(); row++) {
+            YogaClass yogaClass = classes.get(row);
+            assertEquals(yogaClass.getId(), snapshot.id(row));
+            assertEquals(yogaClass.getDayOfWeek(), ScheduleSnapshot.DAYS[snapshot.day(row)]);
+            assertEquals(yogaClass.getCourseTime(), ScheduleSnapshot.formatTime(snapshot.startMinutes(row)));
+            assertEquals(yogaClass.getClassType(), snapshot.classType(row));
+            assertEquals(yogaClass.getTeacher(), snapshot.teacher(row));
+            assertEquals(yogaClass.getCapacity(), snapshot.capacity(row));
+            assertEquals(yogaClass.getDuration(), snapshot.duration(row));
+        }
+    }
+
+    @Test
+    public void filterAndSort_matchListImplementation() {
+        int[] rows = query(snapshot);
+        List<YogaClass> expected = query(classes);
+
+        assertEquals(expected.size(), rows.length);
+        for (int i = 0; i < rows.length; i++) {
+            assertEquals(expected.get(i).getId(), snapshot.id(rows[i]));
+        }
+    }
+
+    @Test
+    public void sortByPrice_isStableOnCatalogOrder() {
+        int[] rows = snapshot.sortByPrice(snapshot.allRows());
+        for (int i = 1; i < rows.length; i++) {
+            int previous = snapshot.priceMinor(rows[i - 1]);
+            int current = snapshot.priceMinor(rows[i]);
+            assertTrue(previous < current || (previous == current && rows[i - 1] < rows[i]));
+        }
+    }
+
+    @Test
+    public void aggregates_matchListImplementation() {
+        int[] all = snapshot.allRows();
+        long capacity = 0;
+        long pence = 0;
+        int[] perDay = new int[7];
+        for (YogaClass yogaClass : classes) {
+            capacity += yogaClass.getCapacity();
+            pence += ScheduleSnapshot.encodePrice(yogaClass.getPricePerClass());
+            perDay[ScheduleSnapshot.encodeDay(yogaClass.getDayOfWeek())]++;
+        }
+
+        assertEquals(capacity, snapshot.totalCapacity(all));
+        assertEquals(Math.round((double) pence / classes.size()), snapshot.averagePriceMinor(all));
+        assertArrayEquals(perDay, snapshot.countByDay(all));
+        assertEquals(0, snapshot.averagePriceMinor(new int[0]));
+    }
+
+    @Test
+    public void unknownDictionaryValue_matchesNothing() {
+        int[] rows = snapshot.filter(snapshot.allRows(),
+                new ScheduleSnapshot.Filter().teacher(snapshot.teacherCode("Nobody")));
+        assertEquals(0, rows.length);
+    }
+
+    // Weekday mornings before noon up to £15, at least 15 places, in timetable order
+    private static int[] query(ScheduleSnapshot snapshot) {
+        ScheduleSnapshot.Filter filter = new ScheduleSnapshot.Filter()
+                .startingBetween(0, 12 * 60)
+                .maxPriceMinor(1500)
+                .minCapacity(15);
+        for (int day = 0; day < 5; day++) {
+            filter.onDay(day);
+        }
+        return snapshot.sortByDayAndTime(snapshot.filter(snapshot.allRows(), filter));
+    }
+
+    private static List<YogaClass> query(List<YogaClass> classes) {
+        List<YogaClass> matches = new ArrayList<>();
+        for (YogaClass yogaClass : classes) {
+            int day = ScheduleSnapshot.encodeDay(yogaClass.getDayOfWeek());
+            if (day >= 0 && day < 5
+                    && yogaClass.getCourseTime().compareTo("12:00") < 0
+                    && yogaClass.getPricePerClass() <= 15.0
+                    && yogaClass.getCapacity() >= 15) {
+                matches.add(yogaClass);
+            }
+        }
+        matches.sort(Comparator.<YogaClass>comparingInt(c -> ScheduleSnapshot.encodeDay(c.getDayOfWeek()))
+                .thenComparing(YogaClass::getCourseTime));
+        return matches;
+    }
+
+    private static ScheduleSnapshot snapshotOf(List<YogaClass> classes) {
+        ScheduleSnapshot.Builder builder = new ScheduleSnapshot.Builder(classes.size());
+        for (YogaClass yogaClass : classes) {
+            builder.add(yogaClass);
+        }
+        return builder.build();
+    }
+
+    private static List<YogaClass> catalog(int count) {
+        List<YogaClass> classes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            YogaClass yogaClass = new YogaClass();
+            yogaClass.setId(i + 1);
+            yogaClass.setDayOfWeek(ScheduleSnapshot.DAYS[i % 7]);
+            yogaClass.setCourseTime(String.format(Locale.US, "%02d:%02d", 6 + i % 14, (i % 4) * 15));
+            yogaClass.setCapacity(10 + i % 30);
+            yogaClass.setDuration(45 + (i % 4) * 15);
+            yogaClass.setPricePerClass(5 + (i % 20) + (i % 3) * 0.25);
+            yogaClass.setClassType(CLASS_TYPES[i % CLASS_TYPES.length]);
+            yogaClass.setTeacher("Teacher " + (i % 50));
+            classes.add(yogaClass);
+        }
+        return classes;
+    }
+}
@@ -0,0 +1,378 @@
+package com.example.yogaadmin.network;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.YogaClass;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Batching, atomicity and the in-flight limit of BatchUploader against an
+ * in-memory stand-in for the remote database, plus the request count of the
+ * one-write-per-class loop it replaced.
+ */
+public class BatchUploaderTest {
+    private FakeRemoteStore store;
+
+    @Before
+    public void setUp() {
+        store = new FakeRemoteStore(0, 0);
+    }
+
+    @After
+    public void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    public void split_respectsRecordLimit() {
+        BatchUploader uploader = new BatchUploader(store, 500, Integer.MAX_VALUE);
+
+        List<Map<String, Object>> batches = uploader.split(yogaClasses(1200));
+
+        assertEquals(3, batches.size());
+        assertEquals(500, batches.get(0).size());
+        assertEquals(500, batches.get(1).size());
+        assertEquals(200, batches.get(2).size());
+        assertTrue(batches.get(2).containsKey("1200"));
+    }
+
+    @Test
+    public void split_respectsByteLimit() {
+        List<YogaClass> yogaClasses = yogaClasses(10);
+        for (YogaClass yogaClass : yogaClasses) {
+            yogaClass.setDescription(repeat('x', 1000));
+        }
+        int classBytes = BatchUploader.estimateBytes(yogaClasses.get(0));
+        BatchUploader uploader = new BatchUploader(store, 500, 3 * classBytes);
+
+        List<Map<String, Object>> batches = uploader.split(yogaClasses);
+
+        assertEquals(4, batches.size());
+        assertEquals(3, batches.get(0).size());
+        assertEquals(1, batches.get(3).size());
+    }
+
+    @Test
+    public void split_oversizedClassGetsItsOwnBatch() {
+        List<YogaClass> yogaClasses = yogaClasses(3);
+        for (int i = 0; i < 100; i++) {
+            yogaClasses.get(1).addClassInstance(new ClassInstance(2, new Date(), "Teacher", repeat('c', 100)));
+        }
+        BatchUploader uploader = new BatchUploader(store, 500, 1000);
+
+        List<Map<String, Object>> batches = uploader.split(yogaClasses);
+
+        assertEquals(3, batches.size());
+        assertSame(yogaClasses.get(1), batches.get(1).get("2"));
+    }
+
+    @Test
+    public void upload_classWithoutIdGetsNewKey() throws InterruptedException {
+        List<YogaClass> yogaClasses = yogaClasses(2);
+        yogaClasses.get(1).setId(0);
+
+        List<BatchUploader.BatchResult> results = upload(new BatchUploader(store), yogaClasses);
+
+        assertEquals(1, results.size());
+        assertEquals("1", results.get(0).keys.get(0));
+        assertEquals("key-1", results.get(0).keys.get(1));
+        assertSame(yogaClasses.get(1), store.data.get("key-1"));
+    }
+
+    @Test
+    public void upload_failedBatchWritesNothingAndLaterBatchesContinue() throws InterruptedException {
+        store.failRequest = 2;
+        List<BatchUploader.BatchResult> batchEvents = new ArrayList<>();
+
+        List<BatchUploader.BatchResult> results =
+                upload(new BatchUploader(store, 100, Integer.MAX_VALUE), yogaClasses(350), batchEvents);
+
+        assertEquals(4, results.size());
+        assertEquals(results, batchEvents);
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(results.get(2).isSuccess());
+        assertTrue(results.get(3).isSuccess());
+        assertEquals(100, results.get(1).keys.size());
+        // Batch 2 held classes 101..200; none of them may be half-written
+        assertEquals(250, store.data.size());
+        assertFalse(store.data.containsKey("101"));
+        assertFalse(store.data.containsKey("200"));
+        assertTrue(store.data.containsKey("201"));
+    }
+
+    @Test
+    public void upload_serializationErrorFailsOnlyThatBatch() throws InterruptedException {
+        store.throwOnRequest = 1;
+
+        List<BatchUploader.BatchResult> results =
+                upload(new BatchUploader(store, 10, Integer.MAX_VALUE), yogaClasses(20));
+
+        assertEquals(2, results.size());
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals(10, store.data.size());
+    }
+
+    @Test
+    public void upload_deletedClassesAreRemovedByKeyAlongsideWrites() throws InterruptedException {
+        upload(new BatchUploader(store), yogaClasses(10));
+        List<YogaClass> edited = yogaClasses(1);
+        edited.get(0).setTeacher("Cover");
+
+        List<BatchUploader.BatchResult> results = upload(new BatchUploader(store, 2, Integer.MAX_VALUE),
+                edited, Arrays.asList(3L, 7L), new ArrayList<>());
+
+        // One edit and two removals, not a wipe and ten rewrites
+        assertEquals(2, results.size());
+        assertEquals(Arrays.asList("1", "3"), results.get(0).keys);
+        assertEquals(Collections.singletonList("7"), results.get(1).keys);
+        assertEquals(8, store.data.size());
+        assertFalse(store.data.containsKey("3"));
+        assertFalse(store.data.containsKey("7"));
+        assertEquals("Cover", ((YogaClass) store.data.get("1")).getTeacher());
+    }
+
+    @Test
+    public void upload_neverExceedsMaxInFlight() throws InterruptedException {
+        store.shutdown();
+        store = new FakeRemoteStore(1_000_000, 0, 8);
+
+        List<BatchUploader.BatchResult> results =
+                upload(new BatchUploader(store, 10, Integer.MAX_VALUE, 3), yogaClasses(400));
+
+        assertEquals(40, results.size());
+        assertEquals(40, store.requests.get());
+        assertTrue("Max in flight " + store.maxInFlight.get(), store.maxInFlight.get() <= 3);
+        assertEquals(400, store.data.size());
+    }
+
+    @Test
+    public void upload_reportsProgressInRecordsAndBytes() throws InterruptedException {
+        store.shutdown();
+        store = new FakeRemoteStore(100_000, 0, 4);
+        store.rejectRate = 0.2;
+        List<BatchUploader.Progress> progress = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        new BatchUploader(store, 25, Integer.MAX_VALUE).upload(yogaClasses(1000), new BatchUploader.Listener() {
+            @Override
+            public void onBatchComplete(BatchUploader.BatchResult result, int batchCount) {
+            }
+
+            @Override
+            public void onProgress(BatchUploader.Progress update) {
+                progress.add(update);
+            }
+
+            @Override
+            public void onComplete(List<BatchUploader.BatchResult> results) {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+
+        assertEquals(40, progress.size());
+        for (int i = 1; i < progress.size(); i++) {
+            BatchUploader.Progress previous = progress.get(i - 1);
+            BatchUploader.Progress current = progress.get(i);
+            assertEquals(previous.completedRecords + previous.failedRecords + 25,
+                    current.completedRecords + current.failedRecords);
+            assertTrue(current.completedBytes >= previous.completedBytes);
+        }
+        BatchUploader.Progress last = progress.get(progress.size() - 1);
+        assertEquals(1000, last.totalRecords);
+        assertEquals(1000, last.completedRecords + last.failedRecords);
+        assertEquals(store.data.size(), last.completedRecords);
+        assertTrue(last.failedRecords > 0);
+        assertTrue(last.completedBytes < last.totalBytes);
+    }
+
+    @Test
+    public void upload_cancelSendsNoMoreBatches() throws InterruptedException {
+        store.shutdown();
+        store = new FakeRemoteStore(1_000_000, 0, 4);
+        CountDownLatch done = new CountDownLatch(1);
+        List<BatchUploader.BatchResult> results = new ArrayList<>();
+        AtomicInteger reportedAfterComplete = new AtomicInteger();
+
+        new BatchUploader(store, 10, Integer.MAX_VALUE, 2).upload(yogaClasses(500), new BatchUploader.Listener() {
+            private BatchUploader.Upload upload;
+
+            @Override
+            public void onStart(BatchUploader.Upload started) {
+                upload = started;
+            }
+
+            @Override
+            public void onBatchComplete(BatchUploader.BatchResult result, int batchCount) {
+                if (done.getCount() == 0) {
+                    reportedAfterComplete.incrementAndGet();
+                }
+                if (result.index == 4) {
+                    upload.cancel();
+                }
+            }
+
+            @Override
+            public void onComplete(List<BatchUploader.BatchResult> batchResults) {
+                results.addAll(batchResults);
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+
+        // At most the two batches in flight beside batch 4 went out after it
+        assertEquals(50, results.size());
+        assertTrue("Requests " + store.requests.get(), store.requests.get() <= 7);
+        int written = 0;
+        for (BatchUploader.BatchResult result : results) {
+            assertEquals(result.index >= store.requests.get(), result.isCancelled());
+            written += result.isSuccess() ? result.keys.size() : 0;
+        }
+        assertEquals(written, store.data.size());
+        assertEquals(0, reportedAfterComplete.get());
+    }
+
+    @Test
+    public void upload_failuresOnConcurrentCompletionsAreAllCollected() throws InterruptedException {
+        store.shutdown();
+        store = new FakeRemoteStore(200_000, 0, 8);
+        store.rejectRate = 0.5;
+        List<BatchUploader.BatchResult> batchEvents = Collections.synchronizedList(new ArrayList<>());
+
+        List<BatchUploader.BatchResult> results =
+                upload(new BatchUploader(store, 5, Integer.MAX_VALUE, 8), yogaClasses(2000), batchEvents);
+
+        assertEquals(400, results.size());
+        assertEquals(400, batchEvents.size());
+        int written = 0;
+        int failed = 0;
+        for (int i = 0; i < results.size(); i++) {
+            BatchUploader.BatchResult result = results.get(i);
+            assertEquals(i, result.index);
+            if (result.isSuccess()) {
+                written += result.keys.size();
+            } else {
+                assertNotNull(result.error.getMessage());
+                failed++;
+            }
+        }
+        assertTrue(failed > 0);
+        assertEquals(written, store.data.size());
+    }
+
+    @Test
+    public void upload_oneInFlightSendsBatchesOneAtATime() throws InterruptedException {
+        FakeRemoteStore sequentialStore = new FakeRemoteStore(0, 0, 8);
+        List<BatchUploader.BatchResult> results =
+                upload(new BatchUploader(sequentialStore, 100, Integer.MAX_VALUE, 1), yogaClasses(5000));
+        sequentialStore.shutdown();
+
+        assertEquals(50, results.size());
+        assertEquals(50, sequentialStore.requests.get());
+        assertEquals(1, sequentialStore.maxInFlight.get());
+        assertEquals(5000, sequentialStore.data.size());
+    }
+
+    @Test
+    public void batchedUpload_sendsOneRequestPerBatchInsteadOfPerRecord() throws InterruptedException {
+        int count = 5000;
+        List<YogaClass> yogaClasses = yogaClasses(count);
+
+        FakeRemoteStore perRecordStore = new FakeRemoteStore(0, 0);
+        uploadEach(perRecordStore, yogaClasses);
+        perRecordStore.shutdown();
+
+        List<BatchUploader.BatchResult> results = upload(new BatchUploader(store), yogaClasses);
+
+        assertEquals(count, perRecordStore.data.size());
+        assertEquals(count, store.data.size());
+        assertEquals(count, perRecordStore.requests.get());
+        assertEquals(count / BatchUploader.DEFAULT_MAX_RECORDS, store.requests.get());
+        assertEquals(10, results.size());
+    }
+
+    private static void uploadEach(FakeRemoteStore store, List<YogaClass> yogaClasses) throws InterruptedException {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (YogaClass yogaClass : yogaClasses) {
+            values.put(String.valueOf(yogaClass.getId()), yogaClass);
+        }
+        CountDownLatch done = new CountDownLatch(values.size());
+        store.updateEach(values, error -> done.countDown());
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+    }
+
+    private static List<BatchUploader.BatchResult> upload(BatchUploader uploader, List<YogaClass> yogaClasses)
+            throws InterruptedException {
+        return upload(uploader, yogaClasses, new ArrayList<>());
+    }
+
+    private static List<BatchUploader.BatchResult> upload(BatchUploader uploader, List<YogaClass> yogaClasses,
+                                                          List<BatchUploader.BatchResult> batchEvents)
+            throws InterruptedException {
+        return upload(uploader, yogaClasses, Collections.emptyList(), batchEvents);
+    }
+
+    private static List<BatchUploader.BatchResult> upload(BatchUploader uploader, List<YogaClass> yogaClasses,
+                                                          List<Long> deletedClassIds,
+                                                          List<BatchUploader.BatchResult> batchEvents)
+            throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        List<BatchUploader.BatchResult> results = new ArrayList<>();
+        uploader.upload(yogaClasses, deletedClassIds, new BatchUploader.Listener() {
+            @Override
+            public void onBatchComplete(BatchUploader.BatchResult result, int batchCount) {
+                batchEvents.add(result);
+            }
+
+            @Override
+            public void onComplete(List<BatchUploader.BatchResult> batchResults) {
+                results.addAll(batchResults);
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        return results;
+    }
+
+    private static List<YogaClass> yogaClasses(int count) {
+        List<YogaClass> yogaClasses = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            YogaClass yogaClass = new YogaClass();
+            yogaClass.setId(i);
+            yogaClass.setDayOfWeek("Monday");
+            yogaClass.setCourseTime("10:00");
+            yogaClass.setCapacity(20);
+            yogaClass.setDuration(60);
+            yogaClass.setPricePerClass(12.5);
+            yogaClass.setClassType("Flow Yoga");
+            yogaClass.setTeacher("Teacher " + i % 50);
+            yogaClasses.add(yogaClass);
+        }
+        return yogaClasses;
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.yogaadmin.network;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Remote database stand-in shared by the network tests. Requests are applied
+ * by a pool of server threads, one at a time by default like writes queued on
+ * one connection, and each takes a simulated server cost. A multi-path update is applied all at
+ * once or not at all, and a null value removes its key.
+ */
+class FakeRemoteStore implements RemoteStore {
+    final Map<String, Object> data = new ConcurrentHashMap<>();
+    final AtomicInteger requests = new AtomicInteger();
+    // Requests issued but not yet completed, and the most seen at once
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    // Records written per key, counting rewrites of the same record
+    final Map<String, AtomicInteger> writesPerKey = new ConcurrentHashMap<>();
+    // 1-based request number to reject, or 0
+    volatile int failRequest;
+    // 1-based request number to throw from synchronously, or 0
+    volatile int throwOnRequest;
+    // Share of requests rejected without applying them
+    volatile double rejectRate;
+    // Share of requests applied whose acknowledgement is lost, e.g. a timeout after the commit
+    volatile double lostAckRate;
+
+    private final ExecutorService server;
+    private final long requestNanos;
+    private final long recordNanos;
+    private final Random random = new Random(42);
+    private int issuedKeys;
+
+    FakeRemoteStore(long requestNanos, long recordNanos) {
+        this(requestNanos, recordNanos, 1);
+    }
+
+    FakeRemoteStore(long requestNanos, long recordNanos, int serverThreads) {
+        this.requestNanos = requestNanos;
+        this.recordNanos = recordNanos;
+        this.server = Executors.newFixedThreadPool(serverThreads);
+    }
+
+    @Override
+    public synchronized String newKey() {
+        return "key-" + (++issuedKeys);
+    }
+
+    @Override
+    public void updateChildren(Map<String, Object> values, Completion completion) {
+        int request = requests.incrementAndGet();
+        if (request == throwOnRequest) {
+            throw new IllegalArgumentException("Cannot serialize request " + request);
+        }
+        Map<String, Object> copy = new LinkedHashMap<>(values);
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        server.execute(() -> {
+            work(requestNanos + recordNanos * copy.size());
+            double roll = random.nextDouble();
+            inFlight.decrementAndGet();
+            if (request == failRequest || roll < rejectRate) {
+                completion.onComplete(new Exception("Request " + request + " rejected"));
+                return;
+            }
+            for (Map.Entry<String, Object> entry : copy.entrySet()) {
+                if (entry.getValue() != null) {
+                    data.put(entry.getKey(), entry.getValue());
+                } else {
+                    data.remove(entry.getKey());
+                }
+                writesPerKey.computeIfAbsent(entry.getKey(), k -> new AtomicInteger()).incrementAndGet();
+            }
+            if (roll < rejectRate + lostAckRate) {
+                completion.onComplete(new Exception("Request " + request + " timed out"));
+                return;
+            }
+            completion.onComplete(null);
+        });
+    }
+
+    // The old upload loop: one single-record request per entry, all issued at once
+    void updateEach(Map<String, Object> values, Completion completion) {
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            updateChildren(Collections.singletonMap(entry.getKey(), entry.getValue()), completion);
+        }
+    }
+
+    void shutdown() {
+        server.shutdownNow();
+    }
+
+    private static void work(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+            LockSupport.parkNanos(Math.min(nanos, 50_000));
+        }
+    }
+}
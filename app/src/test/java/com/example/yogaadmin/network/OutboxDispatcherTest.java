@@ -0,0 +1,304 @@
+package com.example.yogaadmin.network;
+
+import com.example.yogaadmin.models.YogaClass;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * OutboxDispatcher against an in-memory outbox and a remote stand-in that
+ * rejects requests, loses acknowledgements and goes offline. After every
+ * scenario the cloud must hold exactly one record per class, equal to the
+ * latest local version, and the outbox must be empty.
+ */
+public class OutboxDispatcherTest {
+    private static final long TIMEOUT_MILLIS = 30_000;
+
+    private FakeOutbox outbox;
+    private FakeRemoteStore store;
+    private ScheduledExecutorService executor;
+    private final List<Long> retryDelays = new CopyOnWriteArrayList<>();
+    private final AtomicInteger delivered = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        outbox = new FakeOutbox();
+        store = new FakeRemoteStore(0, 0);
+        executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        store.shutdown();
+    }
+
+    @Test
+    public void rejectedRequestsAndLostAcks_nothingLostOrDuplicated() throws InterruptedException {
+        for (long id = 1; id <= 1200; id++) {
+            outbox.edit(id);
+        }
+        store.rejectRate = 0.3;
+        store.lostAckRate = 0.2;
+
+        dispatcher(() -> true).start();
+
+        awaitEmpty();
+        assertCloudMatchesLocal();
+        assertFalse("Expected some retries", retryDelays.isEmpty());
+    }
+
+    @Test
+    public void editsDuringUpload_areSentAgain() throws InterruptedException {
+        store.shutdown();
+        store = new FakeRemoteStore(2_000_000, 0);
+        for (long id = 1; id <= 100; id++) {
+            outbox.edit(id);
+        }
+        OutboxDispatcher dispatcher = dispatcher(() -> true);
+        dispatcher.start();
+
+        // Keep editing while batches are in flight
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            outbox.edit(1 + random.nextInt(150));
+            dispatcher.requestDrain();
+            if (i % 20 == 0) {
+                Thread.sleep(1);
+            }
+        }
+
+        awaitEmpty();
+        assertCloudMatchesLocal();
+    }
+
+    @Test
+    public void restart_resendsUnacknowledgedEntriesWithoutDuplicates() throws InterruptedException {
+        for (long id = 1; id <= 50; id++) {
+            outbox.edit(id);
+        }
+        // Every write reaches the cloud but no acknowledgement comes back
+        store.lostAckRate = 1.0;
+        OutboxDispatcher first = dispatcher(() -> true);
+        first.start();
+        awaitRetries(3);
+        first.stop();
+        executor.shutdownNow();
+        assertEquals(50, outbox.size());
+        assertEquals(50, store.data.size());
+
+        // The process comes back with the outbox it had on disk
+        executor = Executors.newSingleThreadScheduledExecutor();
+        store.lostAckRate = 0;
+        dispatcher(() -> true).start();
+
+        awaitEmpty();
+        assertCloudMatchesLocal();
+        assertTrue(store.writesPerKey.get("1").get() > 1);
+    }
+
+    @Test
+    public void offline_backsOffWithoutRequestsThenDrainsWhenOnline() throws InterruptedException {
+        for (long id = 1; id <= 10; id++) {
+            outbox.edit(id);
+        }
+        AtomicBoolean online = new AtomicBoolean(false);
+        OutboxDispatcher dispatcher = dispatcher(online::get);
+        dispatcher.start();
+
+        awaitRetries(4);
+        assertEquals(0, store.requests.get());
+        assertEquals(10, outbox.size());
+
+        online.set(true);
+        dispatcher.retryNow();
+
+        awaitEmpty();
+        assertCloudMatchesLocal();
+    }
+
+    @Test
+    public void unreadableOutbox_retriesAndLosesNothing() throws InterruptedException {
+        for (long id = 1; id <= 10; id++) {
+            outbox.edit(id);
+        }
+        outbox.failingPeeks.set(2);
+
+        dispatcher(() -> true).start();
+
+        awaitEmpty();
+        assertCloudMatchesLocal();
+        assertEquals(2, retryDelays.size());
+    }
+
+    @Test
+    public void deletedClasses_areRemovedFromTheCloudOneByOne() throws InterruptedException {
+        for (long id = 1; id <= 20; id++) {
+            outbox.edit(id);
+        }
+        OutboxDispatcher dispatcher = dispatcher(() -> true);
+        dispatcher.start();
+        awaitEmpty();
+        int requests = store.requests.get();
+
+        outbox.delete(2);
+        outbox.delete(5);
+        dispatcher.requestDrain();
+
+        awaitEmpty();
+        assertCloudMatchesLocal();
+        assertFalse(store.data.containsKey("2"));
+        // Two targeted removals in one request; nothing else rewritten
+        assertEquals(requests + 1, store.requests.get());
+        assertEquals(1, store.writesPerKey.get("1").get());
+        assertEquals(2, store.writesPerKey.get("2").get());
+    }
+
+    @Test
+    public void deleteDuringUpload_isNotUndoneByTheInFlightWrite() throws InterruptedException {
+        store.shutdown();
+        store = new FakeRemoteStore(5_000_000, 0);
+        outbox.edit(1);
+        outbox.edit(2);
+        dispatcher(() -> true).start();
+        Thread.sleep(1);
+        outbox.delete(2);
+
+        awaitEmpty();
+        assertCloudMatchesLocal();
+        assertFalse(store.data.containsKey("2"));
+    }
+
+    @Test
+    public void backoff_growsExponentiallyWithJitterUpToCap() {
+        RetryBackoff backoff = new RetryBackoff(100, 5_000);
+        Random random = new Random(1);
+        for (int failures = 1; failures <= 40; failures++) {
+            long ceiling = Math.min(5_000, 100L << Math.min(failures - 1, 30));
+            for (int i = 0; i < 100; i++) {
+                long delay = backoff.delayMillis(failures, random);
+                assertTrue(failures + ": " + delay, delay >= ceiling / 2 && delay <= ceiling);
+            }
+        }
+        // Jitter actually spreads retries out
+        long first = backoff.delayMillis(5, new Random(1));
+        boolean differs = false;
+        for (int seed = 2; seed < 10 && !differs; seed++) {
+            differs = backoff.delayMillis(5, new Random(seed)) != first;
+        }
+        assertTrue(differs);
+    }
+
+    private OutboxDispatcher dispatcher(BooleanSupplier networkAvailable) {
+        return new OutboxDispatcher(outbox, store, networkAvailable, executor, new RetryBackoff(1, 20),
+                new Random(3), 1, new OutboxDispatcher.Listener() {
+                    @Override
+                    public void onDelivered(int classes) {
+                        delivered.addAndGet(classes);
+                    }
+
+                    @Override
+                    public void onRetryScheduled(int failures, long delayMillis, Exception error) {
+                        retryDelays.add(delayMillis);
+                    }
+                });
+    }
+
+    private void awaitEmpty() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (outbox.size() > 0) {
+            assertTrue("Outbox still holds " + outbox.size() + " entries", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitRetries(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (retryDelays.size() < count) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private void assertCloudMatchesLocal() {
+        Map<Long, YogaClass> local = outbox.snapshot();
+        assertEquals(local.size(), store.data.size());
+        for (YogaClass yogaClass : local.values()) {
+            YogaClass remote = (YogaClass) store.data.get(String.valueOf(yogaClass.getId()));
+            assertNotNull("Class " + yogaClass.getId() + " never arrived", remote);
+            assertEquals(yogaClass.getTeacher(), remote.getTeacher());
+        }
+    }
+
+    /**
+     * The outbox table and the classes it points at, in memory. Each edit
+     * stores a new class object whose teacher names the change, like a row
+     * read back after an update.
+     */
+    static class FakeOutbox implements Outbox {
+        final AtomicInteger failingPeeks = new AtomicInteger();
+
+        private final Map<Long, YogaClass> classes = new HashMap<>();
+        private final Map<Long, Long> queue = new HashMap<>();
+        private long lastChange;
+
+        synchronized void edit(long id) {
+            lastChange++;
+            YogaClass yogaClass = new YogaClass();
+            yogaClass.setId(id);
+            yogaClass.setTeacher("Change " + lastChange);
+            classes.put(id, yogaClass);
+            queue.put(id, lastChange);
+        }
+
+        synchronized void delete(long id) {
+            lastChange++;
+            classes.remove(id);
+            queue.put(id, lastChange);
+        }
+
+        synchronized int size() {
+            return queue.size();
+        }
+
+        synchronized Map<Long, YogaClass> snapshot() {
+            return new HashMap<>(classes);
+        }
+
+        @Override
+        public synchronized List<OutboxEntry> peek(int limit) {
+            if (failingPeeks.getAndUpdate(n -> Math.max(n - 1, 0)) > 0) {
+                throw new IllegalStateException("Database is locked");
+            }
+            List<Map.Entry<Long, Long>> oldestFirst = new ArrayList<>(queue.entrySet());
+            oldestFirst.sort(Map.Entry.comparingByValue());
+            List<OutboxEntry> entries = new ArrayList<>();
+            for (Map.Entry<Long, Long> entry : oldestFirst.subList(0, Math.min(limit, oldestFirst.size()))) {
+                entries.add(new OutboxEntry(entry.getKey(), entry.getValue(), classes.get(entry.getKey())));
+            }
+            return entries;
+        }
+
+        @Override
+        public synchronized void acknowledge(List<OutboxEntry> entries) {
+            for (OutboxEntry entry : entries) {
+                queue.remove(entry.getYogaClassId(), entry.getChangeSeq());
+            }
+        }
+    }
+}
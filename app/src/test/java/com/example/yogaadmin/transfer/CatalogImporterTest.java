@@ -0,0 +1,326 @@
+package com.example.yogaadmin.transfer;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.YogaClass;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Parsing, validation and batching of CatalogImporter against an in-memory sink.
+ */
+public class CatalogImporterTest {
+    private static final String CLASS_JSON = "\"dayOfWeek\": \"Monday\", \"courseTime\": \"10:00\", \"capacity\": 20, "
+            + "\"duration\": 60, \"pricePerClass\": 12.5, \"classType\": \"Flow Yoga\", \"teacher\": \"Ann\"";
+    private static final String CSV_HEADER = "record,dayOfWeek,courseTime,capacity,duration,pricePerClass,classType,"
+            + "teacher,description,equipmentNeeded,date,comments\n";
+    private static final String CSV_CLASS = "class,Monday,10:00,20,60,12.5,Flow Yoga,Ann,,,,\n";
+
+    private FakeSink sink;
+
+    @Before
+    public void setUp() {
+        sink = new FakeSink();
+    }
+
+    @Test
+    public void json_importsClassesWithInstances() {
+        String json = "[{" + CLASS_JSON + ", \"description\": \"Slow\", \"classInstances\": ["
+                + "{\"date\": \"2024-01-01\", \"teacher\": \"Bob\", \"comments\": \"Cover\"},"
+                + "{\"date\": \"2024-01-08\"}]},"
+                + "{" + CLASS_JSON + "}]";
+
+        ImportResult result = importString(json, CatalogFormat.Type.JSON, 500);
+
+        assertTrue(result.isComplete());
+        assertEquals(2, result.getClassesImported());
+        assertEquals(2, result.getInstancesImported());
+        assertEquals(0, result.getRejectedRows());
+        assertEquals("Slow", sink.classes.get(0).getDescription());
+        assertEquals("Bob", sink.instances.get(0).getTeacher());
+        // A missing instance teacher defaults to the class teacher
+        assertEquals("Ann", sink.instances.get(1).getTeacher());
+        assertEquals(sink.classes.get(0).getId(), sink.instances.get(1).getYogaClassId());
+    }
+
+    @Test
+    public void json_wrappedFormAndUnknownFieldsAreAccepted() {
+        String json = "{\"version\": 1, \"exportedAt\": 123, \"yogaClasses\": [{" + CLASS_JSON
+                + ", \"difficulty\": {\"level\": 2}}]}";
+
+        ImportResult result = importString(json, CatalogFormat.Type.JSON, 500);
+
+        assertTrue(result.isComplete());
+        assertEquals(1, result.getClassesImported());
+    }
+
+    @Test
+    public void json_instancesBeforeClassFieldsStillBelongToTheClass() {
+        String json = "[{\"classInstances\": [{\"date\": \"2024-01-01\"}], " + CLASS_JSON + "}]";
+
+        ImportResult result = importString(json, CatalogFormat.Type.JSON, 500);
+
+        assertEquals(1, result.getClassesImported());
+        assertEquals(1, result.getInstancesImported());
+    }
+
+    @Test
+    public void invalidRows_areReportedAndSkipped() {
+        String json = "[{" + CLASS_JSON.replace("10:00", "25:00") + ", \"classInstances\": [{\"date\": \"2024-01-01\"}]},"
+                + "{" + CLASS_JSON + ", \"classInstances\": [{\"date\": \"01/02/2024\"}, {\"date\": \"2024-02-30\"},"
+                + " {\"date\": \"2024-03-01\"}]}]";
+
+        ImportResult result = importString(json, CatalogFormat.Type.JSON, 500);
+
+        assertTrue(result.isComplete());
+        assertEquals(1, result.getClassesImported());
+        assertEquals(1, result.getInstancesImported());
+        // Bad class, its instance, and two bad dates
+        assertEquals(4, result.getRejectedRows());
+        assertEquals(1, result.getErrors().get(0).recordNumber);
+        assertTrue(result.getErrors().get(0).message.contains("time"));
+    }
+
+    @Test
+    public void csv_importsQuotedFieldsAndInstanceRows() {
+        String csv = CSV_HEADER
+                + "class,Tuesday,07:30,15,45,8,Aerial Yoga,\"Smith, Jo\",\"Line one\nline \"\"two\"\"\",Mat,,\r\n"
+                + "instance,,,,,,,,,,2024-01-02,First\n"
+                + "instance,,,,,,,Cover,,,2024-01-09,\n"
+                + "\n"
+                + "class,Funday,07:30,15,45,8,Aerial Yoga,Jo,,,,\n"
+                + "instance,,,,,,,,,,2024-01-03,Orphan\n";
+
+        ImportResult result = importString(csv, CatalogFormat.Type.CSV, 500);
+
+        assertTrue(result.isComplete());
+        assertEquals(1, result.getClassesImported());
+        assertEquals(2, result.getInstancesImported());
+        assertEquals(2, result.getRejectedRows());
+        YogaClass yogaClass = sink.classes.get(0);
+        assertEquals("Smith, Jo", yogaClass.getTeacher());
+        assertEquals("Line one\nline \"two\"", yogaClass.getDescription());
+        assertEquals("Cover", sink.instances.get(1).getTeacher());
+        // Errors point at the line the record starts on
+        assertEquals(7, result.getErrors().get(0).recordNumber);
+    }
+
+    @Test
+    public void csv_withoutRecordColumn_treatsEveryRowAsClass() {
+        String csv = "DAYOFWEEK,courseTime,capacity,duration,pricePerClass,classType,teacher\n"
+                + "Monday,10:00,20,60,10,Flow Yoga,Ann\n"
+                + "Sunday,18:00,20,60,10,Family Yoga,Bea\n";
+
+        ImportResult result = importString(csv, CatalogFormat.Type.CSV, 500);
+
+        assertEquals(2, result.getClassesImported());
+    }
+
+    @Test
+    public void largeClass_isSplitAcrossBatches() {
+        StringBuilder csv = new StringBuilder(CSV_HEADER).append(CSV_CLASS);
+        for (int i = 0; i < 25; i++) {
+            csv.append("instance,,,,,,,,,,2024-01-01,\n");
+        }
+
+        ImportResult result = importString(csv.toString(), CatalogFormat.Type.CSV, 10);
+
+        assertEquals(26 / 10 + 1, sink.batches);
+        assertEquals(25, result.getInstancesImported());
+        for (ClassInstance instance : sink.instances) {
+            assertEquals(sink.classes.get(0).getId(), instance.getYogaClassId());
+        }
+    }
+
+    @Test
+    public void hugeFile_keepsBatchesAndErrorsBounded() {
+        final int rows = 200_000;
+        // Generated on the fly: the file never exists in memory as a whole
+        InputStream in = new GeneratedCsv(rows);
+        sink.keepRows = false;
+
+        ImportResult result = new CatalogImporter(sink, 500).importFrom(in, -1, CatalogFormat.Type.CSV, null);
+
+        assertTrue(result.isComplete());
+        assertEquals(rows / 2, result.getClassesImported());
+        assertEquals(rows / 4, result.getInstancesImported());
+        assertEquals(rows / 4, result.getRejectedRows());
+        assertEquals(ImportResult.MAX_REPORTED_ERRORS, result.getErrors().size());
+        assertTrue(sink.largestBatch <= 500);
+    }
+
+    @Test
+    public void validateOnly_countsAndRejectsLikeARealImport() {
+        StringBuilder csv = new StringBuilder(CSV_HEADER);
+        for (int i = 0; i < 30; i++) {
+            csv.append(i % 10 == 0 ? CSV_CLASS.replace("10:00", "25:00") : CSV_CLASS);
+            csv.append("instance,,,,,,,,,,2024-01-01,\n").append("instance,,,,,,,,,,someday,\n");
+        }
+
+        ImportResult imported = importString(csv.toString(), CatalogFormat.Type.CSV, 10);
+        ImportResult checked = new CatalogImporter(CatalogImporter.validateOnly(), 10)
+                .importFrom(stream(csv.toString()), csv.length(), CatalogFormat.Type.CSV, null);
+
+        assertTrue(checked.isComplete());
+        assertEquals(27, checked.getClassesImported());
+        assertEquals(imported.getClassesImported(), checked.getClassesImported());
+        assertEquals(imported.getInstancesImported(), checked.getInstancesImported());
+        assertEquals(imported.getRejectedRows(), checked.getRejectedRows());
+    }
+
+    @Test
+    public void failedBatch_stopsImportAndKeepsEarlierBatches() {
+        StringBuilder csv = new StringBuilder(CSV_HEADER);
+        for (int i = 0; i < 30; i++) {
+            csv.append(CSV_CLASS);
+        }
+        sink.failOnBatch = 2;
+
+        ImportResult result = importString(csv.toString(), CatalogFormat.Type.CSV, 10);
+
+        assertFalse(result.isComplete());
+        assertNotNull(result.getFailure());
+        assertEquals(10, result.getClassesImported());
+    }
+
+    @Test
+    public void malformedJson_reportsFailure() {
+        ImportResult result = importString("[{" + CLASS_JSON + "}, {\"dayOfWeek\": ", CatalogFormat.Type.JSON, 500);
+
+        assertNotNull(result.getFailure());
+        assertEquals(1, result.getClassesImported());
+    }
+
+    @Test
+    public void cancel_stopsAtNextRecord() {
+        StringBuilder csv = new StringBuilder(CSV_HEADER);
+        for (int i = 0; i < 100; i++) {
+            csv.append(CSV_CLASS);
+        }
+        CatalogImporter importer = new CatalogImporter(sink, 10);
+        List<Integer> progress = new ArrayList<>();
+
+        ImportResult result = importer.importFrom(stream(csv.toString()), -1, CatalogFormat.Type.CSV,
+                (bytesRead, totalBytes, classes, instances, rejected) -> {
+                    progress.add(classes);
+                    if (classes >= 20) {
+                        importer.cancel();
+                    }
+                });
+
+        assertTrue(result.isCancelled());
+        assertEquals(20, result.getClassesImported());
+        assertEquals(20, (int) progress.get(progress.size() - 1));
+    }
+
+    @Test
+    public void gzipBackup_isRecognisedByHeader() throws IOException {
+        String json = "{\"version\": 1, \"yogaClasses\": [{" + CLASS_JSON
+                + ", \"classInstances\": [{\"date\": 1704067200000, \"comments\": \"New year\"}]}]}";
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+
+        ImportResult result = new CatalogImporter(sink).importFrom(
+                new ByteArrayInputStream(compressed.toByteArray()), compressed.size(), CatalogFormat.Type.JSON, null);
+
+        assertTrue(result.isComplete());
+        assertEquals(1, result.getClassesImported());
+        assertEquals(1, result.getInstancesImported());
+        assertEquals(1704067200000L, sink.instances.get(0).getDate().getTime());
+        assertEquals("New year", sink.instances.get(0).getComments());
+    }
+
+    @Test
+    public void fromFileName_ignoresGzipSuffix() {
+        assertEquals(CatalogFormat.Type.CSV, CatalogFormat.Type.fromFileName("classes.CSV.gz"));
+        assertEquals(CatalogFormat.Type.JSON, CatalogFormat.Type.fromFileName("backup.json.gz"));
+        assertEquals(CatalogFormat.Type.JSON, CatalogFormat.Type.fromFileName(null));
+    }
+
+    private ImportResult importString(String content, CatalogFormat.Type type, int batchSize) {
+        return new CatalogImporter(sink, batchSize).importFrom(stream(content), content.length(), type, null);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Stands in for DatabaseHelper.insertYogaClassesWithInstances
+    private static class FakeSink implements CatalogImporter.Sink {
+        final List<YogaClass> classes = new ArrayList<>();
+        final List<ClassInstance> instances = new ArrayList<>();
+        boolean keepRows = true;
+        int batches;
+        int largestBatch;
+        int failOnBatch = -1;
+        private long nextId = 1;
+
+        @Override
+        public boolean write(List<YogaClass> newClasses, List<ClassInstance> moreInstances) {
+            batches++;
+            if (batches == failOnBatch) {
+                return false;
+            }
+            int rows = newClasses.size() + moreInstances.size();
+            for (YogaClass yogaClass : newClasses) {
+                yogaClass.setId(nextId++);
+                rows += yogaClass.getClassInstances().size();
+                for (ClassInstance instance : yogaClass.getClassInstances()) {
+                    instance.setYogaClassId(yogaClass.getId());
+                    if (keepRows) {
+                        instances.add(instance);
+                    }
+                }
+                if (keepRows) {
+                    classes.add(yogaClass);
+                }
+            }
+            if (keepRows) {
+                instances.addAll(moreInstances);
+            }
+            largestBatch = Math.max(largestBatch, rows);
+            return true;
+        }
+    }
+
+    // CSV of alternating class rows and instance rows, half of the instances invalid, produced while read
+    private static class GeneratedCsv extends InputStream {
+        private final int rows;
+        private int row = -1;
+        private byte[] line = CSV_HEADER.getBytes(StandardCharsets.UTF_8);
+        private int position;
+
+        GeneratedCsv(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length) {
+                row++;
+                if (row >= rows) {
+                    return -1;
+                }
+                String text = row % 2 == 0 ? CSV_CLASS
+                        : row % 4 == 1 ? "instance,,,,,,,,,,2024-01-01,ok\n" : "instance,,,,,,,,,,bad,\n";
+                line = text.getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return line[position++];
+        }
+    }
+}
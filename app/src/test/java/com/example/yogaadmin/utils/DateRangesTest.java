@@ -0,0 +1,70 @@
+package com.example.yogaadmin.utils;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Period boundaries of DateRanges, including a daylight-saving change.
+ */
+public class DateRangesTest {
+    private static final TimeZone LONDON = TimeZone.getTimeZone("Europe/London");
+
+    @Test
+    public void day_runsFromMidnightToMidnight() throws ParseException {
+        long[] range = DateRanges.containing(DateRanges.Period.DAY, at("2024-03-06 15:30"), LONDON);
+
+        assertEquals(at("2024-03-06 00:00"), range[0]);
+        assertEquals(at("2024-03-07 00:00"), range[1]);
+    }
+
+    @Test
+    public void week_startsOnMonday() throws ParseException {
+        // Wednesday and the following Sunday are in the same week
+        long[] wednesday = DateRanges.containing(DateRanges.Period.WEEK, at("2024-03-06 09:00"), LONDON);
+        long[] sunday = DateRanges.containing(DateRanges.Period.WEEK, at("2024-03-10 23:59"), LONDON);
+
+        assertEquals(at("2024-03-04 00:00"), wednesday[0]);
+        assertEquals(at("2024-03-11 00:00"), wednesday[1]);
+        assertArrayEquals(wednesday, sunday);
+    }
+
+    @Test
+    public void week_acrossClockChange_isOneHourShort() throws ParseException {
+        // Clocks went forward on Sunday 31 March 2024
+        long[] range = DateRanges.containing(DateRanges.Period.WEEK, at("2024-03-28 12:00"), LONDON);
+
+        assertEquals(at("2024-03-25 00:00"), range[0]);
+        assertEquals(at("2024-04-01 00:00"), range[1]);
+        assertEquals(7 * 24 - 1, (range[1] - range[0]) / 3_600_000);
+    }
+
+    @Test
+    public void month_coversWholeCalendarMonth() throws ParseException {
+        long[] range = DateRanges.containing(DateRanges.Period.MONTH, at("2024-02-29 10:00"), LONDON);
+
+        assertEquals(at("2024-02-01 00:00"), range[0]);
+        assertEquals(at("2024-03-01 00:00"), range[1]);
+    }
+
+    @Test
+    public void shift_movesByWholePeriods() throws ParseException {
+        long now = at("2024-01-03 10:00");
+
+        assertEquals(at("2023-12-25 00:00"), DateRanges.shift(DateRanges.Period.WEEK, now, -1, LONDON)[0]);
+        assertEquals(at("2024-01-08 00:00"), DateRanges.shift(DateRanges.Period.WEEK, now, 1, LONDON)[0]);
+        assertEquals(at("2024-03-01 00:00"), DateRanges.shift(DateRanges.Period.MONTH, now, 2, LONDON)[0]);
+        assertEquals(at("2024-01-02 00:00"), DateRanges.shift(DateRanges.Period.DAY, now, -1, LONDON)[0]);
+    }
+
+    private static long at(String text) throws ParseException {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.US);
+        format.setTimeZone(LONDON);
+        return format.parse(text).getTime();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.yogaadmin.utils;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.YogaClass;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Dates and skipping of RecurrenceGenerator. RecurringScheduleBenchmark times
+ * a year of instances on a device.
+ */
+public class RecurrenceGeneratorTest {
+    private static final TimeZone LONDON = TimeZone.getTimeZone("Europe/London");
+
+    @Test
+    public void generateCount_startsOnNextClassDayAtClassTime() throws ParseException {
+        // 2024-03-06 is a Wednesday; the class runs on Fridays at 18:30
+        List<ClassInstance> instances = new RecurrenceGenerator(LONDON)
+                .generateCount(yogaClass(7, "Friday", "18:30"), at("2024-03-06 09:00"), 3);
+
+        assertEquals(3, instances.size());
+        assertEquals(at("2024-03-08 18:30"), instances.get(0).getDate().getTime());
+        assertEquals(at("2024-03-15 18:30"), instances.get(1).getDate().getTime());
+        assertEquals(at("2024-03-22 18:30"), instances.get(2).getDate().getTime());
+        assertEquals(7, instances.get(0).getYogaClassId());
+        assertEquals("Ann", instances.get(0).getTeacher());
+    }
+
+    @Test
+    public void startDayItselfCountsWhenItIsTheClassDay() throws ParseException {
+        List<ClassInstance> instances = new RecurrenceGenerator(LONDON)
+                .generateCount(yogaClass(1, "Wednesday", "07:00"), at("2024-03-06 21:00"), 1);
+
+        assertEquals(at("2024-03-06 07:00"), instances.get(0).getDate().getTime());
+    }
+
+    @Test
+    public void keepsWallClockTimeAcrossClockChange() throws ParseException {
+        // Clocks went forward on Sunday 31 March 2024
+        List<ClassInstance> instances = new RecurrenceGenerator(LONDON)
+                .generateCount(yogaClass(1, "Monday", "10:00"), at("2024-03-25 00:00"), 2);
+
+        assertEquals(at("2024-03-25 10:00"), instances.get(0).getDate().getTime());
+        assertEquals(at("2024-04-01 10:00"), instances.get(1).getDate().getTime());
+    }
+
+    @Test
+    public void skippedDatesAreLeftOutAndDontCount() throws ParseException {
+        List<ClassInstance> instances = new RecurrenceGenerator(LONDON)
+                .skip(at("2024-12-25 00:00"))
+                .skip(at("2025-01-01 23:59"))
+                .teacher("Cover")
+                .generateCount(yogaClass(1, "Wednesday", "10:00"), at("2024-12-18 00:00"), 3);
+
+        assertEquals(3, instances.size());
+        assertEquals(at("2024-12-18 10:00"), instances.get(0).getDate().getTime());
+        assertEquals(at("2025-01-08 10:00"), instances.get(1).getDate().getTime());
+        assertEquals(at("2025-01-15 10:00"), instances.get(2).getDate().getTime());
+        assertEquals("Cover", instances.get(0).getTeacher());
+    }
+
+    @Test
+    public void generateUntil_endIsExclusive() throws ParseException {
+        YogaClass yogaClass = yogaClass(1, "Monday", "10:00");
+        RecurrenceGenerator generator = new RecurrenceGenerator(LONDON);
+
+        assertEquals(4, generator.generateUntil(yogaClass, at("2024-03-04 00:00"), at("2024-04-01 10:00")).size());
+        assertEquals(5, generator.generateUntil(yogaClass, at("2024-03-04 00:00"), at("2024-04-01 10:01")).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownDay_isRejected() {
+        new RecurrenceGenerator(LONDON).generateCount(yogaClass(1, "Funday", "10:00"), 0, 1);
+    }
+
+    @Test
+    public void calendarDayOf_mapsDayNames() {
+        assertEquals(Calendar.MONDAY, RecurrenceGenerator.calendarDayOf("Monday"));
+        assertEquals(Calendar.SATURDAY, RecurrenceGenerator.calendarDayOf("saturday"));
+        assertEquals(Calendar.SUNDAY, RecurrenceGenerator.calendarDayOf("Sunday"));
+        assertEquals(-1, RecurrenceGenerator.calendarDayOf(null));
+    }
+
+    @Test
+    public void yearFor200Classes_isOnePerWeekLessSkippedDates() throws ParseException {
+        String[] days = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
+        List<YogaClass> classes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            classes.add(yogaClass(i + 1, days[i % days.length], String.format(Locale.US, "%02d:00", 6 + i % 14)));
+        }
+        long from = at("2024-01-01 00:00");
+        long until = at("2025-01-01 00:00");
+        RecurrenceGenerator generator = new RecurrenceGenerator(LONDON).skip(at("2024-12-25 00:00"));
+
+        int total = 0;
+        for (YogaClass yogaClass : classes) {
+            total += generator.generateUntil(yogaClass, from, until).size();
+        }
+
+        // 2024 has 53 Mondays and Tuesdays, and Christmas Day falls on a Wednesday
+        assertEquals(29 * 53 + 29 * 53 + 29 * 51 + 29 * 52 + 28 * 52 * 3, total);
+    }
+
+    private static YogaClass yogaClass(long id, String dayOfWeek, String courseTime) {
+        YogaClass yogaClass = new YogaClass();
+        yogaClass.setId(id);
+        yogaClass.setDayOfWeek(dayOfWeek);
+        yogaClass.setCourseTime(courseTime);
+        yogaClass.setTeacher("Ann");
+        return yogaClass;
+    }
+
+    private static long at(String text) throws ParseException {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.US);
+        format.setTimeZone(LONDON);
+        return format.parse(text).getTime();
+    }
+}
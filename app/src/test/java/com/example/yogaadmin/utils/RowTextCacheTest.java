@@ -0,0 +1,116 @@
+package com.example.yogaadmin.utils;
+
+import com.example.yogaadmin.models.ClassInstance;
+import com.example.yogaadmin.models.YogaClass;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Memoization and allocation behaviour of RowTextCache and DateLabels.
+ */
+public class RowTextCacheTest {
+    private static final TimeZone LONDON = TimeZone.getTimeZone("Europe/London");
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final long START_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+
+    @Test
+    public void preparedRows_areNotFormattedAgain() {
+        AtomicInteger formatted = new AtomicInteger();
+        RowTextCache<YogaClass, String> cache = new RowTextCache<>(yogaClass -> {
+            formatted.incrementAndGet();
+            return "Teacher: " + yogaClass.getTeacher();
+        });
+        List<YogaClass> rows = yogaClasses(3);
+
+        cache.prepare(rows);
+        cache.prepare(rows);
+        assertEquals("Teacher: Teacher 1", cache.get(rows.get(1)));
+
+        assertEquals(3, formatted.get());
+    }
+
+    @Test
+    public void editedRow_isANewObjectAndGetsNewText() {
+        RowTextCache<YogaClass, String> cache = new RowTextCache<>(YogaClass::getTeacher);
+        YogaClass original = yogaClasses(1).get(0);
+        assertEquals("Teacher 0", cache.get(original));
+
+        YogaClass edited = yogaClasses(1).get(0);
+        edited.setTeacher("Cover");
+
+        assertEquals("Cover", cache.get(edited));
+        assertEquals("Teacher 0", cache.get(original));
+    }
+
+    @Test
+    public void dateLabels_formatEachDayOnce() {
+        DateLabels labels = new DateLabels("EEE, MMM d, yyyy", Locale.US, LONDON);
+
+        String morning = labels.format(new Date(START_MILLIS + 9 * 60 * 60 * 1000));
+        String evening = labels.format(new Date(START_MILLIS + 23 * 60 * 60 * 1000));
+        String nextDay = labels.format(new Date(START_MILLIS + DAY_MILLIS));
+
+        assertEquals("Mon, Jan 1, 2024", morning);
+        assertSame(morning, evening);
+        assertEquals("Tue, Jan 2, 2024", nextDay);
+    }
+
+    @Test
+    public void bindLoopOver10000Rows_allocatesNothing() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        DateLabels labels = new DateLabels("EEE, MMM d, yyyy", Locale.US, LONDON);
+        RowTextCache<ClassInstance, String> cache = new RowTextCache<>(instance -> labels.format(instance.getDate()));
+        List<ClassInstance> rows = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            rows.add(new ClassInstance(i % 200 + 1, new Date(START_MILLIS + (i / 200) * 7 * DAY_MILLIS),
+                    "Teacher " + i % 50, null));
+        }
+        cache.prepare(rows);
+        // Warm up so the measured pass runs compiled code
+        int length = 0;
+        for (int pass = 0; pass < 20; pass++) {
+            length += bind(cache, rows);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        length += bind(cache, rows);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(length > 0);
+        // A few bytes of slack for the measurement itself; formatting a single row costs far more
+        assertTrue("Allocated " + allocated + " bytes", allocated < 1024);
+        assertEquals(rows.size(), cache.size());
+    }
+
+    // What onBindViewHolder does per row, minus the TextView
+    private static int bind(RowTextCache<ClassInstance, String> cache, List<ClassInstance> rows) {
+        int length = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            length += cache.get(rows.get(i)).length();
+        }
+        return length;
+    }
+
+    private static List<YogaClass> yogaClasses(int count) {
+        List<YogaClass> yogaClasses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            YogaClass yogaClass = new YogaClass();
+            yogaClass.setId(i + 1);
+            yogaClass.setTeacher("Teacher " + i);
+            yogaClasses.add(yogaClass);
+        }
+        return yogaClasses;
+    }
+}